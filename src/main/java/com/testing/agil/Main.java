@@ -1,12 +1,38 @@
 package com.testing.agil;
 
+import com.testing.agil.busqueda.IndiceAutocompletado;
+import com.testing.agil.busqueda.IndiceDifuso;
+import com.testing.agil.cli.EjecutorLote;
+import com.testing.agil.cli.ResumenLote;
+import com.testing.agil.http.PruebaCarga;
+import com.testing.agil.http.ResultadoPruebaCarga;
+import com.testing.agil.http.ServidorHttp;
+import com.testing.agil.metrics.Instrumentacion;
+import com.testing.agil.metrics.Metricas;
+import com.testing.agil.metrics.RegistroMetricas;
 import com.testing.agil.model.Usuario;
+import com.testing.agil.repository.GestorTransacciones;
+import com.testing.agil.repository.MascotaRepository;
+import com.testing.agil.repository.MascotaRepositoryImpl;
 import com.testing.agil.repository.UsuarioRepository;
 import com.testing.agil.repository.UsuarioRepositoryImpl;
+import com.testing.agil.service.BusquedaMascotasService;
+import com.testing.agil.service.BusquedaMascotasServiceImpl;
+import com.testing.agil.service.MascotaService;
+import com.testing.agil.service.MascotaServiceImpl;
 import com.testing.agil.service.UsuarioService;
 import com.testing.agil.service.UsuarioServiceImpl;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
 import java.util.Scanner;
 
 /**
@@ -19,6 +45,17 @@ public class Main {
     private static UsuarioService usuarioService;
     
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--lote")) {
+            System.exit(ejecutarLote(args));
+        }
+        if (args.length > 0 && args[0].equals("--servidor")) {
+            iniciarServidor(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--prueba-carga")) {
+            System.exit(ejecutarPruebaCarga(args));
+        }
+
         System.out.println("=== PORTAFOLIO CRUD CON TDD ===");
         System.out.println("Testing Ágil + Automatización de Pruebas");
         System.out.println("=====================================\n");
@@ -34,8 +71,7 @@ public class Main {
     
     private static void inicializarServicios() {
         try {
-            UsuarioRepository usuarioRepository = new UsuarioRepositoryImpl();
-            usuarioService = new UsuarioServiceImpl(usuarioRepository);
+            usuarioService = new Dependencias(true).usuarioService;
             System.out.println("✅ Servicios inicializados correctamente");
         } catch (Exception e) {
             System.err.println("❌ Error al inicializar servicios: " + e.getMessage());
@@ -43,6 +79,149 @@ public class Main {
         }
     }
     
+    /**
+     * Repositorios y servicios instrumentados, comunes a todos los modos:
+     * métricas visibles por JMX y en la opción 10 del menú
+     *
+     * Los filtros de Bloom de emails solo se activan en los modos de larga duración (menú y
+     * servidor). Suponen que ese proceso es el único que escribe en la base: un --lote u otro
+     * proceso que escriba en ella mientras tanto deja los filtros desactualizados, y hay que
+     * reiniciar el menú o el servidor para recargarlos.
+     */
+    private static final class Dependencias {
+        
+        private final MascotaRepository mascotaRepository;
+        private final MascotaService mascotaService;
+        private final UsuarioRepository usuarioRepository;
+        private final UsuarioService usuarioService;
+        
+        /**
+         * @param filtrosEmail true solo si el proceso vive lo bastante para amortizar la carga
+         *                     de los filtros y es el único escritor de la base
+         */
+        Dependencias(boolean filtrosEmail) {
+            UsuarioRepositoryImpl usuarioRepositoryImpl = new UsuarioRepositoryImpl();
+            MascotaRepositoryImpl mascotaRepositoryImpl = new MascotaRepositoryImpl();
+            if (filtrosEmail) {
+                usuarioRepositoryImpl.activarFiltroEmails();
+                mascotaRepositoryImpl.activarFiltroEmails();
+            }
+            usuarioRepository = Instrumentacion.envolver(
+                    UsuarioRepository.class, usuarioRepositoryImpl);
+            usuarioService = Instrumentacion.envolver(
+                    UsuarioService.class, new UsuarioServiceImpl(usuarioRepository));
+            mascotaRepository = Instrumentacion.envolver(
+                    MascotaRepository.class, mascotaRepositoryImpl);
+            mascotaService = Instrumentacion.envolver(
+                    MascotaService.class, new MascotaServiceImpl(mascotaRepository));
+            Metricas.registrarEnJmx();
+        }
+        
+        /**
+         * Carga los índices de búsqueda y los registra como escuchas del repositorio
+         * Solo para procesos de larga duración: la carga recorre la tabla entera.
+         */
+        BusquedaMascotasService iniciarBusqueda() {
+            IndiceAutocompletado autocompletado = new IndiceAutocompletado(mascotaRepository);
+            IndiceDifuso difuso = new IndiceDifuso(mascotaRepository);
+            autocompletado.iniciar();
+            difuso.iniciar();
+            return Instrumentacion.envolver(
+                    BusquedaMascotasService.class, new BusquedaMascotasServiceImpl(autocompletado, difuso));
+        }
+    }
+    
+    /**
+     * Modo no interactivo: --lote <archivo|-> [--operaciones-por-transaccion N]
+     * Con "-" lee de la entrada estándar. El formato está en {@link EjecutorLote}.
+     * Para que cada transacción cubra usuarios y mascotas a la vez, usar -Dsqlite.db.unica=true.
+     * @return código de salida: 0 si todo se aplicó, 1 si algo se rechazó o deshizo, 2 si los argumentos no son válidos
+     */
+    private static int ejecutarLote(String[] args) {
+        int operacionesPorTransaccion = EjecutorLote.OPERACIONES_POR_TRANSACCION_POR_DEFECTO;
+        if (args.length == 4 && args[2].equals("--operaciones-por-transaccion")) {
+            try {
+                operacionesPorTransaccion = Integer.parseInt(args[3]);
+            } catch (NumberFormatException e) {
+                operacionesPorTransaccion = 0;
+            }
+        } else if (args.length != 2) {
+            operacionesPorTransaccion = 0;
+        }
+        if (operacionesPorTransaccion <= 0) {
+            System.err.println("Uso: --lote <archivo|-> [--operaciones-por-transaccion N]");
+            return 2;
+        }
+
+        // Proceso corto que puede correr junto a un servidor sobre la misma base: sin filtros de emails
+        Dependencias dependencias = new Dependencias(false);
+        EjecutorLote ejecutor = new EjecutorLote(dependencias.usuarioService, dependencias.mascotaService,
+                dependencias.mascotaRepository, new GestorTransacciones(), operacionesPorTransaccion);
+
+        ResumenLote resumen;
+        try (BufferedReader entrada = args[1].equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(args[1]), StandardCharsets.UTF_8)) {
+            resumen = ejecutor.ejecutar(entrada);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("❌ Error al ejecutar el lote: " + e.getMessage());
+            return 1;
+        }
+        resumen.imprimir(System.out);
+        return resumen.tieneErrores() ? 1 : 0;
+    }
+
+    /**
+     * Modo servidor: --servidor [puerto]
+     * La API HTTP queda escuchando hasta que se detiene el proceso. Debe ser el único proceso
+     * que escribe en la base (ver {@link Dependencias}); tras un --lote sobre ella, reiniciarlo.
+     */
+    private static void iniciarServidor(String[] args) {
+        int puerto = ServidorHttp.PUERTO_POR_DEFECTO;
+        if (args.length > 1) {
+            try {
+                puerto = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                System.err.println("Uso: --servidor [puerto]");
+                System.exit(2);
+            }
+        }
+        Dependencias dependencias = new Dependencias(true);
+        ServidorHttp servidor = new ServidorHttp(dependencias.mascotaService, dependencias.usuarioService,
+                dependencias.iniciarBusqueda(), dependencias.mascotaRepository, dependencias.usuarioRepository,
+                new InetSocketAddress(puerto));
+        servidor.iniciar();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> servidor.detener(2)));
+        System.out.println("✅ API HTTP escuchando en http://localhost:" + servidor.getPuerto());
+    }
+
+    /**
+     * Modo prueba de carga: --prueba-carga <url-base> [clientes] [peticiones-por-cliente] [ruta...]
+     * Sin rutas, alterna el listado de mascotas y el de usuarios.
+     * @return 0 si no hubo errores, 1 si alguna petición falló, 2 si los argumentos no son válidos
+     */
+    private static int ejecutarPruebaCarga(String[] args) {
+        PruebaCarga prueba;
+        try {
+            if (args.length < 2) {
+                throw new IllegalArgumentException("Falta la URL base");
+            }
+            int clientes = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+            int peticiones = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+            List<String> rutas = args.length > 4
+                    ? List.of(args).subList(4, args.length)
+                    : List.of("/mascotas?limite=100", "/usuarios?activos=true");
+            prueba = new PruebaCarga(URI.create(args[1]), rutas, clientes, peticiones);
+        } catch (IllegalArgumentException e) {
+            System.err.println("❌ " + e.getMessage());
+            System.err.println("Uso: --prueba-carga <url-base> [clientes] [peticiones-por-cliente] [ruta...]");
+            return 2;
+        }
+        ResultadoPruebaCarga resultado = prueba.ejecutar();
+        resultado.imprimir(System.out);
+        return resultado.getErrores() > 0 ? 1 : 0;
+    }
+
     private static void mostrarMenu() {
         int opcion;
         
@@ -57,6 +236,7 @@ public class Main {
             System.out.println("7. Eliminar usuario (físico)");
             System.out.println("8. Contar usuarios");
             System.out.println("9. Listar usuarios activos");
+            System.out.println("10. Ver métricas de rendimiento");
             System.out.println("0. Salir");
             System.out.print("Seleccione una opción: ");
             
@@ -100,6 +280,9 @@ public class Main {
                 case 9:
                     listarUsuariosActivos();
                     break;
+                case 10:
+                    mostrarMetricas();
+                    break;
                 case 0:
                     break;
                 default:
@@ -168,7 +351,8 @@ public class Main {
         Long id = scanner.nextLong();
         scanner.nextLine();
         
-        if (usuarioService.buscarUsuarioPorId(id).isEmpty()) {
+        Optional<Usuario> usuarioExistente = usuarioService.buscarUsuarioPorId(id);
+        if (usuarioExistente.isEmpty()) {
             System.out.println("❌ Usuario no encontrado");
             return;
         }
@@ -182,6 +366,7 @@ public class Main {
         scanner.nextLine();
         
         Usuario usuarioActualizado = new Usuario(nombre, email, edad);
+        usuarioActualizado.setVersion(usuarioExistente.get().getVersion());
         Usuario resultado = usuarioService.actualizarUsuario(id, usuarioActualizado);
         
         System.out.println("✅ Usuario actualizado: " + resultado);
@@ -236,4 +421,9 @@ public class Main {
             usuarios.forEach(System.out::println);
         }
     }
+    
+    private static void mostrarMetricas() {
+        System.out.println("\n--- Métricas de Rendimiento ---");
+        System.out.print(RegistroMetricas.global().volcarTexto());
+    }
 }
@@ -0,0 +1,66 @@
+package com.testing.agil.analitica;
+
+import com.testing.agil.repository.FiltroMascotas;
+import com.testing.agil.repository.MascotaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+
+/**
+ * Copia en memoria, columnar y fuera del heap, de la tabla de mascotas para análisis
+ *
+ * {@link #refrescar()} recorre la tabla con un cursor y llena columnas primitivas en
+ * buffers directos; especie, raza y color se guardan como códigos de diccionario.
+ * La carga nueva reemplaza a la anterior de forma atómica: las consultas en curso
+ * siguen viendo la carga con la que empezaron.
+ *
+ * Los datos son los del último refresco; quien necesite exactitud al instante debe
+ * consultar el repositorio.
+ */
+public class AlmacenColumnarMascotas {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlmacenColumnarMascotas.class);
+
+    private final MascotaRepository mascotaRepository;
+    private volatile Columnas columnas = Columnas.VACIA;
+    private volatile Instant ultimoRefresco;
+
+    public AlmacenColumnarMascotas(MascotaRepository mascotaRepository) {
+        if (mascotaRepository == null) {
+            throw new IllegalArgumentException("El repositorio de mascotas no puede ser nulo");
+        }
+        this.mascotaRepository = mascotaRepository;
+    }
+
+    /**
+     * Vuelve a cargar todas las mascotas (activas y dadas de baja) desde la base de datos
+     */
+    public synchronized void refrescar() {
+        long inicio = System.nanoTime();
+        Columnas.Constructor constructor = new Columnas.Constructor();
+        mascotaRepository.recorrer(FiltroMascotas.todas(), constructor::agregar);
+        columnas = constructor.construir();
+        ultimoRefresco = Instant.now();
+        logger.info("Almacén columnar refrescado: {} mascotas en {} ms", columnas.filas,
+                (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * @return consulta que empieza con todas las filas de la carga actual seleccionadas
+     */
+    public ConsultaColumnar consulta() {
+        return new ConsultaColumnar(columnas);
+    }
+
+    public int getFilas() {
+        return columnas.filas;
+    }
+
+    /**
+     * @return momento del último refresco, o null si aún no se ha cargado
+     */
+    public Instant getUltimoRefresco() {
+        return ultimoRefresco;
+    }
+}
@@ -0,0 +1,140 @@
+package com.testing.agil.analitica;
+
+import com.testing.agil.model.Mascota;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Columnas fuera del heap con los datos de una carga; inmutables una vez construidas
+ *
+ * Por fila: id (8 bytes), día epoch de nacimiento (4), peso (8), banderas (1) y los
+ * códigos de diccionario de especie, raza y color (4 cada uno): 33 bytes frente a
+ * los cientos que ocupa un objeto Mascota con sus cadenas.
+ */
+final class Columnas {
+
+    static final int SIN_FECHA = Integer.MIN_VALUE;
+    static final int ESTERILIZADO = 1;
+    static final int ACTIVO = 2;
+
+    private static final int CAPACIDAD_INICIAL = 1024;
+
+    static final Columnas VACIA = new Constructor().construir();
+
+    final int filas;
+    final ByteBuffer ids;
+    final ByteBuffer nacimientos;
+    final ByteBuffer pesos;
+    final ByteBuffer banderas;
+    final ByteBuffer especies;
+    final ByteBuffer razas;
+    final ByteBuffer colores;
+    final String[] valoresEspecie;
+    final String[] valoresRaza;
+    final String[] valoresColor;
+
+    private Columnas(Constructor c) {
+        this.filas = c.filas;
+        this.ids = c.ids;
+        this.nacimientos = c.nacimientos;
+        this.pesos = c.pesos;
+        this.banderas = c.banderas;
+        this.especies = c.especies;
+        this.razas = c.razas;
+        this.colores = c.colores;
+        this.valoresEspecie = c.dicEspecie.congelar();
+        this.valoresRaza = c.dicRaza.congelar();
+        this.valoresColor = c.dicColor.congelar();
+    }
+
+    long id(int fila) {
+        return ids.getLong(fila << 3);
+    }
+
+    int nacimiento(int fila) {
+        return nacimientos.getInt(fila << 2);
+    }
+
+    double peso(int fila) {
+        return pesos.getDouble(fila << 3);
+    }
+
+    int banderas(int fila) {
+        return banderas.get(fila);
+    }
+
+    int especie(int fila) {
+        return especies.getInt(fila << 2);
+    }
+
+    int raza(int fila) {
+        return razas.getInt(fila << 2);
+    }
+
+    int color(int fila) {
+        return colores.getInt(fila << 2);
+    }
+
+    /**
+     * Carga por filas; los buffers crecen al doble cuando se llenan
+     */
+    static final class Constructor {
+
+        private int filas;
+        private int capacidad = CAPACIDAD_INICIAL;
+        private ByteBuffer ids = reservar(capacidad * 8);
+        private ByteBuffer nacimientos = reservar(capacidad * 4);
+        private ByteBuffer pesos = reservar(capacidad * 8);
+        private ByteBuffer banderas = reservar(capacidad);
+        private ByteBuffer especies = reservar(capacidad * 4);
+        private ByteBuffer razas = reservar(capacidad * 4);
+        private ByteBuffer colores = reservar(capacidad * 4);
+        private final Diccionario dicEspecie = new Diccionario();
+        private final Diccionario dicRaza = new Diccionario();
+        private final Diccionario dicColor = new Diccionario();
+
+        void agregar(Mascota m) {
+            if (filas == capacidad) {
+                crecer();
+            }
+            int i = filas++;
+            ids.putLong(i << 3, m.getId());
+            nacimientos.putInt(i << 2, m.getFechaNacimiento() == null
+                    ? SIN_FECHA : (int) m.getFechaNacimiento().toEpochDay());
+            pesos.putDouble(i << 3, m.getPeso());
+            banderas.put(i, (byte) ((m.isEsterilizado() ? ESTERILIZADO : 0) | (m.isActivo() ? ACTIVO : 0)));
+            especies.putInt(i << 2, dicEspecie.codificar(m.getEspecie()));
+            razas.putInt(i << 2, dicRaza.codificar(m.getRaza()));
+            colores.putInt(i << 2, dicColor.codificar(m.getColor()));
+        }
+
+        Columnas construir() {
+            return new Columnas(this);
+        }
+
+        private void crecer() {
+            if (capacidad > Integer.MAX_VALUE / 16) {
+                throw new IllegalStateException("Demasiadas mascotas para el almacén en memoria: " + filas);
+            }
+            capacidad *= 2;
+            ids = copiar(ids, capacidad * 8);
+            nacimientos = copiar(nacimientos, capacidad * 4);
+            pesos = copiar(pesos, capacidad * 8);
+            banderas = copiar(banderas, capacidad);
+            especies = copiar(especies, capacidad * 4);
+            razas = copiar(razas, capacidad * 4);
+            colores = copiar(colores, capacidad * 4);
+        }
+
+        private static ByteBuffer reservar(int bytes) {
+            return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+        }
+
+        private static ByteBuffer copiar(ByteBuffer origen, int bytes) {
+            ByteBuffer destino = reservar(bytes);
+            destino.put(0, origen, 0, origen.capacity());
+            return destino;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.testing.agil.analitica;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.TreeMap;
+
+/**
+ * Consulta sobre una carga del {@link AlmacenColumnarMascotas}
+ *
+ * La selección es un mapa de bits con una posición por fila. Cada filtro recorre una sola
+ * columna, 64 filas por palabra, y deja en la selección solo las filas que lo cumplen;
+ * las palabras ya vacías se saltan. Los agregados recorren únicamente las filas seleccionadas.
+ * Una consulta no es segura entre hilos, pero sí lo es crear varias a la vez.
+ */
+public class ConsultaColumnar {
+
+    private final Columnas columnas;
+    private final long[] seleccion;
+
+    ConsultaColumnar(Columnas columnas) {
+        this.columnas = columnas;
+        this.seleccion = new long[(columnas.filas + 63) >>> 6];
+        Arrays.fill(seleccion, -1L);
+        int resto = columnas.filas & 63;
+        if (resto != 0) {
+            seleccion[seleccion.length - 1] = (1L << resto) - 1;
+        }
+    }
+
+    // ---- Filtros ----
+
+    public ConsultaColumnar activas() {
+        return filtrar(fila -> (columnas.banderas(fila) & Columnas.ACTIVO) != 0);
+    }
+
+    public ConsultaColumnar esterilizadas(boolean esterilizada) {
+        return filtrar(fila -> ((columnas.banderas(fila) & Columnas.ESTERILIZADO) != 0) == esterilizada);
+    }
+
+    /**
+     * @param especie sin distinguir mayúsculas
+     */
+    public ConsultaColumnar especie(String especie) {
+        boolean[] aceptados = codigosIguales(columnas.valoresEspecie, especie);
+        return filtrar(fila -> aceptados[columnas.especie(fila)]);
+    }
+
+    public ConsultaColumnar raza(String raza) {
+        boolean[] aceptados = codigosIguales(columnas.valoresRaza, raza);
+        return filtrar(fila -> aceptados[columnas.raza(fila)]);
+    }
+
+    public ConsultaColumnar color(String color) {
+        boolean[] aceptados = codigosIguales(columnas.valoresColor, color);
+        return filtrar(fila -> aceptados[columnas.color(fila)]);
+    }
+
+    /**
+     * Edad en años cumplidos, ambos extremos incluidos; excluye las mascotas sin fecha
+     */
+    public ConsultaColumnar edadEntre(int minima, int maxima) {
+        if (minima < 0 || maxima < minima) {
+            throw new IllegalArgumentException("El rango de edad no es válido: " + minima + " - " + maxima);
+        }
+        LocalDate hoy = LocalDate.now();
+        long hasta = hoy.minusYears(minima).toEpochDay();
+        long despuesDe = hoy.minusYears(maxima + 1L).toEpochDay();
+        return filtrar(fila -> {
+            int dia = columnas.nacimiento(fila);
+            return dia != Columnas.SIN_FECHA && dia <= hasta && dia > despuesDe;
+        });
+    }
+
+    /**
+     * Peso en kg, ambos extremos incluidos
+     */
+    public ConsultaColumnar pesoEntre(double minimo, double maximo) {
+        return filtrar(fila -> {
+            double peso = columnas.peso(fila);
+            return peso >= minimo && peso <= maximo;
+        });
+    }
+
+    // ---- Agregados ----
+
+    public long contar() {
+        long total = 0;
+        for (long palabra : seleccion) {
+            total += Long.bitCount(palabra);
+        }
+        return total;
+    }
+
+    public OptionalDouble pesoPromedio() {
+        double suma = 0;
+        long n = 0;
+        for (int w = 0; w < seleccion.length; w++) {
+            for (long palabra = seleccion[w]; palabra != 0; palabra &= palabra - 1) {
+                suma += columnas.peso((w << 6) + Long.numberOfTrailingZeros(palabra));
+                n++;
+            }
+        }
+        return n == 0 ? OptionalDouble.empty() : OptionalDouble.of(suma / n);
+    }
+
+    /**
+     * Percentil del peso por rango más cercano
+     * @param percentil entre 0 y 100
+     */
+    public OptionalDouble percentilPeso(double percentil) {
+        if (percentil < 0 || percentil > 100) {
+            throw new IllegalArgumentException("El percentil debe estar entre 0 y 100");
+        }
+        double[] pesos = new double[(int) contar()];
+        if (pesos.length == 0) {
+            return OptionalDouble.empty();
+        }
+        int n = 0;
+        for (int w = 0; w < seleccion.length; w++) {
+            for (long palabra = seleccion[w]; palabra != 0; palabra &= palabra - 1) {
+                pesos[n++] = columnas.peso((w << 6) + Long.numberOfTrailingZeros(palabra));
+            }
+        }
+        Arrays.sort(pesos);
+        int rango = (int) Math.ceil(percentil / 100 * pesos.length);
+        return OptionalDouble.of(pesos[Math.max(rango, 1) - 1]);
+    }
+
+    /**
+     * @return cantidad de mascotas por especie, con el texto tal como está guardado
+     */
+    public Map<String, Long> contarPorEspecie() {
+        long[] porCodigo = new long[columnas.valoresEspecie.length];
+        for (int w = 0; w < seleccion.length; w++) {
+            for (long palabra = seleccion[w]; palabra != 0; palabra &= palabra - 1) {
+                porCodigo[columnas.especie((w << 6) + Long.numberOfTrailingZeros(palabra))]++;
+            }
+        }
+        Map<String, Long> resultado = new LinkedHashMap<>();
+        for (int codigo = 0; codigo < porCodigo.length; codigo++) {
+            if (porCodigo[codigo] > 0) {
+                resultado.put(columnas.valoresEspecie[codigo], porCodigo[codigo]);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * @return cantidad de mascotas por edad en años cumplidos, ordenado por edad
+     */
+    public Map<Integer, Long> distribucionEdades() {
+        // umbrales[k] = último día de nacimiento con k años cumplidos hoy (descendente)
+        LocalDate hoy = LocalDate.now();
+        int[] umbrales = new int[8];
+        int cantidad = 0;
+        Map<Integer, Long> resultado = new TreeMap<>();
+        for (int w = 0; w < seleccion.length; w++) {
+            for (long palabra = seleccion[w]; palabra != 0; palabra &= palabra - 1) {
+                int dia = columnas.nacimiento((w << 6) + Long.numberOfTrailingZeros(palabra));
+                if (dia == Columnas.SIN_FECHA) {
+                    continue;
+                }
+                while (cantidad == 0 || umbrales[cantidad - 1] >= dia) {
+                    if (cantidad == umbrales.length) {
+                        umbrales = Arrays.copyOf(umbrales, cantidad * 2);
+                    }
+                    umbrales[cantidad] = (int) hoy.minusYears(cantidad).toEpochDay();
+                    cantidad++;
+                }
+                resultado.merge(edad(umbrales, cantidad, dia), 1L, Long::sum);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * @return IDs de las filas seleccionadas, en el orden de la carga
+     */
+    public long[] ids() {
+        long[] ids = new long[(int) contar()];
+        int n = 0;
+        for (int w = 0; w < seleccion.length; w++) {
+            for (long palabra = seleccion[w]; palabra != 0; palabra &= palabra - 1) {
+                ids[n++] = columnas.id((w << 6) + Long.numberOfTrailingZeros(palabra));
+            }
+        }
+        return ids;
+    }
+
+    // ---- Internos ----
+
+    private ConsultaColumnar filtrar(PredicadoFila predicado) {
+        for (int w = 0; w < seleccion.length; w++) {
+            long palabra = seleccion[w];
+            if (palabra == 0) {
+                continue;
+            }
+            int base = w << 6;
+            long cumple = 0;
+            for (long resto = palabra; resto != 0; resto &= resto - 1) {
+                int bit = Long.numberOfTrailingZeros(resto);
+                if (predicado.acepta(base + bit)) {
+                    cumple |= 1L << bit;
+                }
+            }
+            seleccion[w] = cumple;
+        }
+        return this;
+    }
+
+    /**
+     * Mayor k cuyo umbral sigue siendo posterior o igual al nacimiento (búsqueda binaria)
+     */
+    private static int edad(int[] umbrales, int cantidad, int dia) {
+        int bajo = 0;
+        int alto = cantidad - 1;
+        while (bajo < alto) {
+            int medio = (bajo + alto + 1) >>> 1;
+            if (umbrales[medio] >= dia) {
+                bajo = medio;
+            } else {
+                alto = medio - 1;
+            }
+        }
+        return umbrales[bajo] >= dia ? bajo : 0;
+    }
+
+    private static boolean[] codigosIguales(String[] valores, String buscado) {
+        if (buscado == null) {
+            throw new IllegalArgumentException("El valor a filtrar no puede ser nulo");
+        }
+        String normalizado = buscado.trim();
+        boolean[] aceptados = new boolean[valores.length];
+        for (int codigo = 1; codigo < valores.length; codigo++) {
+            aceptados[codigo] = valores[codigo].equalsIgnoreCase(normalizado);
+        }
+        return aceptados;
+    }
+
+    @FunctionalInterface
+    private interface PredicadoFila {
+        boolean acepta(int fila);
+    }
+}
@@ -0,0 +1,39 @@
+package com.testing.agil.analitica;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Diccionario de una columna de texto: código 0 para null, i + 1 para el valor i
+ */
+final class Diccionario {
+
+    private final Map<String, Integer> codigos = new HashMap<>();
+    private final List<String> valores = new ArrayList<>();
+
+    int codificar(String valor) {
+        if (valor == null) {
+            return 0;
+        }
+        Integer codigo = codigos.get(valor);
+        if (codigo == null) {
+            valores.add(valor);
+            codigo = valores.size();
+            codigos.put(valor, codigo);
+        }
+        return codigo;
+    }
+
+    /**
+     * @return valores por código (posición 0 = null)
+     */
+    String[] congelar() {
+        String[] resultado = new String[valores.size() + 1];
+        for (int i = 0; i < valores.size(); i++) {
+            resultado[i + 1] = valores.get(i);
+        }
+        return resultado;
+    }
+}
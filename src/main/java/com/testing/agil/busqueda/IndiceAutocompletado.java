@@ -0,0 +1,101 @@
+package com.testing.agil.busqueda;
+
+import com.testing.agil.colecciones.LongSet;
+import com.testing.agil.repository.MascotaRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Índice en memoria de prefijos sobre el nombre de las mascotas activas y el de su propietario
+ *
+ * Cada nombre normalizado (ver {@link Normalizacion}) se guarda una vez por cada palabra en
+ * que empieza, con el ID al final para que la clave sea única: "juan perez" genera
+ * "juan perez\u00001" y "perez\u00001". Buscar un prefijo es recorrer un rango de un
+ * mapa ordenado, sin tocar la base de datos.
+ *
+ * Las búsquedas no toman el cerrojo: el mapa admite lecturas concurrentes con las
+ * modificaciones (ver {@link IndiceMascotas}).
+ */
+public class IndiceAutocompletado extends IndiceMascotas<IndiceAutocompletado.Contenido> {
+
+    private static final char SEPARADOR = '\u0000';
+
+    public IndiceAutocompletado(MascotaRepository mascotaRepository) {
+        super(mascotaRepository);
+    }
+
+    @Override
+    protected Contenido nuevoContenido() {
+        return new Contenido();
+    }
+
+    /**
+     * Mascotas activas cuyo nombre o el de su propietario tiene una palabra que empieza por el texto
+     * Si el texto tiene varias palabras, deben aparecer seguidas ("juan pe" encuentra "Juan Pérez").
+     * @param texto lo tecleado hasta ahora; sin distinguir mayúsculas ni tildes
+     * @param limite máximo de sugerencias
+     * @return sugerencias en orden alfabético de la coincidencia, sin repetir mascotas
+     */
+    public List<Sugerencia> sugerir(String texto, int limite) {
+        if (limite <= 0) {
+            throw new IllegalArgumentException("El límite debe ser mayor que cero");
+        }
+        List<Sugerencia> sugerencias = new ArrayList<>(Math.min(limite, 16));
+        String prefijo = Normalizacion.normalizar(texto);
+        if (prefijo.isEmpty()) {
+            return sugerencias;
+        }
+        ConcurrentNavigableMap<String, Sugerencia> rango =
+                contenido().terminos.subMap(prefijo, true, prefijo + Character.MAX_VALUE, false);
+        LongSet vistas = new LongSet();
+        for (Sugerencia sugerencia : rango.values()) {
+            if (vistas.add(sugerencia.getId())) {
+                sugerencias.add(sugerencia);
+                if (sugerencias.size() == limite) {
+                    break;
+                }
+            }
+        }
+        return sugerencias;
+    }
+
+    static final class Contenido extends IndiceMascotas.Contenido {
+
+        private final ConcurrentSkipListMap<String, Sugerencia> terminos = new ConcurrentSkipListMap<>();
+
+        @Override
+        protected void indexar(Sugerencia sugerencia) {
+            for (String clave : claves(sugerencia)) {
+                terminos.put(clave, sugerencia);
+            }
+        }
+
+        @Override
+        protected void desindexar(Sugerencia sugerencia) {
+            for (String clave : claves(sugerencia)) {
+                terminos.remove(clave);
+            }
+        }
+
+        private static List<String> claves(Sugerencia sugerencia) {
+            List<String> claves = new ArrayList<>(4);
+            String sufijo = SEPARADOR + Long.toString(sugerencia.getId());
+            agregarPalabras(claves, Normalizacion.normalizar(sugerencia.getNombre()), sufijo);
+            agregarPalabras(claves, Normalizacion.normalizar(sugerencia.getPropietario()), sufijo);
+            return claves;
+        }
+
+        private static void agregarPalabras(List<String> claves, String texto, String sufijo) {
+            if (texto.isEmpty()) {
+                return;
+            }
+            claves.add(texto + sufijo);
+            for (int i = texto.indexOf(' '); i >= 0; i = texto.indexOf(' ', i + 1)) {
+                claves.add(texto.substring(i + 1) + sufijo);
+            }
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.testing.agil.busqueda;
+
+import com.testing.agil.colecciones.LongObjectMap;
+import com.testing.agil.colecciones.LongSet;
+import com.testing.agil.repository.MascotaRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Índice en memoria de trigramas para buscar mascotas activas con errores de escritura
+ *
+ * Cada palabra normalizada del nombre y del propietario se rodea de espacios y se parte en
+ * trigramas (" to", "tob", "oby", "by "); cada trigrama apunta a las mascotas que lo tienen.
+ * Una consulta solo visita las listas de sus propios trigramas: como cada edición destruye
+ * como mucho tres, un texto a distancia k comparte al menos |trigramas| - 3k con la consulta
+ * y el resto se descarta sin calcular distancias. Los candidatos que quedan se ordenan por
+ * distancia de Levenshtein acotada.
+ *
+ * Las búsquedas toman el cerrojo de lectura (ver {@link IndiceMascotas}).
+ */
+public class IndiceDifuso extends IndiceMascotas<IndiceDifuso.Contenido> {
+
+    private static final int N = 3;
+
+    public IndiceDifuso(MascotaRepository mascotaRepository) {
+        super(mascotaRepository);
+    }
+
+    @Override
+    protected Contenido nuevoContenido() {
+        return new Contenido();
+    }
+
+    /**
+     * Busca con la distancia máxima que corresponde a la longitud del texto
+     * @see #distanciaMaxima(int)
+     */
+    public List<Sugerencia> buscar(String texto, int limite) {
+        String consulta = Normalizacion.normalizar(texto);
+        return buscar(consulta, distanciaMaxima(consulta.length()), limite);
+    }
+
+    /**
+     * Mascotas activas cuyo nombre, propietario o alguna de sus palabras está a
+     * {@code maxDistancia} ediciones o menos del texto
+     * @param texto texto buscado; sin distinguir mayúsculas ni tildes
+     * @param maxDistancia inserciones, borrados o sustituciones admitidos
+     * @param limite máximo de resultados
+     * @return las más parecidas primero; a igual distancia, por nombre
+     */
+    public List<Sugerencia> buscar(String texto, int maxDistancia, int limite) {
+        if (limite <= 0) {
+            throw new IllegalArgumentException("El límite debe ser mayor que cero");
+        }
+        if (maxDistancia < 0) {
+            throw new IllegalArgumentException("La distancia máxima no puede ser negativa: " + maxDistancia);
+        }
+        String consulta = Normalizacion.normalizar(texto);
+        if (consulta.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return leer(c -> c.buscar(consulta, maxDistancia, limite));
+    }
+
+    /**
+     * Ediciones toleradas por defecto: ninguna hasta 3 letras, una hasta 6 y dos a partir de ahí
+     */
+    static int distanciaMaxima(int longitud) {
+        if (longitud <= 3) {
+            return 0;
+        }
+        return longitud <= 6 ? 1 : 2;
+    }
+
+    /**
+     * Distancia de Levenshtein con corte: deja de calcular en cuanto supera el máximo
+     * @return la distancia, o {@code maximo + 1} si es mayor que el máximo
+     */
+    static int distancia(String a, String b, int maximo) {
+        if (Math.abs(a.length() - b.length()) > maximo) {
+            return maximo + 1;
+        }
+        int[] anterior = new int[b.length() + 1];
+        int[] actual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            anterior[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            actual[0] = i;
+            int minimoFila = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int coste = ca == b.charAt(j - 1) ? 0 : 1;
+                actual[j] = Math.min(Math.min(actual[j - 1], anterior[j]) + 1, anterior[j - 1] + coste);
+                minimoFila = Math.min(minimoFila, actual[j]);
+            }
+            if (minimoFila > maximo) {
+                return maximo + 1;
+            }
+            int[] cambio = anterior;
+            anterior = actual;
+            actual = cambio;
+        }
+        return Math.min(anterior[b.length()], maximo + 1);
+    }
+
+    /**
+     * Trigramas distintos de cada palabra del texto normalizado, rodeada de espacios
+     */
+    static Set<String> trigramas(String normalizado, Set<String> destino) {
+        int inicio = 0;
+        while (inicio < normalizado.length()) {
+            int fin = normalizado.indexOf(' ', inicio);
+            if (fin < 0) {
+                fin = normalizado.length();
+            }
+            String palabra = ' ' + normalizado.substring(inicio, fin) + ' ';
+            for (int i = 0; i + N <= palabra.length(); i++) {
+                destino.add(palabra.substring(i, i + N));
+            }
+            inicio = fin + 1;
+        }
+        return destino;
+    }
+
+    static final class Contenido extends IndiceMascotas.Contenido {
+
+        /** Lista de un trigrama que no aparece en el índice; nunca se modifica */
+        private static final LongSet NINGUNA = new LongSet(0);
+
+        private final Map<String, LongSet> porTrigrama = new HashMap<>();
+
+        @Override
+        protected void indexar(Sugerencia sugerencia) {
+            for (String trigrama : trigramasDe(sugerencia)) {
+                porTrigrama.computeIfAbsent(trigrama, t -> new LongSet()).add(sugerencia.getId());
+            }
+        }
+
+        @Override
+        protected void desindexar(Sugerencia sugerencia) {
+            for (String trigrama : trigramasDe(sugerencia)) {
+                LongSet ids = porTrigrama.get(trigrama);
+                if (ids != null && ids.remove(sugerencia.getId()) && ids.isEmpty()) {
+                    porTrigrama.remove(trigrama);
+                }
+            }
+        }
+
+        List<Sugerencia> buscar(String consulta, int maxDistancia, int limite) {
+            List<LongSet> listas = new ArrayList<>();
+            for (String trigrama : trigramas(consulta, new LinkedHashSet<>())) {
+                listas.add(porTrigrama.getOrDefault(trigrama, NINGUNA));
+            }
+            int requeridos = Math.max(1, listas.size() - N * maxDistancia);
+            // Quien comparta 'requeridos' trigramas aparece en alguna de las listas.size() - requeridos + 1
+            // listas más cortas: solo esas admiten candidatos nuevos, las largas solo suman
+            listas.sort(Comparator.comparingInt(LongSet::size));
+            int listasQueAbren = listas.size() - requeridos + 1;
+            LongObjectMap<int[]> comunes = new LongObjectMap<>();
+            for (int i = 0; i < listas.size(); i++) {
+                boolean abre = i < listasQueAbren;
+                listas.get(i).forEach(id -> {
+                    int[] cuenta = comunes.get(id);
+                    if (cuenta != null) {
+                        cuenta[0]++;
+                    } else if (abre) {
+                        comunes.put(id, new int[]{1});
+                    }
+                });
+            }
+
+            List<Candidato> candidatos = new ArrayList<>();
+            comunes.forEach((id, cuenta) -> {
+                Sugerencia sugerencia = cuenta[0] >= requeridos ? activa(id) : null;
+                if (sugerencia != null) {
+                    int d = Math.min(
+                            distanciaACampo(consulta, Normalizacion.normalizar(sugerencia.getNombre()), maxDistancia),
+                            distanciaACampo(consulta, Normalizacion.normalizar(sugerencia.getPropietario()), maxDistancia));
+                    if (d <= maxDistancia) {
+                        candidatos.add(new Candidato(sugerencia, d));
+                    }
+                }
+            });
+            candidatos.sort(Comparator.comparingInt((Candidato c) -> c.distancia)
+                    .thenComparing(c -> c.sugerencia.getNombre())
+                    .thenComparingLong(c -> c.sugerencia.getId()));
+
+            List<Sugerencia> resultado = new ArrayList<>(Math.min(limite, candidatos.size()));
+            for (int i = 0; i < candidatos.size() && i < limite; i++) {
+                resultado.add(candidatos.get(i).sugerencia);
+            }
+            return resultado;
+        }
+
+        /**
+         * Menor distancia entre la consulta y el campo completo o cualquiera de sus palabras
+         */
+        private static int distanciaACampo(String consulta, String campo, int maximo) {
+            int mejor = distancia(consulta, campo, maximo);
+            if (campo.indexOf(' ') < 0) {
+                return mejor;
+            }
+            for (String palabra : campo.split(" ")) {
+                mejor = Math.min(mejor, distancia(consulta, palabra, maximo));
+            }
+            return mejor;
+        }
+
+        private static Set<String> trigramasDe(Sugerencia sugerencia) {
+            Set<String> trigramas = new HashSet<>();
+            trigramas(Normalizacion.normalizar(sugerencia.getNombre()), trigramas);
+            trigramas(Normalizacion.normalizar(sugerencia.getPropietario()), trigramas);
+            return trigramas;
+        }
+    }
+
+    private static final class Candidato {
+
+        private final Sugerencia sugerencia;
+        private final int distancia;
+
+        Candidato(Sugerencia sugerencia, int distancia) {
+            this.sugerencia = sugerencia;
+            this.distancia = distancia;
+        }
+    }
+}
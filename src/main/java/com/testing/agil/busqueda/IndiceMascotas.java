@@ -0,0 +1,224 @@
+package com.testing.agil.busqueda;
+
+import com.testing.agil.colecciones.LongObjectMap;
+import com.testing.agil.model.Mascota;
+import com.testing.agil.repository.EscuchaCambiosMascotas;
+import com.testing.agil.repository.MascotaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Base de los índices en memoria sobre las mascotas activas
+ *
+ * Se carga con un recorrido de la tabla en {@link #iniciar()} y se mantiene al día como
+ * {@link EscuchaCambiosMascotas} del repositorio. Las modificaciones se serializan con el
+ * cerrojo de escritura; cada subclase decide si sus búsquedas necesitan el de lectura.
+ */
+abstract class IndiceMascotas<C extends IndiceMascotas.Contenido> implements EscuchaCambiosMascotas {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndiceMascotas.class);
+
+    private final MascotaRepository mascotaRepository;
+    private final ReadWriteLock cerrojo = new ReentrantReadWriteLock();
+    private final Object reconstruccion = new Object();
+
+    private volatile C contenido = nuevoContenido();
+    /** Cambios recibidos durante una reconstrucción, para aplicarlos también al índice nuevo */
+    private List<Consumer<C>> pendientes;
+
+    protected IndiceMascotas(MascotaRepository mascotaRepository) {
+        if (mascotaRepository == null) {
+            throw new IllegalArgumentException("El repositorio no puede ser nulo");
+        }
+        this.mascotaRepository = mascotaRepository;
+    }
+
+    protected abstract C nuevoContenido();
+
+    /**
+     * Se registra como escucha del repositorio y carga el índice
+     */
+    public void iniciar() {
+        mascotaRepository.agregarEscucha(this);
+        reconstruir();
+    }
+
+    public void detener() {
+        mascotaRepository.quitarEscucha(this);
+    }
+
+    /**
+     * Vuelve a cargar el índice desde la base con un recorrido en streaming
+     * Las búsquedas siguen usando el índice anterior hasta que el nuevo está completo.
+     */
+    public void reconstruir() {
+        synchronized (reconstruccion) {
+            conEscritura(() -> pendientes = new ArrayList<>());
+            long inicio = System.nanoTime();
+            C nuevo = nuevoContenido();
+            try {
+                mascotaRepository.recorrerTodas(nuevo::guardar);
+            } catch (RuntimeException e) {
+                conEscritura(() -> pendientes = null);
+                throw e;
+            }
+            conEscritura(() -> {
+                pendientes.forEach(cambio -> cambio.accept(nuevo));
+                pendientes = null;
+                contenido = nuevo;
+            });
+            logger.info("{} cargado: {} mascotas en {} ms", getClass().getSimpleName(),
+                    nuevo.tamano(), (System.nanoTime() - inicio) / 1_000_000);
+        }
+    }
+
+    /**
+     * @return mascotas conocidas por el índice, activas o no
+     */
+    public int getTamano() {
+        return leer(Contenido::tamano);
+    }
+
+    /**
+     * Contenido actual sin cerrojo, para estructuras que admiten lecturas concurrentes
+     */
+    protected C contenido() {
+        return contenido;
+    }
+
+    /**
+     * Ejecuta la consulta sobre el contenido actual con el cerrojo de lectura
+     */
+    protected <T> T leer(Function<C, T> consulta) {
+        cerrojo.readLock().lock();
+        try {
+            return consulta.apply(contenido);
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    // ---- EscuchaCambiosMascotas ----
+
+    @Override
+    public void guardada(Mascota mascota) {
+        aplicar(c -> c.guardar(mascota));
+    }
+
+    @Override
+    public void activoCambiado(long id, boolean activo) {
+        aplicar(c -> c.cambiarActivo(id, activo));
+    }
+
+    @Override
+    public void eliminada(long id) {
+        aplicar(c -> c.quitar(id));
+    }
+
+    /**
+     * Sin saber qué mascotas cambiaron, se recarga el índice entero en el hilo que avisa
+     */
+    @Override
+    public void cambiosMasivos() {
+        reconstruir();
+    }
+
+    private void aplicar(Consumer<C> cambio) {
+        conEscritura(() -> {
+            cambio.accept(contenido);
+            if (pendientes != null) {
+                pendientes.add(cambio);
+            }
+        });
+    }
+
+    private void conEscritura(Runnable accion) {
+        cerrojo.writeLock().lock();
+        try {
+            accion.run();
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Datos de un índice; se modifica solo con el cerrojo de escritura
+     * Lleva el estado de cada mascota conocida y pide a la subclase indexar solo las activas.
+     */
+    abstract static class Contenido {
+
+        private final LongObjectMap<Entrada> porId = new LongObjectMap<>();
+
+        protected abstract void indexar(Sugerencia sugerencia);
+
+        protected abstract void desindexar(Sugerencia sugerencia);
+
+        /**
+         * @return sugerencia de una mascota activa, o null si no está indexada
+         */
+        protected Sugerencia activa(long id) {
+            Entrada entrada = porId.get(id);
+            return entrada != null && entrada.activo ? entrada.sugerencia : null;
+        }
+
+        int tamano() {
+            return porId.size();
+        }
+
+        void guardar(Mascota mascota) {
+            if (mascota.getId() == null) {
+                return;
+            }
+            long id = mascota.getId();
+            Entrada anterior = porId.get(id);
+            // El estado de una mascota ya conocida solo cambia con activoCambiado (ver EscuchaCambiosMascotas)
+            boolean activo = anterior != null ? anterior.activo : mascota.isActivo();
+            if (anterior != null && anterior.activo) {
+                desindexar(anterior.sugerencia);
+            }
+            Entrada entrada = new Entrada(new Sugerencia(id, mascota.getNombre(), mascota.getPropietario()), activo);
+            porId.put(id, entrada);
+            if (activo) {
+                indexar(entrada.sugerencia);
+            }
+        }
+
+        void cambiarActivo(long id, boolean activo) {
+            Entrada entrada = porId.get(id);
+            if (entrada == null || entrada.activo == activo) {
+                return;
+            }
+            if (activo) {
+                indexar(entrada.sugerencia);
+            } else {
+                desindexar(entrada.sugerencia);
+            }
+            porId.put(id, new Entrada(entrada.sugerencia, activo));
+        }
+
+        void quitar(long id) {
+            Entrada entrada = porId.remove(id);
+            if (entrada != null && entrada.activo) {
+                desindexar(entrada.sugerencia);
+            }
+        }
+    }
+
+    private static final class Entrada {
+
+        private final Sugerencia sugerencia;
+        private final boolean activo;
+
+        Entrada(Sugerencia sugerencia, boolean activo) {
+            this.sugerencia = sugerencia;
+            this.activo = activo;
+        }
+    }
+}
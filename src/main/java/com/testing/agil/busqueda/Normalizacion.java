@@ -0,0 +1,56 @@
+package com.testing.agil.busqueda;
+
+import java.text.Normalizer;
+import java.util.regex.Pattern;
+
+/**
+ * Forma de comparación de nombres para las búsquedas en memoria
+ * Minúsculas, sin tildes ni diéresis (la ñ pasa a n) y con un solo espacio entre palabras,
+ * de modo que "José  Núñez" y "jose nunez" coinciden.
+ */
+final class Normalizacion {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+
+    private Normalizacion() {
+    }
+
+    /**
+     * @return texto normalizado; vacío si es null o no tiene letras ni dígitos
+     */
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String base = esAsciiSimple(texto)
+                ? texto
+                : MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        StringBuilder resultado = new StringBuilder(base.length());
+        boolean espacioPendiente = false;
+        for (int i = 0; i < base.length(); i++) {
+            char c = base.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (espacioPendiente && resultado.length() > 0) {
+                    resultado.append(' ');
+                }
+                espacioPendiente = false;
+                resultado.append(Character.toLowerCase(c));
+            } else {
+                espacioPendiente = true;
+            }
+        }
+        return resultado.toString();
+    }
+
+    /**
+     * Atajo para el caso común: sin caracteres fuera de ASCII no hay nada que descomponer
+     */
+    private static boolean esAsciiSimple(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,34 @@
+package com.testing.agil.busqueda;
+
+/**
+ * Mascota propuesta por una búsqueda en memoria: lo justo para mostrarla en una lista
+ */
+public class Sugerencia {
+
+    private final long id;
+    private final String nombre;
+    private final String propietario;
+
+    public Sugerencia(long id, String nombre, String propietario) {
+        this.id = id;
+        this.nombre = nombre;
+        this.propietario = propietario;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public String getPropietario() {
+        return propietario;
+    }
+
+    @Override
+    public String toString() {
+        return "Sugerencia{id=" + id + ", nombre='" + nombre + "', propietario='" + propietario + "'}";
+    }
+}
@@ -0,0 +1,152 @@
+package com.testing.agil.cli;
+
+import com.testing.agil.model.Mascota;
+import com.testing.agil.model.Usuario;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Pattern;
+
+/**
+ * Una línea del archivo de lote ya separada en operación y campos
+ */
+final class ComandoLote {
+
+    /** Operaciones admitidas, con el nombre que se escribe en el archivo y sus campos */
+    enum Tipo {
+        USUARIO_CREAR("usuario.crear", 3),
+        USUARIO_DESACTIVAR("usuario.desactivar", 1),
+        USUARIO_REACTIVAR("usuario.reactivar", 1),
+        USUARIO_ELIMINAR("usuario.eliminar", 1),
+        MASCOTA_CREAR("mascota.crear", 9),
+        MASCOTA_ELIMINAR("mascota.eliminar", 1),
+        MASCOTA_REACTIVAR("mascota.reactivar", 1),
+        MASCOTA_ELIMINAR_POR_EMAIL("mascota.eliminar-por-email", 1),
+        /** Cierra la transacción en curso; no cuenta como operación */
+        CONFIRMAR("confirmar", 0);
+
+        private final String nombre;
+        private final int campos;
+
+        Tipo(String nombre, int campos) {
+            this.nombre = nombre;
+            this.campos = campos;
+        }
+
+        String nombre() {
+            return nombre;
+        }
+
+        static Tipo de(String nombre) {
+            for (Tipo tipo : values()) {
+                if (tipo.nombre.equalsIgnoreCase(nombre)) {
+                    return tipo;
+                }
+            }
+            throw new IllegalArgumentException("Operación desconocida: " + nombre);
+        }
+    }
+
+    private static final Pattern SEPARADOR = Pattern.compile("\\|");
+
+    private final long linea;
+    private final Tipo tipo;
+    private final String[] campos;
+
+    private ComandoLote(long linea, Tipo tipo, String[] campos) {
+        this.linea = linea;
+        this.tipo = tipo;
+        this.campos = campos;
+    }
+
+    /**
+     * @param linea número de línea, para los mensajes de error
+     * @param texto línea sin comentario ni espacios alrededor
+     * @throws IllegalArgumentException si la operación no existe o faltan o sobran campos
+     */
+    static ComandoLote parsear(long linea, String texto) {
+        String[] partes = SEPARADOR.split(texto, -1);
+        Tipo tipo = Tipo.de(partes[0].trim());
+        if (partes.length - 1 != tipo.campos) {
+            throw new IllegalArgumentException(tipo.nombre + " espera " + tipo.campos + " campos y tiene " + (partes.length - 1));
+        }
+        String[] campos = new String[tipo.campos];
+        for (int i = 0; i < campos.length; i++) {
+            campos[i] = partes[i + 1].trim();
+        }
+        ComandoLote comando = new ComandoLote(linea, tipo, campos);
+        // Los campos numéricos y las fechas se comprueban al leer, no a mitad de una transacción
+        switch (tipo) {
+            case USUARIO_CREAR -> comando.usuario();
+            case MASCOTA_CREAR -> comando.mascota();
+            case USUARIO_DESACTIVAR, USUARIO_REACTIVAR, USUARIO_ELIMINAR, MASCOTA_ELIMINAR, MASCOTA_REACTIVAR -> comando.id();
+            default -> {
+            }
+        }
+        return comando;
+    }
+
+    long getLinea() {
+        return linea;
+    }
+
+    Tipo getTipo() {
+        return tipo;
+    }
+
+    /**
+     * usuario.crear | nombre | email | edad
+     */
+    Usuario usuario() {
+        return new Usuario(campos[0], campos[1], entero(campos[2], "edad"));
+    }
+
+    /**
+     * mascota.crear | nombre | especie | raza | nacimiento (AAAA-MM-DD) | color | propietario | teléfono | email | peso
+     */
+    Mascota mascota() {
+        LocalDate nacimiento;
+        try {
+            nacimiento = LocalDate.parse(campos[3]);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Fecha de nacimiento inválida: " + campos[3]);
+        }
+        double peso;
+        try {
+            peso = Double.parseDouble(campos[8]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Peso inválido: " + campos[8]);
+        }
+        return new Mascota(campos[0], campos[1], vacioANulo(campos[2]), nacimiento, vacioANulo(campos[4]),
+                campos[5], vacioANulo(campos[6]), vacioANulo(campos[7]), peso);
+    }
+
+    long id() {
+        long id;
+        try {
+            id = Long.parseLong(campos[0]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("ID inválido: " + campos[0]);
+        }
+        if (id <= 0) {
+            throw new IllegalArgumentException("ID inválido: " + id);
+        }
+        return id;
+    }
+
+    String email() {
+        return campos[0];
+    }
+
+    private static int entero(String valor, String campo) {
+        try {
+            return Integer.parseInt(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor de " + campo + " inválido: " + valor);
+        }
+    }
+
+    private static String vacioANulo(String valor) {
+        return valor.isEmpty() ? null : valor;
+    }
+}
@@ -0,0 +1,197 @@
+package com.testing.agil.cli;
+
+import com.testing.agil.model.Mascota;
+import com.testing.agil.repository.GestorTransacciones;
+import com.testing.agil.repository.MascotaRepository;
+import com.testing.agil.service.MascotaService;
+import com.testing.agil.service.UsuarioService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ejecuta un archivo de operaciones sin interacción
+ *
+ * Formato: una operación por línea, con los campos separados por '|'. Las líneas en
+ * blanco y las que empiezan por '#' se ignoran.
+ * <pre>
+ * usuario.crear | nombre | email | edad
+ * usuario.desactivar | id
+ * usuario.reactivar | id
+ * usuario.eliminar | id
+ * mascota.crear | nombre | especie | raza | nacimiento (AAAA-MM-DD) | color | propietario | teléfono | email | peso
+ * mascota.eliminar | id
+ * mascota.reactivar | id
+ * mascota.eliminar-por-email | email
+ * confirmar
+ * </pre>
+ * Las operaciones se agrupan en transacciones de como mucho {@code operacionesPorTransaccion};
+ * {@code confirmar} cierra la transacción en curso antes. Cada transacción es todo o nada:
+ * si una operación falla, la transacción se deshace, se anota y se sigue con la siguiente.
+ * Las líneas que no se pueden interpretar se rechazan sin ejecutarse.
+ *
+ * Dentro de una transacción, las operaciones seguidas del mismo tipo se envían juntas a
+ * las APIs masivas (crearUsuarios, eliminarUsuarios, crearEnLote...). Las altas de
+ * mascotas se validan como el alta individual pero no comprueban duplicados; para eso
+ * está {@link com.testing.agil.importacion.ImportadorMascotas}.
+ */
+public class EjecutorLote {
+
+    private static final Logger logger = LoggerFactory.getLogger(EjecutorLote.class);
+
+    public static final int OPERACIONES_POR_TRANSACCION_POR_DEFECTO = 500;
+
+    private final UsuarioService usuarioService;
+    private final MascotaService mascotaService;
+    private final MascotaRepository mascotaRepository;
+    private final GestorTransacciones transacciones;
+    private final int operacionesPorTransaccion;
+
+    public EjecutorLote(UsuarioService usuarioService, MascotaService mascotaService,
+                        MascotaRepository mascotaRepository, GestorTransacciones transacciones) {
+        this(usuarioService, mascotaService, mascotaRepository, transacciones, OPERACIONES_POR_TRANSACCION_POR_DEFECTO);
+    }
+
+    public EjecutorLote(UsuarioService usuarioService, MascotaService mascotaService,
+                        MascotaRepository mascotaRepository, GestorTransacciones transacciones,
+                        int operacionesPorTransaccion) {
+        if (usuarioService == null || mascotaService == null || mascotaRepository == null || transacciones == null) {
+            throw new IllegalArgumentException("Los servicios, el repositorio y el gestor de transacciones son obligatorios");
+        }
+        if (operacionesPorTransaccion <= 0) {
+            throw new IllegalArgumentException("Las operaciones por transacción deben ser mayores que cero");
+        }
+        this.usuarioService = usuarioService;
+        this.mascotaService = mascotaService;
+        this.mascotaRepository = mascotaRepository;
+        this.transacciones = transacciones;
+        this.operacionesPorTransaccion = operacionesPorTransaccion;
+    }
+
+    /**
+     * Lee y ejecuta todas las operaciones de la entrada
+     * @param entrada archivo o stdin; no se cierra
+     * @return contadores, errores y tiempos de la ejecución
+     */
+    public ResumenLote ejecutar(BufferedReader entrada) {
+        ResumenLote resumen = new ResumenLote();
+        long inicio = System.nanoTime();
+        List<ComandoLote> grupo = new ArrayList<>(operacionesPorTransaccion);
+        long numeroLinea = 0;
+        try {
+            String linea;
+            while ((linea = entrada.readLine()) != null) {
+                numeroLinea++;
+                resumen.lineaLeida();
+                String texto = linea.trim();
+                if (texto.isEmpty() || texto.startsWith("#")) {
+                    continue;
+                }
+                ComandoLote comando;
+                try {
+                    comando = ComandoLote.parsear(numeroLinea, texto);
+                } catch (IllegalArgumentException e) {
+                    resumen.rechazada(numeroLinea, e.getMessage());
+                    continue;
+                }
+                if (comando.getTipo() == ComandoLote.Tipo.CONFIRMAR) {
+                    ejecutarGrupo(grupo, resumen);
+                    continue;
+                }
+                grupo.add(comando);
+                if (grupo.size() >= operacionesPorTransaccion) {
+                    ejecutarGrupo(grupo, resumen);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al leer el lote en la línea " + numeroLinea + ": " + e.getMessage(), e);
+        } finally {
+            // Lo leído antes de un error de lectura se ejecuta igualmente
+            ejecutarGrupo(grupo, resumen);
+            resumen.terminar(System.nanoTime() - inicio);
+        }
+        logger.info("Lote ejecutado: {}", resumen);
+        return resumen;
+    }
+
+    private void ejecutarGrupo(List<ComandoLote> grupo, ResumenLote resumen) {
+        if (grupo.isEmpty()) {
+            return;
+        }
+        List<ComandoLote> ejecutados = List.copyOf(grupo);
+        grupo.clear();
+        long inicio = System.nanoTime();
+        try {
+            long filas = transacciones.enTransaccion(() -> aplicar(ejecutados));
+            resumen.confirmada(ejecutados, filas, System.nanoTime() - inicio);
+        } catch (RuntimeException e) {
+            logger.warn("Transacción de las líneas {}-{} deshecha: {}",
+                    ejecutados.get(0).getLinea(), ejecutados.get(ejecutados.size() - 1).getLinea(), e.getMessage());
+            resumen.deshecha(ejecutados, e.getMessage(), System.nanoTime() - inicio);
+        }
+    }
+
+    /**
+     * Aplica el grupo por tramos de operaciones consecutivas del mismo tipo
+     * @return filas afectadas
+     */
+    private long aplicar(List<ComandoLote> grupo) {
+        long filas = 0;
+        int desde = 0;
+        while (desde < grupo.size()) {
+            ComandoLote.Tipo tipo = grupo.get(desde).getTipo();
+            int hasta = desde + 1;
+            while (hasta < grupo.size() && grupo.get(hasta).getTipo() == tipo) {
+                hasta++;
+            }
+            filas += aplicarTramo(tipo, grupo.subList(desde, hasta));
+            desde = hasta;
+        }
+        return filas;
+    }
+
+    private long aplicarTramo(ComandoLote.Tipo tipo, List<ComandoLote> tramo) {
+        return switch (tipo) {
+            case USUARIO_CREAR -> usuarioService.crearUsuarios(tramo.stream().map(ComandoLote::usuario).toList());
+            case USUARIO_DESACTIVAR -> usuarioService.eliminarUsuarios(ids(tramo));
+            case USUARIO_REACTIVAR -> usuarioService.reactivarUsuarios(ids(tramo));
+            case USUARIO_ELIMINAR -> {
+                long eliminados = 0;
+                for (ComandoLote comando : tramo) {
+                    if (usuarioService.eliminarUsuarioFisicamente(comando.id())) {
+                        eliminados++;
+                    }
+                }
+                yield eliminados;
+            }
+            case MASCOTA_CREAR -> {
+                List<Mascota> mascotas = new ArrayList<>(tramo.size());
+                for (ComandoLote comando : tramo) {
+                    Mascota mascota = comando.mascota();
+                    mascotaService.validarMascota(mascota);
+                    mascotas.add(mascota);
+                }
+                yield mascotaRepository.crearEnLote(mascotas);
+            }
+            case MASCOTA_ELIMINAR -> mascotaService.eliminarMascotas(ids(tramo));
+            case MASCOTA_REACTIVAR -> mascotaService.reactivarMascotas(ids(tramo));
+            case MASCOTA_ELIMINAR_POR_EMAIL -> {
+                long eliminadas = 0;
+                for (ComandoLote comando : tramo) {
+                    eliminadas += mascotaService.eliminarMascotasDePropietario(comando.email());
+                }
+                yield eliminadas;
+            }
+            case CONFIRMAR -> 0;
+        };
+    }
+
+    private static List<Long> ids(List<ComandoLote> tramo) {
+        return tramo.stream().map(ComandoLote::id).toList();
+    }
+}
@@ -0,0 +1,161 @@
+package com.testing.agil.cli;
+
+import com.testing.agil.metrics.HistogramaLatencia;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado de ejecutar un archivo de lote
+ * Solo se conservan los primeros errores; los contadores incluyen todas las operaciones.
+ */
+public class ResumenLote {
+
+    static final int MAX_ERRORES = 100;
+
+    private final Map<ComandoLote.Tipo, Long> aplicadasPorTipo = new EnumMap<>(ComandoLote.Tipo.class);
+    private final HistogramaLatencia latenciaTransacciones = new HistogramaLatencia();
+    private final List<String> errores = new ArrayList<>();
+    private long lineas;
+    private long aplicadas;
+    private long fallidas;
+    private long rechazadas;
+    private long filasAfectadas;
+    private long transaccionesConfirmadas;
+    private long transaccionesDeshechas;
+    private long duracionNanos;
+
+    ResumenLote() {
+    }
+
+    // ---- Registro, solo desde EjecutorLote ----
+
+    void lineaLeida() {
+        lineas++;
+    }
+
+    void rechazada(long linea, String mensaje) {
+        rechazadas++;
+        error("Línea " + linea + ": " + mensaje);
+    }
+
+    void confirmada(List<ComandoLote> grupo, long filas, long nanos) {
+        transaccionesConfirmadas++;
+        aplicadas += grupo.size();
+        filasAfectadas += filas;
+        grupo.forEach(comando -> aplicadasPorTipo.merge(comando.getTipo(), 1L, Long::sum));
+        latenciaTransacciones.registrar(nanos);
+    }
+
+    void deshecha(List<ComandoLote> grupo, String mensaje, long nanos) {
+        transaccionesDeshechas++;
+        fallidas += grupo.size();
+        latenciaTransacciones.registrar(nanos);
+        error("Líneas " + grupo.get(0).getLinea() + "-" + grupo.get(grupo.size() - 1).getLinea() +
+              " deshechas: " + mensaje);
+    }
+
+    void terminar(long nanos) {
+        this.duracionNanos = nanos;
+    }
+
+    private void error(String mensaje) {
+        if (errores.size() < MAX_ERRORES) {
+            errores.add(mensaje);
+        }
+    }
+
+    // ---- Consulta ----
+
+    public long getLineas() {
+        return lineas;
+    }
+
+    /**
+     * @return operaciones confirmadas
+     */
+    public long getAplicadas() {
+        return aplicadas;
+    }
+
+    /**
+     * @return operaciones válidas cuya transacción se deshizo
+     */
+    public long getFallidas() {
+        return fallidas;
+    }
+
+    /**
+     * @return líneas que no se pudieron interpretar y no se ejecutaron
+     */
+    public long getRechazadas() {
+        return rechazadas;
+    }
+
+    /**
+     * @return filas creadas o modificadas por las operaciones confirmadas
+     */
+    public long getFilasAfectadas() {
+        return filasAfectadas;
+    }
+
+    public long getTransaccionesConfirmadas() {
+        return transaccionesConfirmadas;
+    }
+
+    public long getTransaccionesDeshechas() {
+        return transaccionesDeshechas;
+    }
+
+    public long getDuracionMillis() {
+        return duracionNanos / 1_000_000;
+    }
+
+    /**
+     * @return operaciones confirmadas por segundo
+     */
+    public double getOperacionesPorSegundo() {
+        return duracionNanos == 0 ? 0 : aplicadas * 1e9 / duracionNanos;
+    }
+
+    public List<String> getErrores() {
+        return Collections.unmodifiableList(errores);
+    }
+
+    public boolean tieneErrores() {
+        return fallidas > 0 || rechazadas > 0;
+    }
+
+    /**
+     * Escribe el resumen legible para la salida del modo lote
+     */
+    public void imprimir(PrintStream salida) {
+        salida.println("=== Resumen del lote ===");
+        salida.printf("Operaciones: %d confirmadas, %d deshechas, %d rechazadas (%d líneas)%n",
+                aplicadas, fallidas, rechazadas, lineas);
+        aplicadasPorTipo.forEach((tipo, cantidad) -> salida.printf("  %-28s %d%n", tipo.nombre(), cantidad));
+        salida.printf("Filas afectadas: %d%n", filasAfectadas);
+        salida.printf("Transacciones: %d confirmadas, %d deshechas%n", transaccionesConfirmadas, transaccionesDeshechas);
+        salida.printf("Tiempo: %d ms (%.0f op/s)%n", getDuracionMillis(), getOperacionesPorSegundo());
+        if (latenciaTransacciones.getCantidad() > 0) {
+            salida.printf("Latencia por transacción: p50 %.1f ms, p99 %.1f ms, máx %.1f ms%n",
+                    latenciaTransacciones.percentilNanos(50) / 1e6,
+                    latenciaTransacciones.percentilNanos(99) / 1e6,
+                    latenciaTransacciones.getMaximoNanos() / 1e6);
+        }
+        if (!errores.isEmpty()) {
+            salida.println("Errores:");
+            errores.forEach(error -> salida.println("  " + error));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ResumenLote{aplicadas=%d, fallidas=%d, rechazadas=%d, transacciones=%d, duracion=%d ms}",
+                aplicadas, fallidas, rechazadas, transaccionesConfirmadas + transaccionesDeshechas, getDuracionMillis());
+    }
+}
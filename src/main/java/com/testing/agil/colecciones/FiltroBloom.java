@@ -0,0 +1,158 @@
+package com.testing.agil.colecciones;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom escalable de textos, seguro para hilos
+ *
+ * Responde "seguro que no está" o "puede estar": nunca da falsos negativos y los falsos
+ * positivos rondan la probabilidad indicada. No admite borrados; un valor eliminado solo
+ * cuesta un falso positivo más. Cuando la capa actual se llena se añade otra del doble de
+ * tamaño y con la mitad de probabilidad de error, así que no hace falta reconstruirlo.
+ */
+public final class FiltroBloom {
+
+    private final double probabilidadFalsos;
+    private volatile Capa[] capas;
+
+    /**
+     * @param capacidadEsperada valores que se esperan en la primera capa
+     * @param probabilidadFalsos probabilidad de falso positivo de la primera capa, entre 0 y 1
+     */
+    public FiltroBloom(int capacidadEsperada, double probabilidadFalsos) {
+        if (capacidadEsperada <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser mayor que cero");
+        }
+        if (probabilidadFalsos <= 0 || probabilidadFalsos >= 1) {
+            throw new IllegalArgumentException("La probabilidad de falsos positivos debe estar entre 0 y 1");
+        }
+        this.probabilidadFalsos = probabilidadFalsos;
+        this.capas = new Capa[]{new Capa(capacidadEsperada, probabilidadFalsos)};
+    }
+
+    public void agregar(String valor) {
+        long hash = hash(valor);
+        if (contiene(hash)) {
+            return;
+        }
+        Capa ultima = ultimaCapa();
+        ultima.agregar(hash);
+        if (ultima.agregados.incrementAndGet() >= ultima.capacidad) {
+            crecer(ultima);
+        }
+    }
+
+    /**
+     * @return false si el valor seguro que no se agregó nunca
+     */
+    public boolean puedeContener(String valor) {
+        return contiene(hash(valor));
+    }
+
+    /**
+     * @return valores distintos agregados, aproximado por los falsos positivos
+     */
+    public long getElementos() {
+        long total = 0;
+        for (Capa capa : capas) {
+            total += capa.agregados.get();
+        }
+        return total;
+    }
+
+    public int getCapas() {
+        return capas.length;
+    }
+
+    private boolean contiene(long hash) {
+        for (Capa capa : capas) {
+            if (capa.contiene(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Capa ultimaCapa() {
+        Capa[] actuales = capas;
+        return actuales[actuales.length - 1];
+    }
+
+    private synchronized void crecer(Capa llena) {
+        Capa[] actuales = capas;
+        if (actuales[actuales.length - 1] != llena) {
+            return;
+        }
+        Capa[] nuevas = new Capa[actuales.length + 1];
+        System.arraycopy(actuales, 0, nuevas, 0, actuales.length);
+        nuevas[actuales.length] = new Capa(llena.capacidad * 2, probabilidadFalsos / (1L << actuales.length));
+        capas = nuevas;
+    }
+
+    /**
+     * FNV-1a de 64 bits sobre los caracteres y mezcla final de MurmurHash3
+     */
+    private static long hash(String valor) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < valor.length(); i++) {
+            h ^= valor.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Capa {
+
+        private final AtomicLongArray bits;
+        private final int mascara;
+        private final int funciones;
+        private final int capacidad;
+        private final AtomicInteger agregados = new AtomicInteger();
+
+        Capa(int capacidad, double probabilidadFalsos) {
+            // m = -n ln p / (ln 2)^2, redondeado a potencia de dos para usar máscara
+            double ln2 = Math.log(2);
+            long necesarios = (long) Math.ceil(-capacidad * Math.log(probabilidadFalsos) / (ln2 * ln2));
+            long tamano = Long.highestOneBit(Math.max(necesarios, 64) - 1) << 1;
+            if (tamano > (1L << 31)) {
+                throw new IllegalArgumentException("Capacidad demasiado grande: " + capacidad);
+            }
+            this.bits = new AtomicLongArray((int) (tamano >>> 6));
+            this.mascara = (int) (tamano - 1);
+            this.funciones = Math.max(1, (int) Math.ceil(-Math.log(probabilidadFalsos) / ln2));
+            this.capacidad = capacidad;
+        }
+
+        void agregar(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < funciones; i++) {
+                int bit = (h1 + i * h2) & mascara;
+                long marca = 1L << bit;
+                int palabra = bit >>> 6;
+                long actual = bits.get(palabra);
+                while ((actual & marca) == 0 && !bits.compareAndSet(palabra, actual, actual | marca)) {
+                    actual = bits.get(palabra);
+                }
+            }
+        }
+
+        boolean contiene(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < funciones; i++) {
+                int bit = (h1 + i * h2) & mascara;
+                if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
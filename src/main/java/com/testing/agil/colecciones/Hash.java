@@ -0,0 +1,57 @@
+package com.testing.agil.colecciones;
+
+/**
+ * Funciones comunes de las tablas hash de direccionamiento abierto
+ */
+final class Hash {
+
+    private static final int CAPACIDAD_MAXIMA = 1 << 30;
+
+    private Hash() {
+    }
+
+    /**
+     * Mezcla los bits del valor (Fibonacci) para que IDs consecutivos no se agrupen
+     */
+    static int indice(long valor, int mascara) {
+        long h = valor * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mascara;
+    }
+
+    /**
+     * @return potencia de dos suficiente para los elementos esperados con la carga dada
+     */
+    static int capacidadPara(int esperados, float carga) {
+        if (esperados < 0) {
+            throw new IllegalArgumentException("La capacidad no puede ser negativa");
+        }
+        long necesaria = (long) Math.ceil(Math.max(esperados, 2) / carga);
+        if (necesaria > CAPACIDAD_MAXIMA) {
+            throw new IllegalArgumentException("Capacidad demasiado grande: " + esperados);
+        }
+        return Integer.highestOneBit((int) necesaria - 1) << 1;
+    }
+
+    /**
+     * Borrado con desplazamiento hacia atrás: acerca a su posición ideal las claves que
+     * siguen al hueco, para que las búsquedas no necesiten marcas de borrado
+     * @param valores arreglo paralelo de valores, o null si la tabla solo tiene claves
+     * @return posición que queda libre y que el llamante debe vaciar
+     */
+    static int cerrarHueco(long[] claves, Object[] valores, int hueco, int mascara) {
+        int libre = hueco;
+        int i = (libre + 1) & mascara;
+        while (claves[i] != 0) {
+            int ideal = indice(claves[i], mascara);
+            if (((i - ideal) & mascara) >= ((i - libre) & mascara)) {
+                claves[libre] = claves[i];
+                if (valores != null) {
+                    valores[libre] = valores[i];
+                }
+                libre = i;
+            }
+            i = (i + 1) & mascara;
+        }
+        return libre;
+    }
+}
@@ -0,0 +1,69 @@
+package com.testing.agil.colecciones;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Lista de long sin autoboxing: un solo arreglo primitivo que crece al doble
+ */
+public final class LongArrayList {
+
+    private long[] valores;
+    private int tamano;
+
+    public LongArrayList() {
+        this(16);
+    }
+
+    public LongArrayList(int capacidadInicial) {
+        if (capacidadInicial < 0) {
+            throw new IllegalArgumentException("La capacidad no puede ser negativa");
+        }
+        this.valores = new long[Math.max(capacidadInicial, 1)];
+    }
+
+    public void add(long valor) {
+        if (tamano == valores.length) {
+            valores = Arrays.copyOf(valores, valores.length * 2);
+        }
+        valores[tamano++] = valor;
+    }
+
+    public long get(int indice) {
+        if (indice < 0 || indice >= tamano) {
+            throw new IndexOutOfBoundsException("Índice " + indice + " fuera de rango (tamaño " + tamano + ")");
+        }
+        return valores[indice];
+    }
+
+    public int size() {
+        return tamano;
+    }
+
+    public boolean isEmpty() {
+        return tamano == 0;
+    }
+
+    public void clear() {
+        tamano = 0;
+    }
+
+    public void forEach(LongConsumer accion) {
+        for (int i = 0; i < tamano; i++) {
+            accion.accept(valores[i]);
+        }
+    }
+
+    public void sort() {
+        Arrays.sort(valores, 0, tamano);
+    }
+
+    public long[] toArray() {
+        return Arrays.copyOf(valores, tamano);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
@@ -0,0 +1,166 @@
+package com.testing.agil.colecciones;
+
+import java.util.Arrays;
+
+/**
+ * Mapa de long a objeto con direccionamiento abierto y sondeo lineal
+ * Claves y valores viven en dos arreglos paralelos, sin nodos ni Long por entrada.
+ * Los valores null no se admiten: {@link #get} devuelve null para indicar ausencia.
+ */
+public final class LongObjectMap<V> {
+
+    private static final float CARGA_MAXIMA = 0.5f;
+
+    private long[] claves;
+    private Object[] valores;
+    private int mascara;
+    private int tamano;
+    private V valorCero;
+
+    public LongObjectMap() {
+        this(16);
+    }
+
+    /**
+     * @param capacidadEsperada entradas que se esperan, para evitar redimensionar
+     */
+    public LongObjectMap(int capacidadEsperada) {
+        int capacidad = Hash.capacidadPara(capacidadEsperada, CARGA_MAXIMA);
+        this.claves = new long[capacidad];
+        this.valores = new Object[capacidad];
+        this.mascara = capacidad - 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long clave) {
+        if (clave == 0) {
+            return valorCero;
+        }
+        int i = Hash.indice(clave, mascara);
+        while (claves[i] != 0) {
+            if (claves[i] == clave) {
+                return (V) valores[i];
+            }
+            i = (i + 1) & mascara;
+        }
+        return null;
+    }
+
+    public boolean containsKey(long clave) {
+        return get(clave) != null;
+    }
+
+    /**
+     * @return el valor anterior, o null si no había
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long clave, V valor) {
+        if (valor == null) {
+            throw new IllegalArgumentException("El valor no puede ser null");
+        }
+        if (clave == 0) {
+            V anterior = valorCero;
+            valorCero = valor;
+            if (anterior == null) {
+                tamano++;
+            }
+            return anterior;
+        }
+        int i = Hash.indice(clave, mascara);
+        while (claves[i] != 0) {
+            if (claves[i] == clave) {
+                V anterior = (V) valores[i];
+                valores[i] = valor;
+                return anterior;
+            }
+            i = (i + 1) & mascara;
+        }
+        claves[i] = clave;
+        valores[i] = valor;
+        if (++tamano > claves.length * CARGA_MAXIMA) {
+            redimensionar();
+        }
+        return null;
+    }
+
+    /**
+     * @return el valor eliminado, o null si no había
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long clave) {
+        if (clave == 0) {
+            V anterior = valorCero;
+            if (anterior != null) {
+                valorCero = null;
+                tamano--;
+            }
+            return anterior;
+        }
+        int i = Hash.indice(clave, mascara);
+        while (claves[i] != 0) {
+            if (claves[i] == clave) {
+                V anterior = (V) valores[i];
+                int libre = Hash.cerrarHueco(claves, valores, i, mascara);
+                claves[libre] = 0;
+                valores[libre] = null;
+                tamano--;
+                return anterior;
+            }
+            i = (i + 1) & mascara;
+        }
+        return null;
+    }
+
+    public int size() {
+        return tamano;
+    }
+
+    public boolean isEmpty() {
+        return tamano == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(claves, 0);
+        Arrays.fill(valores, null);
+        valorCero = null;
+        tamano = 0;
+    }
+
+    /**
+     * Recorre las entradas en un orden no especificado
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(Visitante<? super V> visitante) {
+        if (valorCero != null) {
+            visitante.visitar(0, valorCero);
+        }
+        for (int i = 0; i < claves.length; i++) {
+            if (claves[i] != 0) {
+                visitante.visitar(claves[i], (V) valores[i]);
+            }
+        }
+    }
+
+    private void redimensionar() {
+        long[] clavesAnteriores = claves;
+        Object[] valoresAnteriores = valores;
+        claves = new long[clavesAnteriores.length * 2];
+        valores = new Object[claves.length];
+        mascara = claves.length - 1;
+        for (int j = 0; j < clavesAnteriores.length; j++) {
+            if (clavesAnteriores[j] != 0) {
+                int i = Hash.indice(clavesAnteriores[j], mascara);
+                while (claves[i] != 0) {
+                    i = (i + 1) & mascara;
+                }
+                claves[i] = clavesAnteriores[j];
+                valores[i] = valoresAnteriores[j];
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Visitante<V> {
+        void visitar(long clave, V valor);
+    }
+}
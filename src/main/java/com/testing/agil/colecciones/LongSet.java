@@ -0,0 +1,143 @@
+package com.testing.agil.colecciones;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Conjunto de long con direccionamiento abierto y sondeo lineal
+ * Las claves viven en un único long[]; el 0 se marca aparte porque es el valor de hueco libre.
+ * No admite iterar y modificar a la vez.
+ */
+public final class LongSet {
+
+    private static final float CARGA_MAXIMA = 0.5f;
+
+    private long[] claves;
+    private int mascara;
+    private int tamano;
+    private boolean contieneCero;
+
+    public LongSet() {
+        this(16);
+    }
+
+    /**
+     * @param capacidadEsperada elementos que se esperan, para evitar redimensionar
+     */
+    public LongSet(int capacidadEsperada) {
+        int capacidad = Hash.capacidadPara(capacidadEsperada, CARGA_MAXIMA);
+        this.claves = new long[capacidad];
+        this.mascara = capacidad - 1;
+    }
+
+    /**
+     * @return true si el valor no estaba
+     */
+    public boolean add(long valor) {
+        if (valor == 0) {
+            if (contieneCero) {
+                return false;
+            }
+            contieneCero = true;
+            tamano++;
+            return true;
+        }
+        int i = Hash.indice(valor, mascara);
+        while (claves[i] != 0) {
+            if (claves[i] == valor) {
+                return false;
+            }
+            i = (i + 1) & mascara;
+        }
+        claves[i] = valor;
+        if (++tamano > claves.length * CARGA_MAXIMA) {
+            redimensionar();
+        }
+        return true;
+    }
+
+    public boolean contains(long valor) {
+        if (valor == 0) {
+            return contieneCero;
+        }
+        int i = Hash.indice(valor, mascara);
+        while (claves[i] != 0) {
+            if (claves[i] == valor) {
+                return true;
+            }
+            i = (i + 1) & mascara;
+        }
+        return false;
+    }
+
+    /**
+     * @return true si el valor estaba
+     */
+    public boolean remove(long valor) {
+        if (valor == 0) {
+            if (!contieneCero) {
+                return false;
+            }
+            contieneCero = false;
+            tamano--;
+            return true;
+        }
+        int i = Hash.indice(valor, mascara);
+        while (claves[i] != 0) {
+            if (claves[i] == valor) {
+                claves[Hash.cerrarHueco(claves, null, i, mascara)] = 0;
+                tamano--;
+                return true;
+            }
+            i = (i + 1) & mascara;
+        }
+        return false;
+    }
+
+    public int size() {
+        return tamano;
+    }
+
+    public boolean isEmpty() {
+        return tamano == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(claves, 0);
+        contieneCero = false;
+        tamano = 0;
+    }
+
+    public void forEach(LongConsumer accion) {
+        if (contieneCero) {
+            accion.accept(0);
+        }
+        for (long clave : claves) {
+            if (clave != 0) {
+                accion.accept(clave);
+            }
+        }
+    }
+
+    public long[] toArray() {
+        long[] resultado = new long[tamano];
+        int[] n = {0};
+        forEach(valor -> resultado[n[0]++] = valor);
+        return resultado;
+    }
+
+    private void redimensionar() {
+        long[] anteriores = claves;
+        claves = new long[anteriores.length * 2];
+        mascara = claves.length - 1;
+        for (long clave : anteriores) {
+            if (clave != 0) {
+                int i = Hash.indice(clave, mascara);
+                while (claves[i] != 0) {
+                    i = (i + 1) & mascara;
+                }
+                claves[i] = clave;
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.testing.agil.concurrent;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Ejecuta sub-consultas en paralelo y combina sus resultados
+ * Pensado para datos repartidos en varias fuentes (particiones, archivo + tabla activa,
+ * distintas bases): cada fuente se consulta en su propio hilo virtual, ya que el trabajo
+ * es casi todo espera de E/S en SQLite.
+ *
+ * - {@link #ejecutarTodas} devuelve los resultados en el orden de las consultas.
+ * - {@link #fusionar} combina fuentes ordenadas con una fusión k-way perezosa.
+ * - El límite se envía a cada fuente y corta la fusión en cuanto se alcanza.
+ *
+ * Si alguna sub-consulta falla, se cancelan las demás y se propaga el error.
+ */
+public class EjecutorConsultasParalelas implements AutoCloseable {
+
+    public static final int SIN_LIMITE = Integer.MAX_VALUE;
+
+    private final ExecutorService ejecutor;
+    private final boolean propio;
+
+    /**
+     * Crea un ejecutor con un hilo virtual por sub-consulta
+     */
+    public EjecutorConsultasParalelas() {
+        this(Executors.newVirtualThreadPerTaskExecutor(), true);
+    }
+
+    /**
+     * Usa un ExecutorService externo, p. ej. un ForkJoinPool compartido; no se cierra con este objeto
+     */
+    public EjecutorConsultasParalelas(ExecutorService ejecutor) {
+        this(ejecutor, false);
+    }
+
+    private EjecutorConsultasParalelas(ExecutorService ejecutor, boolean propio) {
+        if (ejecutor == null) {
+            throw new IllegalArgumentException("El ExecutorService no puede ser null");
+        }
+        this.ejecutor = ejecutor;
+        this.propio = propio;
+    }
+
+    /**
+     * Ejecuta todas las consultas a la vez y espera sus resultados
+     * @return resultados en el mismo orden que las consultas
+     */
+    public <T> List<T> ejecutarTodas(List<? extends Callable<T>> consultas) {
+        return esperarTodas(enviar(consultas));
+    }
+
+    /**
+     * Fusiona fuentes ordenadas en un iterador perezoso
+     * Las consultas empiezan a ejecutarse al llamar a este método; el iterador espera
+     * sus resultados en el primer acceso.
+     * @param consultas fuentes, cada una ordenada según {@code orden}
+     * @param orden criterio con el que están ordenadas las fuentes
+     * @param limite máximo de elementos a producir ({@link #SIN_LIMITE} para todos)
+     */
+    public <T> Iterator<T> fusionar(List<? extends SubConsulta<T>> consultas, Comparator<? super T> orden, int limite) {
+        if (orden == null) {
+            throw new IllegalArgumentException("El criterio de orden no puede ser null");
+        }
+        if (limite < 0) {
+            throw new IllegalArgumentException("El límite no puede ser negativo");
+        }
+        List<Callable<List<T>>> tareas = new ArrayList<>(consultas.size());
+        for (SubConsulta<T> consulta : consultas) {
+            // Cada fuente aporta como mucho 'limite' elementos al resultado
+            tareas.add(() -> consulta.ejecutar(limite));
+        }
+        return new FusionOrdenada<>(limite == 0 ? List.of() : enviar(tareas), orden, limite, this);
+    }
+
+    /**
+     * Igual que {@link #fusionar}, pero materializa el resultado en una lista
+     */
+    public <T> List<T> fusionarEnLista(List<? extends SubConsulta<T>> consultas, Comparator<? super T> orden, int limite) {
+        Iterator<T> fusion = fusionar(consultas, orden, limite);
+        List<T> resultado = new ArrayList<>();
+        while (fusion.hasNext()) {
+            resultado.add(fusion.next());
+        }
+        return resultado;
+    }
+
+    private <T> List<Future<T>> enviar(List<? extends Callable<T>> consultas) {
+        List<Future<T>> pendientes = new ArrayList<>(consultas.size());
+        if (consultas.size() == 1) {
+            // Una sola fuente: no compensa cambiar de hilo
+            pendientes.add(ejecutarEnLinea(consultas.get(0)));
+            return pendientes;
+        }
+        for (Callable<T> consulta : consultas) {
+            pendientes.add(ejecutor.submit(consulta));
+        }
+        return pendientes;
+    }
+
+    private static <T> Future<T> ejecutarEnLinea(Callable<T> consulta) {
+        try {
+            return CompletableFuture.completedFuture(consulta.call());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    <T> List<T> esperarTodas(List<Future<T>> pendientes) {
+        List<T> resultados = new ArrayList<>(pendientes.size());
+        try {
+            for (Future<T> pendiente : pendientes) {
+                resultados.add(pendiente.get());
+            }
+            return resultados;
+        } catch (InterruptedException e) {
+            cancelar(pendientes);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Consulta paralela interrumpida", e);
+        } catch (ExecutionException e) {
+            cancelar(pendientes);
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new RuntimeException("Error en consulta paralela: " + causa.getMessage(), causa);
+        }
+    }
+
+    private static void cancelar(List<? extends Future<?>> pendientes) {
+        for (Future<?> pendiente : pendientes) {
+            pendiente.cancel(true);
+        }
+    }
+
+    /**
+     * Cierra el pool si fue creado por este ejecutor
+     */
+    @Override
+    public void close() {
+        if (propio) {
+            ejecutor.close();
+        }
+    }
+}
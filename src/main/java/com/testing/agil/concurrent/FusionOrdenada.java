@@ -0,0 +1,95 @@
+package com.testing.agil.concurrent;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.Future;
+
+/**
+ * Iterador que fusiona k fuentes ordenadas usando un montículo de k cabezas
+ * Cada elemento cuesta O(log k) y no se copia ni reordena el total. Las fuentes se
+ * esperan en el primer acceso, no al crear el iterador, y la fusión se detiene al
+ * alcanzar el límite.
+ */
+final class FusionOrdenada<T> implements Iterator<T> {
+
+    private final List<Future<List<T>>> fuentes;
+    private final Comparator<? super T> orden;
+    private final EjecutorConsultasParalelas ejecutor;
+    private PriorityQueue<Cabeza<T>> cabezas;
+    private int restantes;
+
+    FusionOrdenada(List<Future<List<T>>> fuentes, Comparator<? super T> orden, int limite,
+                   EjecutorConsultasParalelas ejecutor) {
+        this.fuentes = fuentes;
+        this.orden = orden;
+        this.restantes = limite;
+        this.ejecutor = ejecutor;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (restantes <= 0) {
+            return false;
+        }
+        iniciar();
+        return !cabezas.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Cabeza<T> cabeza = cabezas.poll();
+        T valor = cabeza.valor;
+        if (cabeza.resto.hasNext()) {
+            cabeza.avanzar();
+            cabezas.add(cabeza);
+        }
+        restantes--;
+        return valor;
+    }
+
+    private void iniciar() {
+        if (cabezas != null) {
+            return;
+        }
+        List<List<T>> resultados = ejecutor.esperarTodas(fuentes);
+        cabezas = new PriorityQueue<>(Math.max(1, resultados.size()), this::compararCabezas);
+        for (int i = 0; i < resultados.size(); i++) {
+            Iterator<T> resto = resultados.get(i).iterator();
+            if (resto.hasNext()) {
+                Cabeza<T> cabeza = new Cabeza<>(i, resto);
+                cabeza.avanzar();
+                cabezas.add(cabeza);
+            }
+        }
+    }
+
+    /**
+     * A igualdad de clave gana la fuente de menor índice: la fusión es estable
+     */
+    private int compararCabezas(Cabeza<T> a, Cabeza<T> b) {
+        int comparacion = orden.compare(a.valor, b.valor);
+        return comparacion != 0 ? comparacion : Integer.compare(a.fuente, b.fuente);
+    }
+
+    private static final class Cabeza<T> {
+
+        private final int fuente;
+        private final Iterator<T> resto;
+        private T valor;
+
+        Cabeza(int fuente, Iterator<T> resto) {
+            this.fuente = fuente;
+            this.resto = resto;
+        }
+
+        void avanzar() {
+            valor = resto.next();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.testing.agil.concurrent;
+
+import java.util.List;
+
+/**
+ * Consulta sobre una fuente de datos (partición, tabla de archivo, otra base)
+ * que devuelve resultados ya ordenados por el mismo criterio que usará la fusión.
+ *
+ * @param <T> tipo de los elementos devueltos
+ */
+@FunctionalInterface
+public interface SubConsulta<T> {
+
+    /**
+     * Ejecuta la consulta
+     * @param limite máximo de elementos que la fusión va a necesitar de esta fuente;
+     *               {@link EjecutorConsultasParalelas#SIN_LIMITE} si no hay límite.
+     *               La fuente puede ignorarlo, pero llevarlo a su SQL evita leer filas de más.
+     * @return elementos ordenados
+     */
+    List<T> ejecutar(int limite) throws Exception;
+}
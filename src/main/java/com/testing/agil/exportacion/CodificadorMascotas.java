@@ -0,0 +1,174 @@
+package com.testing.agil.exportacion;
+
+import com.testing.agil.model.Mascota;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Codifica mascotas en CSV o JSON sobre una {@link SalidaCodificada}
+ * Una instancia sirve para toda una exportación: no guarda estado por fila.
+ */
+final class CodificadorMascotas {
+
+    private static final String[] COLUMNAS = {
+        "id", "nombre", "especie", "raza", "fecha_nacimiento", "color",
+        "propietario", "telefono", "email", "peso", "esterilizado", "activo"
+    };
+
+    private final FormatoExportacion formato;
+
+    CodificadorMascotas(FormatoExportacion formato) {
+        this.formato = formato;
+    }
+
+    void inicio(SalidaCodificada salida) throws IOException {
+        if (formato == FormatoExportacion.CSV) {
+            for (int i = 0; i < COLUMNAS.length; i++) {
+                if (i > 0) {
+                    salida.ascii(',');
+                }
+                salida.ascii(COLUMNAS[i]);
+            }
+            salida.ascii('\n');
+        } else if (formato == FormatoExportacion.JSON) {
+            salida.ascii('[');
+        }
+    }
+
+    void fila(SalidaCodificada salida, Mascota m, boolean primera) throws IOException {
+        if (formato == FormatoExportacion.CSV) {
+            filaCsv(salida, m);
+        } else {
+            if (formato == FormatoExportacion.JSON) {
+                salida.ascii(primera ? "\n" : ",\n");
+            }
+            filaJson(salida, m);
+            if (formato == FormatoExportacion.NDJSON) {
+                salida.ascii('\n');
+            }
+        }
+    }
+
+    void fin(SalidaCodificada salida, boolean vacia) throws IOException {
+        if (formato == FormatoExportacion.JSON) {
+            salida.ascii(vacia ? "]\n" : "\n]\n");
+        }
+    }
+
+    // ---- CSV ----
+
+    private void filaCsv(SalidaCodificada salida, Mascota m) throws IOException {
+        salida.entero(m.getId());
+        salida.ascii(',');
+        textoCsv(salida, m.getNombre());
+        salida.ascii(',');
+        textoCsv(salida, m.getEspecie());
+        salida.ascii(',');
+        textoCsv(salida, m.getRaza());
+        salida.ascii(',');
+        if (m.getFechaNacimiento() != null) {
+            salida.fecha(m.getFechaNacimiento());
+        }
+        salida.ascii(',');
+        textoCsv(salida, m.getColor());
+        salida.ascii(',');
+        textoCsv(salida, m.getPropietario());
+        salida.ascii(',');
+        textoCsv(salida, m.getTelefono());
+        salida.ascii(',');
+        textoCsv(salida, m.getEmail());
+        salida.ascii(',');
+        salida.decimal(m.getPeso());
+        salida.ascii(',');
+        salida.ascii(m.isEsterilizado() ? "true" : "false");
+        salida.ascii(',');
+        salida.ascii(m.isActivo() ? "true" : "false");
+        salida.ascii('\n');
+    }
+
+    /**
+     * null se escribe como campo vacío; las comillas solo se añaden cuando hacen falta
+     */
+    private static void textoCsv(SalidaCodificada salida, String texto) throws IOException {
+        if (texto == null) {
+            return;
+        }
+        boolean comillas = false;
+        for (int i = 0; i < texto.length() && !comillas; i++) {
+            char c = texto.charAt(i);
+            comillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (comillas) {
+            salida.ascii('"');
+        }
+        for (int i = 0; i < texto.length(); ) {
+            if (texto.charAt(i) == '"') {
+                salida.ascii('"');
+            }
+            i += salida.caracter(texto, i);
+        }
+        if (comillas) {
+            salida.ascii('"');
+        }
+    }
+
+    // ---- JSON ----
+
+    private void filaJson(SalidaCodificada salida, Mascota m) throws IOException {
+        salida.ascii("{\"id\":");
+        salida.entero(m.getId());
+        campoJson(salida, "nombre", m.getNombre());
+        campoJson(salida, "especie", m.getEspecie());
+        campoJson(salida, "raza", m.getRaza());
+        salida.ascii(",\"fecha_nacimiento\":");
+        LocalDate fecha = m.getFechaNacimiento();
+        if (fecha == null) {
+            salida.ascii("null");
+        } else {
+            salida.ascii('"');
+            salida.fecha(fecha);
+            salida.ascii('"');
+        }
+        campoJson(salida, "color", m.getColor());
+        campoJson(salida, "propietario", m.getPropietario());
+        campoJson(salida, "telefono", m.getTelefono());
+        campoJson(salida, "email", m.getEmail());
+        salida.ascii(",\"peso\":");
+        salida.decimal(m.getPeso());
+        salida.ascii(m.isEsterilizado() ? ",\"esterilizado\":true" : ",\"esterilizado\":false");
+        salida.ascii(m.isActivo() ? ",\"activo\":true}" : ",\"activo\":false}");
+    }
+
+    private static void campoJson(SalidaCodificada salida, String nombre, String valor) throws IOException {
+        salida.ascii(",\"");
+        salida.ascii(nombre);
+        salida.ascii("\":");
+        if (valor == null) {
+            salida.ascii("null");
+            return;
+        }
+        salida.ascii('"');
+        for (int i = 0; i < valor.length(); ) {
+            char c = valor.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                i += salida.caracter(valor, i);
+                continue;
+            }
+            switch (c) {
+                case '"' -> salida.ascii("\\\"");
+                case '\\' -> salida.ascii("\\\\");
+                case '\n' -> salida.ascii("\\n");
+                case '\r' -> salida.ascii("\\r");
+                case '\t' -> salida.ascii("\\t");
+                default -> {
+                    salida.ascii("\\u00");
+                    salida.ascii(Character.forDigit(c >> 4, 16));
+                    salida.ascii(Character.forDigit(c & 0xF, 16));
+                }
+            }
+            i++;
+        }
+        salida.ascii('"');
+    }
+}
@@ -0,0 +1,83 @@
+package com.testing.agil.exportacion;
+
+import com.testing.agil.repository.FiltroMascotas;
+import com.testing.agil.repository.MascotaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Exporta listados de mascotas a CSV o JSON en streaming
+ * Las filas se leen del cursor ({@link MascotaRepository#recorrer}) y se codifican una a
+ * una en un buffer reutilizado, así la memoria usada no depende del número de filas.
+ * El destino no se cierra: lo gestiona quien lo abrió.
+ */
+public class ExportadorMascotas {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportadorMascotas.class);
+
+    private final MascotaRepository mascotaRepository;
+
+    public ExportadorMascotas(MascotaRepository mascotaRepository) {
+        if (mascotaRepository == null) {
+            throw new IllegalArgumentException("El repositorio de mascotas no puede ser nulo");
+        }
+        this.mascotaRepository = mascotaRepository;
+    }
+
+    /**
+     * @return número de mascotas exportadas
+     */
+    public long exportar(FiltroMascotas filtro, FormatoExportacion formato, OutputStream destino) {
+        if (destino == null) {
+            throw new IllegalArgumentException("El destino no puede ser nulo");
+        }
+        long filas = exportar(filtro, formato, Channels.newChannel(destino));
+        try {
+            destino.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("Error al exportar mascotas: " + e.getMessage(), e);
+        }
+        return filas;
+    }
+
+    /**
+     * @param filtro mascotas a incluir ({@link FiltroMascotas#todas()} para todas)
+     * @param formato CSV, JSON o NDJSON
+     * @param destino canal donde se escriben los bytes UTF-8
+     * @return número de mascotas exportadas
+     */
+    public long exportar(FiltroMascotas filtro, FormatoExportacion formato, WritableByteChannel destino) {
+        if (filtro == null || formato == null || destino == null) {
+            throw new IllegalArgumentException("El filtro, el formato y el destino no pueden ser nulos");
+        }
+        long inicio = System.nanoTime();
+        CodificadorMascotas codificador = new CodificadorMascotas(formato);
+        long[] filas = {0};
+        try (SalidaCodificada salida = new SalidaCodificada(destino)) {
+            codificador.inicio(salida);
+            mascotaRepository.recorrer(filtro, mascota -> {
+                try {
+                    codificador.fila(salida, mascota, filas[0] == 0);
+                } catch (IOException e) {
+                    // recorrer no admite excepciones comprobadas
+                    throw new UncheckedIOException(e);
+                }
+                filas[0]++;
+            });
+            codificador.fin(salida, filas[0] == 0);
+        } catch (IOException e) {
+            throw new RuntimeException("Error al exportar mascotas: " + e.getMessage(), e);
+        } catch (UncheckedIOException e) {
+            throw new RuntimeException("Error al exportar mascotas: " + e.getCause().getMessage(), e.getCause());
+        }
+        logger.info("Exportadas {} mascotas en {} ({}) en {} ms", filas[0], formato, filtro,
+                (System.nanoTime() - inicio) / 1_000_000);
+        return filas[0];
+    }
+}
@@ -0,0 +1,15 @@
+package com.testing.agil.exportacion;
+
+/**
+ * Formatos de salida de {@link ExportadorMascotas}
+ * Las columnas usan los mismos nombres que acepta la importación, de modo que un
+ * archivo exportado puede volver a importarse.
+ */
+public enum FormatoExportacion {
+    /** CSV con cabecera (RFC 4180) */
+    CSV,
+    /** Un arreglo JSON con un objeto por mascota */
+    JSON,
+    /** Un objeto JSON por línea */
+    NDJSON
+}
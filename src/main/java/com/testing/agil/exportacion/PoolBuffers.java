@@ -0,0 +1,32 @@
+package com.testing.agil.exportacion;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Pool de buffers directos para las exportaciones
+ * Reutilizar los buffers evita reservar memoria nativa en cada exportación; solo se
+ * guardan unos pocos libres, el resto se deja al recolector.
+ */
+final class PoolBuffers {
+
+    static final int TAMANO_BUFFER = 64 * 1024;
+    private static final int MAX_LIBRES = 8;
+
+    private static final Queue<ByteBuffer> LIBRES = new ConcurrentLinkedQueue<>();
+
+    private PoolBuffers() {
+    }
+
+    static ByteBuffer tomar() {
+        ByteBuffer buffer = LIBRES.poll();
+        return buffer != null ? buffer.clear() : ByteBuffer.allocateDirect(TAMANO_BUFFER);
+    }
+
+    static void devolver(ByteBuffer buffer) {
+        if (LIBRES.size() < MAX_LIBRES) {
+            LIBRES.offer(buffer);
+        }
+    }
+}
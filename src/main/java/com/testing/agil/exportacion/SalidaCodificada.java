@@ -0,0 +1,138 @@
+package com.testing.agil.exportacion;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDate;
+
+/**
+ * Escribe texto UTF-8 directamente en un buffer del pool y lo vacía al canal cuando se llena
+ * Los valores se codifican carácter a carácter, sin construir un String por fila.
+ */
+final class SalidaCodificada implements AutoCloseable {
+
+    private final WritableByteChannel canal;
+    private final ByteBuffer buffer;
+    private final byte[] digitos = new byte[20];
+
+    SalidaCodificada(WritableByteChannel canal) {
+        this.canal = canal;
+        this.buffer = PoolBuffers.tomar();
+    }
+
+    void ascii(char c) throws IOException {
+        if (!buffer.hasRemaining()) {
+            vaciar();
+        }
+        buffer.put((byte) c);
+    }
+
+    /**
+     * Texto fijo (nombres de columna, separadores) que se sabe ASCII
+     */
+    void ascii(String texto) throws IOException {
+        for (int i = 0; i < texto.length(); i++) {
+            ascii(texto.charAt(i));
+        }
+    }
+
+    /**
+     * Escribe en UTF-8 el carácter de la posición i; un par sustituto se escribe como un solo punto de código
+     * @return caracteres consumidos (1, o 2 para un par sustituto)
+     */
+    int caracter(String texto, int i) throws IOException {
+        char c = texto.charAt(i);
+        if (c < 0x80) {
+            ascii(c);
+        } else if (c < 0x800) {
+            byteCrudo(0xC0 | (c >> 6));
+            byteCrudo(0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && i + 1 < texto.length()
+                   && Character.isLowSurrogate(texto.charAt(i + 1))) {
+            int cp = Character.toCodePoint(c, texto.charAt(i + 1));
+            byteCrudo(0xF0 | (cp >> 18));
+            byteCrudo(0x80 | ((cp >> 12) & 0x3F));
+            byteCrudo(0x80 | ((cp >> 6) & 0x3F));
+            byteCrudo(0x80 | (cp & 0x3F));
+            return 2;
+        } else if (Character.isSurrogate(c)) {
+            ascii('?');
+        } else {
+            byteCrudo(0xE0 | (c >> 12));
+            byteCrudo(0x80 | ((c >> 6) & 0x3F));
+            byteCrudo(0x80 | (c & 0x3F));
+        }
+        return 1;
+    }
+
+    void entero(long valor) throws IOException {
+        if (valor < 0) {
+            ascii('-');
+            if (valor == Long.MIN_VALUE) {
+                ascii("9223372036854775808");
+                return;
+            }
+            valor = -valor;
+        }
+        int n = 0;
+        do {
+            digitos[n++] = (byte) ('0' + valor % 10);
+            valor /= 10;
+        } while (valor != 0);
+        while (n > 0) {
+            ascii((char) digitos[--n]);
+        }
+    }
+
+    void decimal(double valor) throws IOException {
+        if (valor == Math.rint(valor) && Math.abs(valor) < 1e15) {
+            entero((long) valor);
+            ascii(".0");
+        } else {
+            ascii(Double.toString(valor));
+        }
+    }
+
+    /**
+     * Fecha ISO AAAA-MM-DD
+     */
+    void fecha(LocalDate fecha) throws IOException {
+        entero(fecha.getYear());
+        ascii('-');
+        dosDigitos(fecha.getMonthValue());
+        ascii('-');
+        dosDigitos(fecha.getDayOfMonth());
+    }
+
+    private void dosDigitos(int valor) throws IOException {
+        ascii((char) ('0' + valor / 10));
+        ascii((char) ('0' + valor % 10));
+    }
+
+    private void byteCrudo(int valor) throws IOException {
+        if (!buffer.hasRemaining()) {
+            vaciar();
+        }
+        buffer.put((byte) valor);
+    }
+
+    void vaciar() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Vacía lo pendiente y devuelve el buffer al pool; el canal no se cierra
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            vaciar();
+        } finally {
+            PoolBuffers.devolver(buffer);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.testing.agil.http;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Una petición HTTP en curso con las operaciones comunes a todos los manejadores:
+ * ruta y parámetros, cuerpo JSON, ETag y respuestas simples o en streaming
+ */
+final class Intercambio {
+
+    static final String JSON = "application/json; charset=utf-8";
+
+    /** Cuerpo máximo aceptado; las entidades de la API son objetos pequeños */
+    private static final int MAX_CUERPO = 64 * 1024;
+
+    private final HttpExchange exchange;
+    private final String[] segmentos;
+    private Map<String, String> parametros;
+
+    /**
+     * @param contexto prefijo con que se registró el manejador, p. ej. "/mascotas"
+     */
+    Intercambio(HttpExchange exchange, String contexto) {
+        this.exchange = exchange;
+        String resto = exchange.getRequestURI().getPath().substring(contexto.length());
+        while (resto.startsWith("/")) {
+            resto = resto.substring(1);
+        }
+        this.segmentos = resto.isEmpty() ? new String[0] : resto.split("/");
+    }
+
+    String metodo() {
+        return exchange.getRequestMethod();
+    }
+
+    /**
+     * @return segmentos de la ruta tras el contexto, ya decodificados
+     */
+    int segmentos() {
+        return segmentos.length;
+    }
+
+    String segmento(int indice) {
+        return URLDecoder.decode(segmentos[indice], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @throws IllegalArgumentException si el segmento no es un id positivo
+     */
+    long id(int indice) {
+        try {
+            long id = Long.parseLong(segmentos[indice]);
+            if (id > 0) {
+                return id;
+            }
+        } catch (NumberFormatException e) {
+            // se informa abajo
+        }
+        throw new IllegalArgumentException("ID inválido: " + segmento(indice));
+    }
+
+    String parametro(String nombre) {
+        if (parametros == null) {
+            parametros = new HashMap<>();
+            String consulta = exchange.getRequestURI().getRawQuery();
+            if (consulta != null) {
+                for (String par : consulta.split("&")) {
+                    int igual = par.indexOf('=');
+                    String clave = igual < 0 ? par : par.substring(0, igual);
+                    String valor = igual < 0 ? "" : par.substring(igual + 1);
+                    parametros.putIfAbsent(URLDecoder.decode(clave, StandardCharsets.UTF_8),
+                            URLDecoder.decode(valor, StandardCharsets.UTF_8));
+                }
+            }
+        }
+        String valor = parametros.get(nombre);
+        return valor == null || valor.isBlank() ? null : valor.trim();
+    }
+
+    int parametroEntero(String nombre, int porDefecto) {
+        String valor = parametro(nombre);
+        if (valor == null) {
+            return porDefecto;
+        }
+        try {
+            return Integer.parseInt(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parámetro " + nombre + " inválido: " + valor);
+        }
+    }
+
+    String cabecera(String nombre) {
+        return exchange.getRequestHeaders().getFirst(nombre);
+    }
+
+    /**
+     * @throws IllegalArgumentException si el cuerpo supera el máximo admitido
+     */
+    String cuerpo() throws IOException {
+        try (InputStream entrada = exchange.getRequestBody()) {
+            byte[] bytes = entrada.readNBytes(MAX_CUERPO + 1);
+            if (bytes.length > MAX_CUERPO) {
+                throw new IllegalArgumentException("El cuerpo supera los " + MAX_CUERPO + " bytes");
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    // ---- ETag ----
+
+    /**
+     * ETag fuerte a partir del id y la versión de la fila: cambia con cada actualización
+     */
+    static String etag(long id, long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    /**
+     * @return true si If-None-Match incluye la ETag actual (o es "*"), con comparación débil
+     */
+    boolean noModificado(String etag) {
+        return coincide(cabecera("If-None-Match"), etag, true);
+    }
+
+    /**
+     * @return true si no hay If-Match o incluye la ETag actual (o es "*"), con comparación fuerte
+     */
+    boolean precondicionCumplida(String etag) {
+        String ifMatch = cabecera("If-Match");
+        return ifMatch == null || coincide(ifMatch, etag, false);
+    }
+
+    /**
+     * @param debil true para ignorar el prefijo W/ (RFC 9110: If-None-Match); en la comparación
+     *              fuerte de If-Match una ETag débil nunca coincide
+     */
+    private static boolean coincide(String cabecera, String etag, boolean debil) {
+        if (cabecera == null) {
+            return false;
+        }
+        for (String candidata : cabecera.split(",")) {
+            String valor = candidata.trim();
+            if (valor.startsWith("W/")) {
+                if (!debil) {
+                    continue;
+                }
+                valor = valor.substring(2);
+            }
+            if (valor.equals("*") || valor.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ---- Respuestas ----
+
+    void responder(int estado, String cuerpoJson) throws IOException {
+        responder(estado, cuerpoJson, null);
+    }
+
+    void responder(int estado, String cuerpoJson, String etag) throws IOException {
+        if (etag != null) {
+            exchange.getResponseHeaders().set("ETag", etag);
+        }
+        byte[] bytes = cuerpoJson.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(estado, bytes.length);
+        try (OutputStream salida = exchange.getResponseBody()) {
+            salida.write(bytes);
+        }
+    }
+
+    /**
+     * Respuesta sin cuerpo (204, 304)
+     */
+    void sinCuerpo(int estado, String etag) throws IOException {
+        if (etag != null) {
+            exchange.getResponseHeaders().set("ETag", etag);
+        }
+        exchange.sendResponseHeaders(estado, -1);
+        exchange.close();
+    }
+
+    void cabeceraRespuesta(String nombre, String valor) {
+        exchange.getResponseHeaders().set(nombre, valor);
+    }
+
+    /**
+     * Inicia una respuesta 200 de longitud desconocida (chunked), comprimida con gzip si
+     * el cliente lo acepta. Quien llama escribe el cuerpo y cierra el flujo solo si terminó
+     * bien; si falla lo deja abierto para que {@link ManejadorApi} corte la conexión.
+     */
+    OutputStream respuestaEnStreaming(String tipoContenido) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", tipoContenido);
+        exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+        boolean gzip = aceptaGzip();
+        if (gzip) {
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream cuerpo = exchange.getResponseBody();
+        return gzip ? new GZIPOutputStream(cuerpo, 8192) : cuerpo;
+    }
+
+    Writer escritorEnStreaming() throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(respuestaEnStreaming(JSON), StandardCharsets.UTF_8), 8192);
+    }
+
+    private boolean aceptaGzip() {
+        String aceptadas = cabecera("Accept-Encoding");
+        if (aceptadas == null) {
+            return false;
+        }
+        for (String codificacion : aceptadas.toLowerCase(Locale.ROOT).split(",")) {
+            String valor = codificacion.trim();
+            if (valor.equals("gzip") || (valor.startsWith("gzip;") && !valor.replace(" ", "").endsWith("q=0"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,185 @@
+package com.testing.agil.http;
+
+import com.testing.agil.busqueda.Sugerencia;
+import com.testing.agil.importacion.ObjetoJsonPlano;
+import com.testing.agil.model.Mascota;
+import com.testing.agil.model.Propietario;
+import com.testing.agil.model.Usuario;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * Codificación JSON de los modelos para la API HTTP
+ * Escribe sobre cualquier Appendable, de modo que los listados van directamente al
+ * cuerpo de la respuesta sin armar el documento completo en memoria. Los nombres de
+ * campo son los mismos que usan la exportación y la importación.
+ */
+final class Json {
+
+    private Json() {
+    }
+
+    static void mascota(Appendable salida, Mascota m) throws IOException {
+        salida.append("{\"id\":").append(String.valueOf(m.getId()));
+        texto(salida, "nombre", m.getNombre());
+        texto(salida, "especie", m.getEspecie());
+        texto(salida, "raza", m.getRaza());
+        texto(salida, "fecha_nacimiento", m.getFechaNacimiento() == null ? null : m.getFechaNacimiento().toString());
+        texto(salida, "color", m.getColor());
+        texto(salida, "propietario", m.getPropietario());
+        texto(salida, "telefono", m.getTelefono());
+        texto(salida, "email", m.getEmail());
+        salida.append(",\"peso\":").append(String.valueOf(m.getPeso()));
+        salida.append(",\"esterilizado\":").append(String.valueOf(m.isEsterilizado()));
+        salida.append(",\"activo\":").append(String.valueOf(m.isActivo()));
+        salida.append(",\"version\":").append(String.valueOf(m.getVersion())).append('}');
+    }
+
+    static void usuario(Appendable salida, Usuario u) throws IOException {
+        salida.append("{\"id\":").append(String.valueOf(u.getId()));
+        texto(salida, "nombre", u.getNombre());
+        texto(salida, "email", u.getEmail());
+        salida.append(",\"edad\":").append(String.valueOf(u.getEdad()));
+        salida.append(",\"activo\":").append(String.valueOf(u.isActivo()));
+        salida.append(",\"version\":").append(String.valueOf(u.getVersion())).append('}');
+    }
+
+    static void propietario(Appendable salida, Propietario p) throws IOException {
+        salida.append("{\"id\":").append(String.valueOf(p.getId()));
+        texto(salida, "nombre", p.getNombre());
+        texto(salida, "telefono", p.getTelefono());
+        texto(salida, "email", p.getEmail());
+        salida.append(",\"mascotas\":[");
+        boolean primera = true;
+        for (Mascota mascota : p.getMascotas()) {
+            if (!primera) {
+                salida.append(',');
+            }
+            mascota(salida, mascota);
+            primera = false;
+        }
+        salida.append("]}");
+    }
+
+    static void sugerencia(Appendable salida, Sugerencia s) throws IOException {
+        salida.append("{\"id\":").append(String.valueOf(s.getId()));
+        texto(salida, "nombre", s.getNombre());
+        texto(salida, "propietario", s.getPropietario());
+        salida.append('}');
+    }
+
+    static void conteos(Appendable salida, Map<String, Long> conteos) throws IOException {
+        salida.append('{');
+        boolean primero = true;
+        for (Map.Entry<String, Long> entrada : conteos.entrySet()) {
+            if (!primero) {
+                salida.append(',');
+            }
+            cadena(salida, entrada.getKey());
+            salida.append(':').append(String.valueOf(entrada.getValue()));
+            primero = false;
+        }
+        salida.append('}');
+    }
+
+    static String error(String mensaje) {
+        StringBuilder salida = new StringBuilder("{\"error\":");
+        try {
+            cadena(salida, mensaje == null ? "Error interno" : mensaje);
+        } catch (IOException e) {
+            // StringBuilder no lanza IOException
+            throw new IllegalStateException(e);
+        }
+        return salida.append('}').toString();
+    }
+
+    // ---- Lectura ----
+
+    /**
+     * @throws IllegalArgumentException si el cuerpo no es un objeto válido o un campo tiene un formato incorrecto
+     */
+    static Mascota leerMascota(String cuerpo) {
+        Map<String, String> campos = ObjetoJsonPlano.parsear(cuerpo);
+        Mascota mascota = new Mascota(campos.get("nombre"), campos.get("especie"), campos.get("raza"),
+                fecha(campos.get("fecha_nacimiento"), "fecha_nacimiento"), campos.get("color"),
+                campos.get("propietario"), campos.get("telefono"), campos.get("email"),
+                decimal(campos.get("peso"), "peso"));
+        mascota.setEsterilizado(Boolean.parseBoolean(campos.get("esterilizado")));
+        return mascota;
+    }
+
+    /**
+     * @throws IllegalArgumentException si el cuerpo no es un objeto válido o la edad no es un número
+     */
+    static Usuario leerUsuario(String cuerpo) {
+        Map<String, String> campos = ObjetoJsonPlano.parsear(cuerpo);
+        String edad = campos.get("edad");
+        try {
+            return new Usuario(campos.get("nombre"), campos.get("email"), edad == null ? 0 : Integer.parseInt(edad));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor de edad inválido: " + edad);
+        }
+    }
+
+    static LocalDate leerFecha(String cuerpo, String campo) {
+        return fecha(ObjetoJsonPlano.parsear(cuerpo).get(campo), campo);
+    }
+
+    private static LocalDate fecha(String valor, String campo) {
+        if (valor == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(valor);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Valor de " + campo + " inválido: " + valor);
+        }
+    }
+
+    private static double decimal(String valor, String campo) {
+        if (valor == null) {
+            return 0;
+        }
+        try {
+            return Double.parseDouble(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor de " + campo + " inválido: " + valor);
+        }
+    }
+
+    // ---- Texto ----
+
+    private static void texto(Appendable salida, String nombre, String valor) throws IOException {
+        salida.append(",\"").append(nombre).append("\":");
+        if (valor == null) {
+            salida.append("null");
+        } else {
+            cadena(salida, valor);
+        }
+    }
+
+    private static void cadena(Appendable salida, String valor) throws IOException {
+        salida.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"' -> salida.append("\\\"");
+                case '\\' -> salida.append("\\\\");
+                case '\n' -> salida.append("\\n");
+                case '\r' -> salida.append("\\r");
+                case '\t' -> salida.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        salida.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        salida.append(c);
+                    }
+                }
+            }
+        }
+        salida.append('"');
+    }
+}
@@ -0,0 +1,143 @@
+package com.testing.agil.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.testing.agil.repository.ConflictoConcurrenciaException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Base de los manejadores de la API: traduce las excepciones de los servicios a estados HTTP
+ * IllegalArgumentException es un 400 (datos inválidos, como en los servicios),
+ * ConflictoConcurrenciaException un 412 y cualquier otra excepción un 500.
+ * Si la excepción llega con las cabeceras ya enviadas (listado en streaming) se corta la
+ * conexión, para que el cliente no reciba como completa una respuesta truncada.
+ */
+abstract class ManejadorApi implements HttpHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ManejadorApi.class);
+
+    private final String contexto;
+
+    ManejadorApi(String contexto) {
+        this.contexto = contexto;
+    }
+
+    String getContexto() {
+        return contexto;
+    }
+
+    protected abstract void atender(Intercambio intercambio) throws IOException;
+
+    @Override
+    public final void handle(HttpExchange exchange) throws IOException {
+        Intercambio intercambio = new Intercambio(exchange, contexto);
+        boolean cortar = false;
+        try {
+            atender(intercambio);
+        } catch (IllegalArgumentException e) {
+            cortar = !responderError(exchange, intercambio, 400, e.getMessage());
+        } catch (ConflictoConcurrenciaException e) {
+            cortar = !responderError(exchange, intercambio, 412, e.getMessage());
+        } catch (IOException e) {
+            // El cliente cerró la conexión a mitad de la respuesta
+            logger.debug("{} {} interrumpida: {}", exchange.getRequestMethod(), exchange.getRequestURI(), e.getMessage());
+            cortar = exchange.getResponseCode() != -1;
+        } catch (RuntimeException e) {
+            logger.error("Error al atender {} {}: {}", exchange.getRequestMethod(), exchange.getRequestURI(), e.getMessage(), e);
+            cortar = !responderError(exchange, intercambio, 500, e.getMessage());
+        } finally {
+            if (!cortar) {
+                exchange.close();
+            }
+        }
+        if (cortar) {
+            // Cerrar el intercambio escribiría el chunk final; al propagar la excepción con el
+            // cuerpo aún abierto, el servidor cierra el socket y el cliente ve la respuesta incompleta
+            throw new IOException("Respuesta de " + exchange.getRequestURI() + " interrumpida tras enviar las cabeceras");
+        }
+    }
+
+    /**
+     * @return false si ya se enviaron las cabeceras y no se puede cambiar el estado
+     */
+    private static boolean responderError(HttpExchange exchange, Intercambio intercambio, int estado, String mensaje) {
+        if (exchange.getResponseCode() != -1) {
+            return false;
+        }
+        try {
+            intercambio.responder(estado, Json.error(mensaje));
+        } catch (IOException e) {
+            logger.debug("No se pudo enviar el error {}: {}", estado, e.getMessage());
+        }
+        return true;
+    }
+
+    protected static void noEncontrado(Intercambio intercambio, String mensaje) throws IOException {
+        intercambio.responder(404, Json.error(mensaje));
+    }
+
+    protected static void metodoNoPermitido(Intercambio intercambio, String permitidos) throws IOException {
+        intercambio.cabeceraRespuesta("Allow", permitidos);
+        intercambio.responder(405, Json.error("Método no permitido: " + intercambio.metodo()));
+    }
+
+    /** Codifica un elemento de un listado */
+    @FunctionalInterface
+    protected interface Codificador<T> {
+        void escribir(Writer salida, T elemento) throws IOException;
+    }
+
+    /**
+     * Escribe un arreglo JSON elemento a elemento en una respuesta en streaming
+     */
+    protected static <T> void listado(Intercambio intercambio, List<T> elementos, Codificador<T> codificador)
+            throws IOException {
+        // Si un elemento falla el escritor queda abierto y handle corta la conexión
+        Writer salida = intercambio.escritorEnStreaming();
+        salida.write('[');
+        for (int i = 0; i < elementos.size(); i++) {
+            if (i > 0) {
+                salida.write(',');
+            }
+            salida.write('\n');
+            codificador.escribir(salida, elementos.get(i));
+        }
+        salida.write(elementos.isEmpty() ? "]\n" : "\n]\n");
+        salida.close();
+    }
+
+    /**
+     * Como {@link #listado}, pero escribe cada elemento según lo entrega el cursor
+     * @param recorrer recorrido del repositorio que entrega los elementos uno a uno
+     */
+    protected static <T> void listadoEnStreaming(Intercambio intercambio, Consumer<Consumer<T>> recorrer,
+                                                 Codificador<T> codificador) throws IOException {
+        // Como en listado: si el cursor falla el escritor queda abierto y handle corta la conexión
+        Writer salida = intercambio.escritorEnStreaming();
+        boolean[] vacio = {true};
+        salida.write('[');
+        try {
+            recorrer.accept(elemento -> {
+                try {
+                    salida.write(vacio[0] ? "\n" : ",\n");
+                    codificador.escribir(salida, elemento);
+                    vacio[0] = false;
+                } catch (IOException e) {
+                    // Los recorridos del repositorio no admiten excepciones comprobadas
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        salida.write(vacio[0] ? "]\n" : "\n]\n");
+        salida.close();
+    }
+}
@@ -0,0 +1,253 @@
+package com.testing.agil.http;
+
+import com.testing.agil.exportacion.ExportadorMascotas;
+import com.testing.agil.exportacion.FormatoExportacion;
+import com.testing.agil.model.Mascota;
+import com.testing.agil.repository.FiltroMascotas;
+import com.testing.agil.service.BusquedaMascotasService;
+import com.testing.agil.service.MascotaService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * /mascotas
+ * <pre>
+ * GET    /mascotas                    listado en streaming (JSON, NDJSON o CSV) con filtros por parámetro
+ * POST   /mascotas                    registrarMascota
+ * GET    /mascotas/{id}               con ETag; If-None-Match devuelve 304
+ * PUT    /mascotas/{id}               actualizarMascota; If-Match desactualizado devuelve 412
+ * DELETE /mascotas/{id}               eliminación lógica
+ * POST   /mascotas/{id}/reactivar
+ * POST   /mascotas/{id}/vacunas       {"fecha": "AAAA-MM-DD"}
+ * GET    /mascotas/cachorros | senior | vacunacion-pendiente   en streaming, con formato y limite
+ * GET    /mascotas/estadisticas
+ * GET    /mascotas/sugerencias?q=     autocompletado desde el índice en memoria
+ * GET    /mascotas/busqueda?q=        búsqueda tolerante a errores desde el índice en memoria
+ * </pre>
+ */
+final class ManejadorMascotas extends ManejadorApi {
+
+    /** Resultados de sugerencias y búsqueda aproximada si no se pide otro límite */
+    private static final int LIMITE_SUGERENCIAS = 10;
+
+    private final MascotaService mascotaService;
+    private final BusquedaMascotasService busqueda;
+    private final ExportadorMascotas exportador;
+
+    ManejadorMascotas(MascotaService mascotaService, BusquedaMascotasService busqueda, ExportadorMascotas exportador) {
+        super("/mascotas");
+        this.mascotaService = mascotaService;
+        this.busqueda = busqueda;
+        this.exportador = exportador;
+    }
+
+    @Override
+    protected void atender(Intercambio intercambio) throws IOException {
+        String metodo = intercambio.metodo();
+        switch (intercambio.segmentos()) {
+            case 0 -> {
+                if (metodo.equals("GET")) {
+                    listar(intercambio);
+                } else if (metodo.equals("POST")) {
+                    Mascota registrada = mascotaService.registrarMascota(Json.leerMascota(intercambio.cuerpo()));
+                    intercambio.cabeceraRespuesta("Location", getContexto() + "/" + registrada.getId());
+                    intercambio.responder(201, json(registrada), etag(registrada));
+                } else {
+                    metodoNoPermitido(intercambio, "GET, POST");
+                }
+            }
+            case 1 -> {
+                String recurso = intercambio.segmento(0);
+                if (recurso.isEmpty() || !Character.isDigit(recurso.charAt(0))) {
+                    consulta(intercambio, recurso);
+                } else {
+                    individual(intercambio, intercambio.id(0));
+                }
+            }
+            case 2 -> accion(intercambio, intercambio.id(0), intercambio.segmento(1));
+            default -> noEncontrado(intercambio, "Ruta no encontrada");
+        }
+    }
+
+    private void individual(Intercambio intercambio, long id) throws IOException {
+        switch (intercambio.metodo()) {
+            case "GET" -> {
+                Optional<Mascota> mascota = mascotaService.buscarPorId(id);
+                if (mascota.isEmpty()) {
+                    noEncontrado(intercambio, "No existe una mascota con ID: " + id);
+                    return;
+                }
+                String etag = etag(mascota.get());
+                if (intercambio.noModificado(etag)) {
+                    intercambio.sinCuerpo(304, etag);
+                } else {
+                    intercambio.responder(200, json(mascota.get()), etag);
+                }
+            }
+            case "PUT" -> {
+                Optional<Mascota> actual = mascotaService.buscarPorId(id);
+                if (actual.isEmpty()) {
+                    noEncontrado(intercambio, "No existe una mascota con ID: " + id);
+                    return;
+                }
+                String etag = etag(actual.get());
+                if (!intercambio.precondicionCumplida(etag)) {
+                    intercambio.responder(412, Json.error("La mascota fue modificada; versión actual " + etag), etag);
+                    return;
+                }
+                Mascota mascota = Json.leerMascota(intercambio.cuerpo());
+                mascota.setId(id);
+                mascota.setActivo(actual.get().isActivo());
+                // Si alguien la modifica entre la lectura y el UPDATE, el repositorio lanza el conflicto (412)
+                mascota.setVersion(actual.get().getVersion());
+                Mascota actualizada = mascotaService.actualizarMascota(mascota);
+                intercambio.responder(200, json(actualizada), etag(actualizada));
+            }
+            case "DELETE" -> {
+                if (mascotaService.eliminarMascota(id)) {
+                    intercambio.sinCuerpo(204, null);
+                } else {
+                    noEncontrado(intercambio, "No existe una mascota con ID: " + id);
+                }
+            }
+            default -> metodoNoPermitido(intercambio, "GET, PUT, DELETE");
+        }
+    }
+
+    private void accion(Intercambio intercambio, long id, String accion) throws IOException {
+        if (!intercambio.metodo().equals("POST")) {
+            metodoNoPermitido(intercambio, "POST");
+            return;
+        }
+        switch (accion) {
+            case "reactivar" -> {
+                if (mascotaService.reactivarMascotas(List.of(id)) > 0) {
+                    intercambio.sinCuerpo(204, null);
+                } else {
+                    noEncontrado(intercambio, "No existe una mascota inactiva con ID: " + id);
+                }
+            }
+            case "vacunas" -> {
+                if (mascotaService.buscarPorId(id).isEmpty()) {
+                    noEncontrado(intercambio, "No existe una mascota con ID: " + id);
+                    return;
+                }
+                mascotaService.registrarVacuna(id, Json.leerFecha(intercambio.cuerpo(), "fecha"));
+                intercambio.sinCuerpo(204, null);
+            }
+            default -> noEncontrado(intercambio, "Ruta no encontrada");
+        }
+    }
+
+    private void consulta(Intercambio intercambio, String nombre) throws IOException {
+        if (!intercambio.metodo().equals("GET")) {
+            metodoNoPermitido(intercambio, "GET");
+            return;
+        }
+        int limite = intercambio.parametroEntero("limite", FiltroMascotas.SIN_LIMITE);
+        switch (nombre) {
+            case "cachorros" -> exportar(intercambio, FiltroMascotas.cachorros().conLimite(limite));
+            case "senior" -> exportar(intercambio, FiltroMascotas.senior().conLimite(limite));
+            case "vacunacion-pendiente" -> exportar(intercambio, FiltroMascotas.vacunacionPendiente().conLimite(limite));
+            case "sugerencias" -> listado(intercambio, busqueda.autocompletar(intercambio.parametro("q"),
+                    intercambio.parametroEntero("limite", LIMITE_SUGERENCIAS)), Json::sugerencia);
+            case "busqueda" -> listado(intercambio, busqueda.buscarAproximado(intercambio.parametro("q"),
+                    intercambio.parametroEntero("limite", LIMITE_SUGERENCIAS)), Json::sugerencia);
+            case "estadisticas" -> {
+                StringBuilder cuerpo = new StringBuilder();
+                Json.conteos(cuerpo, mascotaService.obtenerEstadisticasPorEspecie());
+                intercambio.responder(200, cuerpo.toString());
+            }
+            default -> noEncontrado(intercambio, "Ruta no encontrada");
+        }
+    }
+
+    /**
+     * Recorre el cursor del repositorio y escribe cada fila al cliente según se lee,
+     * sin cargar el listado en memoria
+     */
+    private void listar(Intercambio intercambio) throws IOException {
+        exportar(intercambio, filtro(intercambio));
+    }
+
+    private void exportar(Intercambio intercambio, FiltroMascotas filtro) throws IOException {
+        FormatoExportacion formato = formato(intercambio.parametro("formato"));
+        String tipo = switch (formato) {
+            case CSV -> "text/csv; charset=utf-8";
+            case NDJSON -> "application/x-ndjson; charset=utf-8";
+            case JSON -> Intercambio.JSON;
+        };
+        // Sin try-with-resources: si la exportación falla el flujo queda abierto y se corta la conexión
+        OutputStream salida = intercambio.respuestaEnStreaming(tipo);
+        exportador.exportar(filtro, formato, salida);
+        salida.close();
+    }
+
+    /**
+     * especie, nombre, propietario, email, activas, esterilizado, edad_min, edad_max,
+     * orden (id, nombre, fecha_nacimiento, peso), desc y limite
+     */
+    private static FiltroMascotas filtro(Intercambio intercambio) {
+        FiltroMascotas filtro = FiltroMascotas.todas();
+        String valor;
+        if ((valor = intercambio.parametro("especie")) != null) {
+            filtro = filtro.conEspecie(valor);
+        }
+        if ((valor = intercambio.parametro("nombre")) != null) {
+            filtro = filtro.conNombre(valor);
+        }
+        if ((valor = intercambio.parametro("propietario")) != null) {
+            filtro = filtro.conPropietario(valor);
+        }
+        if ((valor = intercambio.parametro("email")) != null) {
+            filtro = filtro.conEmail(valor);
+        }
+        if ((valor = intercambio.parametro("activas")) != null) {
+            filtro = filtro.conActivo(Boolean.parseBoolean(valor));
+        }
+        if ((valor = intercambio.parametro("esterilizado")) != null) {
+            filtro = filtro.conEsterilizado(Boolean.parseBoolean(valor));
+        }
+        if (intercambio.parametro("edad_min") != null) {
+            filtro = filtro.conEdadMinima(intercambio.parametroEntero("edad_min", 0));
+        }
+        if (intercambio.parametro("edad_max") != null) {
+            filtro = filtro.conEdadMaxima(intercambio.parametroEntero("edad_max", 0));
+        }
+        if ((valor = intercambio.parametro("orden")) != null) {
+            FiltroMascotas.Orden orden;
+            try {
+                orden = FiltroMascotas.Orden.valueOf(valor.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Orden no válido: " + valor);
+            }
+            filtro = filtro.ordenadoPor(orden, Boolean.parseBoolean(intercambio.parametro("desc")));
+        }
+        return filtro.conLimite(intercambio.parametroEntero("limite", FiltroMascotas.SIN_LIMITE));
+    }
+
+    private static FormatoExportacion formato(String valor) {
+        if (valor == null) {
+            return FormatoExportacion.JSON;
+        }
+        try {
+            return FormatoExportacion.valueOf(valor.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Formato no válido: " + valor);
+        }
+    }
+
+    private static String etag(Mascota mascota) {
+        return Intercambio.etag(mascota.getId(), mascota.getVersion());
+    }
+
+    private static String json(Mascota mascota) throws IOException {
+        StringBuilder cuerpo = new StringBuilder(256);
+        Json.mascota(cuerpo, mascota);
+        return cuerpo.toString();
+    }
+}
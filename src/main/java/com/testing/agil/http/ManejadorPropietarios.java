@@ -0,0 +1,48 @@
+package com.testing.agil.http;
+
+import com.testing.agil.model.Propietario;
+import com.testing.agil.service.MascotaService;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * /propietarios
+ * <pre>
+ * GET    /propietarios/{email}     obtenerPropietarioConMascotas
+ * DELETE /propietarios/{email}     eliminarMascotasDePropietario; devuelve cuántas se eliminaron
+ * </pre>
+ */
+final class ManejadorPropietarios extends ManejadorApi {
+
+    private final MascotaService mascotaService;
+
+    ManejadorPropietarios(MascotaService mascotaService) {
+        super("/propietarios");
+        this.mascotaService = mascotaService;
+    }
+
+    @Override
+    protected void atender(Intercambio intercambio) throws IOException {
+        if (intercambio.segmentos() != 1) {
+            noEncontrado(intercambio, "Ruta no encontrada");
+            return;
+        }
+        String email = intercambio.segmento(0);
+        switch (intercambio.metodo()) {
+            case "GET" -> {
+                Optional<Propietario> propietario = mascotaService.obtenerPropietarioConMascotas(email);
+                if (propietario.isEmpty()) {
+                    noEncontrado(intercambio, "No existe un propietario con email: " + email);
+                    return;
+                }
+                StringBuilder cuerpo = new StringBuilder(512);
+                Json.propietario(cuerpo, propietario.get());
+                intercambio.responder(200, cuerpo.toString());
+            }
+            case "DELETE" -> intercambio.responder(200,
+                    "{\"eliminadas\":" + mascotaService.eliminarMascotasDePropietario(email) + "}");
+            default -> metodoNoPermitido(intercambio, "GET, DELETE");
+        }
+    }
+}
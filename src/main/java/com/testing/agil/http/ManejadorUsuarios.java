@@ -0,0 +1,140 @@
+package com.testing.agil.http;
+
+import com.testing.agil.model.Usuario;
+import com.testing.agil.repository.UsuarioRepository;
+import com.testing.agil.service.UsuarioService;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * /usuarios
+ * <pre>
+ * GET    /usuarios                 listado en streaming; ?activos=true solo activos, ?email= búsqueda exacta
+ * POST   /usuarios                 crearUsuario
+ * GET    /usuarios/{id}            con ETag; If-None-Match devuelve 304
+ * PUT    /usuarios/{id}            actualizarUsuario; If-Match desactualizado devuelve 412
+ * DELETE /usuarios/{id}            eliminación lógica; ?fisico=true borra la fila
+ * POST   /usuarios/{id}/reactivar
+ * GET    /usuarios/total           contarUsuarios
+ * </pre>
+ */
+final class ManejadorUsuarios extends ManejadorApi {
+
+    private final UsuarioService usuarioService;
+    private final UsuarioRepository usuarioRepository;
+
+    ManejadorUsuarios(UsuarioService usuarioService, UsuarioRepository usuarioRepository) {
+        super("/usuarios");
+        this.usuarioService = usuarioService;
+        this.usuarioRepository = usuarioRepository;
+    }
+
+    @Override
+    protected void atender(Intercambio intercambio) throws IOException {
+        String metodo = intercambio.metodo();
+        switch (intercambio.segmentos()) {
+            case 0 -> {
+                if (metodo.equals("GET")) {
+                    listar(intercambio);
+                } else if (metodo.equals("POST")) {
+                    Usuario creado = usuarioService.crearUsuario(Json.leerUsuario(intercambio.cuerpo()));
+                    intercambio.cabeceraRespuesta("Location", getContexto() + "/" + creado.getId());
+                    intercambio.responder(201, json(creado), etag(creado));
+                } else {
+                    metodoNoPermitido(intercambio, "GET, POST");
+                }
+            }
+            case 1 -> {
+                if (intercambio.segmento(0).equals("total")) {
+                    if (metodo.equals("GET")) {
+                        intercambio.responder(200, "{\"total\":" + usuarioService.contarUsuarios() + "}");
+                    } else {
+                        metodoNoPermitido(intercambio, "GET");
+                    }
+                } else {
+                    individual(intercambio, intercambio.id(0));
+                }
+            }
+            case 2 -> {
+                long id = intercambio.id(0);
+                if (!intercambio.segmento(1).equals("reactivar")) {
+                    noEncontrado(intercambio, "Ruta no encontrada");
+                } else if (!metodo.equals("POST")) {
+                    metodoNoPermitido(intercambio, "POST");
+                } else if (usuarioService.reactivarUsuarios(List.of(id)) > 0) {
+                    intercambio.sinCuerpo(204, null);
+                } else {
+                    noEncontrado(intercambio, "No existe un usuario inactivo con ID: " + id);
+                }
+            }
+            default -> noEncontrado(intercambio, "Ruta no encontrada");
+        }
+    }
+
+    private void individual(Intercambio intercambio, long id) throws IOException {
+        Optional<Usuario> actual = usuarioService.buscarUsuarioPorId(id);
+        if (actual.isEmpty()) {
+            noEncontrado(intercambio, "Usuario no encontrado con ID: " + id);
+            return;
+        }
+        String etag = etag(actual.get());
+        switch (intercambio.metodo()) {
+            case "GET" -> {
+                if (intercambio.noModificado(etag)) {
+                    intercambio.sinCuerpo(304, etag);
+                } else {
+                    intercambio.responder(200, json(actual.get()), etag);
+                }
+            }
+            case "PUT" -> {
+                if (!intercambio.precondicionCumplida(etag)) {
+                    intercambio.responder(412, Json.error("El usuario fue modificado; versión actual " + etag), etag);
+                    return;
+                }
+                Usuario usuario = Json.leerUsuario(intercambio.cuerpo());
+                usuario.setActivo(actual.get().isActivo());
+                usuario.setVersion(actual.get().getVersion());
+                Usuario actualizado = usuarioService.actualizarUsuario(id, usuario);
+                intercambio.responder(200, json(actualizado), etag(actualizado));
+            }
+            case "DELETE" -> {
+                boolean fisico = Boolean.parseBoolean(intercambio.parametro("fisico"));
+                if (fisico) {
+                    usuarioService.eliminarUsuarioFisicamente(id);
+                } else {
+                    usuarioService.eliminarUsuario(id);
+                }
+                intercambio.sinCuerpo(204, null);
+            }
+            default -> metodoNoPermitido(intercambio, "GET, PUT, DELETE");
+        }
+    }
+
+    private void listar(Intercambio intercambio) throws IOException {
+        String email = intercambio.parametro("email");
+        if (email != null) {
+            Optional<Usuario> usuario = usuarioService.buscarUsuarioPorEmail(email);
+            listado(intercambio, usuario.map(List::of).orElse(List.of()), Json::usuario);
+            return;
+        }
+        // Cursor del repositorio en orden de ID, como los listados del servicio, sin cargarlos en memoria
+        boolean soloActivos = Boolean.parseBoolean(intercambio.parametro("activos"));
+        listadoEnStreaming(intercambio, consumidor -> usuarioRepository.recorrerTodos(usuario -> {
+            if (!soloActivos || usuario.isActivo()) {
+                consumidor.accept(usuario);
+            }
+        }), Json::usuario);
+    }
+
+    private static String etag(Usuario usuario) {
+        return Intercambio.etag(usuario.getId(), usuario.getVersion());
+    }
+
+    private static String json(Usuario usuario) throws IOException {
+        StringBuilder cuerpo = new StringBuilder(128);
+        Json.usuario(cuerpo, usuario);
+        return cuerpo.toString();
+    }
+}
@@ -0,0 +1,103 @@
+package com.testing.agil.http;
+
+import com.testing.agil.metrics.HistogramaLatencia;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prueba de carga de lazo cerrado contra la API HTTP
+ *
+ * Cada cliente es un hilo virtual que envía GET secuenciales, cada uno en cuanto llega la
+ * respuesta del anterior, repartiendo las rutas en turno rotatorio. Las primeras peticiones
+ * de cada cliente calientan JIT, conexiones y cachés y no se miden. Las latencias van a un
+ * {@link HistogramaLatencia} compartido, del que salen p50 y p99.
+ */
+public class PruebaCarga {
+
+    private static final Duration TIEMPO_MAXIMO = Duration.ofSeconds(30);
+
+    private final URI base;
+    private final List<String> rutas;
+    private final int clientes;
+    private final int peticionesPorCliente;
+
+    /**
+     * @param base p. ej. http://localhost:8080
+     * @param rutas rutas relativas a la base, p. ej. "/mascotas?limite=100"
+     * @param clientes clientes concurrentes
+     * @param peticionesPorCliente peticiones medidas de cada cliente
+     */
+    public PruebaCarga(URI base, List<String> rutas, int clientes, int peticionesPorCliente) {
+        if (base == null || rutas == null || rutas.isEmpty()) {
+            throw new IllegalArgumentException("La URI base y al menos una ruta son obligatorias");
+        }
+        if (clientes <= 0 || peticionesPorCliente <= 0) {
+            throw new IllegalArgumentException("Los clientes y las peticiones deben ser mayores que cero");
+        }
+        this.base = base;
+        this.rutas = List.copyOf(rutas);
+        this.clientes = clientes;
+        this.peticionesPorCliente = peticionesPorCliente;
+    }
+
+    public ResultadoPruebaCarga ejecutar() {
+        HistogramaLatencia latencias = new HistogramaLatencia();
+        LongAdder errores = new LongAdder();
+        // Ventana medida: del primer envío medido a la última respuesta medida
+        LongAccumulator primeraMedida = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        LongAccumulator ultimaMedida = new LongAccumulator(Math::max, Long.MIN_VALUE);
+        int calentamiento = Math.max(1, peticionesPorCliente / 10);
+        try (HttpClient cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(TIEMPO_MAXIMO)
+                .build()) {
+            // Al cerrarse, el ejecutor espera a que terminen todos los clientes
+            try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int c = 0; c < clientes; c++) {
+                    int desplazamiento = c;
+                    hilos.submit(() -> {
+                        for (int i = 0; i < calentamiento + peticionesPorCliente; i++) {
+                            HttpRequest peticion = HttpRequest.newBuilder(
+                                            base.resolve(rutas.get((desplazamiento + i) % rutas.size())))
+                                    .timeout(TIEMPO_MAXIMO)
+                                    .header("Accept-Encoding", "gzip")
+                                    .GET()
+                                    .build();
+                            long antes = System.nanoTime();
+                            boolean error;
+                            try {
+                                error = cliente.send(peticion, HttpResponse.BodyHandlers.discarding()).statusCode() >= 400;
+                            } catch (IOException e) {
+                                error = true;
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                return;
+                            }
+                            long despues = System.nanoTime();
+                            if (i >= calentamiento) {
+                                latencias.registrar(despues - antes);
+                                primeraMedida.accumulate(antes);
+                                ultimaMedida.accumulate(despues);
+                                if (error) {
+                                    errores.increment();
+                                }
+                            }
+                        }
+                    });
+                }
+            }
+        }
+        long duracion = latencias.getCantidad() == 0 ? 0 : ultimaMedida.get() - primeraMedida.get();
+        return new ResultadoPruebaCarga(latencias.getCantidad(), errores.sum(), duracion, latencias);
+    }
+}
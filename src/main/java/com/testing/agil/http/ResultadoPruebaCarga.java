@@ -0,0 +1,71 @@
+package com.testing.agil.http;
+
+import com.testing.agil.metrics.HistogramaLatencia;
+
+import java.io.PrintStream;
+
+/**
+ * Resultado de una {@link PruebaCarga}: peticiones medidas, errores y distribución de latencias
+ */
+public class ResultadoPruebaCarga {
+
+    private final long peticiones;
+    private final long errores;
+    private final long duracionNanos;
+    private final HistogramaLatencia latencias;
+
+    ResultadoPruebaCarga(long peticiones, long errores, long duracionNanos, HistogramaLatencia latencias) {
+        this.peticiones = peticiones;
+        this.errores = errores;
+        this.duracionNanos = duracionNanos;
+        this.latencias = latencias;
+    }
+
+    /**
+     * @return peticiones medidas, sin contar el calentamiento
+     */
+    public long getPeticiones() {
+        return peticiones;
+    }
+
+    /**
+     * @return respuestas 4xx/5xx y peticiones sin respuesta
+     */
+    public long getErrores() {
+        return errores;
+    }
+
+    public long getDuracionMillis() {
+        return duracionNanos / 1_000_000;
+    }
+
+    public double getPeticionesPorSegundo() {
+        return duracionNanos == 0 ? 0 : peticiones * 1e9 / duracionNanos;
+    }
+
+    public long getP50Nanos() {
+        return latencias.percentilNanos(50);
+    }
+
+    public long getP99Nanos() {
+        return latencias.percentilNanos(99);
+    }
+
+    public long getMaximoNanos() {
+        return latencias.getMaximoNanos();
+    }
+
+    public void imprimir(PrintStream salida) {
+        salida.println("=== Prueba de carga ===");
+        salida.printf("Peticiones: %d (%d errores) en %d ms, %.0f pet/s%n",
+                peticiones, errores, getDuracionMillis(), getPeticionesPorSegundo());
+        salida.printf("Latencia: p50 %.2f ms, p99 %.2f ms, máx %.2f ms%n",
+                getP50Nanos() / 1e6, getP99Nanos() / 1e6, getMaximoNanos() / 1e6);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ResultadoPruebaCarga{peticiones=%d, errores=%d, p50=%.2f ms, p99=%.2f ms, %.0f pet/s}",
+                peticiones, errores, getP50Nanos() / 1e6, getP99Nanos() / 1e6, getPeticionesPorSegundo());
+    }
+}
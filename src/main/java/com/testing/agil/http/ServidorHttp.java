@@ -0,0 +1,113 @@
+package com.testing.agil.http;
+
+import com.sun.net.httpserver.HttpServer;
+import com.testing.agil.exportacion.ExportadorMascotas;
+import com.testing.agil.repository.MascotaRepository;
+import com.testing.agil.repository.UsuarioRepository;
+import com.testing.agil.service.BusquedaMascotasService;
+import com.testing.agil.service.MascotaService;
+import com.testing.agil.service.UsuarioService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Servidor HTTP/JSON embebido sobre {@link HttpServer} del JDK
+ *
+ * Cada petición se atiende en su propio hilo virtual: las llamadas a SQLite bloquean,
+ * pero un hilo virtual bloqueado solo ocupa su pila en el heap, así que no hace falta
+ * dimensionar un pool. Las rutas están en {@link ManejadorMascotas},
+ * {@link ManejadorUsuarios} y {@link ManejadorPropietarios}.
+ *
+ * Los listados se escriben en streaming (chunked) según se leen y se comprimen con gzip
+ * si el cliente envía Accept-Encoding: gzip. Los recursos individuales llevan una ETag
+ * derivada de id y versión para GET condicional (304) y PUT condicional (412).
+ */
+public class ServidorHttp implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServidorHttp.class);
+
+    public static final int PUERTO_POR_DEFECTO = 8080;
+
+    /** Conexiones pendientes de aceptar; alto para soportar ráfagas de la prueba de carga */
+    private static final int BACKLOG = 1024;
+
+    private final List<ManejadorApi> manejadores;
+    private final InetSocketAddress direccion;
+    private HttpServer servidor;
+    private ExecutorService hilos;
+
+    /**
+     * @param busqueda sugerencias y búsqueda aproximada; sus índices deben estar iniciados
+     * @param mascotaRepository origen del cursor para los listados en streaming de mascotas
+     * @param usuarioRepository origen del cursor para el listado en streaming de usuarios
+     * @param direccion dirección de escucha; puerto 0 para uno libre cualquiera
+     */
+    public ServidorHttp(MascotaService mascotaService, UsuarioService usuarioService,
+                        BusquedaMascotasService busqueda, MascotaRepository mascotaRepository,
+                        UsuarioRepository usuarioRepository, InetSocketAddress direccion) {
+        if (mascotaService == null || usuarioService == null || busqueda == null
+                || mascotaRepository == null || usuarioRepository == null) {
+            throw new IllegalArgumentException("Los servicios y los repositorios no pueden ser nulos");
+        }
+        if (direccion == null) {
+            throw new IllegalArgumentException("La dirección no puede ser nula");
+        }
+        this.direccion = direccion;
+        this.manejadores = List.of(
+                new ManejadorMascotas(mascotaService, busqueda, new ExportadorMascotas(mascotaRepository)),
+                new ManejadorUsuarios(usuarioService, usuarioRepository),
+                new ManejadorPropietarios(mascotaService));
+    }
+
+    public synchronized void iniciar() {
+        if (servidor != null) {
+            throw new IllegalStateException("El servidor ya está iniciado");
+        }
+        try {
+            servidor = HttpServer.create(direccion, BACKLOG);
+        } catch (IOException e) {
+            throw new RuntimeException("Error al iniciar el servidor HTTP: " + e.getMessage(), e);
+        }
+        hilos = Executors.newVirtualThreadPerTaskExecutor();
+        servidor.setExecutor(hilos);
+        manejadores.forEach(manejador -> servidor.createContext(manejador.getContexto(), manejador));
+        servidor.start();
+        logger.info("Servidor HTTP escuchando en el puerto {}", getPuerto());
+    }
+
+    /**
+     * @return puerto real de escucha, útil si se pidió el 0
+     */
+    public synchronized int getPuerto() {
+        if (servidor == null) {
+            throw new IllegalStateException("El servidor no está iniciado");
+        }
+        return servidor.getAddress().getPort();
+    }
+
+    /**
+     * Deja de aceptar conexiones y espera a que terminen las peticiones en curso
+     * @param segundosEspera máximo a esperar antes de cortarlas
+     */
+    public synchronized void detener(int segundosEspera) {
+        if (servidor == null) {
+            return;
+        }
+        servidor.stop(segundosEspera);
+        hilos.shutdownNow();
+        servidor = null;
+        hilos = null;
+        logger.info("Servidor HTTP detenido");
+    }
+
+    @Override
+    public void close() {
+        detener(0);
+    }
+}
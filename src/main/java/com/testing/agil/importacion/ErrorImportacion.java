@@ -0,0 +1,31 @@
+package com.testing.agil.importacion;
+
+/**
+ * Fila rechazada durante una importación
+ */
+public class ErrorImportacion {
+
+    private final long linea;
+    private final String mensaje;
+
+    public ErrorImportacion(long linea, String mensaje) {
+        this.linea = linea;
+        this.mensaje = mensaje;
+    }
+
+    /**
+     * @return línea del archivo donde empieza la fila (la cabecera CSV es la línea 1)
+     */
+    public long getLinea() {
+        return linea;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    @Override
+    public String toString() {
+        return "Línea " + linea + ": " + mensaje;
+    }
+}
@@ -0,0 +1,29 @@
+package com.testing.agil.importacion;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Formatos de archivo aceptados por {@link ImportadorMascotas}
+ */
+public enum FormatoImportacion {
+    /** CSV con cabecera (RFC 4180: comillas dobles, "" como escape, saltos de línea entre comillas) */
+    CSV,
+    /** Un objeto JSON plano por línea (NDJSON / JSON Lines) */
+    NDJSON;
+
+    /**
+     * Deduce el formato por la extensión del archivo
+     * @throws IllegalArgumentException si la extensión no es .csv, .ndjson, .jsonl ni .json
+     */
+    public static FormatoImportacion porExtension(Path archivo) {
+        String nombre = archivo.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (nombre.endsWith(".csv")) {
+            return CSV;
+        }
+        if (nombre.endsWith(".ndjson") || nombre.endsWith(".jsonl") || nombre.endsWith(".json")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Formato de importación no reconocido: " + archivo.getFileName());
+    }
+}
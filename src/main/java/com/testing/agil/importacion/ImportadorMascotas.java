@@ -0,0 +1,322 @@
+package com.testing.agil.importacion;
+
+import com.testing.agil.model.Mascota;
+import com.testing.agil.repository.MascotaRepository;
+import com.testing.agil.service.MascotaService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Importación masiva de mascotas desde CSV o NDJSON
+ *
+ * El archivo pasa por cuatro etapas:
+ * 1. Lectura: el hilo llamante separa registros y los agrupa en lotes.
+ * 2. Validación: cada lote se decodifica y valida en un pool de hilos con las mismas
+ *    reglas que el alta individual ({@link MascotaService#validarMascota}).
+ * 3. Duplicados: los lotes validados se revisan en orden contra las claves nombre +
+ *    propietario ya existentes (cargadas una sola vez al empezar) y las del propio archivo.
+ * 4. Inserción: las filas aceptadas de cada lote se insertan con
+ *    {@link MascotaRepository#crearEnLote}, una transacción por lote.
+ *
+ * Solo hay un número fijo de lotes en vuelo, así que la memoria no depende del tamaño
+ * del archivo (salvo el conjunto de claves, proporcional al número de mascotas).
+ * Si se llama dentro de {@code GestorTransacciones.enTransaccion}, todos los lotes se
+ * unen a esa transacción y la importación es todo o nada.
+ */
+public class ImportadorMascotas implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportadorMascotas.class);
+
+    public static final int TAMANO_LOTE_POR_DEFECTO = 1000;
+    public static final int MAX_ERRORES_POR_DEFECTO = 1000;
+
+    private final MascotaService mascotaService;
+    private final MascotaRepository mascotaRepository;
+    private final int tamanoLote;
+    private final int maxErrores;
+    private final int lotesEnVuelo;
+    private final ExecutorService validadores;
+
+    /**
+     * Crea un importador con lotes de 1000 filas, 1000 errores como máximo y un hilo por núcleo
+     */
+    public ImportadorMascotas(MascotaService mascotaService, MascotaRepository mascotaRepository) {
+        this(mascotaService, mascotaRepository, TAMANO_LOTE_POR_DEFECTO, MAX_ERRORES_POR_DEFECTO,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param tamanoLote filas por lote de validación e inserción
+     * @param maxErrores errores de fila conservados en el resultado
+     * @param hilos hilos de validación
+     */
+    public ImportadorMascotas(MascotaService mascotaService, MascotaRepository mascotaRepository,
+                              int tamanoLote, int maxErrores, int hilos) {
+        if (mascotaService == null || mascotaRepository == null) {
+            throw new IllegalArgumentException("El servicio y el repositorio de mascotas no pueden ser nulos");
+        }
+        if (tamanoLote <= 0 || hilos <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote y el número de hilos deben ser mayores que cero");
+        }
+        if (maxErrores < 0) {
+            throw new IllegalArgumentException("El máximo de errores no puede ser negativo");
+        }
+        this.mascotaService = mascotaService;
+        this.mascotaRepository = mascotaRepository;
+        this.tamanoLote = tamanoLote;
+        this.maxErrores = maxErrores;
+        this.lotesEnVuelo = hilos * 2;
+        this.validadores = Executors.newFixedThreadPool(hilos, r -> {
+            Thread hilo = new Thread(r, "importacion-mascotas");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Importa un archivo, deduciendo el formato por su extensión
+     */
+    public ResultadoImportacion importar(Path archivo) {
+        if (archivo == null) {
+            throw new IllegalArgumentException("El archivo no puede ser nulo");
+        }
+        FormatoImportacion formato = FormatoImportacion.porExtension(archivo);
+        try (InputStream entrada = Files.newInputStream(archivo)) {
+            return importar(entrada, formato);
+        } catch (IOException e) {
+            throw new RuntimeException("Error al importar mascotas: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Importa desde un flujo UTF-8; el flujo no se cierra
+     * @return contadores y los primeros errores por fila
+     */
+    public ResultadoImportacion importar(InputStream entrada, FormatoImportacion formato) {
+        if (entrada == null || formato == null) {
+            throw new IllegalArgumentException("La entrada y el formato no pueden ser nulos");
+        }
+        long inicio = System.nanoTime();
+        Progreso progreso = new Progreso(cargarClavesExistentes());
+        Deque<Future<List<FilaValidada>>> pendientes = new ArrayDeque<>();
+        try {
+            LectorRegistros lector = LectorRegistros.para(formato,
+                    new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8), 64 * 1024));
+            List<RegistroCrudo> lote = new ArrayList<>(tamanoLote);
+            RegistroCrudo registro;
+            while ((registro = lector.leer()) != null) {
+                progreso.leidas++;
+                lote.add(registro);
+                if (lote.size() == tamanoLote) {
+                    pendientes.add(enviar(lote));
+                    lote = new ArrayList<>(tamanoLote);
+                    if (pendientes.size() >= lotesEnVuelo) {
+                        procesar(pendientes.poll(), progreso);
+                    }
+                }
+            }
+            if (!lote.isEmpty()) {
+                pendientes.add(enviar(lote));
+            }
+            while (!pendientes.isEmpty()) {
+                procesar(pendientes.poll(), progreso);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error al importar mascotas: " + e.getMessage(), e);
+        } finally {
+            pendientes.forEach(pendiente -> pendiente.cancel(true));
+        }
+
+        ResultadoImportacion resultado = new ResultadoImportacion(progreso.leidas, progreso.importadas,
+                progreso.invalidas, progreso.duplicadas, progreso.errores, (System.nanoTime() - inicio) / 1_000_000);
+        logger.info("Importación de mascotas terminada: {}", resultado);
+        return resultado;
+    }
+
+    private Set<String> cargarClavesExistentes() {
+        Set<String> claves = new HashSet<>();
+        mascotaRepository.recorrerTodas(m -> claves.add(clave(m)));
+        return claves;
+    }
+
+    private Future<List<FilaValidada>> enviar(List<RegistroCrudo> lote) {
+        return validadores.submit(() -> {
+            List<FilaValidada> validadas = new ArrayList<>(lote.size());
+            for (RegistroCrudo registro : lote) {
+                validadas.add(validar(registro));
+            }
+            return validadas;
+        });
+    }
+
+    private FilaValidada validar(RegistroCrudo registro) {
+        try {
+            Mascota mascota = convertir(registro.campos());
+            mascotaService.validarMascota(mascota);
+            return new FilaValidada(registro.getLinea(), mascota, null);
+        } catch (IllegalArgumentException e) {
+            return new FilaValidada(registro.getLinea(), null, e.getMessage());
+        }
+    }
+
+    /**
+     * Etapas de duplicados e inserción; se ejecutan en el hilo llamante y en el orden del archivo
+     */
+    private void procesar(Future<List<FilaValidada>> pendiente, Progreso progreso) {
+        List<FilaValidada> validadas = esperar(pendiente);
+        List<Mascota> aceptadas = new ArrayList<>(validadas.size());
+        for (FilaValidada fila : validadas) {
+            if (fila.mascota == null) {
+                progreso.invalidas++;
+                progreso.registrarError(fila.linea, fila.error, maxErrores);
+            } else if (!progreso.claves.add(clave(fila.mascota))) {
+                progreso.duplicadas++;
+                progreso.registrarError(fila.linea, String.format(
+                    "Ya existe una mascota llamada '%s' para el propietario '%s'",
+                    fila.mascota.getNombre(), fila.mascota.getPropietario()), maxErrores);
+            } else {
+                aceptadas.add(fila.mascota);
+            }
+        }
+        if (!aceptadas.isEmpty()) {
+            progreso.importadas += mascotaRepository.crearEnLote(aceptadas);
+        }
+    }
+
+    private static List<FilaValidada> esperar(Future<List<FilaValidada>> pendiente) {
+        try {
+            return pendiente.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Importación interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error al validar mascotas: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Convierte los campos de una fila en una mascota; no aplica las reglas de negocio
+     */
+    static Mascota convertir(Map<String, String> campos) {
+        Mascota mascota = new Mascota(
+            texto(campos, "nombre"),
+            texto(campos, "especie"),
+            texto(campos, "raza"),
+            fecha(texto(campos, "fecha_nacimiento")),
+            texto(campos, "color"),
+            texto(campos, "propietario"),
+            texto(campos, "telefono"),
+            texto(campos, "email"),
+            peso(texto(campos, "peso")));
+        mascota.setEsterilizado(booleano(texto(campos, "esterilizado")));
+        return mascota;
+    }
+
+    private static String texto(Map<String, String> campos, String columna) {
+        String valor = campos.get(columna);
+        if (valor == null) {
+            return null;
+        }
+        valor = valor.trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    private static LocalDate fecha(String valor) {
+        if (valor == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(valor);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Fecha de nacimiento inválida (se espera AAAA-MM-DD): " + valor);
+        }
+    }
+
+    private static double peso(String valor) {
+        if (valor == null) {
+            return 0;
+        }
+        try {
+            return Double.parseDouble(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Peso inválido: " + valor);
+        }
+    }
+
+    private static boolean booleano(String valor) {
+        if (valor == null) {
+            return false;
+        }
+        return switch (valor.toLowerCase(Locale.ROOT)) {
+            case "true", "1", "si", "sí" -> true;
+            case "false", "0", "no" -> false;
+            default -> throw new IllegalArgumentException("Valor de esterilizado inválido: " + valor);
+        };
+    }
+
+    /**
+     * Misma regla que el alta individual: nombre y propietario sin distinguir mayúsculas
+     */
+    private static String clave(Mascota mascota) {
+        String propietario = mascota.getPropietario() == null ? "" : mascota.getPropietario();
+        return mascota.getNombre().toLowerCase(Locale.ROOT) + '\n' + propietario.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void close() {
+        validadores.shutdownNow();
+    }
+
+    private static final class FilaValidada {
+        private final long linea;
+        private final Mascota mascota;
+        private final String error;
+
+        FilaValidada(long linea, Mascota mascota, String error) {
+            this.linea = linea;
+            this.mascota = mascota;
+            this.error = error;
+        }
+    }
+
+    private static final class Progreso {
+        private final Set<String> claves;
+        private final List<ErrorImportacion> errores = new ArrayList<>();
+        private long leidas;
+        private long importadas;
+        private long invalidas;
+        private long duplicadas;
+
+        Progreso(Set<String> claves) {
+            this.claves = claves;
+        }
+
+        void registrarError(long linea, String mensaje, int maxErrores) {
+            if (errores.size() < maxErrores) {
+                errores.add(new ErrorImportacion(linea, mensaje));
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.testing.agil.importacion;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lector CSV en streaming (RFC 4180)
+ * La primera fila es la cabecera con los nombres de columna. Admite campos entre comillas
+ * con comas, "" y saltos de línea. Las líneas vacías se ignoran.
+ */
+final class LectorCsv implements LectorRegistros {
+
+    /** Un registro más largo indica casi siempre unas comillas sin cerrar */
+    static final int MAX_CARACTERES_REGISTRO = 64 * 1024;
+
+    private final Reader entrada;
+    private final char[] buffer = new char[64 * 1024];
+    private final StringBuilder campo = new StringBuilder();
+    private final String[] cabecera;
+    private int posicion;
+    private int fin;
+    private long linea = 1;
+
+    LectorCsv(Reader entrada) throws IOException {
+        this.entrada = entrada;
+        String[] nombres = leerCampos();
+        if (nombres == null) {
+            throw new IllegalArgumentException("El archivo CSV está vacío");
+        }
+        if (!nombres[0].isEmpty() && nombres[0].charAt(0) == '\uFEFF') {
+            nombres[0] = nombres[0].substring(1);
+        }
+        for (int i = 0; i < nombres.length; i++) {
+            nombres[i] = nombres[i].trim().toLowerCase(Locale.ROOT);
+        }
+        this.cabecera = nombres;
+    }
+
+    @Override
+    public RegistroCrudo leer() throws IOException {
+        while (true) {
+            long inicio = linea;
+            String[] campos = leerCampos();
+            if (campos == null) {
+                return null;
+            }
+            if (campos.length > 1 || !campos[0].isEmpty()) {
+                return new RegistroCsv(inicio, cabecera, campos);
+            }
+        }
+    }
+
+    private String[] leerCampos() throws IOException {
+        List<String> campos = new ArrayList<>(cabecera == null ? 16 : cabecera.length);
+        campo.setLength(0);
+        long inicio = linea;
+        boolean entreComillas = false;
+        int longitud = 0;
+        while (true) {
+            int c = siguiente();
+            if (c < 0) {
+                if (longitud == 0) {
+                    return null;
+                }
+                if (entreComillas) {
+                    throw new IllegalArgumentException("Comillas sin cerrar en el registro de la línea " + inicio);
+                }
+                break;
+            }
+            if (++longitud > MAX_CARACTERES_REGISTRO) {
+                throw new IllegalArgumentException("Registro demasiado largo en la línea " + inicio);
+            }
+            if (entreComillas) {
+                if (c == '"') {
+                    if (mirar() == '"') {
+                        siguiente();
+                        campo.append('"');
+                    } else {
+                        entreComillas = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        linea++;
+                    }
+                    campo.append((char) c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && mirar() == '\n') {
+                    siguiente();
+                }
+                linea++;
+                break;
+            } else {
+                campo.append((char) c);
+            }
+        }
+        campos.add(campo.toString());
+        return campos.toArray(new String[0]);
+    }
+
+    private int siguiente() throws IOException {
+        if (posicion == fin && !rellenar()) {
+            return -1;
+        }
+        return buffer[posicion++];
+    }
+
+    private int mirar() throws IOException {
+        if (posicion == fin && !rellenar()) {
+            return -1;
+        }
+        return buffer[posicion];
+    }
+
+    private boolean rellenar() throws IOException {
+        int leidos = entrada.read(buffer, 0, buffer.length);
+        if (leidos <= 0) {
+            return false;
+        }
+        posicion = 0;
+        fin = leidos;
+        return true;
+    }
+
+    private static final class RegistroCsv extends RegistroCrudo {
+
+        private final String[] cabecera;
+        private final String[] valores;
+
+        RegistroCsv(long linea, String[] cabecera, String[] valores) {
+            super(linea);
+            this.cabecera = cabecera;
+            this.valores = valores;
+        }
+
+        @Override
+        Map<String, String> campos() {
+            if (valores.length != cabecera.length) {
+                throw new IllegalArgumentException(String.format(
+                    "Se esperaban %d columnas y la fila tiene %d", cabecera.length, valores.length));
+            }
+            Map<String, String> campos = new HashMap<>(cabecera.length * 2);
+            for (int i = 0; i < cabecera.length; i++) {
+                campos.put(cabecera[i], valores[i]);
+            }
+            return campos;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.testing.agil.importacion;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Map;
+
+/**
+ * Lector NDJSON: un objeto JSON plano por línea; las líneas vacías se ignoran
+ */
+final class LectorNdjson implements LectorRegistros {
+
+    private final BufferedReader entrada;
+    private long linea;
+
+    LectorNdjson(Reader entrada) {
+        this.entrada = entrada instanceof BufferedReader lector ? lector : new BufferedReader(entrada, 64 * 1024);
+    }
+
+    @Override
+    public RegistroCrudo leer() throws IOException {
+        String texto;
+        while ((texto = entrada.readLine()) != null) {
+            linea++;
+            if (!texto.isBlank()) {
+                return new RegistroJson(linea, texto);
+            }
+        }
+        return null;
+    }
+
+    private static final class RegistroJson extends RegistroCrudo {
+
+        private final String texto;
+
+        RegistroJson(long linea, String texto) {
+            super(linea);
+            this.texto = texto;
+        }
+
+        @Override
+        Map<String, String> campos() {
+            return ObjetoJsonPlano.parsear(texto);
+        }
+    }
+}
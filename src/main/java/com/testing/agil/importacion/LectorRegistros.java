@@ -0,0 +1,22 @@
+package com.testing.agil.importacion;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Primera etapa de la importación: separa el archivo en registros
+ */
+interface LectorRegistros {
+
+    /**
+     * @return el siguiente registro, o null al final del archivo
+     */
+    RegistroCrudo leer() throws IOException;
+
+    static LectorRegistros para(FormatoImportacion formato, Reader entrada) throws IOException {
+        return switch (formato) {
+            case CSV -> new LectorCsv(entrada);
+            case NDJSON -> new LectorNdjson(entrada);
+        };
+    }
+}
@@ -0,0 +1,143 @@
+package com.testing.agil.importacion;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Analizador mínimo de objetos JSON sin anidamiento
+ * Devuelve cada valor como texto: los números tal cual, true/false y null como null.
+ * Los objetos y arreglos anidados se rechazan: una fila de mascota no los necesita.
+ * También lo usa la API HTTP para leer los cuerpos de las peticiones.
+ */
+public final class ObjetoJsonPlano {
+
+    private final String texto;
+    private int posicion;
+
+    private ObjetoJsonPlano(String texto) {
+        this.texto = texto;
+    }
+
+    /**
+     * @throws IllegalArgumentException si el texto no es un objeto JSON plano válido
+     */
+    public static Map<String, String> parsear(String texto) {
+        return new ObjetoJsonPlano(texto).objeto();
+    }
+
+    private Map<String, String> objeto() {
+        Map<String, String> campos = new HashMap<>();
+        esperar('{');
+        if (consumir('}')) {
+            return terminar(campos);
+        }
+        do {
+            espacios();
+            String clave = cadena().toLowerCase(Locale.ROOT);
+            esperar(':');
+            campos.put(clave, valor());
+        } while (consumir(','));
+        esperar('}');
+        return terminar(campos);
+    }
+
+    private Map<String, String> terminar(Map<String, String> campos) {
+        espacios();
+        if (posicion != texto.length()) {
+            throw error("contenido inesperado tras el objeto");
+        }
+        return campos;
+    }
+
+    private String valor() {
+        espacios();
+        if (posicion >= texto.length()) {
+            throw error("falta un valor");
+        }
+        char c = texto.charAt(posicion);
+        if (c == '"') {
+            return cadena();
+        }
+        if (c == '{' || c == '[') {
+            throw error("no se admiten objetos ni arreglos anidados");
+        }
+        int inicio = posicion;
+        while (posicion < texto.length() && "-+.eE0123456789truefalsn".indexOf(texto.charAt(posicion)) >= 0) {
+            posicion++;
+        }
+        String literal = texto.substring(inicio, posicion);
+        if (literal.isEmpty()) {
+            throw error("valor no válido");
+        }
+        return literal.equals("null") ? null : literal;
+    }
+
+    private String cadena() {
+        if (posicion >= texto.length() || texto.charAt(posicion) != '"') {
+            throw error("se esperaba una cadena");
+        }
+        posicion++;
+        StringBuilder resultado = new StringBuilder();
+        while (posicion < texto.length()) {
+            char c = texto.charAt(posicion++);
+            if (c == '"') {
+                return resultado.toString();
+            }
+            if (c != '\\') {
+                resultado.append(c);
+                continue;
+            }
+            if (posicion >= texto.length()) {
+                break;
+            }
+            char escape = texto.charAt(posicion++);
+            switch (escape) {
+                case '"', '\\', '/' -> resultado.append(escape);
+                case 'b' -> resultado.append('\b');
+                case 'f' -> resultado.append('\f');
+                case 'n' -> resultado.append('\n');
+                case 'r' -> resultado.append('\r');
+                case 't' -> resultado.append('\t');
+                case 'u' -> {
+                    if (posicion + 4 > texto.length()) {
+                        throw error("escape \\u incompleto");
+                    }
+                    try {
+                        resultado.append((char) Integer.parseInt(texto.substring(posicion, posicion + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("escape \\u no válido");
+                    }
+                    posicion += 4;
+                }
+                default -> throw error("escape no válido \\" + escape);
+            }
+        }
+        throw error("cadena sin cerrar");
+    }
+
+    private void esperar(char esperado) {
+        if (!consumir(esperado)) {
+            throw error("se esperaba '" + esperado + "'");
+        }
+    }
+
+    private boolean consumir(char c) {
+        espacios();
+        if (posicion < texto.length() && texto.charAt(posicion) == c) {
+            posicion++;
+            return true;
+        }
+        return false;
+    }
+
+    private void espacios() {
+        while (posicion < texto.length() && Character.isWhitespace(texto.charAt(posicion))) {
+            posicion++;
+        }
+    }
+
+    private IllegalArgumentException error(String detalle) {
+        return new IllegalArgumentException("JSON no válido en la posición " + posicion + ": " + detalle);
+    }
+}
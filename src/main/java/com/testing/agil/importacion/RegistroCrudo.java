@@ -0,0 +1,27 @@
+package com.testing.agil.importacion;
+
+import java.util.Map;
+
+/**
+ * Fila leída del archivo pero aún sin decodificar
+ * El lector solo separa registros; la decodificación de campos se hace en los hilos
+ * de validación para que el hilo lector no sea el cuello de botella.
+ */
+abstract class RegistroCrudo {
+
+    private final long linea;
+
+    RegistroCrudo(long linea) {
+        this.linea = linea;
+    }
+
+    long getLinea() {
+        return linea;
+    }
+
+    /**
+     * @return valores por nombre de columna; un valor puede ser null
+     * @throws IllegalArgumentException si la fila está mal formada
+     */
+    abstract Map<String, String> campos();
+}
@@ -0,0 +1,70 @@
+package com.testing.agil.importacion;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resumen de una importación de mascotas
+ * Solo se conservan los primeros errores (ver {@link ImportadorMascotas}); los contadores
+ * incluyen todas las filas.
+ */
+public class ResultadoImportacion {
+
+    private final long leidas;
+    private final long importadas;
+    private final long invalidas;
+    private final long duplicadas;
+    private final List<ErrorImportacion> errores;
+    private final long duracionMillis;
+
+    public ResultadoImportacion(long leidas, long importadas, long invalidas, long duplicadas,
+                                List<ErrorImportacion> errores, long duracionMillis) {
+        this.leidas = leidas;
+        this.importadas = importadas;
+        this.invalidas = invalidas;
+        this.duplicadas = duplicadas;
+        this.errores = Collections.unmodifiableList(errores);
+        this.duracionMillis = duracionMillis;
+    }
+
+    public long getLeidas() {
+        return leidas;
+    }
+
+    public long getImportadas() {
+        return importadas;
+    }
+
+    public long getInvalidas() {
+        return invalidas;
+    }
+
+    public long getDuplicadas() {
+        return duplicadas;
+    }
+
+    public long getRechazadas() {
+        return invalidas + duplicadas;
+    }
+
+    public List<ErrorImportacion> getErrores() {
+        return errores;
+    }
+
+    /**
+     * @return true si hubo más filas rechazadas que errores conservados
+     */
+    public boolean isErroresTruncados() {
+        return errores.size() < getRechazadas();
+    }
+
+    public long getDuracionMillis() {
+        return duracionMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ResultadoImportacion{leidas=%d, importadas=%d, invalidas=%d, duplicadas=%d, duracion=%d ms}",
+                leidas, importadas, invalidas, duplicadas, duracionMillis);
+    }
+}
@@ -0,0 +1,120 @@
+package com.testing.agil.metrics;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias con buckets logarítmico-lineales (estilo HdrHistogram)
+ * Cada potencia de dos se divide en 8 sub-buckets, lo que da un error relativo
+ * máximo de ~12.5% con memoria constante. Registrar un valor no toma locks:
+ * cada bucket es un LongAdder creado perezosamente la primera vez que se usa.
+ */
+public class HistogramaLatencia {
+
+    private static final int BITS_SUB_BUCKET = 3;
+    private static final int SUB_BUCKETS = 1 << BITS_SUB_BUCKET;
+    // 2^40 ns ≈ 18 minutos: valores mayores se acumulan en el último bucket
+    private static final int EXPONENTE_MAXIMO = 40;
+    private static final int TOTAL_BUCKETS = (EXPONENTE_MAXIMO - BITS_SUB_BUCKET + 2) * SUB_BUCKETS;
+
+    private final AtomicReferenceArray<LongAdder> buckets = new AtomicReferenceArray<>(TOTAL_BUCKETS);
+    private final LongAdder cantidad = new LongAdder();
+    private final LongAdder suma = new LongAdder();
+    private volatile long maximo;
+
+    /**
+     * Registra una latencia en nanosegundos
+     * @param nanos duración medida; los valores negativos se ignoran
+     */
+    public void registrar(long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+        int indice = indiceBucket(nanos);
+        LongAdder bucket = buckets.get(indice);
+        if (bucket == null) {
+            buckets.compareAndSet(indice, null, new LongAdder());
+            bucket = buckets.get(indice);
+        }
+        bucket.increment();
+        cantidad.increment();
+        suma.add(nanos);
+        // Carrera benigna: el máximo es solo informativo
+        if (nanos > maximo) {
+            maximo = nanos;
+        }
+    }
+
+    public long getCantidad() {
+        return cantidad.sum();
+    }
+
+    public long getMaximoNanos() {
+        return maximo;
+    }
+
+    public double getPromedioNanos() {
+        long n = cantidad.sum();
+        return n == 0 ? 0 : (double) suma.sum() / n;
+    }
+
+    /**
+     * Calcula el valor aproximado en el percentil indicado
+     * @param percentil valor entre 0 y 100
+     * @return latencia en nanosegundos (límite superior del bucket)
+     */
+    public long percentilNanos(double percentil) {
+        long[] conteos = new long[TOTAL_BUCKETS];
+        long total = 0;
+        for (int i = 0; i < TOTAL_BUCKETS; i++) {
+            LongAdder bucket = buckets.get(i);
+            if (bucket != null) {
+                conteos[i] = bucket.sum();
+                total += conteos[i];
+            }
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long objetivo = (long) Math.ceil(total * Math.min(100.0, Math.max(0.0, percentil)) / 100.0);
+        long acumulado = 0;
+        for (int i = 0; i < TOTAL_BUCKETS; i++) {
+            acumulado += conteos[i];
+            if (acumulado >= Math.max(1, objetivo)) {
+                return Math.min(limiteSuperior(i), maximo);
+            }
+        }
+        return maximo;
+    }
+
+    public void reiniciar() {
+        for (int i = 0; i < TOTAL_BUCKETS; i++) {
+            buckets.set(i, null);
+        }
+        cantidad.reset();
+        suma.reset();
+        maximo = 0;
+    }
+
+    static int indiceBucket(long valor) {
+        if (valor < SUB_BUCKETS) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);
+        if (exponente > EXPONENTE_MAXIMO) {
+            return TOTAL_BUCKETS - 1;
+        }
+        int desplazamiento = exponente - BITS_SUB_BUCKET;
+        int sub = (int) ((valor >>> desplazamiento) & (SUB_BUCKETS - 1));
+        return (desplazamiento + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long limiteSuperior(int indice) {
+        if (indice < SUB_BUCKETS) {
+            return indice;
+        }
+        int desplazamiento = indice / SUB_BUCKETS - 1;
+        long sub = indice % SUB_BUCKETS;
+        return ((SUB_BUCKETS + sub + 1) << desplazamiento) - 1;
+    }
+}
@@ -0,0 +1,95 @@
+package com.testing.agil.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decorador genérico que mide cada método de una interfaz (repositorios y servicios)
+ * Usa un proxy dinámico para que los métodos que se agreguen a las interfaces
+ * queden instrumentados sin tener que escribir un decorador a mano.
+ */
+public final class Instrumentacion {
+
+    private Instrumentacion() {
+    }
+
+    /**
+     * Envuelve una implementación registrando sus métricas en el registro global
+     * @param interfaz interfaz a exponer
+     * @param destino implementación real
+     * @return proxy instrumentado
+     */
+    public static <T> T envolver(Class<T> interfaz, T destino) {
+        return envolver(interfaz, destino, RegistroMetricas.global());
+    }
+
+    /**
+     * Envuelve una implementación registrando sus métricas en el registro indicado
+     * @param interfaz interfaz a exponer
+     * @param destino implementación real
+     * @param registro registro donde se acumulan las métricas
+     * @return proxy instrumentado
+     */
+    public static <T> T envolver(Class<T> interfaz, T destino, RegistroMetricas registro) {
+        if (interfaz == null || destino == null || registro == null) {
+            throw new IllegalArgumentException("La interfaz, el destino y el registro no pueden ser null");
+        }
+        Object proxy = Proxy.newProxyInstance(interfaz.getClassLoader(), new Class<?>[]{interfaz},
+                new Manejador(interfaz.getSimpleName(), destino, registro));
+        return interfaz.cast(proxy);
+    }
+
+    /**
+     * Cuenta las filas de un resultado: tamaño de colecciones y mapas, 1 para Optional presente
+     */
+    static long contarFilas(Object resultado) {
+        if (resultado instanceof Collection<?> coleccion) {
+            return coleccion.size();
+        }
+        if (resultado instanceof Map<?, ?> mapa) {
+            return mapa.size();
+        }
+        if (resultado instanceof Optional<?> opcional) {
+            return opcional.isPresent() ? 1 : 0;
+        }
+        return 0;
+    }
+
+    private static final class Manejador implements InvocationHandler {
+
+        private final String prefijo;
+        private final Object destino;
+        private final RegistroMetricas registro;
+        private final Map<Method, MetricaMetodo> metricasPorMetodo = new ConcurrentHashMap<>();
+
+        Manejador(String prefijo, Object destino, RegistroMetricas registro) {
+            this.prefijo = prefijo;
+            this.destino = destino;
+            this.registro = registro;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return method.invoke(destino, args);
+            }
+            MetricaMetodo metrica = metricasPorMetodo.computeIfAbsent(method,
+                    m -> registro.metodo(prefijo + "." + m.getName()));
+            long inicio = System.nanoTime();
+            try {
+                Object resultado = method.invoke(destino, args);
+                metrica.registrar(System.nanoTime() - inicio, contarFilas(resultado), false);
+                return resultado;
+            } catch (InvocationTargetException e) {
+                metrica.registrar(System.nanoTime() - inicio, 0, true);
+                throw e.getCause();
+            }
+        }
+    }
+}
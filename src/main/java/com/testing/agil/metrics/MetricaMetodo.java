@@ -0,0 +1,64 @@
+package com.testing.agil.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de un método instrumentado: llamadas, errores, filas devueltas y latencia
+ * Todos los contadores son LongAdder para que los hilos concurrentes no compitan por la misma celda
+ */
+public class MetricaMetodo {
+
+    private final String nombre;
+    private final LongAdder llamadas = new LongAdder();
+    private final LongAdder errores = new LongAdder();
+    private final LongAdder filas = new LongAdder();
+    private final HistogramaLatencia latencia = new HistogramaLatencia();
+
+    public MetricaMetodo(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * Registra una invocación terminada
+     * @param nanos duración de la invocación
+     * @param filasDevueltas filas devueltas (0 si no aplica)
+     * @param fallo true si la invocación terminó con excepción
+     */
+    public void registrar(long nanos, long filasDevueltas, boolean fallo) {
+        llamadas.increment();
+        if (fallo) {
+            errores.increment();
+        }
+        if (filasDevueltas > 0) {
+            filas.add(filasDevueltas);
+        }
+        latencia.registrar(nanos);
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public long getLlamadas() {
+        return llamadas.sum();
+    }
+
+    public long getErrores() {
+        return errores.sum();
+    }
+
+    public long getFilas() {
+        return filas.sum();
+    }
+
+    public HistogramaLatencia getLatencia() {
+        return latencia;
+    }
+
+    public void reiniciar() {
+        llamadas.reset();
+        errores.reset();
+        filas.reset();
+        latencia.reiniciar();
+    }
+}
@@ -0,0 +1,61 @@
+package com.testing.agil.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Implementación JMX de las métricas, expuesta como com.testing.agil:type=Metricas
+ */
+public class Metricas implements MetricasMXBean {
+
+    public static final String NOMBRE_JMX = "com.testing.agil:type=Metricas";
+
+    private final RegistroMetricas registro;
+
+    public Metricas(RegistroMetricas registro) {
+        this.registro = registro;
+    }
+
+    /**
+     * Registra el registro global en el servidor MBean de la plataforma (idempotente)
+     */
+    public static void registrarEnJmx() {
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        try {
+            servidor.registerMBean(new Metricas(RegistroMetricas.global()), new ObjectName(NOMBRE_JMX));
+        } catch (InstanceAlreadyExistsException e) {
+            // Ya registrado por una inicialización anterior
+        } catch (JMException e) {
+            throw new IllegalStateException("No se pudo registrar el MBean de métricas", e);
+        }
+    }
+
+    @Override
+    public String getVolcado() {
+        return registro.volcarTexto();
+    }
+
+    @Override
+    public long getTotalLlamadas() {
+        return registro.instantanea().values().stream().mapToLong(MetricaMetodo::getLlamadas).sum();
+    }
+
+    @Override
+    public long getTotalErrores() {
+        return registro.instantanea().values().stream().mapToLong(MetricaMetodo::getErrores).sum();
+    }
+
+    @Override
+    public double percentilMs(String metodo, double percentil) {
+        MetricaMetodo metrica = registro.instantanea().get(metodo);
+        return metrica == null ? 0 : metrica.getLatencia().percentilNanos(percentil) / 1_000_000.0;
+    }
+
+    @Override
+    public void reiniciar() {
+        registro.reiniciar();
+    }
+}
@@ -0,0 +1,34 @@
+package com.testing.agil.metrics;
+
+/**
+ * Interfaz de gestión JMX para consultar las métricas desde jconsole o VisualVM
+ */
+public interface MetricasMXBean {
+
+    /**
+     * @return tabla de texto con todas las métricas
+     */
+    String getVolcado();
+
+    /**
+     * @return suma de llamadas de todos los métodos instrumentados
+     */
+    long getTotalLlamadas();
+
+    /**
+     * @return suma de errores de todos los métodos instrumentados
+     */
+    long getTotalErrores();
+
+    /**
+     * @param metodo nombre calificado del método
+     * @param percentil valor entre 0 y 100
+     * @return latencia en milisegundos, 0 si el método no tiene registros
+     */
+    double percentilMs(String metodo, double percentil);
+
+    /**
+     * Pone a cero todos los contadores
+     */
+    void reiniciar();
+}
@@ -0,0 +1,70 @@
+package com.testing.agil.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro central de métricas por método
+ * La búsqueda de una métrica existente es una lectura sin bloqueo de ConcurrentHashMap;
+ * solo la primera invocación de cada método crea su entrada.
+ */
+public class RegistroMetricas {
+
+    /** Nombre de la métrica que mide el tiempo de obtención de conexiones JDBC */
+    public static final String ADQUIRIR_CONEXION = "jdbc.adquirirConexion";
+
+    private static final RegistroMetricas GLOBAL = new RegistroMetricas();
+
+    private final Map<String, MetricaMetodo> metricas = new ConcurrentHashMap<>();
+
+    /**
+     * Registro compartido por toda la aplicación
+     * @return instancia global
+     */
+    public static RegistroMetricas global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Obtiene (o crea) la métrica de un método
+     * @param nombre nombre calificado, por ejemplo "MascotaRepository.buscarPorId"
+     * @return métrica del método
+     */
+    public MetricaMetodo metodo(String nombre) {
+        MetricaMetodo metrica = metricas.get(nombre);
+        return metrica != null ? metrica : metricas.computeIfAbsent(nombre, MetricaMetodo::new);
+    }
+
+    /**
+     * Copia ordenada por nombre de las métricas registradas
+     * @return mapa nombre → métrica
+     */
+    public Map<String, MetricaMetodo> instantanea() {
+        return new TreeMap<>(metricas);
+    }
+
+    public void reiniciar() {
+        metricas.values().forEach(MetricaMetodo::reiniciar);
+    }
+
+    /**
+     * Genera un volcado de texto legible con una fila por método
+     * @return tabla con llamadas, errores, filas y percentiles en milisegundos
+     */
+    public String volcarTexto() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-48s %10s %8s %10s %9s %9s %9s %9s%n",
+                "metodo", "llamadas", "errores", "filas", "prom ms", "p50 ms", "p99 ms", "max ms"));
+        for (MetricaMetodo m : instantanea().values()) {
+            HistogramaLatencia h = m.getLatencia();
+            sb.append(String.format("%-48s %10d %8d %10d %9.3f %9.3f %9.3f %9.3f%n",
+                    m.getNombre(), m.getLlamadas(), m.getErrores(), m.getFilas(),
+                    h.getPromedioNanos() / 1_000_000.0,
+                    h.percentilNanos(50) / 1_000_000.0,
+                    h.percentilNanos(99) / 1_000_000.0,
+                    h.getMaximoNanos() / 1_000_000.0));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,73 @@
+package com.testing.agil.model;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Especies admitidas en el sistema
+ * La búsqueda por texto usa una tabla precalculada: el caso habitual (nombre tal como
+ * se guarda, p. ej. "Perro") se resuelve sin crear cadenas intermedias.
+ */
+public enum Especie {
+    PERRO("Perro", 7),
+    GATO("Gato", 7),
+    AVE("Ave", 5),
+    CONEJO("Conejo", 5),
+    HAMSTER("Hamster", 5),
+    PEZ("Pez", 5),
+    REPTIL("Reptil", 5);
+
+    private static final Map<String, Especie> POR_TEXTO = new HashMap<>();
+
+    static {
+        for (Especie especie : values()) {
+            POR_TEXTO.put(especie.nombre, especie);
+            POR_TEXTO.put(especie.nombre.toLowerCase(Locale.ROOT), especie);
+            POR_TEXTO.put(especie.nombre.toUpperCase(Locale.ROOT), especie);
+        }
+    }
+
+    private final String nombre;
+    private final int edadSenior;
+
+    Especie(String nombre, int edadSenior) {
+        this.nombre = nombre;
+        this.edadSenior = edadSenior;
+    }
+
+    /**
+     * @return nombre canónico, el que se guarda en la base de datos
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * @return edad en años a partir de la cual la mascota se considera senior
+     */
+    public int getEdadSenior() {
+        return edadSenior;
+    }
+
+    /**
+     * Busca la especie sin distinguir mayúsculas ni espacios alrededor
+     * @return la especie, o null si el texto no corresponde a ninguna
+     */
+    public static Especie desde(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        Especie especie = POR_TEXTO.get(texto);
+        return especie != null ? especie : POR_TEXTO.get(texto.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Devuelve una instancia compartida del texto: el nombre de la especie si coincide
+     * exactamente, o el valor del diccionario general en otro caso
+     */
+    public static String canonica(String texto) {
+        Especie especie = desde(texto);
+        return especie != null && especie.nombre.equals(texto) ? especie.nombre : ValoresCanonicos.de(texto);
+    }
+}
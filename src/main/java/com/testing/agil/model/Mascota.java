@@ -1,6 +1,7 @@
 package com.testing.agil.model;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.Period;
 import java.util.Objects;
 
@@ -23,6 +24,12 @@ public class Mascota {
     private double peso; // en kilogramos
     private boolean esterilizado;
     private boolean activo;
+    private long version; // control de concurrencia optimista
+    private Long propietarioId; // referencia normalizada a la tabla propietarios
+    private Especie tipoEspecie; // especie reconocida, se mantiene junto con 'especie'
+    private LocalDateTime fechaCreacion; // marcas de la base (UTC); null si aún no se guardó
+    private LocalDateTime fechaActualizacion;
+    private LocalDateTime fechaArchivado; // solo en filas leídas de mascotas_archivo
     
     // Constructor vacío para frameworks
     public Mascota() {
@@ -36,6 +43,7 @@ public class Mascota {
         this();
         this.nombre = nombre;
         this.especie = especie;
+        this.tipoEspecie = Especie.desde(especie);
         this.raza = raza;
         this.fechaNacimiento = fechaNacimiento;
         this.color = color;
@@ -52,6 +60,7 @@ public class Mascota {
         this.id = id;
         this.nombre = nombre;
         this.especie = especie;
+        this.tipoEspecie = Especie.desde(especie);
         this.raza = raza;
         this.fechaNacimiento = fechaNacimiento;
         this.color = color;
@@ -63,6 +72,18 @@ public class Mascota {
         this.activo = activo;
     }
     
+    // Constructor de copia (incluye versión, propietario normalizado y marcas de tiempo)
+    public Mascota(Mascota origen) {
+        this(origen.id, origen.nombre, origen.especie, origen.raza, origen.fechaNacimiento,
+             origen.color, origen.propietario, origen.telefono, origen.email, origen.peso,
+             origen.esterilizado, origen.activo);
+        this.version = origen.version;
+        this.propietarioId = origen.propietarioId;
+        this.fechaCreacion = origen.fechaCreacion;
+        this.fechaActualizacion = origen.fechaActualizacion;
+        this.fechaArchivado = origen.fechaArchivado;
+    }
+    
     // Métodos de validación de negocio
     
     /**
@@ -82,18 +103,7 @@ public class Mascota {
      * @return true si la especie es válida
      */
     public boolean esEspecieValida() {
-        if (especie == null || especie.trim().isEmpty()) {
-            return false;
-        }
-        
-        String especieNormalizada = especie.trim().toLowerCase();
-        return especieNormalizada.equals("perro") || 
-               especieNormalizada.equals("gato") || 
-               especieNormalizada.equals("ave") || 
-               especieNormalizada.equals("conejo") ||
-               especieNormalizada.equals("hamster") ||
-               especieNormalizada.equals("pez") ||
-               especieNormalizada.equals("reptil");
+        return tipoEspecie != null;
     }
     
     /**
@@ -156,14 +166,8 @@ public class Mascota {
      * @return true si es senior
      */
     public boolean esSenior() {
-        int edad = calcularEdadEnAnios();
-        if (especie != null) {
-            String especieNormalizada = especie.toLowerCase();
-            if (especieNormalizada.equals("perro") || especieNormalizada.equals("gato")) {
-                return edad >= 7;
-            }
-        }
-        return edad >= 5; // Para otras especies
+        int edadSenior = tipoEspecie != null ? tipoEspecie.getEdadSenior() : 5; // 5 para otras especies
+        return calcularEdadEnAnios() >= edadSenior;
     }
     
     // Getters y Setters
@@ -190,6 +194,14 @@ public class Mascota {
     
     public void setEspecie(String especie) {
         this.especie = especie;
+        this.tipoEspecie = Especie.desde(especie);
+    }
+    
+    /**
+     * @return la especie reconocida, o null si el texto no corresponde a ninguna
+     */
+    public Especie getTipoEspecie() {
+        return tipoEspecie;
     }
     
     public String getRaza() {
@@ -264,6 +276,46 @@ public class Mascota {
         this.activo = activo;
     }
     
+    public long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(long version) {
+        this.version = version;
+    }
+    
+    public Long getPropietarioId() {
+        return propietarioId;
+    }
+    
+    public void setPropietarioId(Long propietarioId) {
+        this.propietarioId = propietarioId;
+    }
+    
+    public LocalDateTime getFechaCreacion() {
+        return fechaCreacion;
+    }
+    
+    public void setFechaCreacion(LocalDateTime fechaCreacion) {
+        this.fechaCreacion = fechaCreacion;
+    }
+    
+    public LocalDateTime getFechaActualizacion() {
+        return fechaActualizacion;
+    }
+    
+    public void setFechaActualizacion(LocalDateTime fechaActualizacion) {
+        this.fechaActualizacion = fechaActualizacion;
+    }
+    
+    public LocalDateTime getFechaArchivado() {
+        return fechaArchivado;
+    }
+    
+    public void setFechaArchivado(LocalDateTime fechaArchivado) {
+        this.fechaArchivado = fechaArchivado;
+    }
+    
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,89 @@
+package com.testing.agil.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Entidad Propietario: datos de contacto compartidos por todas sus mascotas
+ * Se identifica por su email normalizado (o por su nombre si no tiene email)
+ */
+public class Propietario {
+    private Long id;
+    private String nombre;
+    private String telefono;
+    private String email;
+    private List<Mascota> mascotas = new ArrayList<>();
+
+    // Constructor vacío
+    public Propietario() {
+    }
+
+    // Constructor completo
+    public Propietario(Long id, String nombre, String telefono, String email) {
+        this.id = id;
+        this.nombre = nombre;
+        this.telefono = telefono;
+        this.email = email;
+    }
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public void setNombre(String nombre) {
+        this.nombre = nombre;
+    }
+
+    public String getTelefono() {
+        return telefono;
+    }
+
+    public void setTelefono(String telefono) {
+        this.telefono = telefono;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public List<Mascota> getMascotas() {
+        return mascotas;
+    }
+
+    public void setMascotas(List<Mascota> mascotas) {
+        this.mascotas = mascotas;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Propietario that = (Propietario) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Propietario{id=%d, nombre='%s', email='%s', mascotas=%d}",
+                           id, nombre, email, mascotas.size());
+    }
+}
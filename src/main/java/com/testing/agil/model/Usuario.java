@@ -1,5 +1,7 @@
 package com.testing.agil.model;
 
+import java.util.Locale;
+
 /**
  * Entidad Usuario para el sistema CRUD
  * Implementa los principios de Clean Code y SOLID
@@ -10,11 +12,20 @@ public class Usuario {
     private String email;
     private int edad;
     private boolean activo;
+    private long version;
 
     // Constructor vacío
     public Usuario() {
     }
 
+    /**
+     * Forma en que se guarda y se compara un email: sin espacios alrededor y en minúsculas
+     * @return el email normalizado, o null si es null
+     */
+    public static String normalizarEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
     // Constructor con parámetros
     public Usuario(String nombre, String email, int edad) {
         this.nombre = nombre;
@@ -73,6 +84,14 @@ public class Usuario {
         this.activo = activo;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     // Métodos de negocio
     public boolean esEmailValido() {
         return email != null && email.contains("@") && email.contains(".");
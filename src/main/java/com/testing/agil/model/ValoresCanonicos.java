@@ -0,0 +1,40 @@
+package com.testing.agil.model;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Diccionario de instancias compartidas para campos con pocos valores distintos (raza, color)
+ * Al leer filas de la base cada valor llega como un String nuevo; pasándolo por aquí
+ * todas las mascotas con el mismo valor apuntan a la misma instancia y las copias se
+ * liberan enseguida. El diccionario está acotado: si se llena, los valores nuevos se
+ * devuelven tal cual.
+ */
+public final class ValoresCanonicos {
+
+    static final int MAX_VALORES = 8192;
+    private static final int MAX_LONGITUD = 64;
+
+    private static final ConcurrentMap<String, String> VALORES = new ConcurrentHashMap<>();
+
+    private ValoresCanonicos() {
+    }
+
+    /**
+     * @return la instancia compartida igual a {@code valor}, o el propio valor si no se guarda
+     */
+    public static String de(String valor) {
+        if (valor == null) {
+            return null;
+        }
+        String existente = VALORES.get(valor);
+        if (existente != null) {
+            return existente;
+        }
+        if (valor.length() > MAX_LONGITUD || VALORES.size() >= MAX_VALORES) {
+            return valor;
+        }
+        existente = VALORES.putIfAbsent(valor, valor);
+        return existente != null ? existente : valor;
+    }
+}
@@ -0,0 +1,265 @@
+package com.testing.agil.repository;
+
+import com.testing.agil.colecciones.LongArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trabajo de archivado de mascotas inactivas
+ * Mueve por lotes a mascotas_archivo las filas con activo = FALSE cuya última
+ * actualización es anterior a la ventana de retención, de modo que la tabla
+ * principal solo conserve datos vivos. Cada lote es una transacción corta para
+ * no bloquear a los escritores de la aplicación.
+ */
+public class ArchivadorMascotas implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchivadorMascotas.class);
+
+    private static final String SELECCIONAR_LOTE_SQL = """
+        SELECT id FROM mascotas
+        WHERE activo = FALSE AND fecha_actualizacion < datetime('now', ?)
+        ORDER BY id LIMIT ?
+        """;
+
+    private final MascotaRepositoryImpl repositorio;
+    private final String dbUrl;
+    private final Duration retencion;
+    private final int tamanoLote;
+    private ScheduledExecutorService programador;
+
+    /**
+     * @param repositorio repositorio cuya base de datos se archiva
+     * @param retencion antigüedad mínima de una baja para ser archivada
+     * @param tamanoLote filas movidas por transacción
+     */
+    public ArchivadorMascotas(MascotaRepositoryImpl repositorio, Duration retencion, int tamanoLote) {
+        if (repositorio == null) {
+            throw new IllegalArgumentException("El repositorio no puede ser nulo");
+        }
+        if (retencion == null || retencion.isNegative()) {
+            throw new IllegalArgumentException("La retención debe ser una duración positiva");
+        }
+        if (tamanoLote <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser mayor que cero");
+        }
+        this.repositorio = repositorio;
+        this.dbUrl = repositorio.getDbUrl();
+        this.retencion = retencion;
+        this.tamanoLote = tamanoLote;
+    }
+
+    /**
+     * Archiva todas las mascotas inactivas fuera de la ventana de retención
+     * @return número de mascotas movidas al archivo
+     */
+    public int archivar() {
+        int total = 0;
+        int movidas;
+        do {
+            movidas = archivarLote();
+            total += movidas;
+        } while (movidas == tamanoLote);
+
+        if (total > 0) {
+            logger.info("Archivadas {} mascotas inactivas", total);
+        }
+        return total;
+    }
+
+    /**
+     * Mueve un lote en una transacción: copia al archivo y borra de la tabla principal
+     */
+    private int archivarLote() {
+        try (Connection conn = ConexionSqlite.abrir(dbUrl)) {
+            conn.setAutoCommit(false);
+            try {
+                LongArrayList ids = seleccionarLote(conn);
+                if (ids.isEmpty()) {
+                    conn.commit();
+                    return 0;
+                }
+                String idsJson = ParametrosSql.listaJson(ids);
+
+                String copiar = "INSERT OR REPLACE INTO mascotas_archivo (" + MascotaRepositoryImpl.COLUMNAS + ") " +
+                                "SELECT " + MascotaRepositoryImpl.COLUMNAS + " FROM mascotas " +
+                                "WHERE id IN (" + ParametrosSql.IDS_JSON + ")";
+                try (PreparedStatement pstmt = conn.prepareStatement(copiar)) {
+                    pstmt.setString(1, idsJson);
+                    pstmt.executeUpdate();
+                }
+
+                String borrar = "DELETE FROM mascotas WHERE activo = FALSE AND id IN (" + ParametrosSql.IDS_JSON + ")";
+                int borradas;
+                try (PreparedStatement pstmt = conn.prepareStatement(borrar)) {
+                    pstmt.setString(1, idsJson);
+                    borradas = pstmt.executeUpdate();
+                }
+
+                conn.commit();
+                // Las filas se borran sin pasar por el repositorio: su caché y sus escuchas no lo saben
+                repositorio.borradasExternamente(ids);
+                return borradas;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al archivar mascotas: " + e.getMessage(), e);
+        }
+    }
+
+    private LongArrayList seleccionarLote(Connection conn) throws SQLException {
+        LongArrayList ids = new LongArrayList(Math.min(tamanoLote, 1024));
+        try (PreparedStatement pstmt = conn.prepareStatement(SELECCIONAR_LOTE_SQL)) {
+            pstmt.setString(1, modificadorSqlite(retencion));
+            pstmt.setInt(2, tamanoLote);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Elimina definitivamente del archivo las mascotas archivadas hace más de la antigüedad indicada
+     * @param antiguedad tiempo mínimo en el archivo
+     * @return número de filas eliminadas
+     */
+    public int purgarArchivo(Duration antiguedad) {
+        if (antiguedad == null || antiguedad.isNegative()) {
+            throw new IllegalArgumentException("La antigüedad debe ser una duración positiva");
+        }
+
+        String sql = "DELETE FROM mascotas_archivo WHERE fecha_archivado < datetime('now', ?)";
+
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, modificadorSqlite(antiguedad));
+            int purgadas = pstmt.executeUpdate();
+            if (purgadas > 0) {
+                logger.info("Purgadas {} mascotas del archivo", purgadas);
+            }
+            return purgadas;
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al purgar archivo de mascotas: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Devuelve al sistema de archivos hasta el número indicado de páginas libres
+     * Requiere auto_vacuum = INCREMENTAL; en otro modo SQLite lo ignora.
+     * @param paginas máximo de páginas a liberar (0 libera todas)
+     * @return páginas libres que quedan en la base de datos
+     */
+    public long vacuumIncremental(int paginas) {
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
+             Statement stmt = conn.createStatement()) {
+
+            stmt.execute("PRAGMA incremental_vacuum(" + Math.max(0, paginas) + ")");
+            try (ResultSet rs = stmt.executeQuery("PRAGMA freelist_count")) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al compactar base de datos: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Convierte una base creada sin auto_vacuum incremental
+     * Ejecuta un VACUUM completo una sola vez; en bases ya convertidas no hace nada.
+     * @return true si fue necesario convertir la base
+     */
+    public boolean habilitarVacuumIncremental() {
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
+             Statement stmt = conn.createStatement()) {
+
+            try (ResultSet rs = stmt.executeQuery("PRAGMA auto_vacuum")) {
+                // 2 = INCREMENTAL
+                if (rs.next() && rs.getInt(1) == 2) {
+                    return false;
+                }
+            }
+            stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
+            stmt.execute("VACUUM");
+            return true;
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al habilitar vacuum incremental: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Programa el archivado y un vacuum incremental periódicos en un hilo de fondo
+     * @param periodo intervalo entre ejecuciones
+     * @param paginasPorVacuum páginas liberadas en cada ejecución
+     */
+    public synchronized void iniciar(Duration periodo, int paginasPorVacuum) {
+        if (periodo == null || periodo.isNegative() || periodo.isZero()) {
+            throw new IllegalArgumentException("El periodo debe ser una duración positiva");
+        }
+        if (programador != null) {
+            throw new IllegalStateException("El archivador ya está en ejecución");
+        }
+        programador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "archivador-mascotas");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        programador.scheduleWithFixedDelay(() -> ejecutarCiclo(paginasPorVacuum),
+                periodo.toMillis(), periodo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void ejecutarCiclo(int paginasPorVacuum) {
+        // Una excepción no capturada cancelaría las ejecuciones siguientes
+        try {
+            if (archivar() > 0) {
+                vacuumIncremental(paginasPorVacuum);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Fallo en el ciclo de archivado de mascotas", e);
+        }
+    }
+
+    /**
+     * Detiene el archivado periódico, esperando al ciclo en curso
+     */
+    public synchronized void detener() {
+        if (programador == null) {
+            return;
+        }
+        programador.shutdown();
+        try {
+            programador.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        programador = null;
+    }
+
+    @Override
+    public void close() {
+        detener();
+    }
+
+    /**
+     * Traduce una duración al modificador de fecha de SQLite, p. ej. "-2592000 seconds"
+     */
+    private static String modificadorSqlite(Duration duracion) {
+        return "-" + duracion.toSeconds() + " seconds";
+    }
+}
@@ -0,0 +1,110 @@
+package com.testing.agil.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bitácora asíncrona de consultas lentas
+ * El hilo que ejecutó la consulta solo encola el reporte; un hilo de fondo obtiene
+ * el resultado de EXPLAIN QUERY PLAN y lo escribe en el logger "com.testing.agil.consultas.lentas".
+ * La cola es acotada y se descarta al llenarse, y los reportes se limitan por minuto
+ * (-Dsqlite.consultas.lentas.max.por.minuto, 30 por defecto).
+ */
+final class BitacoraConsultasLentas {
+
+    private static final BitacoraConsultasLentas GLOBAL = new BitacoraConsultasLentas(
+            Integer.getInteger("sqlite.consultas.lentas.max.por.minuto", 30),
+            LoggerFactory.getLogger("com.testing.agil.consultas.lentas"));
+    private static final long VENTANA_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final int maximoPorVentana;
+    private final Logger logger;
+    private final ThreadPoolExecutor escritor;
+    private final AtomicLong inicioVentana = new AtomicLong(System.nanoTime());
+    private final AtomicLong reportadosEnVentana = new AtomicLong();
+    private final AtomicLong suprimidos = new AtomicLong();
+
+    BitacoraConsultasLentas(int maximoPorVentana, Logger logger) {
+        this.maximoPorVentana = maximoPorVentana;
+        this.logger = logger;
+        this.escritor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(256),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "bitacora-consultas-lentas");
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                (tarea, ejecutor) -> suprimidos.incrementAndGet());
+    }
+
+    static BitacoraConsultasLentas global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Encola el reporte de una consulta lenta sin bloquear al llamador
+     */
+    void reportar(String sql, Object[] parametros, long filas, long duracionNanos, String dbUrl) {
+        if (!adquirirPermiso()) {
+            suprimidos.incrementAndGet();
+            return;
+        }
+        escritor.execute(() -> escribir(sql, parametros, filas, duracionNanos, dbUrl));
+    }
+
+    /**
+     * Límite por ventana fija de un minuto, sin locks
+     */
+    private boolean adquirirPermiso() {
+        long ahora = System.nanoTime();
+        long inicio = inicioVentana.get();
+        if (ahora - inicio >= VENTANA_NANOS && inicioVentana.compareAndSet(inicio, ahora)) {
+            reportadosEnVentana.set(0);
+        }
+        return reportadosEnVentana.incrementAndGet() <= maximoPorVentana;
+    }
+
+    private void escribir(String sql, Object[] parametros, long filas, long duracionNanos, String dbUrl) {
+        if (!logger.isWarnEnabled()) {
+            return;
+        }
+        long omitidos = suprimidos.getAndSet(0);
+        logger.warn("Consulta lenta: {} ms, {} filas{}\n  sql: {}\n  parámetros: {}\n  plan:\n{}",
+                String.format("%.1f", duracionNanos / 1_000_000.0), filas,
+                omitidos > 0 ? " (" + omitidos + " reportes omitidos)" : "",
+                sql.strip().replaceAll("\\s+", " "), Arrays.toString(parametros),
+                explicar(sql, parametros, dbUrl));
+    }
+
+    /**
+     * Ejecuta EXPLAIN QUERY PLAN con los mismos parámetros en una conexión aparte
+     */
+    private String explicar(String sql, Object[] parametros, String dbUrl) {
+        StringBuilder plan = new StringBuilder();
+        try (Connection conn = DriverManager.getConnection(dbUrl);
+             PreparedStatement pstmt = conn.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            for (int i = 0; i < parametros.length; i++) {
+                pstmt.setObject(i + 1, parametros[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    plan.append("    ").append(rs.getString("detail")).append('\n');
+                }
+            }
+        } catch (SQLException e) {
+            plan.append("    (plan no disponible: ").append(e.getMessage()).append(")\n");
+        }
+        return plan.length() == 0 ? "    (sin plan)\n" : plan.toString();
+    }
+}
@@ -0,0 +1,82 @@
+package com.testing.agil.repository;
+
+import com.testing.agil.colecciones.LongObjectMap;
+import com.testing.agil.model.Mascota;
+
+/**
+ * Caché de mascotas por ID para {@link MascotaRepositoryImpl}
+ *
+ * Las entradas se guardan y se entregan como copias, porque Mascota es mutable.
+ * Cada escritura del repositorio invalida la entrada afectada (o toda la caché si no
+ * se conocen los IDs) y avanza la generación: una lectura que empezó antes de la
+ * invalidación no puede volver a guardar el valor viejo. Al llenarse se vacía entera,
+ * lo que basta para el patrón de uso (ráfagas de búsquedas por ID).
+ */
+final class CacheMascotas {
+
+    private final int capacidad;
+    private final LongObjectMap<Mascota> entradas;
+    private long generacion;
+    private long aciertos;
+    private long fallos;
+
+    CacheMascotas(int capacidad) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad de la caché debe ser mayor que cero");
+        }
+        this.capacidad = capacidad;
+        this.entradas = new LongObjectMap<>(Math.min(capacidad, 1024));
+    }
+
+    /**
+     * @return generación actual; se pasa a {@link #guardar} tras leer de la base
+     */
+    synchronized long generacion() {
+        return generacion;
+    }
+
+    /**
+     * @return copia de la mascota en caché, o null si no está
+     */
+    synchronized Mascota obtener(long id) {
+        Mascota mascota = entradas.get(id);
+        if (mascota == null) {
+            fallos++;
+            return null;
+        }
+        aciertos++;
+        return new Mascota(mascota);
+    }
+
+    synchronized void guardar(Mascota mascota, long generacionLectura) {
+        if (generacionLectura != generacion) {
+            return;
+        }
+        if (entradas.size() >= capacidad) {
+            entradas.clear();
+        }
+        entradas.put(mascota.getId(), new Mascota(mascota));
+    }
+
+    synchronized void invalidar(long id) {
+        generacion++;
+        entradas.remove(id);
+    }
+
+    synchronized void invalidarTodo() {
+        generacion++;
+        entradas.clear();
+    }
+
+    synchronized int getTamano() {
+        return entradas.size();
+    }
+
+    synchronized long getAciertos() {
+        return aciertos;
+    }
+
+    synchronized long getFallos() {
+        return fallos;
+    }
+}
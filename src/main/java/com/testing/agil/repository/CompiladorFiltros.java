@@ -0,0 +1,138 @@
+package com.testing.agil.repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Traduce un {@link FiltroMascotas} a una consulta SQL parametrizada
+ *
+ * La forma de la consulta (qué criterios hay, el orden y si lleva límite) se codifica en un
+ * entero y el SQL se compila una sola vez por forma: los valores siempre viajan como
+ * parámetros, así que dos filtros con los mismos criterios comparten texto y SQLite
+ * reutiliza el plan. Las formas posibles están acotadas (2^13), por lo que la caché no crece
+ * sin límite.
+ */
+final class CompiladorFiltros {
+
+    private static final int ESPECIE = 1;
+    private static final int ACTIVO = 1 << 1;
+    private static final int NACIDA_HASTA = 1 << 2;
+    private static final int NACIDA_DESPUES = 1 << 3;
+    private static final int NOMBRE = 1 << 4;
+    private static final int PROPIETARIO = 1 << 5;
+    private static final int EMAIL = 1 << 6;
+    private static final int PROPIETARIO_ID = 1 << 7;
+    private static final int ESTERILIZADO = 1 << 8;
+    private static final int DESCENDENTE = 1 << 9;
+    private static final int CON_LIMITE = 1 << 10;
+    private static final int DESPLAZAMIENTO_ORDEN = 11;
+
+    private static final Map<Integer, String> SQL_POR_FORMA = new ConcurrentHashMap<>();
+
+    private CompiladorFiltros() {
+    }
+
+    /**
+     * @return SQL del filtro, compilado la primera vez que aparece su forma
+     */
+    static String sql(FiltroMascotas filtro, LocalDate hoy) {
+        return SQL_POR_FORMA.computeIfAbsent(forma(filtro, hoy), CompiladorFiltros::compilar);
+    }
+
+    /**
+     * Asigna los parámetros en el mismo orden en que {@link #compilar} escribe los criterios
+     */
+    static void enlazar(PreparedStatement pstmt, FiltroMascotas filtro, LocalDate hoy) throws SQLException {
+        int i = 1;
+        if (filtro.getEspecie() != null) {
+            pstmt.setString(i++, filtro.getEspecie());
+        }
+        if (filtro.getActivo() != null) {
+            pstmt.setBoolean(i++, filtro.getActivo());
+        }
+        if (filtro.nacidaHasta(hoy) != null) {
+            pstmt.setDate(i++, Date.valueOf(filtro.nacidaHasta(hoy)));
+        }
+        if (filtro.nacidaDespuesDe(hoy) != null) {
+            pstmt.setDate(i++, Date.valueOf(filtro.nacidaDespuesDe(hoy)));
+        }
+        if (filtro.getNombre() != null) {
+            pstmt.setString(i++, "%" + filtro.getNombre() + "%");
+        }
+        if (filtro.getPropietario() != null) {
+            pstmt.setString(i++, "%" + filtro.getPropietario() + "%");
+        }
+        if (filtro.getEmail() != null) {
+            pstmt.setString(i++, filtro.getEmail());
+        }
+        if (filtro.getPropietarioId() != null) {
+            pstmt.setLong(i++, filtro.getPropietarioId());
+        }
+        if (filtro.getEsterilizado() != null) {
+            pstmt.setBoolean(i++, filtro.getEsterilizado());
+        }
+        if (filtro.getLimite() != FiltroMascotas.SIN_LIMITE) {
+            pstmt.setInt(i, filtro.getLimite());
+        }
+    }
+
+    static int forma(FiltroMascotas filtro, LocalDate hoy) {
+        int forma = filtro.getOrden().ordinal() << DESPLAZAMIENTO_ORDEN;
+        forma |= filtro.getEspecie() != null ? ESPECIE : 0;
+        forma |= filtro.getActivo() != null ? ACTIVO : 0;
+        forma |= filtro.nacidaHasta(hoy) != null ? NACIDA_HASTA : 0;
+        forma |= filtro.nacidaDespuesDe(hoy) != null ? NACIDA_DESPUES : 0;
+        forma |= filtro.getNombre() != null ? NOMBRE : 0;
+        forma |= filtro.getPropietario() != null ? PROPIETARIO : 0;
+        forma |= filtro.getEmail() != null ? EMAIL : 0;
+        forma |= filtro.getPropietarioId() != null ? PROPIETARIO_ID : 0;
+        forma |= filtro.getEsterilizado() != null ? ESTERILIZADO : 0;
+        forma |= filtro.isDescendente() ? DESCENDENTE : 0;
+        forma |= filtro.getLimite() != FiltroMascotas.SIN_LIMITE ? CON_LIMITE : 0;
+        return forma;
+    }
+
+    /**
+     * @return número de formas ya compiladas
+     */
+    static int getFormasCompiladas() {
+        return SQL_POR_FORMA.size();
+    }
+
+    private static String compilar(int forma) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM mascotas");
+        String union = " WHERE ";
+        // LOWER(especie) coincide con el índice de expresión idx_mascotas_especie
+        union = criterio(sql, union, forma, ESPECIE, "LOWER(especie) = LOWER(?)");
+        union = criterio(sql, union, forma, ACTIVO, "activo = ?");
+        union = criterio(sql, union, forma, NACIDA_HASTA, "fecha_nacimiento <= ?");
+        union = criterio(sql, union, forma, NACIDA_DESPUES, "fecha_nacimiento > ?");
+        union = criterio(sql, union, forma, NOMBRE, "LOWER(nombre) LIKE LOWER(?)");
+        union = criterio(sql, union, forma, PROPIETARIO, "LOWER(propietario) LIKE LOWER(?)");
+        union = criterio(sql, union, forma, EMAIL, "propietario_id = " + MascotaRepositoryImpl.PROPIETARIO_POR_EMAIL);
+        union = criterio(sql, union, forma, PROPIETARIO_ID, "propietario_id = ?");
+        criterio(sql, union, forma, ESTERILIZADO, "esterilizado = ?");
+
+        FiltroMascotas.Orden orden = FiltroMascotas.Orden.values()[forma >>> DESPLAZAMIENTO_ORDEN];
+        sql.append(" ORDER BY ").append(orden.columna());
+        if ((forma & DESCENDENTE) != 0) {
+            sql.append(" DESC");
+        }
+        if ((forma & CON_LIMITE) != 0) {
+            sql.append(" LIMIT ?");
+        }
+        return sql.toString();
+    }
+
+    private static String criterio(StringBuilder sql, String union, int forma, int bit, String condicion) {
+        if ((forma & bit) == 0) {
+            return union;
+        }
+        sql.append(union).append(condicion);
+        return " AND ";
+    }
+}
@@ -0,0 +1,61 @@
+package com.testing.agil.repository;
+
+import com.testing.agil.metrics.MetricaMetodo;
+import com.testing.agil.metrics.RegistroMetricas;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * Punto único de obtención de conexiones SQLite para los repositorios
+ * Mide el tiempo de adquisición de cada conexión en las métricas globales y,
+ * si la bitácora de consultas lentas está habilitada, intercepta sus sentencias.
+ * Dentro de {@link GestorTransacciones#enTransaccion} devuelve la conexión de la transacción.
+ */
+final class ConexionSqlite {
+
+    private static final MetricaMetodo ADQUISICION =
+            RegistroMetricas.global().metodo(RegistroMetricas.ADQUIRIR_CONEXION);
+
+    /** Archivo común a usuarios y mascotas en modo de base única */
+    static final String ARCHIVO_UNICO = "gestion.db";
+
+    private ConexionSqlite() {
+    }
+
+    /**
+     * Resuelve la URL de la base de un repositorio
+     * Orden: -Dsqlite.db.path, luego -Dsqlite.db.unica=true (gestion.db), luego el archivo propio.
+     * @param archivoPorDefecto archivo del repositorio en modo de bases separadas
+     */
+    static String resolverUrl(String archivoPorDefecto) {
+        String ruta = System.getProperty("sqlite.db.path");
+        if (ruta == null) {
+            ruta = Boolean.getBoolean("sqlite.db.unica") ? ARCHIVO_UNICO : archivoPorDefecto;
+        }
+        return "jdbc:sqlite:" + ruta;
+    }
+
+    static Connection abrir(String dbUrl) throws SQLException {
+        Connection compartida = GestorTransacciones.conexionCompartida(dbUrl);
+        return compartida != null ? compartida : abrirNueva(dbUrl);
+    }
+
+    /**
+     * Abre siempre una conexión física nueva, fuera de cualquier transacción en curso
+     */
+    static Connection abrirNueva(String dbUrl) throws SQLException {
+        long inicio = System.nanoTime();
+        boolean fallo = true;
+        try {
+            Connection conn = DriverManager.getConnection(dbUrl);
+            fallo = false;
+            return InterceptorConsultasLentas.habilitado()
+                    ? InterceptorConsultasLentas.envolver(conn, dbUrl)
+                    : conn;
+        } finally {
+            ADQUISICION.registrar(System.nanoTime() - inicio, 0, fallo);
+        }
+    }
+}
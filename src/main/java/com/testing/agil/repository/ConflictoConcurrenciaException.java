@@ -0,0 +1,34 @@
+package com.testing.agil.repository;
+
+/**
+ * Excepción lanzada cuando una actualización condicional por versión falla
+ * porque otra operación modificó el registro desde que fue leído (bloqueo optimista)
+ */
+public class ConflictoConcurrenciaException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String entidad;
+    private final Long id;
+    private final long versionEsperada;
+
+    public ConflictoConcurrenciaException(String entidad, Long id, long versionEsperada) {
+        super(String.format("El registro %s con ID %d fue modificado por otra operación (versión esperada: %d)",
+                entidad, id, versionEsperada));
+        this.entidad = entidad;
+        this.id = id;
+        this.versionEsperada = versionEsperada;
+    }
+
+    public String getEntidad() {
+        return entidad;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getVersionEsperada() {
+        return versionEsperada;
+    }
+}
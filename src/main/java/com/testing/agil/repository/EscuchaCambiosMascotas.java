@@ -0,0 +1,39 @@
+package com.testing.agil.repository;
+
+import com.testing.agil.model.Mascota;
+
+/**
+ * Recibe los cambios de mascotas hechos a través de un {@link MascotaRepository}
+ * Permite mantener al día estructuras en memoria (índices de búsqueda) sin releer la tabla.
+ *
+ * Los avisos llegan cuando los cambios son definitivos: tras la escritura o, dentro de
+ * {@link GestorTransacciones#enTransaccion}, al confirmar; nunca si se deshace.
+ * Se notifican los cambios de datos y de estado; no los de peso ni esterilización.
+ * Las implementaciones deben ser rápidas y no lanzar excepciones.
+ */
+public interface EscuchaCambiosMascotas {
+
+    /**
+     * La mascota se creó o se actualizó
+     * @param mascota copia con sus datos actuales; su campo activo solo es fiable en las altas,
+     *                porque actualizar no cambia el estado
+     */
+    void guardada(Mascota mascota);
+
+    /**
+     * La mascota se dio de baja o se reactivó
+     */
+    void activoCambiado(long id, boolean activo);
+
+    /**
+     * La mascota ya no existe en la tabla (eliminación física o archivado)
+     */
+    void eliminada(long id);
+
+    /**
+     * Cambiaron mascotas que no se conocen una a una
+     * El repositorio avisa cada fila por separado; queda para implementaciones que no puedan hacerlo.
+     * Quien mantenga una copia de los datos debe recargarla.
+     */
+    void cambiosMasivos();
+}
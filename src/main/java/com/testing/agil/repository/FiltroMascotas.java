@@ -0,0 +1,315 @@
+package com.testing.agil.repository;
+
+import com.testing.agil.model.Mascota;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+
+/**
+ * Criterios inmutables para consultar mascotas
+ * Cada método devuelve un filtro nuevo; los criterios no indicados no filtran y los indicados
+ * se combinan con AND en una sola consulta SQL parametrizada (ver {@link CompiladorFiltros}).
+ * La edad se traduce a un rango de fechas de nacimiento en el momento de la consulta.
+ * Sin orden explícito se ordena por ID.
+ */
+public final class FiltroMascotas {
+
+    /** Campos por los que se puede ordenar el resultado */
+    public enum Orden {
+        ID("id", Comparator.comparing(Mascota::getId)),
+        NOMBRE("nombre", Comparator.comparing(Mascota::getNombre)),
+        // SQLite coloca los NULL primero en orden ascendente
+        FECHA_NACIMIENTO("fecha_nacimiento",
+                Comparator.comparing(Mascota::getFechaNacimiento, Comparator.nullsFirst(Comparator.naturalOrder()))),
+        PESO("peso", Comparator.comparingDouble(Mascota::getPeso));
+
+        private final String columna;
+        private final Comparator<Mascota> comparador;
+
+        Orden(String columna, Comparator<Mascota> comparador) {
+            this.columna = columna;
+            this.comparador = comparador;
+        }
+
+        String columna() {
+            return columna;
+        }
+
+        /**
+         * Mismo orden que aplica SQLite, para fusionar resultados de varias bases
+         */
+        Comparator<Mascota> comparador(boolean descendente) {
+            return descendente ? comparador.reversed() : comparador;
+        }
+    }
+
+    /** Sin límite de filas */
+    public static final int SIN_LIMITE = 0;
+
+    /** Edad desde la que {@link #senior()} considera senior a una mascota */
+    public static final int EDAD_SENIOR = 7;
+
+    private static final FiltroMascotas TODAS = new FiltroMascotas();
+
+    private String especie;
+    private Boolean activo;
+    private Integer edadMinima;
+    private Integer edadMaxima;
+    private String nombre;
+    private String propietario;
+    private String email;
+    private Long propietarioId;
+    private Boolean esterilizado;
+    private Orden orden = Orden.ID;
+    private boolean descendente;
+    private int limite = SIN_LIMITE;
+
+    private FiltroMascotas() {
+    }
+
+    private FiltroMascotas copiar() {
+        FiltroMascotas copia = new FiltroMascotas();
+        copia.especie = especie;
+        copia.activo = activo;
+        copia.edadMinima = edadMinima;
+        copia.edadMaxima = edadMaxima;
+        copia.nombre = nombre;
+        copia.propietario = propietario;
+        copia.email = email;
+        copia.propietarioId = propietarioId;
+        copia.esterilizado = esterilizado;
+        copia.orden = orden;
+        copia.descendente = descendente;
+        copia.limite = limite;
+        return copia;
+    }
+
+    /**
+     * @return filtro que acepta todas las mascotas, activas o no
+     */
+    public static FiltroMascotas todas() {
+        return TODAS;
+    }
+
+    /**
+     * @return mascotas activas menores de un año, por nombre
+     */
+    public static FiltroMascotas cachorros() {
+        return TODAS.conActivo(true).conEdadMaxima(0).ordenadoPor(Orden.NOMBRE);
+    }
+
+    /**
+     * @return mascotas activas de {@link #EDAD_SENIOR} años o más, por nombre
+     */
+    public static FiltroMascotas senior() {
+        return TODAS.conActivo(true).conEdadMinima(EDAD_SENIOR).ordenadoPor(Orden.NOMBRE);
+    }
+
+    /**
+     * @return mascotas de un año o más, activas o no, por nombre: las que requieren vacunación
+     */
+    public static FiltroMascotas vacunacionPendiente() {
+        return TODAS.conEdadMinima(1).ordenadoPor(Orden.NOMBRE);
+    }
+
+    /**
+     * @param especie especie sin distinguir mayúsculas
+     */
+    public FiltroMascotas conEspecie(String especie) {
+        FiltroMascotas copia = copiar();
+        copia.especie = requerido(especie, "La especie no puede estar vacía");
+        return copia;
+    }
+
+    /**
+     * @param activo true para solo activas, false para solo dadas de baja
+     */
+    public FiltroMascotas conActivo(boolean activo) {
+        FiltroMascotas copia = copiar();
+        copia.activo = activo;
+        return copia;
+    }
+
+    /**
+     * Edad en años cumplidos, ambos extremos incluidos
+     */
+    public FiltroMascotas conEdadEntre(int minima, int maxima) {
+        if (minima < 0 || maxima < minima) {
+            throw new IllegalArgumentException("El rango de edad no es válido: " + minima + " - " + maxima);
+        }
+        FiltroMascotas copia = copiar();
+        copia.edadMinima = minima;
+        copia.edadMaxima = maxima;
+        return copia;
+    }
+
+    /**
+     * @param minima edad mínima en años cumplidos, incluida
+     */
+    public FiltroMascotas conEdadMinima(int minima) {
+        if (minima < 0) {
+            throw new IllegalArgumentException("La edad mínima no puede ser negativa: " + minima);
+        }
+        FiltroMascotas copia = copiar();
+        copia.edadMinima = minima;
+        return copia;
+    }
+
+    /**
+     * @param maxima edad máxima en años cumplidos, incluida (0 para cachorros)
+     */
+    public FiltroMascotas conEdadMaxima(int maxima) {
+        if (maxima < 0) {
+            throw new IllegalArgumentException("La edad máxima no puede ser negativa: " + maxima);
+        }
+        FiltroMascotas copia = copiar();
+        copia.edadMaxima = maxima;
+        return copia;
+    }
+
+    /**
+     * @param nombre texto contenido en el nombre, sin distinguir mayúsculas
+     */
+    public FiltroMascotas conNombre(String nombre) {
+        FiltroMascotas copia = copiar();
+        copia.nombre = requerido(nombre, "El nombre no puede estar vacío");
+        return copia;
+    }
+
+    /**
+     * @param propietario texto contenido en el nombre del propietario, sin distinguir mayúsculas
+     */
+    public FiltroMascotas conPropietario(String propietario) {
+        FiltroMascotas copia = copiar();
+        copia.propietario = requerido(propietario, "El propietario no puede estar vacío");
+        return copia;
+    }
+
+    /**
+     * @param email email exacto del propietario, sin distinguir mayúsculas
+     */
+    public FiltroMascotas conEmail(String email) {
+        FiltroMascotas copia = copiar();
+        copia.email = requerido(email, "El email no puede estar vacío");
+        return copia;
+    }
+
+    public FiltroMascotas conPropietarioId(long propietarioId) {
+        FiltroMascotas copia = copiar();
+        copia.propietarioId = propietarioId;
+        return copia;
+    }
+
+    public FiltroMascotas conEsterilizado(boolean esterilizado) {
+        FiltroMascotas copia = copiar();
+        copia.esterilizado = esterilizado;
+        return copia;
+    }
+
+    /**
+     * Orden ascendente por el campo indicado
+     */
+    public FiltroMascotas ordenadoPor(Orden orden) {
+        return ordenadoPor(orden, false);
+    }
+
+    public FiltroMascotas ordenadoPor(Orden orden, boolean descendente) {
+        if (orden == null) {
+            throw new IllegalArgumentException("El orden no puede ser nulo");
+        }
+        FiltroMascotas copia = copiar();
+        copia.orden = orden;
+        copia.descendente = descendente;
+        return copia;
+    }
+
+    /**
+     * @param limite máximo de filas, o {@link #SIN_LIMITE}
+     */
+    public FiltroMascotas conLimite(int limite) {
+        if (limite < 0) {
+            throw new IllegalArgumentException("El límite no puede ser negativo: " + limite);
+        }
+        FiltroMascotas copia = copiar();
+        copia.limite = limite;
+        return copia;
+    }
+
+    public String getEspecie() {
+        return especie;
+    }
+
+    public Boolean getActivo() {
+        return activo;
+    }
+
+    public Integer getEdadMinima() {
+        return edadMinima;
+    }
+
+    public Integer getEdadMaxima() {
+        return edadMaxima;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public String getPropietario() {
+        return propietario;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public Long getPropietarioId() {
+        return propietarioId;
+    }
+
+    public Boolean getEsterilizado() {
+        return esterilizado;
+    }
+
+    public Orden getOrden() {
+        return orden;
+    }
+
+    public boolean isDescendente() {
+        return descendente;
+    }
+
+    public int getLimite() {
+        return limite;
+    }
+
+    /**
+     * @return fecha de nacimiento máxima (incluida) para la edad mínima, o null
+     */
+    LocalDate nacidaHasta(LocalDate hoy) {
+        return edadMinima == null ? null : hoy.minusYears(edadMinima);
+    }
+
+    /**
+     * @return fecha de nacimiento mínima (excluida) para la edad máxima, o null
+     */
+    LocalDate nacidaDespuesDe(LocalDate hoy) {
+        return edadMaxima == null ? null : hoy.minusYears(edadMaxima + 1L);
+    }
+
+    private static String requerido(String valor, String mensaje) {
+        if (valor == null || valor.trim().isEmpty()) {
+            throw new IllegalArgumentException(mensaje);
+        }
+        return valor.trim();
+    }
+
+    @Override
+    public String toString() {
+        return "FiltroMascotas{especie=" + especie + ", activo=" + activo +
+               ", edad=" + edadMinima + ".." + edadMaxima + ", nombre=" + nombre +
+               ", propietario=" + propietario + ", email=" + email + ", propietarioId=" + propietarioId +
+               ", esterilizado=" + esterilizado + ", orden=" + orden + (descendente ? " desc" : "") +
+               ", limite=" + limite + "}";
+    }
+}
@@ -0,0 +1,228 @@
+package com.testing.agil.repository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Unidad de trabajo compartida por los repositorios SQLite
+ * Mientras se ejecuta {@link #enTransaccion}, cada repositorio que abre una conexión
+ * recibe la misma conexión por base de datos, con autocommit desactivado. Al terminar
+ * se confirma una sola vez; ante cualquier excepción se deshace todo. Las transacciones
+ * propias de cada método del repositorio pasan a ser puntos de guardado: su rollback
+ * deshace solo su parte aunque el método no lance excepción.
+ *
+ * Con los repositorios en la misma base (modo de base única, -Dsqlite.db.unica=true o
+ * la misma ruta en ambos) la operación es atómica. Con bases separadas se confirma
+ * una vez por archivo y no hay atomicidad entre ellos.
+ *
+ * La transacción es del hilo que la inicia: las consultas que otros hilos hacen en
+ * paralelo (p. ej. particiones) no participan de ella.
+ */
+public class GestorTransacciones {
+
+    private static final ThreadLocal<Transaccion> ACTUAL = new ThreadLocal<>();
+
+    /**
+     * Ejecuta el trabajo en una transacción; si ya hay una en curso en este hilo, se une a ella
+     * @param trabajo operaciones sobre uno o varios repositorios
+     * @return el resultado del trabajo
+     */
+    public <T> T enTransaccion(Supplier<T> trabajo) {
+        if (ACTUAL.get() != null) {
+            return trabajo.get();
+        }
+        Transaccion transaccion = new Transaccion();
+        ACTUAL.set(transaccion);
+        T resultado;
+        try {
+            resultado = trabajo.get();
+            transaccion.confirmar();
+        } catch (RuntimeException | Error e) {
+            transaccion.deshacer(e);
+            throw e;
+        } finally {
+            ACTUAL.remove();
+            transaccion.cerrar();
+        }
+        transaccion.ejecutarTrasConfirmar();
+        return resultado;
+    }
+
+    /**
+     * Variante sin resultado de {@link #enTransaccion(Supplier)}
+     */
+    public void enTransaccion(Runnable trabajo) {
+        enTransaccion(() -> {
+            trabajo.run();
+            return null;
+        });
+    }
+
+    /**
+     * @return true si el hilo actual está dentro de una transacción
+     */
+    public static boolean hayTransaccionActiva() {
+        return ACTUAL.get() != null;
+    }
+
+    /**
+     * Ejecuta la acción cuando los cambios sean definitivos: al confirmar la transacción en curso
+     * del hilo, o de inmediato si no hay ninguna. Si la transacción se deshace, se descarta.
+     */
+    static void alConfirmar(Runnable accion) {
+        Transaccion transaccion = ACTUAL.get();
+        if (transaccion == null) {
+            accion.run();
+        } else {
+            transaccion.trasConfirmar.add(accion);
+        }
+    }
+
+    /**
+     * Conexión de la transacción en curso para la base indicada, o null si no hay transacción
+     */
+    static Connection conexionCompartida(String dbUrl) throws SQLException {
+        Transaccion transaccion = ACTUAL.get();
+        return transaccion == null ? null : transaccion.unir(dbUrl);
+    }
+
+    private static final class Transaccion {
+
+        private final Map<String, Connection> reales = new LinkedHashMap<>();
+        private final List<Runnable> trasConfirmar = new ArrayList<>();
+
+        /**
+         * Cada llamada devuelve un envoltorio nuevo sobre la misma conexión real, para que
+         * los puntos de guardado de métodos anidados no se mezclen
+         */
+        Connection unir(String dbUrl) throws SQLException {
+            Connection real = reales.get(dbUrl);
+            if (real == null) {
+                real = ConexionSqlite.abrirNueva(dbUrl);
+                real.setAutoCommit(false);
+                reales.put(dbUrl, real);
+            }
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new ConexionAnidada(real));
+        }
+
+        void confirmar() {
+            try {
+                for (Connection conn : reales.values()) {
+                    conn.commit();
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Error al confirmar transacción: " + e.getMessage(), e);
+            }
+        }
+
+        void deshacer(Throwable causa) {
+            for (Connection conn : reales.values()) {
+                try {
+                    conn.rollback();
+                } catch (SQLException e) {
+                    causa.addSuppressed(e);
+                }
+            }
+        }
+
+        void ejecutarTrasConfirmar() {
+            for (Runnable accion : trasConfirmar) {
+                accion.run();
+            }
+        }
+
+        void cerrar() {
+            for (Connection conn : reales.values()) {
+                try {
+                    conn.close();
+                } catch (SQLException e) {
+                    // La transacción ya terminó; no hay nada más que hacer con esta conexión
+                }
+            }
+        }
+    }
+
+    /**
+     * Envoltorio que impide a los repositorios cerrar la conexión o confirmar por su cuenta:
+     * el try-with-resources de cada método deja de cerrarla y un commit intermedio
+     * (p. ej. del archivador) no rompe la unidad de trabajo.
+     *
+     * setAutoCommit(false) abre un punto de guardado; commit lo libera y rollback vuelve a él,
+     * abriendo otro si el método sigue trabajando. Cerrar con uno abierto lo deshace,
+     * igual que cerrar una conexión con cambios sin confirmar.
+     */
+    private static final class ConexionAnidada implements InvocationHandler {
+
+        private final Connection real;
+        private Savepoint punto;
+
+        ConexionAnidada(Connection real) {
+            this.real = real;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "setAutoCommit" -> {
+                    boolean autoCommit = (Boolean) args[0];
+                    if (!autoCommit && punto == null) {
+                        punto = real.setSavepoint();
+                    } else if (autoCommit && punto != null) {
+                        liberar();
+                    }
+                    return null;
+                }
+                case "getAutoCommit" -> {
+                    return punto == null;
+                }
+                case "commit" -> {
+                    if (punto != null) {
+                        liberar();
+                        punto = real.setSavepoint();
+                    }
+                    return null;
+                }
+                case "rollback" -> {
+                    // Sin punto propio no hay nada que deshacer solo de este método
+                    if (args == null && punto != null) {
+                        real.rollback(punto);
+                    }
+                    return null;
+                }
+                case "close" -> {
+                    if (punto != null) {
+                        real.rollback(punto);
+                        liberar();
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return real.isClosed();
+                }
+                default -> {
+                    try {
+                        return method.invoke(real, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            }
+        }
+
+        private void liberar() throws SQLException {
+            real.releaseSavepoint(punto);
+            punto = null;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.testing.agil.repository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Interceptor JDBC que mide cada sentencia ejecutada sobre una conexión
+ * Las sentencias que superan el umbral configurado se envían a {@link BitacoraConsultasLentas}
+ * con su SQL, parámetros y filas. Al estar en la capa de conexión, ambos repositorios
+ * lo obtienen sin cambios en sus métodos.
+ *
+ * Solo cuenta el tiempo dentro de execute* y de cada next(); lo que tarde el llamador
+ * en procesar las filas no entra en la medición.
+ *
+ * Configuración: -Dsqlite.consultas.lentas.ms=200 (desactivado por defecto, porque cada
+ * llamada JDBC pasa por un proxy reflexivo)
+ */
+final class InterceptorConsultasLentas {
+
+    private static final long UMBRAL_NANOS = leerUmbralNanos();
+
+    private InterceptorConsultasLentas() {
+    }
+
+    static boolean habilitado() {
+        return UMBRAL_NANOS >= 0;
+    }
+
+    /**
+     * Envuelve una conexión para que sus sentencias sean medidas
+     * @param conexion conexión real
+     * @param dbUrl URL de la base, usada para obtener el plan de ejecución
+     * @return conexión interceptada
+     */
+    static Connection envolver(Connection conexion, String dbUrl) {
+        return envolver(conexion, dbUrl, UMBRAL_NANOS, BitacoraConsultasLentas.global());
+    }
+
+    static Connection envolver(Connection conexion, String dbUrl, long umbralNanos, BitacoraConsultasLentas bitacora) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ManejadorConexion(conexion, new Destino(dbUrl, umbralNanos, bitacora)));
+    }
+
+    private static long leerUmbralNanos() {
+        String valor = System.getProperty("sqlite.consultas.lentas.ms");
+        if (valor == null) {
+            return -1;
+        }
+        try {
+            long ms = Long.parseLong(valor.trim());
+            return ms < 0 ? -1 : ms * 1_000_000L;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static Object invocar(Object destino, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(destino, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Umbral y bitácora compartidos por las sentencias de una conexión
+     */
+    private static final class Destino {
+
+        private final String dbUrl;
+        private final long umbralNanos;
+        private final BitacoraConsultasLentas bitacora;
+
+        Destino(String dbUrl, long umbralNanos, BitacoraConsultasLentas bitacora) {
+            this.dbUrl = dbUrl;
+            this.umbralNanos = umbralNanos;
+            this.bitacora = bitacora;
+        }
+    }
+
+    private static final class ManejadorConexion implements InvocationHandler {
+
+        private final Connection conexion;
+        private final Destino destino;
+
+        ManejadorConexion(Connection conexion, Destino destino) {
+            this.conexion = conexion;
+            this.destino = destino;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object resultado = invocar(conexion, method, args);
+            if (method.getName().equals("prepareStatement") && resultado instanceof PreparedStatement ps
+                    && args[0] instanceof String sql) {
+                return Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                        new Class<?>[]{PreparedStatement.class}, new ManejadorSentencia(ps, sql, destino));
+            }
+            if (method.getName().equals("createStatement") && resultado instanceof Statement st) {
+                return Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                        new Class<?>[]{Statement.class}, new ManejadorSentencia(st, null, destino));
+            }
+            return resultado;
+        }
+    }
+
+    private static final class ManejadorSentencia implements InvocationHandler {
+
+        private final Statement sentencia;
+        private final Destino destino;
+        private String sql;
+        private Object[] parametros = new Object[8];
+        private int ultimoParametro;
+        private Medicion pendiente;
+
+        ManejadorSentencia(Statement sentencia, String sql, Destino destino) {
+            this.sentencia = sentencia;
+            this.sql = sql;
+            this.destino = destino;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String nombre = method.getName();
+            if (nombre.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer indice) {
+                registrarParametro(indice, nombre.equals("setNull") ? null : args[1]);
+                return invocar(sentencia, method, args);
+            }
+            if (nombre.equals("clearParameters")) {
+                Arrays.fill(parametros, null);
+                ultimoParametro = 0;
+                return invocar(sentencia, method, args);
+            }
+            if (nombre.equals("close")) {
+                cerrarMedicionPendiente();
+                return invocar(sentencia, method, args);
+            }
+            if (!nombre.startsWith("execute")) {
+                return invocar(sentencia, method, args);
+            }
+
+            if (args != null && args.length > 0 && args[0] instanceof String sqlDirecto) {
+                sql = sqlDirecto;
+            }
+            cerrarMedicionPendiente();
+            Medicion medicion = new Medicion(sql, parametrosActuales(), destino);
+            long inicio = System.nanoTime();
+            Object resultado = invocar(sentencia, method, args);
+            medicion.acumular(System.nanoTime() - inicio);
+            if (resultado instanceof ResultSet rs) {
+                // Las consultas se reportan al agotar o cerrar el cursor
+                pendiente = medicion;
+                return Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                        new Class<?>[]{ResultSet.class}, new ManejadorResultado(rs, medicion));
+            }
+            if (resultado instanceof Integer filas) {
+                medicion.terminar(filas);
+            } else if (resultado instanceof Long filas) {
+                medicion.terminar(filas);
+            } else if (resultado instanceof int[] lote) {
+                medicion.terminar(Arrays.stream(lote).filter(n -> n > 0).sum());
+            } else {
+                medicion.terminar(Math.max(0, sentencia.getUpdateCount()));
+            }
+            return resultado;
+        }
+
+        private void registrarParametro(int indice, Object valor) {
+            if (indice >= parametros.length) {
+                parametros = Arrays.copyOf(parametros, Math.max(indice + 1, parametros.length * 2));
+            }
+            parametros[indice] = valor;
+            ultimoParametro = Math.max(ultimoParametro, indice);
+        }
+
+        private Object[] parametrosActuales() {
+            return Arrays.copyOfRange(parametros, 1, ultimoParametro + 1);
+        }
+
+        private void cerrarMedicionPendiente() {
+            if (pendiente != null) {
+                pendiente.terminar(pendiente.filas);
+                pendiente = null;
+            }
+        }
+    }
+
+    private static final class ManejadorResultado implements InvocationHandler {
+
+        private final ResultSet resultado;
+        private final Medicion medicion;
+
+        ManejadorResultado(ResultSet resultado, Medicion medicion) {
+            this.resultado = resultado;
+            this.medicion = medicion;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String nombre = method.getName();
+            if (nombre.equals("next")) {
+                long inicio = System.nanoTime();
+                Object valor = invocar(resultado, method, args);
+                medicion.acumular(System.nanoTime() - inicio);
+                if (Boolean.TRUE.equals(valor)) {
+                    medicion.filas++;
+                } else {
+                    medicion.terminar(medicion.filas);
+                }
+                return valor;
+            }
+            if (nombre.equals("close")) {
+                medicion.terminar(medicion.filas);
+            }
+            return invocar(resultado, method, args);
+        }
+    }
+
+    /**
+     * Medición de una ejecución; se reporta una sola vez aunque terminen varios caminos
+     */
+    private static final class Medicion {
+
+        private final String sql;
+        private final Object[] parametros;
+        private final Destino destino;
+        private final AtomicBoolean terminada = new AtomicBoolean();
+        private long duracionNanos;
+        private long filas;
+
+        Medicion(String sql, Object[] parametros, Destino destino) {
+            this.sql = sql;
+            this.parametros = parametros;
+            this.destino = destino;
+        }
+
+        void acumular(long nanos) {
+            duracionNanos += nanos;
+        }
+
+        void terminar(long filasFinales) {
+            if (!terminada.compareAndSet(false, true)) {
+                return;
+            }
+            if (duracionNanos >= destino.umbralNanos && sql != null) {
+                destino.bitacora.reportar(sql, parametros, filasFinales, duracionNanos, destino.dbUrl);
+            }
+        }
+    }
+}
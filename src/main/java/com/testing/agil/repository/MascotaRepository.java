@@ -1,8 +1,12 @@
 package com.testing.agil.repository;
 
 import com.testing.agil.model.Mascota;
+import com.testing.agil.model.Propietario;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Interfaz que define las operaciones de persistencia para mascotas
@@ -19,6 +23,23 @@ public interface MascotaRepository {
      */
     Mascota crear(Mascota mascota);
     
+    /**
+     * Inserta varias mascotas con sentencias por lotes en una sola transacción
+     * Si una mascota trae ID se conserva (restauración de respaldos); si no, lo asigna la base.
+     * Los IDs generados no se asignan a los objetos.
+     * @param mascotas las mascotas a insertar
+     * @return número de mascotas insertadas
+     */
+    int crearEnLote(List<Mascota> mascotas);
+    
+    /**
+     * Inserta mascotas directamente en el archivo, conservando su ID y sus marcas de tiempo
+     * Pensado para restaurar respaldos; las marcas nulas toman la hora actual.
+     * @param mascotas las mascotas archivadas a insertar (todas con ID)
+     * @return número de mascotas insertadas
+     */
+    int crearArchivadasEnLote(List<Mascota> mascotas);
+    
     /**
      * Busca una mascota por su ID
      * @param id el ID de la mascota
@@ -26,6 +47,21 @@ public interface MascotaRepository {
      */
     Optional<Mascota> buscarPorId(Long id);
     
+    /**
+     * Busca una mascota por su ID, opcionalmente también entre las archivadas
+     * @param id el ID de la mascota
+     * @param incluirArchivadas true para consultar también la tabla de archivo
+     * @return Optional con la mascota si se encuentra, vacío si no
+     */
+    Optional<Mascota> buscarPorId(Long id, boolean incluirArchivadas);
+    
+    /**
+     * Busca varias mascotas por ID en una o pocas consultas, en lugar de una por ID
+     * @param ids IDs a buscar; se ignoran los null y los repetidos
+     * @return mapa de ID a mascota; los IDs inexistentes no aparecen
+     */
+    Map<Long, Mascota> buscarPorIds(Collection<Long> ids);
+    
     /**
      * Busca mascotas por nombre (búsqueda parcial)
      * @param nombre el nombre o parte del nombre a buscar
@@ -33,6 +69,14 @@ public interface MascotaRepository {
      */
     List<Mascota> buscarPorNombre(String nombre);
     
+    /**
+     * Busca mascotas por nombre, opcionalmente también entre las archivadas
+     * @param nombre el nombre o parte del nombre a buscar
+     * @param incluirArchivadas true para consultar también la tabla de archivo
+     * @return lista de mascotas que coinciden, ordenada por nombre
+     */
+    List<Mascota> buscarPorNombre(String nombre, boolean incluirArchivadas);
+    
     /**
      * Busca mascotas por especie
      * @param especie la especie a buscar (perro, gato, etc.)
@@ -54,12 +98,77 @@ public interface MascotaRepository {
      */
     List<Mascota> buscarPorEmail(String email);
     
+    /**
+     * Busca las mascotas de un propietario por su ID (consulta indexada)
+     * @param propietarioId el ID del propietario
+     * @return lista de mascotas del propietario, ordenada por nombre
+     */
+    List<Mascota> buscarPorPropietarioId(Long propietarioId);
+    
+    /**
+     * Carga un propietario junto con todas sus mascotas en una sola consulta
+     * @param propietarioId el ID del propietario
+     * @return Optional con el propietario y sus mascotas, vacío si no existe
+     */
+    Optional<Propietario> buscarPropietarioConMascotas(Long propietarioId);
+    
+    /**
+     * Carga el propietario de un email junto con todas sus mascotas en una sola consulta
+     * @param email el email del propietario (sin distinguir mayúsculas)
+     * @return Optional con el propietario y sus mascotas, vacío si no existe
+     */
+    Optional<Propietario> buscarPropietarioPorEmail(String email);
+    
     /**
      * Lista todas las mascotas en el sistema
      * @return lista completa de mascotas
      */
     List<Mascota> listarTodas();
     
+    /**
+     * Recorre todas las mascotas en orden de ID sin cargarlas a la vez en memoria
+     * @param consumidor recibe cada mascota leída
+     */
+    void recorrerTodas(Consumer<Mascota> consumidor);
+    
+    /**
+     * Recorre las mascotas archivadas en orden de ID, con su fecha de archivado
+     * @param consumidor recibe cada mascota leída
+     */
+    void recorrerArchivadas(Consumer<Mascota> consumidor);
+    
+    /**
+     * Recorre las mascotas que cumplen el filtro, en el orden del filtro, sin cargarlas en memoria
+     * @param filtro criterios, orden y límite
+     * @param consumidor recibe cada mascota leída
+     */
+    void recorrer(FiltroMascotas filtro, Consumer<Mascota> consumidor);
+    
+    /**
+     * Busca las mascotas que cumplen todos los criterios del filtro con una sola consulta
+     * @param filtro criterios, orden y límite
+     * @return lista de mascotas en el orden del filtro
+     */
+    List<Mascota> buscar(FiltroMascotas filtro);
+    
+    /**
+     * Registra una escucha que recibirá los cambios hechos a través de este repositorio
+     * @param escucha escucha a registrar
+     */
+    void agregarEscucha(EscuchaCambiosMascotas escucha);
+    
+    /**
+     * @param escucha escucha registrada con {@link #agregarEscucha}
+     */
+    void quitarEscucha(EscuchaCambiosMascotas escucha);
+    
+    /**
+     * Lista todas las mascotas, opcionalmente incluyendo las archivadas
+     * @param incluirArchivadas true para incluir la tabla de archivo
+     * @return lista de mascotas ordenada por nombre
+     */
+    List<Mascota> listarTodas(boolean incluirArchivadas);
+    
     /**
      * Lista solo las mascotas activas
      * @return lista de mascotas activas
@@ -86,6 +195,15 @@ public interface MascotaRepository {
      */
     Mascota actualizar(Mascota mascota);
     
+    /**
+     * Actualiza una mascota solo si su versión coincide con la almacenada (bloqueo optimista).
+     * Si tiene éxito, la versión de la mascota recibida se incrementa.
+     * @param mascota la mascota con datos actualizados y la versión con que fue leída
+     * @return true si se actualizó, false si no existe una mascota con ese ID
+     * @throws ConflictoConcurrenciaException si otra operación modificó la mascota antes
+     */
+    boolean actualizarConVersion(Mascota mascota);
+    
     /**
      * Elimina una mascota del sistema (eliminación lógica)
      * @param id el ID de la mascota a eliminar
@@ -93,6 +211,42 @@ public interface MascotaRepository {
      */
     boolean eliminar(Long id);
     
+    /**
+     * Elimina lógicamente varias mascotas con una sola sentencia UPDATE
+     * @param ids los IDs de las mascotas a eliminar
+     * @return cantidad de mascotas que pasaron de activas a inactivas
+     */
+    int eliminarTodas(Collection<Long> ids);
+    
+    /**
+     * Reactiva varias mascotas eliminadas lógicamente con una sola sentencia UPDATE
+     * @param ids los IDs de las mascotas a reactivar
+     * @return cantidad de mascotas que pasaron de inactivas a activas
+     */
+    int reactivar(Collection<Long> ids);
+    
+    /**
+     * Elimina lógicamente todas las mascotas de un propietario (coincidencia exacta, sin distinguir mayúsculas)
+     * Compara con el nombre de propietario guardado en cada mascota, como {@link #buscarPorPropietario}
+     * @param propietario el nombre del propietario
+     * @return cantidad de mascotas desactivadas
+     */
+    int eliminarPorPropietario(String propietario);
+    
+    /**
+     * Elimina lógicamente todas las mascotas asociadas a un email de propietario
+     * @param email el email del propietario
+     * @return cantidad de mascotas desactivadas
+     */
+    int eliminarPorEmail(String email);
+    
+    /**
+     * Reactiva todas las mascotas asociadas a un email de propietario
+     * @param email el email del propietario
+     * @return cantidad de mascotas reactivadas
+     */
+    int reactivarPorEmail(String email);
+    
     /**
      * Elimina físicamente una mascota del sistema
      * @param id el ID de la mascota a eliminar
@@ -106,6 +260,13 @@ public interface MascotaRepository {
      */
     long contar();
     
+    /**
+     * Cuenta las mascotas, opcionalmente incluyendo las archivadas
+     * @param incluirArchivadas true para sumar la tabla de archivo
+     * @return número de mascotas
+     */
+    long contar(boolean incluirArchivadas);
+    
     /**
      * Cuenta las mascotas activas
      * @return número de mascotas activas
@@ -119,6 +280,12 @@ public interface MascotaRepository {
      */
     long contarPorEspecie(String especie);
     
+    /**
+     * Cuenta todas las mascotas agrupadas por especie en una sola consulta
+     * @return mapa especie → número de mascotas
+     */
+    Map<String, Long> contarAgrupadoPorEspecie();
+    
     /**
      * Verifica si existe una mascota con el email del propietario
      * @param email el email a verificar
@@ -1,11 +1,25 @@
 package com.testing.agil.repository;
 
+import com.testing.agil.colecciones.FiltroBloom;
+import com.testing.agil.colecciones.LongArrayList;
+import com.testing.agil.model.Especie;
 import com.testing.agil.model.Mascota;
+import com.testing.agil.model.Propietario;
+import com.testing.agil.model.ValoresCanonicos;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import java.sql.*;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 /**
  * Implementación concreta del repositorio de mascotas usando SQLite
@@ -14,6 +28,8 @@ import java.util.Optional;
  */
 public class MascotaRepositoryImpl implements MascotaRepository {
     
+    private static final Logger logger = LoggerFactory.getLogger(MascotaRepositoryImpl.class);
+    
     private final String dbUrl;
     private static final String CREATE_TABLE_SQL = """
         CREATE TABLE IF NOT EXISTS mascotas (
@@ -29,27 +45,358 @@ public class MascotaRepositoryImpl implements MascotaRepository {
             peso DECIMAL(5,2) CHECK (peso > 0),
             esterilizado BOOLEAN DEFAULT FALSE,
             activo BOOLEAN DEFAULT TRUE,
+            version INTEGER NOT NULL DEFAULT 0,
+            propietario_id INTEGER REFERENCES propietarios(id),
             fecha_creacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
             fecha_actualizacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP
         )
         """;
     
+    /**
+     * Propietarios normalizados: una fila por email (o por nombre si la mascota no tiene email).
+     * Las columnas propietario, telefono y email de mascotas se conservan para los lectores existentes.
+     */
+    private static final String CREATE_PROPIETARIOS_SQL = """
+        CREATE TABLE IF NOT EXISTS propietarios (
+            id INTEGER PRIMARY KEY AUTOINCREMENT,
+            clave VARCHAR(160) NOT NULL UNIQUE,
+            nombre VARCHAR(100) NOT NULL,
+            telefono VARCHAR(20),
+            email VARCHAR(150),
+            fecha_actualizacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+        )
+        """;
+    
+    /**
+     * Clave de deduplicación de propietarios a partir de email y nombre.
+     * Se calcula siempre en SQL para que alta, migración y búsquedas normalicen igual.
+     */
+    private static String claveSql(String email, String nombre) {
+        return "CASE WHEN TRIM(COALESCE(" + email + ", '')) <> '' THEN LOWER(TRIM(" + email + ")) " +
+               "ELSE 'nombre:' || LOWER(TRIM(" + nombre + ")) END";
+    }
+    
+    private static final String UPSERT_PROPIETARIO_SQL =
+        "INSERT INTO propietarios (clave, nombre, telefono, email) VALUES (" + claveSql("?", "?") + ", ?, ?, ?) " +
+        "ON CONFLICT(clave) DO UPDATE SET nombre = excluded.nombre, telefono = excluded.telefono, " +
+        "email = excluded.email, fecha_actualizacion = CURRENT_TIMESTAMP " +
+        "RETURNING id, clave";
+    
+    /** Subconsulta que resuelve el propietario de un email ya recortado (búsqueda por índice único) */
+    static final String PROPIETARIO_POR_EMAIL = "(SELECT id FROM propietarios WHERE clave = LOWER(?))";
+    
+    /**
+     * Tabla fría para mascotas inactivas archivadas por {@link ArchivadorMascotas}.
+     * Conserva el ID original para que las búsquedas con archivadas devuelvan la misma identidad.
+     */
+    private static final String CREATE_ARCHIVO_SQL = """
+        CREATE TABLE IF NOT EXISTS mascotas_archivo (
+            id INTEGER PRIMARY KEY,
+            nombre VARCHAR(50) NOT NULL,
+            especie VARCHAR(20) NOT NULL,
+            raza VARCHAR(50),
+            fecha_nacimiento DATE,
+            color VARCHAR(30),
+            propietario VARCHAR(100) NOT NULL,
+            telefono VARCHAR(20),
+            email VARCHAR(150),
+            peso DECIMAL(5,2),
+            esterilizado BOOLEAN DEFAULT FALSE,
+            activo BOOLEAN DEFAULT FALSE,
+            version INTEGER NOT NULL DEFAULT 0,
+            propietario_id INTEGER,
+            fecha_creacion TIMESTAMP,
+            fecha_actualizacion TIMESTAMP,
+            fecha_archivado TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+        )
+        """;
+    
+    /** Tamaño mínimo de la primera capa del filtro de emails, para no crecer nada más activarlo */
+    private static final int CAPACIDAD_MINIMA_FILTRO = 1024;
+    private static final double PROBABILIDAD_FALSOS_FILTRO = 0.01;
+    
+    /** Filas acumuladas por executeBatch en las inserciones masivas */
+    private static final int TAMANO_LOTE_SQL = 1000;
+    
+    /** Columnas comunes a mascotas y mascotas_archivo, usadas en copias y UNION ALL */
+    static final String COLUMNAS = "id, nombre, especie, raza, fecha_nacimiento, color, propietario, " +
+                                   "telefono, email, peso, esterilizado, activo, version, propietario_id, " +
+                                   "fecha_creacion, fecha_actualizacion";
+    
+    /** Formato de CURRENT_TIMESTAMP; las marcas restauradas se guardan igual para que datetime() las compare */
+    private static final DateTimeFormatter FORMATO_MARCA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    
+    /** Caché opcional por ID; null mientras no se active */
+    private volatile CacheMascotas cache;
+    
+    /** Claves de propietario vistas, para descartar emails sin consultar; null mientras no se active */
+    private volatile FiltroBloom filtroEmails;
+    
+    private final List<EscuchaCambiosMascotas> escuchas = new CopyOnWriteArrayList<>();
+    
     public MascotaRepositoryImpl() {
-        // Permitir configurar la ruta de BD para tests
-        String customPath = System.getProperty("sqlite.db.path");
-        this.dbUrl = customPath != null ? "jdbc:sqlite:" + customPath : "jdbc:sqlite:mascotas.db";
+        // Permitir configurar la ruta de BD para tests o el modo de base única
+        this.dbUrl = ConexionSqlite.resolverUrl("mascotas.db");
+        initializeDatabase();
+    }
+    
+    /**
+     * Crea el repositorio sobre un archivo de base de datos concreto
+     * Usado por {@link MascotaRepositoryParticionado} para abrir cada partición.
+     * @param dbPath ruta del archivo SQLite
+     */
+    public MascotaRepositoryImpl(String dbPath) {
+        if (dbPath == null || dbPath.trim().isEmpty()) {
+            throw new IllegalArgumentException("La ruta de la base de datos no puede estar vacía");
+        }
+        this.dbUrl = "jdbc:sqlite:" + dbPath.trim();
         initializeDatabase();
     }
     
+    /**
+     * Activa una caché de mascotas por ID para {@link #buscarPorId}
+     * Solo conviene si la base no la modifica otro proceso: las escrituras de este
+     * repositorio la invalidan, las externas no.
+     * @param capacidad mascotas que puede guardar antes de vaciarse
+     */
+    public void activarCache(int capacidad) {
+        this.cache = new CacheMascotas(capacidad);
+    }
+    
+    /**
+     * Activa un filtro de Bloom con las claves de los propietarios para {@link #existePorEmail}
+     * Un email que el filtro descarta se responde sin consultar la base; el resto se consulta
+     * como siempre. Se carga de la tabla de propietarios y cada alta o cambio de propietario
+     * hecho por este repositorio lo amplía. Como la caché, supone que la base no la modifica
+     * otro proceso.
+     */
+    public void activarFiltroEmails() {
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
+             Statement stmt = conn.createStatement()) {
+            
+            int propietarios;
+            try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM propietarios")) {
+                propietarios = rs.next() ? rs.getInt(1) : 0;
+            }
+            FiltroBloom filtro = new FiltroBloom(Math.max(2 * propietarios, CAPACIDAD_MINIMA_FILTRO), PROBABILIDAD_FALSOS_FILTRO);
+            try (ResultSet rs = stmt.executeQuery("SELECT clave FROM propietarios")) {
+                while (rs.next()) {
+                    filtro.agregar(rs.getString(1));
+                }
+            }
+            this.filtroEmails = filtro;
+            logger.info("Filtro de emails activado con {} propietarios", propietarios);
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al cargar el filtro de emails: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * @return false si el filtro de emails asegura que ninguna mascota tiene ese email
+     */
+    boolean puedeExistirEmail(String email) {
+        FiltroBloom filtro = filtroEmails;
+        return filtro == null || filtro.puedeContener(claveEmail(email));
+    }
+    
+    /**
+     * Clave de propietario que busca {@link #PROPIETARIO_POR_EMAIL} para un email:
+     * recortado en Java y LOWER de SQLite, que solo convierte letras ASCII
+     */
+    private static String claveEmail(String email) {
+        char[] letras = email.trim().toCharArray();
+        for (int i = 0; i < letras.length; i++) {
+            if (letras[i] >= 'A' && letras[i] <= 'Z') {
+                letras[i] = (char) (letras[i] + ('a' - 'A'));
+            }
+        }
+        return new String(letras);
+    }
+    
+    /**
+     * Descarta todo lo guardado en la caché; necesario tras escribir en la tabla sin pasar por el repositorio
+     */
+    void invalidarCache() {
+        CacheMascotas actual = cache;
+        if (actual != null) {
+            GestorTransacciones.alConfirmar(actual::invalidarTodo);
+        }
+    }
+    
+    /**
+     * Dentro de una transacción se invalida al confirmar: hacerlo antes dejaría que otro hilo
+     * guardara la fila confirmada anterior con la generación ya avanzada
+     */
+    private void invalidar(long id) {
+        CacheMascotas actual = cache;
+        if (actual != null) {
+            GestorTransacciones.alConfirmar(() -> actual.invalidar(id));
+        }
+    }
+    
+    /**
+     * @return la caché, o null dentro de una transacción: sus lecturas deben ver sus propias escrituras
+     * y lo que leen puede deshacerse
+     */
+    private CacheMascotas cacheFueraDeTransaccion() {
+        return GestorTransacciones.hayTransaccionActiva() ? null : cache;
+    }
+    
+    /**
+     * Las filas se borraron sin pasar por el repositorio (archivado): se descartan de la caché y se avisa
+     */
+    void borradasExternamente(LongArrayList ids) {
+        ids.forEach(this::invalidar);
+        notificar(escucha -> ids.forEach(escucha::eliminada));
+    }
+    
+    @Override
+    public void agregarEscucha(EscuchaCambiosMascotas escucha) {
+        if (escucha == null) {
+            throw new IllegalArgumentException("La escucha no puede ser nula");
+        }
+        escuchas.add(escucha);
+    }
+    
+    @Override
+    public void quitarEscucha(EscuchaCambiosMascotas escucha) {
+        escuchas.remove(escucha);
+    }
+    
+    /**
+     * Avisa a las escuchas cuando el cambio es definitivo (ver {@link GestorTransacciones#alConfirmar})
+     */
+    private void notificar(Consumer<EscuchaCambiosMascotas> aviso) {
+        if (escuchas.isEmpty()) {
+            return;
+        }
+        GestorTransacciones.alConfirmar(() -> {
+            for (EscuchaCambiosMascotas escucha : escuchas) {
+                try {
+                    aviso.accept(escucha);
+                } catch (RuntimeException e) {
+                    // Ya se escribió en la base: un error de una escucha no debe hacer fallar la operación
+                    logger.warn("Error al notificar un cambio de mascotas: {}", e.getMessage(), e);
+                }
+            }
+        });
+    }
+    
+    private void notificarGuardada(Mascota mascota) {
+        if (!escuchas.isEmpty()) {
+            Mascota copia = new Mascota(mascota);
+            notificar(escucha -> escucha.guardada(copia));
+        }
+    }
+    
     private void initializeDatabase() {
-        try (Connection conn = DriverManager.getConnection(dbUrl);
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
              Statement stmt = conn.createStatement()) {
+            // Solo tiene efecto en bases nuevas; las existentes se convierten con
+            // ArchivadorMascotas.habilitarVacuumIncremental()
+            stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
             stmt.execute(CREATE_TABLE_SQL);
+            asegurarColumna(conn, "mascotas", "version", "INTEGER NOT NULL DEFAULT 0");
+            stmt.execute(CREATE_ARCHIVO_SQL);
+            asegurarColumna(conn, "mascotas_archivo", "propietario_id", "INTEGER");
+            stmt.execute(CREATE_PROPIETARIOS_SQL);
+            asegurarColumna(conn, "mascotas", "propietario_id", "INTEGER REFERENCES propietarios(id)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_mascotas_propietario_id ON mascotas(propietario_id)");
+            // eliminarPorPropietario compara con el texto de cada mascota, la misma fuente que buscarPorPropietario
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_mascotas_propietario ON mascotas(LOWER(propietario))");
+            // Índices para los criterios de FiltroMascotas: la expresión debe coincidir con la del WHERE
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_mascotas_especie ON mascotas(LOWER(especie))");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_mascotas_nacimiento ON mascotas(fecha_nacimiento)");
+            // Los listados por nombre con límite recorren este índice y se detienen en la fila N
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_mascotas_nombre ON mascotas(nombre)");
+            migrarPropietarios(conn);
+            // Índice parcial: el archivador localiza las inactivas antiguas sin recorrer las activas
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_mascotas_inactivas " +
+                         "ON mascotas(fecha_actualizacion) WHERE activo = FALSE");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_mascotas_archivo_fecha " +
+                         "ON mascotas_archivo(fecha_archivado)");
         } catch (SQLException e) {
             throw new RuntimeException("Error al inicializar la base de datos", e);
         }
     }
     
+    /**
+     * Agrega una columna a bases de datos creadas con una versión anterior del esquema
+     */
+    private void asegurarColumna(Connection conn, String tabla, String columna, String definicion) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + tabla + ")")) {
+            while (rs.next()) {
+                if (columna.equalsIgnoreCase(rs.getString("name"))) {
+                    return;
+                }
+            }
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE " + tabla + " ADD COLUMN " + columna + " " + definicion);
+        }
+    }
+    
+    /**
+     * Crea o actualiza un propietario por cada clave de las mascotas aún sin enlazar y las enlaza
+     * Las filas se aplican por ID ascendente, así que quedan los datos de contacto de la mascota
+     * más reciente, igual que con el upsert de {@link #crear}.
+     * En bases ya migradas ambas sentencias no encuentran filas (usan el índice sobre propietario_id).
+     */
+    private void migrarPropietarios(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            // WHERE obligatorio: sin él SQLite no distingue el ON CONFLICT de un JOIN del SELECT
+            int creados = stmt.executeUpdate(
+                "INSERT INTO propietarios (clave, nombre, telefono, email) " +
+                "SELECT " + claveSql("email", "propietario") + ", propietario, telefono, email " +
+                "FROM mascotas WHERE propietario_id IS NULL ORDER BY id " +
+                "ON CONFLICT(clave) DO UPDATE SET nombre = excluded.nombre, telefono = excluded.telefono, " +
+                "email = excluded.email, fecha_actualizacion = CURRENT_TIMESTAMP");
+            int enlazadas = stmt.executeUpdate(
+                "UPDATE mascotas SET propietario_id = (SELECT p.id FROM propietarios p " +
+                "WHERE p.clave = " + claveSql("mascotas.email", "mascotas.propietario") + ") " +
+                "WHERE propietario_id IS NULL");
+            if (enlazadas > 0) {
+                logger.info("Migración de propietarios: {} mascotas enlazadas a {} propietarios creados o actualizados", enlazadas, creados);
+            }
+        }
+    }
+    
+    /**
+     * Crea o actualiza el propietario de la mascota y devuelve su ID
+     */
+    private long resolverPropietario(Connection conn, Mascota mascota) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(UPSERT_PROPIETARIO_SQL)) {
+            pstmt.setString(1, mascota.getEmail());
+            pstmt.setString(2, mascota.getEmail());
+            pstmt.setString(3, mascota.getPropietario());
+            pstmt.setString(4, mascota.getPropietario());
+            pstmt.setString(5, mascota.getTelefono());
+            pstmt.setString(6, mascota.getEmail());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("No se pudo registrar el propietario");
+                }
+                long id = rs.getLong(1);
+                FiltroBloom filtro = filtroEmails;
+                if (filtro != null) {
+                    // Antes de insertar la mascota: el filtro nunca puede ir por detrás de la tabla
+                    filtro.agregar(rs.getString(2));
+                }
+                mascota.setPropietarioId(id);
+                return id;
+            }
+        }
+    }
+    
+    /**
+     * URL JDBC de la base usada por este repositorio (compartida con el archivador)
+     */
+    String getDbUrl() {
+        return dbUrl;
+    }
+    
     @Override
     public Mascota crear(Mascota mascota) {
         if (mascota == null) {
@@ -57,45 +404,121 @@ public class MascotaRepositoryImpl implements MascotaRepository {
         }
         
         String sql = """
-            INSERT INTO mascotas (nombre, especie, raza, fecha_nacimiento, color, 
-                                propietario, telefono, email, peso, esterilizado, activo) 
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            INSERT INTO mascotas (nombre, especie, raza, fecha_nacimiento, color,
+                                propietario, telefono, email, peso, esterilizado, activo, propietario_id)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
             """;
         
-        try (Connection conn = DriverManager.getConnection(dbUrl);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = ConexionSqlite.abrir(dbUrl)) {
+            // El upsert del propietario y el INSERT van juntos: si falla el INSERT no queda un propietario huérfano
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                long propietarioId = resolverPropietario(conn, mascota);
+                pstmt.setString(1, mascota.getNombre());
+                pstmt.setString(2, mascota.getEspecie());
+                pstmt.setString(3, mascota.getRaza());
+                pstmt.setDate(4, mascota.getFechaNacimiento() != null ?
+                             Date.valueOf(mascota.getFechaNacimiento()) : null);
+                pstmt.setString(5, mascota.getColor());
+                pstmt.setString(6, mascota.getPropietario());
+                pstmt.setString(7, mascota.getTelefono());
+                pstmt.setString(8, mascota.getEmail());
+                pstmt.setDouble(9, mascota.getPeso());
+                pstmt.setBoolean(10, mascota.isEsterilizado());
+                pstmt.setBoolean(11, mascota.isActivo());
+                pstmt.setLong(12, propietarioId);
+                
+                int affectedRows = pstmt.executeUpdate();
+                if (affectedRows == 0) {
+                    throw new SQLException("Error al crear mascota, no se insertaron filas");
+                }
+                
+                // Obtener el ID usando last_insert_rowid() que es específico de SQLite
+                try (PreparedStatement getIdStmt = conn.prepareStatement("SELECT last_insert_rowid()");
+                     ResultSet rs = getIdStmt.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new SQLException("Error al crear mascota, no se obtuvo ID");
+                    }
+                    mascota.setId(rs.getLong(1));
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
             
-            pstmt.setString(1, mascota.getNombre());
-            pstmt.setString(2, mascota.getEspecie());
-            pstmt.setString(3, mascota.getRaza());
-            pstmt.setDate(4, mascota.getFechaNacimiento() != null ? 
-                         Date.valueOf(mascota.getFechaNacimiento()) : null);
-            pstmt.setString(5, mascota.getColor());
-            pstmt.setString(6, mascota.getPropietario());
-            pstmt.setString(7, mascota.getTelefono());
-            pstmt.setString(8, mascota.getEmail());
-            pstmt.setDouble(9, mascota.getPeso());
-            pstmt.setBoolean(10, mascota.isEsterilizado());
-            pstmt.setBoolean(11, mascota.isActivo());
+            logger.debug("Mascota creada con ID {}", mascota.getId());
+            notificarGuardada(mascota);
+            return mascota;
             
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows == 0) {
-                throw new SQLException("Error al crear mascota, no se insertaron filas");
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al crear mascota: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public int crearEnLote(List<Mascota> mascotas) {
+        if (mascotas == null || mascotas.isEmpty()) {
+            return 0;
+        }
+        
+        String sql = """
+            INSERT INTO mascotas (id, nombre, especie, raza, fecha_nacimiento, color,
+                                propietario, telefono, email, peso, esterilizado, activo, version,
+                                fecha_creacion, fecha_actualizacion)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?,
+                    COALESCE(?, CURRENT_TIMESTAMP), COALESCE(?, CURRENT_TIMESTAMP))
+            """;
+        
+        boolean releerNuevas = !escuchas.isEmpty() && mascotas.stream().anyMatch(mascota -> mascota.getId() == null);
+        List<Mascota> nuevas = new ArrayList<>();
+        long idMaximoPrevio = 0;
+        try (Connection conn = ConexionSqlite.abrir(dbUrl)) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                if (releerNuevas) {
+                    idMaximoPrevio = idMaximo(conn);
+                }
+                int pendientes = 0;
+                for (Mascota mascota : mascotas) {
+                    enlazarFilaLote(pstmt, mascota);
+                    pstmt.addBatch();
+                    if (++pendientes == TAMANO_LOTE_SQL) {
+                        pstmt.executeBatch();
+                        pendientes = 0;
+                    }
+                }
+                if (pendientes > 0) {
+                    pstmt.executeBatch();
+                }
+                // Enlaza propietarios en una sola pasada en lugar de un upsert por fila
+                migrarPropietarios(conn);
+                if (releerNuevas) {
+                    releerDesde(conn, idMaximoPrevio, nuevas::add);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
             
-            // Obtener el ID usando last_insert_rowid() que es específico de SQLite
-            try (PreparedStatement getIdStmt = conn.prepareStatement("SELECT last_insert_rowid()");
-                 ResultSet rs = getIdStmt.executeQuery()) {
-                if (rs.next()) {
-                    mascota.setId(rs.getLong(1));
-                    return mascota;
-                } else {
-                    throw new SQLException("Error al crear mascota, no se obtuvo ID");
-                }
+            if (logger.isDebugEnabled()) {
+                logger.debug("Insertadas {} mascotas en lote", mascotas.size());
             }
+            if (releerNuevas) {
+                // Las filas releídas ya traen el ID asignado; las de ID explícito menor no aparecen en ellas
+                long limite = idMaximoPrevio;
+                nuevas.forEach(this::notificarGuardada);
+                mascotas.stream()
+                    .filter(mascota -> mascota.getId() != null && mascota.getId() <= limite)
+                    .forEach(this::notificarGuardada);
+            } else {
+                mascotas.forEach(this::notificarGuardada);
+            }
+            return mascotas.size();
             
         } catch (SQLException e) {
-            throw new RuntimeException("Error al crear mascota: " + e.getMessage(), e);
+            throw new RuntimeException("Error al crear mascotas en lote: " + e.getMessage(), e);
         }
     }
     
@@ -105,16 +528,36 @@ public class MascotaRepositoryImpl implements MascotaRepository {
             return Optional.empty();
         }
         
+        return buscarPorId(id.longValue());
+    }
+    
+    /**
+     * Variante con ID primitivo para recorrer IDs sin crear un Long por búsqueda
+     */
+    public Optional<Mascota> buscarPorId(long id) {
+        CacheMascotas actual = cacheFueraDeTransaccion();
+        if (actual != null) {
+            Mascota enCache = actual.obtener(id);
+            if (enCache != null) {
+                return Optional.of(enCache);
+            }
+        }
+        long generacion = actual != null ? actual.generacion() : 0;
+        
         String sql = "SELECT * FROM mascotas WHERE id = ?";
         
-        try (Connection conn = DriverManager.getConnection(dbUrl);
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setLong(1, id);
             ResultSet rs = pstmt.executeQuery();
             
             if (rs.next()) {
-                return Optional.of(mapResultSetToMascota(rs));
+                Mascota mascota = mapResultSetToMascota(rs);
+                if (actual != null) {
+                    actual.guardar(mascota, generacion);
+                }
+                return Optional.of(mascota);
             }
             
         } catch (SQLException e) {
@@ -125,81 +568,151 @@ public class MascotaRepositoryImpl implements MascotaRepository {
     }
     
     @Override
-    public List<Mascota> buscarPorNombre(String nombre) {
-        if (nombre == null || nombre.trim().isEmpty()) {
-            return new ArrayList<>();
+    public Optional<Mascota> buscarPorId(Long id, boolean incluirArchivadas) {
+        if (!incluirArchivadas) {
+            return buscarPorId(id);
+        }
+        if (id == null) {
+            return Optional.empty();
         }
         
-        List<Mascota> mascotas = new ArrayList<>();
-        String sql = "SELECT * FROM mascotas WHERE LOWER(nombre) LIKE LOWER(?) ORDER BY nombre";
+        String sql = "SELECT " + COLUMNAS + " FROM mascotas WHERE id = ? " +
+                     "UNION ALL SELECT " + COLUMNAS + " FROM mascotas_archivo WHERE id = ? LIMIT 1";
         
-        try (Connection conn = DriverManager.getConnection(dbUrl);
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            pstmt.setString(1, "%" + nombre.trim() + "%");
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                mascotas.add(mapResultSetToMascota(rs));
+            pstmt.setLong(1, id);
+            pstmt.setLong(2, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(mapResultSetToMascota(rs));
+                }
             }
             
         } catch (SQLException e) {
-            throw new RuntimeException("Error al buscar mascotas por nombre: " + e.getMessage(), e);
+            throw new RuntimeException("Error al buscar mascota por ID: " + e.getMessage(), e);
         }
         
-        return mascotas;
+        return Optional.empty();
     }
     
+    /**
+     * Resuelve primero en la caché y consulta solo los IDs que faltan, en tramos de
+     * {@link ParametrosSql#IDS_POR_CONSULTA} sobre una misma conexión
+     */
     @Override
-    public List<Mascota> buscarPorEspecie(String especie) {
-        if (especie == null || especie.trim().isEmpty()) {
-            return new ArrayList<>();
+    public Map<Long, Mascota> buscarPorIds(Collection<Long> ids) {
+        if (ParametrosSql.sinIds(ids)) {
+            return new HashMap<>();
         }
+        LongArrayList unicos = ParametrosSql.idsUnicos(ids);
+        Map<Long, Mascota> encontradas = new HashMap<>(unicos.size() * 2);
         
-        List<Mascota> mascotas = new ArrayList<>();
-        String sql = "SELECT * FROM mascotas WHERE LOWER(especie) = LOWER(?) ORDER BY nombre";
+        CacheMascotas actual = cacheFueraDeTransaccion();
+        LongArrayList faltantes = unicos;
+        if (actual != null) {
+            faltantes = new LongArrayList();
+            for (int i = 0; i < unicos.size(); i++) {
+                long id = unicos.get(i);
+                Mascota enCache = actual.obtener(id);
+                if (enCache != null) {
+                    encontradas.put(id, enCache);
+                } else {
+                    faltantes.add(id);
+                }
+            }
+            if (faltantes.isEmpty()) {
+                return encontradas;
+            }
+        }
+        long generacion = actual != null ? actual.generacion() : 0;
+        
+        String sql = "SELECT * FROM mascotas WHERE id IN (" + ParametrosSql.IDS_JSON + ")";
         
-        try (Connection conn = DriverManager.getConnection(dbUrl);
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            pstmt.setString(1, especie.trim());
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                mascotas.add(mapResultSetToMascota(rs));
+            for (int desde = 0; desde < faltantes.size(); desde += ParametrosSql.IDS_POR_CONSULTA) {
+                int hasta = Math.min(desde + ParametrosSql.IDS_POR_CONSULTA, faltantes.size());
+                pstmt.setString(1, ParametrosSql.listaJson(faltantes, desde, hasta));
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        Mascota mascota = mapResultSetToMascota(rs);
+                        encontradas.put(mascota.getId(), mascota);
+                        if (actual != null) {
+                            actual.guardar(mascota, generacion);
+                        }
+                    }
+                }
             }
             
         } catch (SQLException e) {
-            throw new RuntimeException("Error al buscar mascotas por especie: " + e.getMessage(), e);
+            throw new RuntimeException("Error al buscar mascotas por IDs: " + e.getMessage(), e);
         }
         
-        return mascotas;
+        return encontradas;
     }
     
     @Override
-    public List<Mascota> buscarPorPropietario(String propietario) {
-        if (propietario == null || propietario.trim().isEmpty()) {
+    public List<Mascota> buscarPorNombre(String nombre) {
+        if (nombre == null || nombre.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        return listar(FiltroMascotas.todas().conNombre(nombre).ordenadoPor(FiltroMascotas.Orden.NOMBRE), "buscarPorNombre");
+    }
+    
+    @Override
+    public List<Mascota> buscarPorNombre(String nombre, boolean incluirArchivadas) {
+        if (!incluirArchivadas) {
+            return buscarPorNombre(nombre);
+        }
+        if (nombre == null || nombre.trim().isEmpty()) {
             return new ArrayList<>();
         }
         
         List<Mascota> mascotas = new ArrayList<>();
-        String sql = "SELECT * FROM mascotas WHERE LOWER(propietario) LIKE LOWER(?) ORDER BY nombre";
+        String sql = "SELECT " + COLUMNAS + " FROM mascotas WHERE LOWER(nombre) LIKE LOWER(?) " +
+                     "UNION ALL SELECT " + COLUMNAS + " FROM mascotas_archivo WHERE LOWER(nombre) LIKE LOWER(?) " +
+                     "ORDER BY nombre";
         
-        try (Connection conn = DriverManager.getConnection(dbUrl);
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            pstmt.setString(1, "%" + propietario.trim() + "%");
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                mascotas.add(mapResultSetToMascota(rs));
+            String patron = "%" + nombre.trim() + "%";
+            pstmt.setString(1, patron);
+            pstmt.setString(2, patron);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    mascotas.add(mapResultSetToMascota(rs));
+                }
             }
             
         } catch (SQLException e) {
-            throw new RuntimeException("Error al buscar mascotas por propietario: " + e.getMessage(), e);
+            throw new RuntimeException("Error al buscar mascotas por nombre: " + e.getMessage(), e);
         }
         
-        return mascotas;
+        return trazarResultado("buscarPorNombre+archivo", mascotas);
+    }
+    
+    @Override
+    public List<Mascota> buscarPorEspecie(String especie) {
+        if (especie == null || especie.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        return listar(FiltroMascotas.todas().conEspecie(especie).ordenadoPor(FiltroMascotas.Orden.NOMBRE), "buscarPorEspecie");
+    }
+    
+    @Override
+    public List<Mascota> buscarPorPropietario(String propietario) {
+        if (propietario == null || propietario.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        return listar(FiltroMascotas.todas().conPropietario(propietario).ordenadoPor(FiltroMascotas.Orden.NOMBRE),
+                      "buscarPorPropietario");
     }
     
     @Override
@@ -208,108 +721,301 @@ public class MascotaRepositoryImpl implements MascotaRepository {
             return new ArrayList<>();
         }
         
-        List<Mascota> mascotas = new ArrayList<>();
-        String sql = "SELECT * FROM mascotas WHERE LOWER(email) = LOWER(?) ORDER BY nombre";
+        return listar(FiltroMascotas.todas().conEmail(email).ordenadoPor(FiltroMascotas.Orden.NOMBRE), "buscarPorEmail");
+    }
+    
+    @Override
+    public List<Mascota> buscarPorPropietarioId(Long propietarioId) {
+        if (propietarioId == null) {
+            return new ArrayList<>();
+        }
         
-        try (Connection conn = DriverManager.getConnection(dbUrl);
+        return listar(FiltroMascotas.todas().conPropietarioId(propietarioId).ordenadoPor(FiltroMascotas.Orden.NOMBRE),
+                      "buscarPorPropietarioId");
+    }
+    
+    @Override
+    public Optional<Propietario> buscarPropietarioConMascotas(Long propietarioId) {
+        if (propietarioId == null) {
+            return Optional.empty();
+        }
+        return cargarPropietario("p.id = ?", propietarioId);
+    }
+    
+    @Override
+    public Optional<Propietario> buscarPropietarioPorEmail(String email) {
+        if (email == null || email.trim().isEmpty()) {
+            return Optional.empty();
+        }
+        return cargarPropietario("p.clave = LOWER(?)", email.trim());
+    }
+    
+    /**
+     * Carga un propietario y todas sus mascotas con un único JOIN
+     * El LEFT JOIN devuelve una fila con columnas de mascota nulas si no tiene mascotas.
+     */
+    private Optional<Propietario> cargarPropietario(String condicion, Object parametro) {
+        String sql = "SELECT p.id AS p_id, p.nombre AS p_nombre, p.telefono AS p_telefono, p.email AS p_email, m.* " +
+                     "FROM propietarios p LEFT JOIN mascotas m ON m.propietario_id = p.id " +
+                     "WHERE " + condicion + " ORDER BY m.nombre";
+        
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            pstmt.setString(1, email.trim());
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                mascotas.add(mapResultSetToMascota(rs));
+            pstmt.setObject(1, parametro);
+            Propietario propietario = null;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    if (propietario == null) {
+                        propietario = new Propietario(rs.getLong("p_id"), rs.getString("p_nombre"),
+                                                      rs.getString("p_telefono"), rs.getString("p_email"));
+                    }
+                    if (rs.getObject("id") != null) {
+                        propietario.getMascotas().add(mapResultSetToMascota(rs));
+                    }
+                }
             }
+            return Optional.ofNullable(propietario);
             
         } catch (SQLException e) {
-            throw new RuntimeException("Error al buscar mascotas por email: " + e.getMessage(), e);
+            throw new RuntimeException("Error al buscar propietario: " + e.getMessage(), e);
         }
-        
-        return mascotas;
     }
     
     @Override
     public List<Mascota> listarTodas() {
-        List<Mascota> mascotas = new ArrayList<>();
-        String sql = "SELECT * FROM mascotas ORDER BY nombre";
+        return listar(FiltroMascotas.todas().ordenadoPor(FiltroMascotas.Orden.NOMBRE), "listarTodas");
+    }
+    
+    @Override
+    public int crearArchivadasEnLote(List<Mascota> mascotas) {
+        if (mascotas == null || mascotas.isEmpty()) {
+            return 0;
+        }
+        if (mascotas.stream().anyMatch(mascota -> mascota.getId() == null)) {
+            throw new IllegalArgumentException("Las mascotas archivadas deben conservar su ID");
+        }
+        
+        String sql = """
+            INSERT INTO mascotas_archivo (id, nombre, especie, raza, fecha_nacimiento, color,
+                                        propietario, telefono, email, peso, esterilizado, activo, version,
+                                        fecha_creacion, fecha_actualizacion, fecha_archivado)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?,
+                    COALESCE(?, CURRENT_TIMESTAMP), COALESCE(?, CURRENT_TIMESTAMP), COALESCE(?, CURRENT_TIMESTAMP))
+            """;
         
-        try (Connection conn = DriverManager.getConnection(dbUrl);
+        try (Connection conn = ConexionSqlite.abrir(dbUrl)) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                int pendientes = 0;
+                for (Mascota mascota : mascotas) {
+                    enlazarFilaLote(pstmt, mascota);
+                    pstmt.setString(16, textoMarca(mascota.getFechaArchivado()));
+                    pstmt.addBatch();
+                    if (++pendientes == TAMANO_LOTE_SQL) {
+                        pstmt.executeBatch();
+                        pendientes = 0;
+                    }
+                }
+                if (pendientes > 0) {
+                    pstmt.executeBatch();
+                }
+                enlazarPropietariosArchivo(conn);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            
+            if (logger.isDebugEnabled()) {
+                logger.debug("Insertadas {} mascotas archivadas en lote", mascotas.size());
+            }
+            invalidarCache();
+            return mascotas.size();
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al crear mascotas archivadas en lote: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Toma el cerrojo de escritura antes de leer el ID máximo, para que ninguna otra conexión
+     * inserte entre la lectura y el lote (y no fallar al pasar de lector a escritor)
+     */
+    private static long idMaximo(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("UPDATE sqlite_sequence SET seq = seq WHERE name = 'mascotas'");
+            try (ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) FROM mascotas")) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+    
+    /**
+     * Lee las filas con ID mayor que {@code idPrevio}: tras un lote sin IDs son las recién insertadas
+     */
+    private void releerDesde(Connection conn, long idPrevio, Consumer<Mascota> consumidor) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT * FROM mascotas WHERE id > ? ORDER BY id")) {
+            pstmt.setLong(1, idPrevio);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    consumidor.accept(mapResultSetToMascota(rs));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Enlaza las filas archivadas sin propietario_id; las claves que solo aparecen en el archivo
+     * crean su propietario sin pisar los datos de contacto de las mascotas vivas.
+     */
+    private void enlazarPropietariosArchivo(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(
+                "INSERT INTO propietarios (clave, nombre, telefono, email) " +
+                "SELECT " + claveSql("email", "propietario") + ", propietario, telefono, email " +
+                "FROM mascotas_archivo WHERE propietario_id IS NULL ORDER BY id " +
+                "ON CONFLICT(clave) DO NOTHING");
+            stmt.executeUpdate(
+                "UPDATE mascotas_archivo SET propietario_id = (SELECT p.id FROM propietarios p " +
+                "WHERE p.clave = " + claveSql("mascotas_archivo.email", "mascotas_archivo.propietario") + ") " +
+                "WHERE propietario_id IS NULL");
+        }
+    }
+    
+    /**
+     * Enlaza los 15 parámetros comunes de las inserciones por lotes, de id a fecha_actualizacion
+     */
+    private static void enlazarFilaLote(PreparedStatement pstmt, Mascota mascota) throws SQLException {
+        if (mascota.getId() != null) {
+            pstmt.setLong(1, mascota.getId());
+        } else {
+            pstmt.setNull(1, Types.INTEGER);
+        }
+        pstmt.setString(2, mascota.getNombre());
+        pstmt.setString(3, mascota.getEspecie());
+        pstmt.setString(4, mascota.getRaza());
+        pstmt.setDate(5, mascota.getFechaNacimiento() != null ? 
+                     Date.valueOf(mascota.getFechaNacimiento()) : null);
+        pstmt.setString(6, mascota.getColor());
+        pstmt.setString(7, mascota.getPropietario());
+        pstmt.setString(8, mascota.getTelefono());
+        pstmt.setString(9, mascota.getEmail());
+        pstmt.setDouble(10, mascota.getPeso());
+        pstmt.setBoolean(11, mascota.isEsterilizado());
+        pstmt.setBoolean(12, mascota.isActivo());
+        pstmt.setLong(13, mascota.getVersion());
+        pstmt.setString(14, textoMarca(mascota.getFechaCreacion()));
+        pstmt.setString(15, textoMarca(mascota.getFechaActualizacion()));
+    }
+    
+    @Override
+    public void recorrerArchivadas(Consumer<Mascota> consumidor) {
+        String sql = "SELECT " + COLUMNAS + ", fecha_archivado FROM mascotas_archivo ORDER BY id";
+        
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
             while (rs.next()) {
-                mascotas.add(mapResultSetToMascota(rs));
+                Mascota mascota = mapResultSetToMascota(rs);
+                mascota.setFechaArchivado(leerMarca(rs.getString("fecha_archivado")));
+                consumidor.accept(mascota);
             }
             
         } catch (SQLException e) {
-            throw new RuntimeException("Error al listar mascotas: " + e.getMessage(), e);
+            throw new RuntimeException("Error al recorrer mascotas archivadas: " + e.getMessage(), e);
         }
-        
-        return mascotas;
     }
     
     @Override
-    public List<Mascota> listarActivas() {
-        List<Mascota> mascotas = new ArrayList<>();
-        String sql = "SELECT * FROM mascotas WHERE activo = TRUE ORDER BY nombre";
+    public void recorrerTodas(Consumer<Mascota> consumidor) {
+        String sql = "SELECT * FROM mascotas ORDER BY id";
         
-        try (Connection conn = DriverManager.getConnection(dbUrl);
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
             while (rs.next()) {
-                mascotas.add(mapResultSetToMascota(rs));
+                consumidor.accept(mapResultSetToMascota(rs));
             }
             
         } catch (SQLException e) {
-            throw new RuntimeException("Error al listar mascotas activas: " + e.getMessage(), e);
+            throw new RuntimeException("Error al recorrer mascotas: " + e.getMessage(), e);
         }
-        
-        return mascotas;
     }
     
     @Override
-    public List<Mascota> listarCachorros() {
-        List<Mascota> mascotas = new ArrayList<>();
-        String sql = "SELECT * FROM mascotas WHERE fecha_nacimiento > ? AND activo = TRUE ORDER BY nombre";
+    public void recorrer(FiltroMascotas filtro, Consumer<Mascota> consumidor) {
+        if (filtro == null) {
+            throw new IllegalArgumentException("El filtro no puede ser nulo");
+        }
         
-        try (Connection conn = DriverManager.getConnection(dbUrl);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setDate(1, Date.valueOf(LocalDate.now().minusYears(1)));
-            ResultSet rs = pstmt.executeQuery();
+        LocalDate hoy = LocalDate.now();
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
+             PreparedStatement pstmt = conn.prepareStatement(CompiladorFiltros.sql(filtro, hoy))) {
             
-            while (rs.next()) {
-                mascotas.add(mapResultSetToMascota(rs));
+            CompiladorFiltros.enlazar(pstmt, filtro, hoy);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    consumidor.accept(mapResultSetToMascota(rs));
+                }
             }
             
         } catch (SQLException e) {
-            throw new RuntimeException("Error al listar cachorros: " + e.getMessage(), e);
+            throw new RuntimeException("Error al recorrer mascotas: " + e.getMessage(), e);
         }
-        
-        return mascotas;
     }
     
     @Override
-    public List<Mascota> listarSenior() {
+    public List<Mascota> buscar(FiltroMascotas filtro) {
+        return listar(filtro, "buscar");
+    }
+    
+    private List<Mascota> listar(FiltroMascotas filtro, String operacion) {
         List<Mascota> mascotas = new ArrayList<>();
-        String sql = "SELECT * FROM mascotas WHERE fecha_nacimiento <= ? AND activo = TRUE ORDER BY nombre";
+        recorrer(filtro, mascotas::add);
+        return trazarResultado(operacion, mascotas);
+    }
+    
+    @Override
+    public List<Mascota> listarTodas(boolean incluirArchivadas) {
+        if (!incluirArchivadas) {
+            return listarTodas();
+        }
         
-        try (Connection conn = DriverManager.getConnection(dbUrl);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setDate(1, Date.valueOf(LocalDate.now().minusYears(7)));
-            ResultSet rs = pstmt.executeQuery();
+        List<Mascota> mascotas = new ArrayList<>();
+        String sql = "SELECT " + COLUMNAS + " FROM mascotas " +
+                     "UNION ALL SELECT " + COLUMNAS + " FROM mascotas_archivo ORDER BY nombre";
+        
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
             
             while (rs.next()) {
                 mascotas.add(mapResultSetToMascota(rs));
             }
             
         } catch (SQLException e) {
-            throw new RuntimeException("Error al listar mascotas senior: " + e.getMessage(), e);
+            throw new RuntimeException("Error al listar mascotas: " + e.getMessage(), e);
         }
         
-        return mascotas;
+        return trazarResultado("listarTodas+archivo", mascotas);
+    }
+    
+    @Override
+    public List<Mascota> listarActivas() {
+        return listar(FiltroMascotas.todas().conActivo(true).ordenadoPor(FiltroMascotas.Orden.NOMBRE), "listarActivas");
+    }
+    
+    @Override
+    public List<Mascota> listarCachorros() {
+        return listar(FiltroMascotas.cachorros(), "listarCachorros");
+    }
+    
+    @Override
+    public List<Mascota> listarSenior() {
+        return listar(FiltroMascotas.senior(), "listarSenior");
     }
     
     @Override
@@ -319,34 +1025,101 @@ public class MascotaRepositoryImpl implements MascotaRepository {
         }
         
         String sql = """
-            UPDATE mascotas SET nombre = ?, especie = ?, raza = ?, fecha_nacimiento = ?, 
-                              color = ?, propietario = ?, telefono = ?, email = ?, peso = ?, 
-                              esterilizado = ?, fecha_actualizacion = CURRENT_TIMESTAMP 
+            UPDATE mascotas SET nombre = ?, especie = ?, raza = ?, fecha_nacimiento = ?,
+                              color = ?, propietario = ?, telefono = ?, email = ?, peso = ?,
+                              esterilizado = ?, propietario_id = ?, version = version + 1,
+                              fecha_actualizacion = CURRENT_TIMESTAMP
             WHERE id = ?
+            RETURNING version
             """;
         
-        try (Connection conn = DriverManager.getConnection(dbUrl);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = ConexionSqlite.abrir(dbUrl)) {
+            // El upsert del propietario solo se confirma si la mascota existe
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                asignarParametrosActualizacion(conn, pstmt, mascota);
+                pstmt.setLong(12, mascota.getId());
+                
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new RuntimeException("Mascota no encontrada con ID: " + mascota.getId());
+                    }
+                    mascota.setVersion(rs.getLong(1));
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+            invalidar(mascota.getId());
+            notificarGuardada(mascota);
             
-            pstmt.setString(1, mascota.getNombre());
-            pstmt.setString(2, mascota.getEspecie());
-            pstmt.setString(3, mascota.getRaza());
-            pstmt.setDate(4, mascota.getFechaNacimiento() != null ? 
-                         Date.valueOf(mascota.getFechaNacimiento()) : null);
-            pstmt.setString(5, mascota.getColor());
-            pstmt.setString(6, mascota.getPropietario());
-            pstmt.setString(7, mascota.getTelefono());
-            pstmt.setString(8, mascota.getEmail());
-            pstmt.setDouble(9, mascota.getPeso());
-            pstmt.setBoolean(10, mascota.isEsterilizado());
-            pstmt.setLong(11, mascota.getId());
+            if (logger.isDebugEnabled()) {
+                logger.debug("Mascota {} actualizada a versión {}", mascota.getId(), mascota.getVersion());
+            }
+            return mascota;
             
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows == 0) {
-                throw new RuntimeException("Mascota no encontrada con ID: " + mascota.getId());
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al actualizar mascota: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public boolean actualizarConVersion(Mascota mascota) {
+        if (mascota == null || mascota.getId() == null) {
+            throw new IllegalArgumentException("La mascota y su ID no pueden ser null");
+        }
+        
+        // Una sola sentencia: la condición sobre version evita perder actualizaciones concurrentes
+        String sql = """
+            UPDATE mascotas SET nombre = ?, especie = ?, raza = ?, fecha_nacimiento = ?,
+                              color = ?, propietario = ?, telefono = ?, email = ?, peso = ?,
+                              esterilizado = ?, propietario_id = ?, version = version + 1,
+                              fecha_actualizacion = CURRENT_TIMESTAMP
+            WHERE id = ? AND version = ?
+            """;
+        
+        try (Connection conn = ConexionSqlite.abrir(dbUrl)) {
+            // El upsert del propietario y el UPDATE condicional van en la misma transacción:
+            // una actualización obsoleta no debe modificar los datos compartidos del propietario
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                asignarParametrosActualizacion(conn, pstmt, mascota);
+                pstmt.setLong(12, mascota.getId());
+                pstmt.setLong(13, mascota.getVersion());
+                
+                if (pstmt.executeUpdate() == 0) {
+                    // Solo en el camino de fallo: distinguir entre inexistente y conflicto.
+                    // En ambos casos se deshace también el upsert del propietario
+                    boolean existe;
+                    try (PreparedStatement consulta = conn.prepareStatement("SELECT 1 FROM mascotas WHERE id = ?")) {
+                        consulta.setLong(1, mascota.getId());
+                        try (ResultSet rs = consulta.executeQuery()) {
+                            existe = rs.next();
+                        }
+                    }
+                    if (!existe) {
+                        conn.rollback();
+                        return false;
+                    }
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Conflicto de versión en mascota {} (versión leída {})", mascota.getId(), mascota.getVersion());
+                    }
+                    throw new ConflictoConcurrenciaException("mascotas", mascota.getId(), mascota.getVersion());
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
             }
             
-            return mascota;
+            mascota.setVersion(mascota.getVersion() + 1);
+            invalidar(mascota.getId());
+            notificarGuardada(mascota);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Mascota {} actualizada a versión {}", mascota.getId(), mascota.getVersion());
+            }
+            return true;
             
         } catch (SQLException e) {
             throw new RuntimeException("Error al actualizar mascota: " + e.getMessage(), e);
@@ -359,13 +1132,24 @@ public class MascotaRepositoryImpl implements MascotaRepository {
             return false;
         }
         
-        String sql = "UPDATE mascotas SET activo = FALSE, fecha_actualizacion = CURRENT_TIMESTAMP WHERE id = ?";
+        return eliminar(id.longValue());
+    }
+    
+    /**
+     * Variante con ID primitivo de {@link #eliminar(Long)}
+     */
+    public boolean eliminar(long id) {
+        String sql = "UPDATE mascotas SET activo = FALSE, version = version + 1, fecha_actualizacion = CURRENT_TIMESTAMP WHERE id = ?";
         
-        try (Connection conn = DriverManager.getConnection(dbUrl);
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setLong(1, id);
             int affectedRows = pstmt.executeUpdate();
+            invalidar(id);
+            if (affectedRows > 0) {
+                notificar(escucha -> escucha.activoCambiado(id, false));
+            }
             
             return affectedRows > 0;
             
@@ -374,6 +1158,93 @@ public class MascotaRepositoryImpl implements MascotaRepository {
         }
     }
     
+    @Override
+    public int eliminarTodas(Collection<Long> ids) {
+        if (ParametrosSql.sinIds(ids)) {
+            return 0;
+        }
+        
+        String sql = "UPDATE mascotas SET activo = FALSE, version = version + 1, fecha_actualizacion = CURRENT_TIMESTAMP " +
+                     "WHERE activo = TRUE AND id IN (" + ParametrosSql.IDS_JSON + ")";
+        return actualizarEnBloque(sql, ParametrosSql.listaJson(ParametrosSql.idsUnicos(ids)), false, "eliminar mascotas");
+    }
+    
+    @Override
+    public int reactivar(Collection<Long> ids) {
+        if (ParametrosSql.sinIds(ids)) {
+            return 0;
+        }
+        
+        String sql = "UPDATE mascotas SET activo = TRUE, version = version + 1, fecha_actualizacion = CURRENT_TIMESTAMP " +
+                     "WHERE activo = FALSE AND id IN (" + ParametrosSql.IDS_JSON + ")";
+        return actualizarEnBloque(sql, ParametrosSql.listaJson(ParametrosSql.idsUnicos(ids)), true, "reactivar mascotas");
+    }
+    
+    @Override
+    public int eliminarPorPropietario(String propietario) {
+        if (propietario == null || propietario.trim().isEmpty()) {
+            return 0;
+        }
+        
+        String sql = "UPDATE mascotas SET activo = FALSE, version = version + 1, fecha_actualizacion = CURRENT_TIMESTAMP " +
+                     "WHERE activo = TRUE AND LOWER(propietario) = LOWER(?)";
+        return actualizarEnBloque(sql, propietario.trim(), false, "eliminar mascotas por propietario");
+    }
+    
+    @Override
+    public int eliminarPorEmail(String email) {
+        if (email == null || email.trim().isEmpty()) {
+            return 0;
+        }
+        
+        String sql = "UPDATE mascotas SET activo = FALSE, version = version + 1, fecha_actualizacion = CURRENT_TIMESTAMP " +
+                     "WHERE activo = TRUE AND propietario_id = " + PROPIETARIO_POR_EMAIL;
+        return actualizarEnBloque(sql, email.trim(), false, "eliminar mascotas por email");
+    }
+    
+    @Override
+    public int reactivarPorEmail(String email) {
+        if (email == null || email.trim().isEmpty()) {
+            return 0;
+        }
+        
+        String sql = "UPDATE mascotas SET activo = TRUE, version = version + 1, fecha_actualizacion = CURRENT_TIMESTAMP " +
+                     "WHERE activo = FALSE AND propietario_id = " + PROPIETARIO_POR_EMAIL;
+        return actualizarEnBloque(sql, email.trim(), true, "reactivar mascotas por email");
+    }
+    
+    /**
+     * Ejecuta un UPDATE de conjunto con un único parámetro que cambia el estado a {@code activo}.
+     * Una sola sentencia en SQLite es atómica: todas las filas cambian o ninguna.
+     * RETURNING id da las filas cambiadas, así la caché y las escuchas se actualizan una a una
+     * en lugar de vaciarse o recargarse enteras.
+     */
+    private int actualizarEnBloque(String sql, String parametro, boolean activo, String operacion) {
+        LongArrayList cambiadas = new LongArrayList();
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
+             PreparedStatement pstmt = conn.prepareStatement(sql + " RETURNING id")) {
+            
+            pstmt.setString(1, parametro);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    cambiadas.add(rs.getLong(1));
+                }
+            }
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al " + operacion + ": " + e.getMessage(), e);
+        }
+        
+        cambiadas.forEach(this::invalidar);
+        if (!cambiadas.isEmpty()) {
+            notificar(escucha -> cambiadas.forEach(id -> escucha.activoCambiado(id, activo)));
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("{}: {} filas afectadas", operacion, cambiadas.size());
+        }
+        return cambiadas.size();
+    }
+    
     @Override
     public boolean eliminarFisicamente(Long id) {
         if (id == null) {
@@ -382,11 +1253,15 @@ public class MascotaRepositoryImpl implements MascotaRepository {
         
         String sql = "DELETE FROM mascotas WHERE id = ?";
         
-        try (Connection conn = DriverManager.getConnection(dbUrl);
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setLong(1, id);
             int affectedRows = pstmt.executeUpdate();
+            invalidar(id);
+            if (affectedRows > 0) {
+                notificar(escucha -> escucha.eliminada(id));
+            }
             
             return affectedRows > 0;
             
@@ -399,7 +1274,30 @@ public class MascotaRepositoryImpl implements MascotaRepository {
     public long contar() {
         String sql = "SELECT COUNT(*) FROM mascotas";
         
-        try (Connection conn = DriverManager.getConnection(dbUrl);
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            
+            if (rs.next()) {
+                return rs.getLong(1);
+            }
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al contar mascotas: " + e.getMessage(), e);
+        }
+        
+        return 0;
+    }
+    
+    @Override
+    public long contar(boolean incluirArchivadas) {
+        if (!incluirArchivadas) {
+            return contar();
+        }
+        
+        String sql = "SELECT (SELECT COUNT(*) FROM mascotas) + (SELECT COUNT(*) FROM mascotas_archivo)";
+        
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
@@ -418,7 +1316,7 @@ public class MascotaRepositoryImpl implements MascotaRepository {
     public long contarActivas() {
         String sql = "SELECT COUNT(*) FROM mascotas WHERE activo = TRUE";
         
-        try (Connection conn = DriverManager.getConnection(dbUrl);
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
@@ -441,7 +1339,7 @@ public class MascotaRepositoryImpl implements MascotaRepository {
         
         String sql = "SELECT COUNT(*) FROM mascotas WHERE LOWER(especie) = LOWER(?) AND activo = TRUE";
         
-        try (Connection conn = DriverManager.getConnection(dbUrl);
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, especie.trim());
@@ -458,15 +1356,39 @@ public class MascotaRepositoryImpl implements MascotaRepository {
         return 0;
     }
     
+    @Override
+    public Map<String, Long> contarAgrupadoPorEspecie() {
+        Map<String, Long> conteos = new HashMap<>();
+        String sql = "SELECT especie, COUNT(*) FROM mascotas GROUP BY especie";
+        
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            
+            while (rs.next()) {
+                conteos.put(rs.getString(1), rs.getLong(2));
+            }
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al contar mascotas por especie: " + e.getMessage(), e);
+        }
+        
+        return conteos;
+    }
+    
     @Override
     public boolean existePorEmail(String email) {
         if (email == null || email.trim().isEmpty()) {
             return false;
         }
         
-        String sql = "SELECT COUNT(*) FROM mascotas WHERE LOWER(email) = LOWER(?)";
+        if (!puedeExistirEmail(email)) {
+            return false;
+        }
+        
+        String sql = "SELECT EXISTS (SELECT 1 FROM mascotas WHERE propietario_id = " + PROPIETARIO_POR_EMAIL + ")";
         
-        try (Connection conn = DriverManager.getConnection(dbUrl);
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, email.trim());
@@ -489,14 +1411,15 @@ public class MascotaRepositoryImpl implements MascotaRepository {
             return false;
         }
         
-        String sql = "UPDATE mascotas SET esterilizado = ?, fecha_actualizacion = CURRENT_TIMESTAMP WHERE id = ?";
+        String sql = "UPDATE mascotas SET esterilizado = ?, version = version + 1, fecha_actualizacion = CURRENT_TIMESTAMP WHERE id = ?";
         
-        try (Connection conn = DriverManager.getConnection(dbUrl);
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setBoolean(1, esterilizado);
             pstmt.setLong(2, id);
             int affectedRows = pstmt.executeUpdate();
+            invalidar(id);
             
             return affectedRows > 0;
             
@@ -511,14 +1434,15 @@ public class MascotaRepositoryImpl implements MascotaRepository {
             return false;
         }
         
-        String sql = "UPDATE mascotas SET peso = ?, fecha_actualizacion = CURRENT_TIMESTAMP WHERE id = ?";
+        String sql = "UPDATE mascotas SET peso = ?, version = version + 1, fecha_actualizacion = CURRENT_TIMESTAMP WHERE id = ?";
         
-        try (Connection conn = DriverManager.getConnection(dbUrl);
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setDouble(1, peso);
             pstmt.setLong(2, id);
             int affectedRows = pstmt.executeUpdate();
+            invalidar(id);
             
             return affectedRows > 0;
             
@@ -527,24 +1451,54 @@ public class MascotaRepositoryImpl implements MascotaRepository {
         }
     }
     
+    /**
+     * Registra en DEBUG el tamaño de un resultado; el guard evita el boxing si DEBUG está apagado
+     */
+    private List<Mascota> trazarResultado(String operacion, List<Mascota> mascotas) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("{} devolvió {} mascotas", operacion, mascotas.size());
+        }
+        return mascotas;
+    }
+    
+    /**
+     * Asigna los campos editables comunes a las sentencias UPDATE (parámetros 1 a 11),
+     * resolviendo antes el propietario por si cambiaron sus datos de contacto
+     */
+    private void asignarParametrosActualizacion(Connection conn, PreparedStatement pstmt, Mascota mascota) throws SQLException {
+        pstmt.setString(1, mascota.getNombre());
+        pstmt.setString(2, mascota.getEspecie());
+        pstmt.setString(3, mascota.getRaza());
+        pstmt.setDate(4, mascota.getFechaNacimiento() != null ? 
+                     Date.valueOf(mascota.getFechaNacimiento()) : null);
+        pstmt.setString(5, mascota.getColor());
+        pstmt.setString(6, mascota.getPropietario());
+        pstmt.setString(7, mascota.getTelefono());
+        pstmt.setString(8, mascota.getEmail());
+        pstmt.setDouble(9, mascota.getPeso());
+        pstmt.setBoolean(10, mascota.isEsterilizado());
+        pstmt.setLong(11, resolverPropietario(conn, mascota));
+    }
+    
     /**
      * Método auxiliar para mapear ResultSet a objeto Mascota
      * Aplica principio DRY (Don't Repeat Yourself)
      */
     private Mascota mapResultSetToMascota(ResultSet rs) throws SQLException {
+        // especie, raza y color tienen pocos valores distintos: se comparten las instancias
         LocalDate fechaNacimiento = null;
         Date sqlDate = rs.getDate("fecha_nacimiento");
         if (sqlDate != null) {
             fechaNacimiento = sqlDate.toLocalDate();
         }
         
-        return new Mascota(
+        Mascota mascota = new Mascota(
             rs.getLong("id"),
             rs.getString("nombre"),
-            rs.getString("especie"),
-            rs.getString("raza"),
+            Especie.canonica(rs.getString("especie")),
+            ValoresCanonicos.de(rs.getString("raza")),
             fechaNacimiento,
-            rs.getString("color"),
+            ValoresCanonicos.de(rs.getString("color")),
             rs.getString("propietario"),
             rs.getString("telefono"),
             rs.getString("email"),
@@ -552,5 +1506,33 @@ public class MascotaRepositoryImpl implements MascotaRepository {
             rs.getBoolean("esterilizado"),
             rs.getBoolean("activo")
         );
+        mascota.setVersion(rs.getLong("version"));
+        long propietarioId = rs.getLong("propietario_id");
+        mascota.setPropietarioId(rs.wasNull() ? null : propietarioId);
+        mascota.setFechaCreacion(leerMarca(rs.getString("fecha_creacion")));
+        mascota.setFechaActualizacion(leerMarca(rs.getString("fecha_actualizacion")));
+        return mascota;
+    }
+    
+    /**
+     * Convierte una marca "yyyy-MM-dd HH:mm:ss" de SQLite sin pasar por DateTimeFormatter,
+     * que es lento para cada fila leída; otros formatos se delegan a LocalDateTime.parse
+     */
+    static LocalDateTime leerMarca(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        if (texto.length() == 19 && texto.charAt(4) == '-' && texto.charAt(7) == '-'
+                && texto.charAt(13) == ':' && texto.charAt(16) == ':') {
+            return LocalDateTime.of(Integer.parseInt(texto, 0, 4, 10), Integer.parseInt(texto, 5, 7, 10),
+                    Integer.parseInt(texto, 8, 10, 10), Integer.parseInt(texto, 11, 13, 10),
+                    Integer.parseInt(texto, 14, 16, 10), Integer.parseInt(texto, 17, 19, 10));
+        }
+        return LocalDateTime.parse(texto.replace(' ', 'T'));
+    }
+    
+    /** Texto de la marca en el formato de CURRENT_TIMESTAMP, o null para dejar el valor por defecto */
+    static String textoMarca(LocalDateTime marca) {
+        return marca != null ? FORMATO_MARCA.format(marca.withNano(0)) : null;
     }
 }
\ No newline at end of file
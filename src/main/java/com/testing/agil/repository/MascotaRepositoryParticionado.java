@@ -0,0 +1,710 @@
+package com.testing.agil.repository;
+
+import com.testing.agil.concurrent.EjecutorConsultasParalelas;
+import com.testing.agil.concurrent.SubConsulta;
+import com.testing.agil.model.Mascota;
+import com.testing.agil.model.Propietario;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Implementación de MascotaRepository repartida en varios archivos SQLite
+ * Cada partición tiene su propio bloqueo de escritura, por lo que las altas de
+ * propietarios distintos no se serializan entre sí.
+ *
+ * - Las nuevas mascotas se ubican por hash del email del propietario (o de su nombre si no tiene email).
+ * - El ID global codifica la partición: id = idLocal * particiones + partición. Las operaciones
+ *   por ID consultan una sola partición.
+ * - Listados y agregados se ejecutan en paralelo en todas las particiones; los listados
+ *   se fusionan conservando el orden por nombre ({@link EjecutorConsultasParalelas}).
+ *
+ * Una fila no cambia de partición si luego se modifica su email, por eso las búsquedas
+ * por email consultan todas. El número de particiones no debe cambiar una vez hay datos.
+ *
+ * Dentro de {@link GestorTransacciones#enTransaccion} las escrituras en varias particiones
+ * se hacen en serie en el hilo de la transacción; las lecturas paralelas no ven sus cambios.
+ */
+public class MascotaRepositoryParticionado implements MascotaRepository, AutoCloseable {
+
+    private static final Comparator<Mascota> POR_NOMBRE = Comparator.comparing(Mascota::getNombre);
+
+    private final List<MascotaRepositoryImpl> particiones;
+    private final EjecutorConsultasParalelas ejecutor = new EjecutorConsultasParalelas();
+    /** Escucha registrada → sus adaptadores por partición, para poder quitarla */
+    private final Map<EscuchaCambiosMascotas, List<EscuchaCambiosMascotas>> escuchas = new ConcurrentHashMap<>();
+
+    /**
+     * Crea o abre las particiones mascotas-0.db … mascotas-(n-1).db en un directorio
+     * @param directorio carpeta donde residen los archivos
+     * @param numeroParticiones cantidad de archivos
+     */
+    public MascotaRepositoryParticionado(String directorio, int numeroParticiones) {
+        this(rutasEn(directorio, numeroParticiones));
+    }
+
+    /**
+     * Crea o abre una partición por cada ruta, en el orden dado
+     * @param rutasDb rutas de los archivos SQLite
+     */
+    public MascotaRepositoryParticionado(List<String> rutasDb) {
+        if (rutasDb == null || rutasDb.isEmpty()) {
+            throw new IllegalArgumentException("Debe haber al menos una partición");
+        }
+        this.particiones = rutasDb.stream().map(MascotaRepositoryImpl::new).toList();
+    }
+
+    private static List<String> rutasEn(String directorio, int numeroParticiones) {
+        if (directorio == null || directorio.trim().isEmpty()) {
+            throw new IllegalArgumentException("El directorio no puede estar vacío");
+        }
+        if (numeroParticiones <= 0) {
+            throw new IllegalArgumentException("El número de particiones debe ser mayor que cero");
+        }
+        List<String> rutas = new ArrayList<>();
+        for (int i = 0; i < numeroParticiones; i++) {
+            rutas.add(Path.of(directorio.trim(), "mascotas-" + i + ".db").toString());
+        }
+        return rutas;
+    }
+
+    public int getNumeroParticiones() {
+        return particiones.size();
+    }
+
+    // ---- Enrutamiento e IDs ----
+
+    /**
+     * Partición de destino para una mascota nueva
+     */
+    int particionPara(Mascota mascota) {
+        return particionPara(mascota.getEmail(), mascota.getPropietario());
+    }
+
+    private int particionPara(String email, String propietario) {
+        String clave = email;
+        if (clave == null || clave.trim().isEmpty()) {
+            clave = propietario == null ? "" : propietario;
+        }
+        // String.hashCode está definido por la especificación: estable entre ejecuciones
+        return Math.floorMod(clave.trim().toLowerCase(Locale.ROOT).hashCode(), particiones.size());
+    }
+
+    /**
+     * Activa en cada partición la caché por ID de {@link MascotaRepositoryImpl#activarCache}
+     * @param capacidadPorParticion mascotas que guarda cada partición
+     */
+    public void activarCache(int capacidadPorParticion) {
+        particiones.forEach(particion -> particion.activarCache(capacidadPorParticion));
+    }
+
+    /**
+     * Activa en cada partición el filtro de emails de {@link MascotaRepositoryImpl#activarFiltroEmails}
+     */
+    public void activarFiltroEmails() {
+        particiones.forEach(MascotaRepositoryImpl::activarFiltroEmails);
+    }
+
+    private int particionDe(long idGlobal) {
+        return (int) Math.floorMod(idGlobal, (long) particiones.size());
+    }
+
+    private long idLocal(long idGlobal) {
+        return idGlobal / particiones.size();
+    }
+
+    private long idGlobal(long idLocal, int particion) {
+        return idLocal * particiones.size() + particion;
+    }
+
+    private Mascota globalizar(Mascota mascota, int particion) {
+        if (mascota != null && mascota.getId() != null) {
+            mascota.setId(idGlobal(mascota.getId(), particion));
+        }
+        if (mascota != null && mascota.getPropietarioId() != null) {
+            mascota.setPropietarioId(idGlobal(mascota.getPropietarioId(), particion));
+        }
+        return mascota;
+    }
+
+    private Propietario globalizar(Propietario propietario, int particion) {
+        propietario.setId(idGlobal(propietario.getId(), particion));
+        propietario.getMascotas().forEach(mascota -> globalizar(mascota, particion));
+        return propietario;
+    }
+
+    private boolean idValido(Long id) {
+        return id != null && id > 0;
+    }
+
+    /**
+     * Ejecuta una operación sobre la partición de la mascota usando temporalmente su ID local
+     */
+    private <T> T conIdLocal(Mascota mascota, Function<MascotaRepositoryImpl, T> operacion) {
+        Long id = mascota.getId();
+        Long propietarioId = mascota.getPropietarioId();
+        int particion = particionDe(id);
+        mascota.setId(idLocal(id));
+        mascota.setPropietarioId(null);
+        boolean completada = false;
+        try {
+            T resultado = operacion.apply(particiones.get(particion));
+            completada = true;
+            return resultado;
+        } finally {
+            mascota.setId(id);
+            // Si la partición resolvió el propietario, su ID es local
+            if (completada && mascota.getPropietarioId() != null) {
+                mascota.setPropietarioId(idGlobal(mascota.getPropietarioId(), particion));
+            } else {
+                mascota.setPropietarioId(propietarioId);
+            }
+        }
+    }
+
+    // ---- Ejecución en paralelo ----
+
+    /**
+     * Ejecuta la consulta en todas las particiones a la vez
+     * @return resultados en el orden de las particiones
+     */
+    private <T> List<T> enTodas(Function<MascotaRepositoryImpl, T> consulta) {
+        List<Callable<T>> tareas = new ArrayList<>(particiones.size());
+        for (MascotaRepositoryImpl particion : particiones) {
+            tareas.add(() -> consulta.apply(particion));
+        }
+        return ejecutor.ejecutarTodas(tareas);
+    }
+
+    /**
+     * Consulta todas las particiones y fusiona sus resultados, ya ordenados por nombre
+     */
+    private List<Mascota> listarEnTodas(Function<MascotaRepositoryImpl, List<Mascota>> consulta) {
+        List<SubConsulta<Mascota>> fuentes = new ArrayList<>(particiones.size());
+        for (int i = 0; i < particiones.size(); i++) {
+            int particion = i;
+            fuentes.add(limite -> {
+                List<Mascota> mascotas = consulta.apply(particiones.get(particion));
+                mascotas.forEach(mascota -> globalizar(mascota, particion));
+                return mascotas;
+            });
+        }
+        return ejecutor.fusionarEnLista(fuentes, POR_NOMBRE, EjecutorConsultasParalelas.SIN_LIMITE);
+    }
+
+    private long sumarEnTodas(Function<MascotaRepositoryImpl, Number> consulta) {
+        return enTodas(consulta).stream().mapToLong(Number::longValue).sum();
+    }
+
+    /**
+     * Agrupa IDs globales por partición, traducidos a IDs locales
+     */
+    private Map<Integer, List<Long>> agruparPorParticion(Collection<Long> ids) {
+        Map<Integer, List<Long>> grupos = new HashMap<>();
+        for (Long id : ids) {
+            if (idValido(id)) {
+                grupos.computeIfAbsent(particionDe(id), p -> new ArrayList<>()).add(idLocal(id));
+            }
+        }
+        return grupos;
+    }
+
+    private int enBloquePorParticion(Collection<Long> ids,
+                                     BiFunction<MascotaRepositoryImpl, List<Long>, Integer> operacion) {
+        if (ParametrosSql.sinIds(ids)) {
+            return 0;
+        }
+        List<Supplier<Integer>> tareas = new ArrayList<>();
+        agruparPorParticion(ids).forEach((particion, locales) ->
+            tareas.add(() -> operacion.apply(particiones.get(particion), locales)));
+        return escribirEnParticiones(tareas);
+    }
+
+    /**
+     * Ejecuta una escritura por partición y suma las filas afectadas
+     * Dentro de {@link GestorTransacciones#enTransaccion} van en serie en el hilo llamador:
+     * la transacción es de ese hilo, y desde otro la escritura usaría su propia conexión en
+     * autocommit, que no se desharía con ella y podría chocar con el bloqueo ya tomado.
+     */
+    private int escribirEnParticiones(List<Supplier<Integer>> tareas) {
+        if (GestorTransacciones.hayTransaccionActiva()) {
+            int total = 0;
+            for (Supplier<Integer> tarea : tareas) {
+                total += tarea.get();
+            }
+            return total;
+        }
+        List<Callable<Integer>> paralelas = new ArrayList<>(tareas.size());
+        tareas.forEach(tarea -> paralelas.add(tarea::get));
+        return ejecutor.ejecutarTodas(paralelas).stream().mapToInt(Integer::intValue).sum();
+    }
+
+    // ---- MascotaRepository ----
+
+    @Override
+    public Mascota crear(Mascota mascota) {
+        if (mascota == null) {
+            throw new IllegalArgumentException("La mascota no puede ser null");
+        }
+        int particion = particionPara(mascota);
+        return globalizar(particiones.get(particion).crear(mascota), particion);
+    }
+
+    /**
+     * Reparte el lote por partición: por el ID global si lo trae, si no por su email
+     */
+    @Override
+    public int crearEnLote(List<Mascota> mascotas) {
+        if (mascotas == null || mascotas.isEmpty()) {
+            return 0;
+        }
+        Map<Integer, List<Mascota>> grupos = new HashMap<>();
+        for (Mascota mascota : mascotas) {
+            Long id = mascota.getId();
+            int particion = idValido(id) ? particionDe(id) : particionPara(mascota);
+            Mascota local = new Mascota(mascota);
+            local.setId(idValido(id) ? idLocal(id) : null);
+            grupos.computeIfAbsent(particion, p -> new ArrayList<>()).add(local);
+        }
+        List<Supplier<Integer>> tareas = new ArrayList<>();
+        grupos.forEach((particion, lote) -> tareas.add(() -> particiones.get(particion).crearEnLote(lote)));
+        return escribirEnParticiones(tareas);
+    }
+
+    /**
+     * Reparte el lote por la partición codificada en el ID global de cada mascota archivada
+     */
+    @Override
+    public int crearArchivadasEnLote(List<Mascota> mascotas) {
+        if (mascotas == null || mascotas.isEmpty()) {
+            return 0;
+        }
+        Map<Integer, List<Mascota>> grupos = new HashMap<>();
+        for (Mascota mascota : mascotas) {
+            Long id = mascota.getId();
+            if (!idValido(id)) {
+                throw new IllegalArgumentException("Las mascotas archivadas deben conservar su ID");
+            }
+            Mascota local = new Mascota(mascota);
+            local.setId(idLocal(id));
+            grupos.computeIfAbsent(particionDe(id), p -> new ArrayList<>()).add(local);
+        }
+        List<Supplier<Integer>> tareas = new ArrayList<>();
+        grupos.forEach((particion, lote) -> tareas.add(() -> particiones.get(particion).crearArchivadasEnLote(lote)));
+        return escribirEnParticiones(tareas);
+    }
+
+    @Override
+    public Optional<Mascota> buscarPorId(Long id) {
+        return buscarPorId(id, false);
+    }
+
+    /**
+     * Una consulta por partición implicada, en paralelo
+     */
+    @Override
+    public Map<Long, Mascota> buscarPorIds(Collection<Long> ids) {
+        Map<Long, Mascota> encontradas = new HashMap<>();
+        if (ParametrosSql.sinIds(ids)) {
+            return encontradas;
+        }
+        List<Callable<Collection<Mascota>>> tareas = new ArrayList<>();
+        agruparPorParticion(ids).forEach((particion, locales) -> tareas.add(() -> {
+            Collection<Mascota> parcial = particiones.get(particion).buscarPorIds(locales).values();
+            parcial.forEach(mascota -> globalizar(mascota, particion));
+            return parcial;
+        }));
+        for (Collection<Mascota> parcial : ejecutor.ejecutarTodas(tareas)) {
+            for (Mascota mascota : parcial) {
+                encontradas.put(mascota.getId(), mascota);
+            }
+        }
+        return encontradas;
+    }
+
+    /**
+     * Variante con ID primitivo para recorrer IDs sin crear un Long por búsqueda
+     */
+    public Optional<Mascota> buscarPorId(long id) {
+        if (id <= 0) {
+            return Optional.empty();
+        }
+        int particion = particionDe(id);
+        return particiones.get(particion).buscarPorId(idLocal(id))
+            .map(mascota -> globalizar(mascota, particion));
+    }
+
+    @Override
+    public Optional<Mascota> buscarPorId(Long id, boolean incluirArchivadas) {
+        if (!idValido(id)) {
+            return Optional.empty();
+        }
+        int particion = particionDe(id);
+        return particiones.get(particion).buscarPorId(idLocal(id), incluirArchivadas)
+            .map(mascota -> globalizar(mascota, particion));
+    }
+
+    @Override
+    public List<Mascota> buscarPorNombre(String nombre) {
+        return listarEnTodas(p -> p.buscarPorNombre(nombre));
+    }
+
+    @Override
+    public List<Mascota> buscarPorNombre(String nombre, boolean incluirArchivadas) {
+        return listarEnTodas(p -> p.buscarPorNombre(nombre, incluirArchivadas));
+    }
+
+    @Override
+    public List<Mascota> buscarPorEspecie(String especie) {
+        return listarEnTodas(p -> p.buscarPorEspecie(especie));
+    }
+
+    @Override
+    public List<Mascota> buscarPorPropietario(String propietario) {
+        return listarEnTodas(p -> p.buscarPorPropietario(propietario));
+    }
+
+    @Override
+    public List<Mascota> buscarPorEmail(String email) {
+        return listarEnTodas(p -> p.buscarPorEmail(email));
+    }
+
+    @Override
+    public List<Mascota> buscarPorPropietarioId(Long propietarioId) {
+        if (!idValido(propietarioId)) {
+            return new ArrayList<>();
+        }
+        int particion = particionDe(propietarioId);
+        List<Mascota> mascotas = particiones.get(particion).buscarPorPropietarioId(idLocal(propietarioId));
+        mascotas.forEach(mascota -> globalizar(mascota, particion));
+        return mascotas;
+    }
+
+    @Override
+    public Optional<Propietario> buscarPropietarioConMascotas(Long propietarioId) {
+        if (!idValido(propietarioId)) {
+            return Optional.empty();
+        }
+        int particion = particionDe(propietarioId);
+        return particiones.get(particion).buscarPropietarioConMascotas(idLocal(propietarioId))
+            .map(propietario -> globalizar(propietario, particion));
+    }
+
+    /**
+     * Consulta la partición donde el email ubica al propietario y, solo si no está ahí, las demás
+     */
+    @Override
+    public Optional<Propietario> buscarPropietarioPorEmail(String email) {
+        if (email == null || email.trim().isEmpty()) {
+            return Optional.empty();
+        }
+        int probable = particionPara(email, null);
+        Optional<Propietario> encontrado = particiones.get(probable).buscarPropietarioPorEmail(email)
+            .map(propietario -> globalizar(propietario, probable));
+        if (encontrado.isPresent()) {
+            return encontrado;
+        }
+        List<Optional<Propietario>> resto = enTodas(p -> p == particiones.get(probable)
+            ? Optional.<Propietario>empty() : p.buscarPropietarioPorEmail(email));
+        for (int i = 0; i < resto.size(); i++) {
+            int particion = i;
+            if (resto.get(i).isPresent()) {
+                return resto.get(i).map(propietario -> globalizar(propietario, particion));
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public List<Mascota> listarTodas() {
+        return listarEnTodas(MascotaRepositoryImpl::listarTodas);
+    }
+
+    /**
+     * Recorre las particiones una tras otra; el orden por ID es local a cada partición
+     */
+    @Override
+    public void recorrerTodas(Consumer<Mascota> consumidor) {
+        for (int i = 0; i < particiones.size(); i++) {
+            int particion = i;
+            particiones.get(i).recorrerTodas(mascota -> consumidor.accept(globalizar(mascota, particion)));
+        }
+    }
+
+    @Override
+    public void recorrerArchivadas(Consumer<Mascota> consumidor) {
+        for (int i = 0; i < particiones.size(); i++) {
+            int particion = i;
+            particiones.get(i).recorrerArchivadas(mascota -> consumidor.accept(globalizar(mascota, particion)));
+        }
+    }
+
+    /**
+     * Recorre partición por partición: el orden del filtro se respeta dentro de cada una,
+     * no entre ellas. Para un orden global usar {@link #buscar(FiltroMascotas)}.
+     */
+    @Override
+    public void recorrer(FiltroMascotas filtro, Consumer<Mascota> consumidor) {
+        for (int i = 0; i < particiones.size(); i++) {
+            int particion = i;
+            particiones.get(i).recorrer(filtro, mascota -> consumidor.accept(globalizar(mascota, particion)));
+        }
+    }
+
+    /**
+     * Cada partición avisa con IDs locales: la escucha se registra en todas tras un adaptador
+     * que los traduce a IDs globales
+     */
+    @Override
+    public void agregarEscucha(EscuchaCambiosMascotas escucha) {
+        if (escucha == null) {
+            throw new IllegalArgumentException("La escucha no puede ser nula");
+        }
+        List<EscuchaCambiosMascotas> adaptadores = new ArrayList<>(particiones.size());
+        for (int i = 0; i < particiones.size(); i++) {
+            EscuchaCambiosMascotas adaptador = new EscuchaGlobal(escucha, i);
+            particiones.get(i).agregarEscucha(adaptador);
+            adaptadores.add(adaptador);
+        }
+        escuchas.put(escucha, adaptadores);
+    }
+
+    @Override
+    public void quitarEscucha(EscuchaCambiosMascotas escucha) {
+        List<EscuchaCambiosMascotas> adaptadores = escucha == null ? null : escuchas.remove(escucha);
+        if (adaptadores != null) {
+            for (int i = 0; i < particiones.size(); i++) {
+                particiones.get(i).quitarEscucha(adaptadores.get(i));
+            }
+        }
+    }
+
+    /**
+     * Un filtro por propietario se resuelve en su partición; el resto se consulta en todas
+     * en paralelo y se fusiona en el orden del filtro, cortando en su límite
+     */
+    @Override
+    public List<Mascota> buscar(FiltroMascotas filtro) {
+        if (filtro == null) {
+            throw new IllegalArgumentException("El filtro no puede ser nulo");
+        }
+        if (filtro.getPropietarioId() != null) {
+            long propietarioId = filtro.getPropietarioId();
+            if (propietarioId <= 0) {
+                return new ArrayList<>();
+            }
+            int particion = particionDe(propietarioId);
+            List<Mascota> mascotas = particiones.get(particion).buscar(filtro.conPropietarioId(idLocal(propietarioId)));
+            mascotas.forEach(mascota -> globalizar(mascota, particion));
+            return mascotas;
+        }
+        List<SubConsulta<Mascota>> fuentes = new ArrayList<>(particiones.size());
+        for (int i = 0; i < particiones.size(); i++) {
+            int particion = i;
+            fuentes.add(limite -> {
+                List<Mascota> mascotas = particiones.get(particion).buscar(filtro);
+                mascotas.forEach(mascota -> globalizar(mascota, particion));
+                return mascotas;
+            });
+        }
+        int limite = filtro.getLimite() == FiltroMascotas.SIN_LIMITE
+            ? EjecutorConsultasParalelas.SIN_LIMITE
+            : filtro.getLimite();
+        return ejecutor.fusionarEnLista(fuentes, filtro.getOrden().comparador(filtro.isDescendente()), limite);
+    }
+
+    @Override
+    public List<Mascota> listarTodas(boolean incluirArchivadas) {
+        return listarEnTodas(p -> p.listarTodas(incluirArchivadas));
+    }
+
+    @Override
+    public List<Mascota> listarActivas() {
+        return listarEnTodas(MascotaRepositoryImpl::listarActivas);
+    }
+
+    @Override
+    public List<Mascota> listarCachorros() {
+        return listarEnTodas(MascotaRepositoryImpl::listarCachorros);
+    }
+
+    @Override
+    public List<Mascota> listarSenior() {
+        return listarEnTodas(MascotaRepositoryImpl::listarSenior);
+    }
+
+    @Override
+    public Mascota actualizar(Mascota mascota) {
+        if (mascota == null || !idValido(mascota.getId())) {
+            throw new IllegalArgumentException("La mascota y su ID no pueden ser null");
+        }
+        return conIdLocal(mascota, p -> p.actualizar(mascota));
+    }
+
+    @Override
+    public boolean actualizarConVersion(Mascota mascota) {
+        if (mascota == null || !idValido(mascota.getId())) {
+            throw new IllegalArgumentException("La mascota y su ID no pueden ser null");
+        }
+        try {
+            return conIdLocal(mascota, p -> p.actualizarConVersion(mascota));
+        } catch (ConflictoConcurrenciaException e) {
+            // Informar el ID global, no el de la partición
+            throw new ConflictoConcurrenciaException(e.getEntidad(), mascota.getId(), e.getVersionEsperada());
+        }
+    }
+
+    @Override
+    public boolean eliminar(Long id) {
+        return idValido(id) && eliminar(id.longValue());
+    }
+
+    /**
+     * Variante con ID primitivo de {@link #eliminar(Long)}
+     */
+    public boolean eliminar(long id) {
+        return id > 0 && particiones.get(particionDe(id)).eliminar(idLocal(id));
+    }
+
+    @Override
+    public int eliminarTodas(Collection<Long> ids) {
+        return enBloquePorParticion(ids, MascotaRepositoryImpl::eliminarTodas);
+    }
+
+    @Override
+    public int reactivar(Collection<Long> ids) {
+        return enBloquePorParticion(ids, MascotaRepositoryImpl::reactivar);
+    }
+
+    @Override
+    public int eliminarPorPropietario(String propietario) {
+        return (int) sumarEnTodas(p -> p.eliminarPorPropietario(propietario));
+    }
+
+    @Override
+    public int eliminarPorEmail(String email) {
+        return (int) sumarEnTodas(p -> p.eliminarPorEmail(email));
+    }
+
+    @Override
+    public int reactivarPorEmail(String email) {
+        return (int) sumarEnTodas(p -> p.reactivarPorEmail(email));
+    }
+
+    @Override
+    public boolean eliminarFisicamente(Long id) {
+        return idValido(id) && particiones.get(particionDe(id)).eliminarFisicamente(idLocal(id));
+    }
+
+    @Override
+    public long contar() {
+        return sumarEnTodas(MascotaRepositoryImpl::contar);
+    }
+
+    @Override
+    public long contar(boolean incluirArchivadas) {
+        return sumarEnTodas(p -> p.contar(incluirArchivadas));
+    }
+
+    @Override
+    public long contarActivas() {
+        return sumarEnTodas(MascotaRepositoryImpl::contarActivas);
+    }
+
+    @Override
+    public long contarPorEspecie(String especie) {
+        return sumarEnTodas(p -> p.contarPorEspecie(especie));
+    }
+
+    @Override
+    public Map<String, Long> contarAgrupadoPorEspecie() {
+        Map<String, Long> total = new HashMap<>();
+        for (Map<String, Long> parcial : enTodas(MascotaRepositoryImpl::contarAgrupadoPorEspecie)) {
+            parcial.forEach((especie, cantidad) -> total.merge(especie, cantidad, Long::sum));
+        }
+        return total;
+    }
+
+    @Override
+    public boolean existePorEmail(String email) {
+        if (email == null || email.trim().isEmpty()) {
+            return false;
+        }
+        // Con los filtros activos, un email nuevo se descarta sin lanzar consultas
+        if (particiones.stream().noneMatch(p -> p.puedeExistirEmail(email))) {
+            return false;
+        }
+        // Caso habitual: la fila sigue en la partición donde la ubicó su email
+        int probable = particionPara(email, null);
+        if (particiones.get(probable).existePorEmail(email)) {
+            return true;
+        }
+        List<Boolean> resto = enTodas(p -> p != particiones.get(probable) && p.existePorEmail(email));
+        return resto.contains(Boolean.TRUE);
+    }
+
+    @Override
+    public boolean actualizarEsterilizacion(Long id, boolean esterilizado) {
+        return idValido(id) && particiones.get(particionDe(id)).actualizarEsterilizacion(idLocal(id), esterilizado);
+    }
+
+    @Override
+    public boolean actualizarPeso(Long id, double peso) {
+        return idValido(id) && particiones.get(particionDe(id)).actualizarPeso(idLocal(id), peso);
+    }
+
+    /**
+     * Libera los hilos usados para consultar en paralelo
+     */
+    @Override
+    public void close() {
+        ejecutor.close();
+    }
+
+    /**
+     * Traduce los avisos de una partición a IDs globales
+     */
+    private final class EscuchaGlobal implements EscuchaCambiosMascotas {
+
+        private final EscuchaCambiosMascotas destino;
+        private final int particion;
+
+        EscuchaGlobal(EscuchaCambiosMascotas destino, int particion) {
+            this.destino = destino;
+            this.particion = particion;
+        }
+
+        @Override
+        public void guardada(Mascota mascota) {
+            destino.guardada(globalizar(new Mascota(mascota), particion));
+        }
+
+        @Override
+        public void activoCambiado(long id, boolean activo) {
+            destino.activoCambiado(idGlobal(id, particion), activo);
+        }
+
+        @Override
+        public void eliminada(long id) {
+            destino.eliminada(idGlobal(id, particion));
+        }
+
+        @Override
+        public void cambiosMasivos() {
+            destino.cambiosMasivos();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.testing.agil.repository;
+
+import com.testing.agil.colecciones.LongArrayList;
+import com.testing.agil.colecciones.LongSet;
+
+import java.util.Collection;
+
+/**
+ * Utilidades para pasar colecciones como un único parámetro SQL
+ * Los IDs viajan como arreglo JSON y se expanden con json_each(?), de modo que
+ * cualquier cantidad de IDs se resuelve con una sola sentencia preparada
+ * sin depender del límite de parámetros de SQLite.
+ */
+final class ParametrosSql {
+
+    /** Subconsulta que expande el arreglo JSON recibido como parámetro */
+    static final String IDS_JSON = "SELECT value FROM json_each(?)";
+
+    /** IDs por sentencia en las lecturas múltiples: acota el texto del parámetro */
+    static final int IDS_POR_CONSULTA = 10_000;
+
+    private ParametrosSql() {
+    }
+
+    /**
+     * Convierte una colección de IDs en un arreglo JSON, ignorando los null y los repetidos
+     * @param ids colección de IDs
+     * @return texto como "[1,2,3]"
+     */
+    static String listaJson(Collection<Long> ids) {
+        return listaJson(idsUnicos(ids));
+    }
+
+    /**
+     * Quita nulls y repetidos sin crear un Long por ID
+     * @return IDs distintos en el orden de primera aparición
+     */
+    static LongArrayList idsUnicos(Collection<Long> ids) {
+        LongSet vistos = new LongSet(ids.size());
+        LongArrayList unicos = new LongArrayList(ids.size());
+        for (Long id : ids) {
+            if (id != null && vistos.add(id)) {
+                unicos.add(id);
+            }
+        }
+        return unicos;
+    }
+
+    /**
+     * @param ids IDs ya depurados
+     * @return texto como "[1,2,3]"
+     */
+    static String listaJson(LongArrayList ids) {
+        return listaJson(ids, 0, ids.size());
+    }
+
+    /**
+     * @param ids IDs ya depurados
+     * @param desde primera posición incluida
+     * @param hasta última posición excluida
+     * @return texto como "[1,2,3]" con el tramo indicado
+     */
+    static String listaJson(LongArrayList ids, int desde, int hasta) {
+        StringBuilder json = new StringBuilder((hasta - desde) * 8 + 2).append('[');
+        for (int i = desde; i < hasta; i++) {
+            if (i > desde) {
+                json.append(',');
+            }
+            json.append(ids.get(i));
+        }
+        return json.append(']').toString();
+    }
+
+    /**
+     * @return true si la colección es null o no contiene ningún ID válido
+     */
+    static boolean sinIds(Collection<Long> ids) {
+        return ids == null || ids.stream().allMatch(id -> id == null);
+    }
+}
@@ -1,8 +1,11 @@
 package com.testing.agil.repository;
 
 import com.testing.agil.model.Usuario;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Interfaz del repositorio de usuarios
@@ -17,6 +20,14 @@ public interface UsuarioRepository {
      */
     Usuario crear(Usuario usuario);
     
+    /**
+     * Crear varios usuarios con sentencias por lotes en una sola transacción
+     * Si un usuario trae ID se conserva (restauración de respaldos)
+     * @param usuarios Usuarios a crear
+     * @return Número de usuarios creados
+     */
+    int crearEnLote(List<Usuario> usuarios);
+    
     /**
      * Buscar usuario por ID
      * @param id ID del usuario
@@ -24,6 +35,13 @@ public interface UsuarioRepository {
      */
     Optional<Usuario> buscarPorId(Long id);
     
+    /**
+     * Buscar varios usuarios por ID en una o pocas consultas, en lugar de una por ID
+     * @param ids IDs a buscar; se ignoran los null y los repetidos
+     * @return Mapa de ID a usuario; los IDs inexistentes no aparecen
+     */
+    Map<Long, Usuario> buscarPorIds(Collection<Long> ids);
+    
     /**
      * Buscar usuario por email
      * @param email Email del usuario
@@ -37,6 +55,12 @@ public interface UsuarioRepository {
      */
     List<Usuario> listarTodos();
     
+    /**
+     * Recorrer todos los usuarios en orden de ID sin cargarlos a la vez en memoria
+     * @param consumidor Recibe cada usuario leído
+     */
+    void recorrerTodos(Consumer<Usuario> consumidor);
+    
     /**
      * Listar usuarios activos
      * @return Lista de usuarios activos
@@ -50,6 +74,35 @@ public interface UsuarioRepository {
      */
     Usuario actualizar(Usuario usuario);
     
+    /**
+     * Actualizar un usuario solo si su versión coincide con la almacenada (bloqueo optimista)
+     * @param usuario Usuario con datos actualizados y la versión con que fue leído
+     * @return true si se actualizó, false si no existe un usuario con ese ID
+     * @throws ConflictoConcurrenciaException si otra operación modificó el usuario antes
+     */
+    boolean actualizarConVersion(Usuario usuario);
+    
+    /**
+     * Desactivar usuario (eliminación lógica) con una única sentencia UPDATE
+     * @param id ID del usuario a desactivar
+     * @return true si se desactivó, false si no existía
+     */
+    boolean desactivar(Long id);
+    
+    /**
+     * Desactivar varios usuarios con una sola sentencia UPDATE
+     * @param ids IDs de los usuarios a desactivar
+     * @return Cantidad de usuarios que pasaron de activos a inactivos
+     */
+    int desactivarTodos(Collection<Long> ids);
+    
+    /**
+     * Reactivar varios usuarios con una sola sentencia UPDATE
+     * @param ids IDs de los usuarios a reactivar
+     * @return Cantidad de usuarios que pasaron de inactivos a activos
+     */
+    int reactivar(Collection<Long> ids);
+    
     /**
      * Eliminar usuario por ID
      * @param id ID del usuario a eliminar
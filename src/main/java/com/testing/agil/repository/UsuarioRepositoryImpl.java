@@ -1,10 +1,18 @@
 package com.testing.agil.repository;
 
+import com.testing.agil.colecciones.FiltroBloom;
+import com.testing.agil.colecciones.LongArrayList;
 import com.testing.agil.model.Usuario;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Implementación concreta del repositorio de usuarios usando SQLite
@@ -13,50 +21,185 @@ import java.util.Optional;
  */
 public class UsuarioRepositoryImpl implements UsuarioRepository {
     
+    private static final Logger logger = LoggerFactory.getLogger(UsuarioRepositoryImpl.class);
+    
     private final String dbUrl;
+    /** Filas acumuladas por executeBatch en las inserciones masivas */
+    private static final int TAMANO_LOTE_SQL = 1000;
+    /** Tamaño mínimo de la primera capa del filtro de emails, para no crecer nada más activarlo */
+    private static final int CAPACIDAD_MINIMA_FILTRO = 1024;
+    private static final double PROBABILIDAD_FALSOS_FILTRO = 0.01;
     private static final String CREATE_TABLE_SQL = """
         CREATE TABLE IF NOT EXISTS usuarios (
             id INTEGER PRIMARY KEY AUTOINCREMENT,
             nombre VARCHAR(100) NOT NULL,
             email VARCHAR(150) UNIQUE NOT NULL,
+            email_normalizado VARCHAR(150),
             edad INTEGER NOT NULL CHECK (edad >= 0),
             activo BOOLEAN DEFAULT TRUE,
+            version INTEGER NOT NULL DEFAULT 0,
             fecha_creacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
             fecha_actualizacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP
         )
         """;
     
+    /** Emails vistos, para descartar los libres sin consultar; null mientras no se active */
+    private volatile FiltroBloom filtroEmails;
+    
     public UsuarioRepositoryImpl() {
-        // Permitir configurar la ruta de BD para tests
-        String customPath = System.getProperty("sqlite.db.path");
-        this.dbUrl = customPath != null ? "jdbc:sqlite:" + customPath : "jdbc:sqlite:usuarios.db";
+        // Permitir configurar la ruta de BD para tests o el modo de base única
+        this.dbUrl = ConexionSqlite.resolverUrl("usuarios.db");
+        initializeDatabase();
+    }
+    
+    /**
+     * Crea el repositorio sobre un archivo de base de datos concreto
+     * @param dbPath ruta del archivo SQLite (puede ser el mismo que el de mascotas)
+     */
+    public UsuarioRepositoryImpl(String dbPath) {
+        if (dbPath == null || dbPath.trim().isEmpty()) {
+            throw new IllegalArgumentException("La ruta de la base de datos no puede estar vacía");
+        }
+        this.dbUrl = "jdbc:sqlite:" + dbPath.trim();
         initializeDatabase();
     }
     
     private void initializeDatabase() {
-        try (Connection conn = DriverManager.getConnection(dbUrl);
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
              Statement stmt = conn.createStatement()) {
             stmt.execute(CREATE_TABLE_SQL);
+            asegurarColumna(conn, "version", "INTEGER NOT NULL DEFAULT 0");
+            asegurarColumna(conn, "email_normalizado", "VARCHAR(150)");
+            migrarEmailsNormalizados(conn);
+            // Búsquedas y unicidad por email en una sola consulta al índice; admite varios NULL
+            stmt.execute("CREATE UNIQUE INDEX IF NOT EXISTS idx_usuarios_email_normalizado " +
+                         "ON usuarios(email_normalizado)");
         } catch (SQLException e) {
             throw new RuntimeException("Error al inicializar la base de datos", e);
         }
     }
     
+    /**
+     * Agrega una columna a bases de datos creadas con una versión anterior del esquema
+     */
+    private void asegurarColumna(Connection conn, String columna, String definicion) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA table_info(usuarios)")) {
+            while (rs.next()) {
+                if (columna.equalsIgnoreCase(rs.getString("name"))) {
+                    return;
+                }
+            }
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE usuarios ADD COLUMN " + columna + " " + definicion);
+        }
+    }
+    
+    /**
+     * Rellena email_normalizado en filas escritas antes de existir la columna o sin pasar por el repositorio
+     * Si dos filas antiguas solo se distinguen por mayúsculas o espacios, la de menor ID se queda
+     * con el email normalizado y el resto sigue en NULL: no se las encuentra por email hasta
+     * corregirlas. En bases ya migradas la consulta no devuelve filas.
+     */
+    private void migrarEmailsNormalizados(Connection conn) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        List<String> emails = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, email FROM usuarios WHERE email_normalizado IS NULL ORDER BY id")) {
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+                emails.add(Usuario.normalizarEmail(rs.getString(2)));
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        
+        String sql = "UPDATE usuarios SET email_normalizado = ? WHERE id = ? " +
+                     "AND NOT EXISTS (SELECT 1 FROM usuarios WHERE email_normalizado = ?)";
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        List<Long> duplicados = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            // Fila a fila: cada UPDATE debe ver los anteriores para detectar duplicados entre sí
+            for (int i = 0; i < ids.size(); i++) {
+                pstmt.setString(1, emails.get(i));
+                pstmt.setLong(2, ids.get(i));
+                pstmt.setString(3, emails.get(i));
+                if (pstmt.executeUpdate() == 0) {
+                    duplicados.add(ids.get(i));
+                }
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        logger.info("Migración de emails: {} usuarios normalizados", ids.size() - duplicados.size());
+        if (!duplicados.isEmpty()) {
+            logger.warn("Usuarios con email duplicado al normalizar, sin email_normalizado: {}", duplicados);
+        }
+    }
+    
+    /**
+     * Activa un filtro de Bloom con los emails de la tabla para {@link #existePorEmail}
+     * Un email que el filtro descarta se responde sin consultar la base, que es lo habitual al
+     * comprobar si un email está libre. Cada alta o cambio de email hecho por este repositorio
+     * lo amplía; supone que la base no la modifica otro proceso.
+     */
+    public void activarFiltroEmails() {
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
+             Statement stmt = conn.createStatement()) {
+            
+            int usuarios;
+            try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM usuarios")) {
+                usuarios = rs.next() ? rs.getInt(1) : 0;
+            }
+            FiltroBloom filtro = new FiltroBloom(Math.max(2 * usuarios, CAPACIDAD_MINIMA_FILTRO), PROBABILIDAD_FALSOS_FILTRO);
+            try (ResultSet rs = stmt.executeQuery("SELECT email_normalizado FROM usuarios WHERE email_normalizado IS NOT NULL")) {
+                while (rs.next()) {
+                    filtro.agregar(rs.getString(1));
+                }
+            }
+            this.filtroEmails = filtro;
+            logger.info("Filtro de emails activado con {} usuarios", usuarios);
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al cargar el filtro de emails: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Agrega el email al filtro antes de escribirlo, para que nunca vaya por detrás de la tabla
+     * Si la escritura falla queda un falso positivo, que solo cuesta una consulta.
+     */
+    private void registrarEmail(String email) {
+        FiltroBloom filtro = filtroEmails;
+        if (filtro != null && email != null) {
+            filtro.agregar(Usuario.normalizarEmail(email));
+        }
+    }
+    
     @Override
     public Usuario crear(Usuario usuario) {
         if (usuario == null) {
             throw new IllegalArgumentException("El usuario no puede ser null");
         }
         
-        String sql = "INSERT INTO usuarios (nombre, email, edad, activo) VALUES (?, ?, ?, ?)";
+        String sql = "INSERT INTO usuarios (nombre, email, edad, activo, email_normalizado) VALUES (?, ?, ?, ?, ?)";
         
-        try (Connection conn = DriverManager.getConnection(dbUrl);
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
+            registrarEmail(usuario.getEmail());
             pstmt.setString(1, usuario.getNombre());
             pstmt.setString(2, usuario.getEmail());
             pstmt.setInt(3, usuario.getEdad());
             pstmt.setBoolean(4, usuario.isActivo());
+            pstmt.setString(5, Usuario.normalizarEmail(usuario.getEmail()));
             
             int affectedRows = pstmt.executeUpdate();
             if (affectedRows == 0) {
@@ -68,6 +211,7 @@ public class UsuarioRepositoryImpl implements UsuarioRepository {
                  ResultSet rs = getIdStmt.executeQuery()) {
                 if (rs.next()) {
                     usuario.setId(rs.getLong(1));
+                    logger.debug("Usuario creado con ID {}", usuario.getId());
                     return usuario;
                 } else {
                     throw new SQLException("Error al crear usuario, no se obtuvo ID");
@@ -79,15 +223,73 @@ public class UsuarioRepositoryImpl implements UsuarioRepository {
         }
     }
     
+    @Override
+    public int crearEnLote(List<Usuario> usuarios) {
+        if (usuarios == null || usuarios.isEmpty()) {
+            return 0;
+        }
+        
+        String sql = "INSERT INTO usuarios (id, nombre, email, edad, activo, version, email_normalizado) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        
+        try (Connection conn = ConexionSqlite.abrir(dbUrl)) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                int pendientes = 0;
+                for (Usuario usuario : usuarios) {
+                    if (usuario.getId() != null) {
+                        pstmt.setLong(1, usuario.getId());
+                    } else {
+                        pstmt.setNull(1, Types.INTEGER);
+                    }
+                    registrarEmail(usuario.getEmail());
+                    pstmt.setString(2, usuario.getNombre());
+                    pstmt.setString(3, usuario.getEmail());
+                    pstmt.setInt(4, usuario.getEdad());
+                    pstmt.setBoolean(5, usuario.isActivo());
+                    pstmt.setLong(6, usuario.getVersion());
+                    pstmt.setString(7, Usuario.normalizarEmail(usuario.getEmail()));
+                    pstmt.addBatch();
+                    if (++pendientes == TAMANO_LOTE_SQL) {
+                        pstmt.executeBatch();
+                        pendientes = 0;
+                    }
+                }
+                if (pendientes > 0) {
+                    pstmt.executeBatch();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            
+            if (logger.isDebugEnabled()) {
+                logger.debug("Insertados {} usuarios en lote", usuarios.size());
+            }
+            return usuarios.size();
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al crear usuarios en lote: " + e.getMessage(), e);
+        }
+    }
+    
     @Override
     public Optional<Usuario> buscarPorId(Long id) {
         if (id == null) {
             return Optional.empty();
         }
         
+        return buscarPorId(id.longValue());
+    }
+    
+    /**
+     * Variante con ID primitivo para recorrer IDs sin crear un Long por búsqueda
+     */
+    public Optional<Usuario> buscarPorId(long id) {
         String sql = "SELECT * FROM usuarios WHERE id = ?";
         
-        try (Connection conn = DriverManager.getConnection(dbUrl);
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setLong(1, id);
@@ -104,18 +306,52 @@ public class UsuarioRepositoryImpl implements UsuarioRepository {
         return Optional.empty();
     }
     
+    /**
+     * Consulta en tramos de {@link ParametrosSql#IDS_POR_CONSULTA} sobre una misma conexión
+     */
+    @Override
+    public Map<Long, Usuario> buscarPorIds(Collection<Long> ids) {
+        if (ParametrosSql.sinIds(ids)) {
+            return new HashMap<>();
+        }
+        LongArrayList unicos = ParametrosSql.idsUnicos(ids);
+        Map<Long, Usuario> encontrados = new HashMap<>(unicos.size() * 2);
+        
+        String sql = "SELECT * FROM usuarios WHERE id IN (" + ParametrosSql.IDS_JSON + ")";
+        
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            for (int desde = 0; desde < unicos.size(); desde += ParametrosSql.IDS_POR_CONSULTA) {
+                int hasta = Math.min(desde + ParametrosSql.IDS_POR_CONSULTA, unicos.size());
+                pstmt.setString(1, ParametrosSql.listaJson(unicos, desde, hasta));
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        Usuario usuario = mapResultSetToUsuario(rs);
+                        encontrados.put(usuario.getId(), usuario);
+                    }
+                }
+            }
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al buscar usuarios por IDs: " + e.getMessage(), e);
+        }
+        
+        return encontrados;
+    }
+    
     @Override
     public Optional<Usuario> buscarPorEmail(String email) {
         if (email == null || email.trim().isEmpty()) {
             return Optional.empty();
         }
         
-        String sql = "SELECT * FROM usuarios WHERE email = ?";
+        String sql = "SELECT * FROM usuarios WHERE email_normalizado = ?";
         
-        try (Connection conn = DriverManager.getConnection(dbUrl);
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            pstmt.setString(1, email);
+            pstmt.setString(1, Usuario.normalizarEmail(email));
             ResultSet rs = pstmt.executeQuery();
             
             if (rs.next()) {
@@ -134,7 +370,7 @@ public class UsuarioRepositoryImpl implements UsuarioRepository {
         List<Usuario> usuarios = new ArrayList<>();
         String sql = "SELECT * FROM usuarios ORDER BY id";
         
-        try (Connection conn = DriverManager.getConnection(dbUrl);
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
@@ -146,7 +382,24 @@ public class UsuarioRepositoryImpl implements UsuarioRepository {
             throw new RuntimeException("Error al listar usuarios: " + e.getMessage(), e);
         }
         
-        return usuarios;
+        return trazarResultado("listarTodos", usuarios);
+    }
+    
+    @Override
+    public void recorrerTodos(Consumer<Usuario> consumidor) {
+        String sql = "SELECT * FROM usuarios ORDER BY id";
+        
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            
+            while (rs.next()) {
+                consumidor.accept(mapResultSetToUsuario(rs));
+            }
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al recorrer usuarios: " + e.getMessage(), e);
+        }
     }
     
     @Override
@@ -154,7 +407,7 @@ public class UsuarioRepositoryImpl implements UsuarioRepository {
         List<Usuario> usuarios = new ArrayList<>();
         String sql = "SELECT * FROM usuarios WHERE activo = TRUE ORDER BY id";
         
-        try (Connection conn = DriverManager.getConnection(dbUrl);
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
@@ -166,7 +419,7 @@ public class UsuarioRepositoryImpl implements UsuarioRepository {
             throw new RuntimeException("Error al listar usuarios activos: " + e.getMessage(), e);
         }
         
-        return usuarios;
+        return trazarResultado("listarActivos", usuarios);
     }
     
     @Override
@@ -175,19 +428,28 @@ public class UsuarioRepositoryImpl implements UsuarioRepository {
             throw new IllegalArgumentException("El usuario y su ID no pueden ser null");
         }
         
-        String sql = "UPDATE usuarios SET nombre = ?, email = ?, edad = ?, fecha_actualizacion = CURRENT_TIMESTAMP WHERE id = ?";
+        String sql = """
+            UPDATE usuarios SET nombre = ?, email = ?, email_normalizado = ?, edad = ?, version = version + 1,
+                                fecha_actualizacion = CURRENT_TIMESTAMP
+            WHERE id = ?
+            RETURNING version
+            """;
         
-        try (Connection conn = DriverManager.getConnection(dbUrl);
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
+            registrarEmail(usuario.getEmail());
             pstmt.setString(1, usuario.getNombre());
             pstmt.setString(2, usuario.getEmail());
-            pstmt.setInt(3, usuario.getEdad());
-            pstmt.setLong(4, usuario.getId());
+            pstmt.setString(3, Usuario.normalizarEmail(usuario.getEmail()));
+            pstmt.setInt(4, usuario.getEdad());
+            pstmt.setLong(5, usuario.getId());
             
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows == 0) {
-                throw new RuntimeException("Usuario no encontrado con ID: " + usuario.getId());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new RuntimeException("Usuario no encontrado con ID: " + usuario.getId());
+                }
+                usuario.setVersion(rs.getLong(1));
             }
             
             return usuario;
@@ -197,15 +459,129 @@ public class UsuarioRepositoryImpl implements UsuarioRepository {
         }
     }
     
+    @Override
+    public boolean actualizarConVersion(Usuario usuario) {
+        if (usuario == null || usuario.getId() == null) {
+            throw new IllegalArgumentException("El usuario y su ID no pueden ser null");
+        }
+        
+        String sql = """
+            UPDATE usuarios SET nombre = ?, email = ?, email_normalizado = ?, edad = ?, version = version + 1,
+                                fecha_actualizacion = CURRENT_TIMESTAMP
+            WHERE id = ? AND version = ?
+            """;
+        
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            registrarEmail(usuario.getEmail());
+            pstmt.setString(1, usuario.getNombre());
+            pstmt.setString(2, usuario.getEmail());
+            pstmt.setString(3, Usuario.normalizarEmail(usuario.getEmail()));
+            pstmt.setInt(4, usuario.getEdad());
+            pstmt.setLong(5, usuario.getId());
+            pstmt.setLong(6, usuario.getVersion());
+            
+            if (pstmt.executeUpdate() > 0) {
+                usuario.setVersion(usuario.getVersion() + 1);
+                return true;
+            }
+            
+            // Solo en el camino de fallo: distinguir entre inexistente y conflicto
+            try (PreparedStatement existe = conn.prepareStatement("SELECT 1 FROM usuarios WHERE id = ?")) {
+                existe.setLong(1, usuario.getId());
+                try (ResultSet rs = existe.executeQuery()) {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                }
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug("Conflicto de versión en usuario {} (versión leída {})", usuario.getId(), usuario.getVersion());
+            }
+            throw new ConflictoConcurrenciaException("usuarios", usuario.getId(), usuario.getVersion());
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al actualizar usuario: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public boolean desactivar(Long id) {
+        if (id == null) {
+            return false;
+        }
+        
+        String sql = "UPDATE usuarios SET activo = FALSE, version = version + 1, fecha_actualizacion = CURRENT_TIMESTAMP WHERE id = ?";
+        
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setLong(1, id);
+            return pstmt.executeUpdate() > 0;
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al desactivar usuario: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public int desactivarTodos(Collection<Long> ids) {
+        if (ParametrosSql.sinIds(ids)) {
+            return 0;
+        }
+        
+        String sql = "UPDATE usuarios SET activo = FALSE, version = version + 1, fecha_actualizacion = CURRENT_TIMESTAMP " +
+                     "WHERE activo = TRUE AND id IN (" + ParametrosSql.IDS_JSON + ")";
+        return actualizarEnBloque(sql, ParametrosSql.listaJson(ids), "desactivar usuarios");
+    }
+    
+    @Override
+    public int reactivar(Collection<Long> ids) {
+        if (ParametrosSql.sinIds(ids)) {
+            return 0;
+        }
+        
+        String sql = "UPDATE usuarios SET activo = TRUE, version = version + 1, fecha_actualizacion = CURRENT_TIMESTAMP " +
+                     "WHERE activo = FALSE AND id IN (" + ParametrosSql.IDS_JSON + ")";
+        return actualizarEnBloque(sql, ParametrosSql.listaJson(ids), "reactivar usuarios");
+    }
+    
+    /**
+     * Ejecuta un UPDATE de conjunto con un único parámetro (atómico en SQLite)
+     */
+    private int actualizarEnBloque(String sql, String parametro, String operacion) {
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setString(1, parametro);
+            int afectadas = pstmt.executeUpdate();
+            if (logger.isDebugEnabled()) {
+                logger.debug("{}: {} filas afectadas", operacion, afectadas);
+            }
+            return afectadas;
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al " + operacion + ": " + e.getMessage(), e);
+        }
+    }
+    
     @Override
     public boolean eliminar(Long id) {
         if (id == null) {
             return false;
         }
         
+        return eliminar(id.longValue());
+    }
+    
+    /**
+     * Variante con ID primitivo de {@link #eliminar(Long)}
+     */
+    public boolean eliminar(long id) {
         String sql = "DELETE FROM usuarios WHERE id = ?";
         
-        try (Connection conn = DriverManager.getConnection(dbUrl);
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setLong(1, id);
@@ -222,7 +598,7 @@ public class UsuarioRepositoryImpl implements UsuarioRepository {
     public long contar() {
         String sql = "SELECT COUNT(*) FROM usuarios";
         
-        try (Connection conn = DriverManager.getConnection(dbUrl);
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
@@ -243,12 +619,18 @@ public class UsuarioRepositoryImpl implements UsuarioRepository {
             return false;
         }
         
-        String sql = "SELECT COUNT(*) FROM usuarios WHERE email = ?";
+        String normalizado = Usuario.normalizarEmail(email);
+        FiltroBloom filtro = filtroEmails;
+        if (filtro != null && !filtro.puedeContener(normalizado)) {
+            return false;
+        }
         
-        try (Connection conn = DriverManager.getConnection(dbUrl);
+        String sql = "SELECT EXISTS (SELECT 1 FROM usuarios WHERE email_normalizado = ?)";
+        
+        try (Connection conn = ConexionSqlite.abrir(dbUrl);
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            pstmt.setString(1, email);
+            pstmt.setString(1, normalizado);
             ResultSet rs = pstmt.executeQuery();
             
             if (rs.next()) {
@@ -262,17 +644,29 @@ public class UsuarioRepositoryImpl implements UsuarioRepository {
         return false;
     }
     
+    /**
+     * Registra en DEBUG el tamaño de un resultado; el guard evita el boxing si DEBUG está apagado
+     */
+    private List<Usuario> trazarResultado(String operacion, List<Usuario> usuarios) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("{} devolvió {} usuarios", operacion, usuarios.size());
+        }
+        return usuarios;
+    }
+    
     /**
      * Método auxiliar para mapear ResultSet a objeto Usuario
      * Aplica principio DRY (Don't Repeat Yourself)
      */
     private Usuario mapResultSetToUsuario(ResultSet rs) throws SQLException {
-        return new Usuario(
+        Usuario usuario = new Usuario(
             rs.getLong("id"),
             rs.getString("nombre"),
             rs.getString("email"),
             rs.getInt("edad"),
             rs.getBoolean("activo")
         );
+        usuario.setVersion(rs.getLong("version"));
+        return usuario;
     }
 }
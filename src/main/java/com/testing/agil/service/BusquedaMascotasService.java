@@ -0,0 +1,31 @@
+package com.testing.agil.service;
+
+import com.testing.agil.busqueda.Sugerencia;
+import java.util.List;
+
+/**
+ * Interfaz del servicio de búsquedas interactivas de mascotas.
+ * Responde desde índices en memoria, sin consultar la base de datos en cada tecla.
+ */
+public interface BusquedaMascotasService {
+    
+    /**
+     * Sugiere mascotas activas mientras se escribe su nombre o el de su propietario.
+     * 
+     * @param texto Lo escrito hasta ahora; sin distinguir mayúsculas ni tildes
+     * @param limite Cantidad máxima de sugerencias
+     * @return Sugerencias en orden alfabético; vacía si el texto está vacío
+     * @throws IllegalArgumentException si el límite no es positivo
+     */
+    List<Sugerencia> autocompletar(String texto, int limite);
+    
+    /**
+     * Busca mascotas activas tolerando errores de escritura en su nombre o el de su propietario.
+     * 
+     * @param texto Texto buscado; sin distinguir mayúsculas ni tildes
+     * @param limite Cantidad máxima de resultados
+     * @return Las más parecidas primero; vacía si el texto está vacío
+     * @throws IllegalArgumentException si el límite no es positivo
+     */
+    List<Sugerencia> buscarAproximado(String texto, int limite);
+}
@@ -0,0 +1,43 @@
+package com.testing.agil.service;
+
+import com.testing.agil.busqueda.IndiceAutocompletado;
+import com.testing.agil.busqueda.IndiceDifuso;
+import com.testing.agil.busqueda.Sugerencia;
+import java.util.List;
+
+/**
+ * Implementación del servicio de búsquedas interactivas sobre los índices en memoria.
+ * Los índices deben estar iniciados ({@link IndiceAutocompletado#iniciar()}) para reflejar la base.
+ */
+public class BusquedaMascotasServiceImpl implements BusquedaMascotasService {
+    
+    private final IndiceAutocompletado autocompletado;
+    private final IndiceDifuso difuso;
+    
+    /**
+     * Constructor con inyección de dependencias.
+     * 
+     * @param autocompletado El índice de prefijos de nombres
+     * @param difuso El índice de trigramas para búsquedas con errores
+     */
+    public BusquedaMascotasServiceImpl(IndiceAutocompletado autocompletado, IndiceDifuso difuso) {
+        if (autocompletado == null) {
+            throw new IllegalArgumentException("El índice de autocompletado no puede ser nulo");
+        }
+        if (difuso == null) {
+            throw new IllegalArgumentException("El índice difuso no puede ser nulo");
+        }
+        this.autocompletado = autocompletado;
+        this.difuso = difuso;
+    }
+    
+    @Override
+    public List<Sugerencia> autocompletar(String texto, int limite) {
+        return autocompletado.sugerir(texto, limite);
+    }
+    
+    @Override
+    public List<Sugerencia> buscarAproximado(String texto, int limite) {
+        return difuso.buscar(texto, limite);
+    }
+}
@@ -0,0 +1,32 @@
+package com.testing.agil.service;
+
+import com.testing.agil.model.Mascota;
+import com.testing.agil.model.Usuario;
+import java.util.List;
+
+/**
+ * Interfaz del servicio de operaciones que abarcan usuarios y mascotas.
+ * Cada operación se ejecuta en una única transacción.
+ */
+public interface ClinicaService {
+    
+    /**
+     * Registra un usuario junto con sus mascotas.
+     * Si alguna mascota es inválida no se registra nada.
+     * 
+     * @param usuario El usuario propietario
+     * @param mascotas Las mascotas del usuario; se les asigna su nombre y email como propietario
+     * @return El usuario registrado con su ID asignado
+     * @throws IllegalArgumentException si el usuario o alguna mascota es inválida
+     */
+    Usuario registrarPropietarioConMascotas(Usuario usuario, List<Mascota> mascotas);
+    
+    /**
+     * Da de baja (lógicamente) a un usuario y a todas sus mascotas.
+     * 
+     * @param usuarioId El ID del usuario
+     * @return Cantidad de mascotas desactivadas
+     * @throws IllegalArgumentException si el usuario no existe
+     */
+    int darDeBajaPropietario(Long usuarioId);
+}
@@ -0,0 +1,75 @@
+package com.testing.agil.service;
+
+import com.testing.agil.model.Mascota;
+import com.testing.agil.model.Usuario;
+import com.testing.agil.repository.GestorTransacciones;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.List;
+
+/**
+ * Implementación del servicio de operaciones entre usuarios y mascotas.
+ * Reutiliza las validaciones de UsuarioService y MascotaService y agrupa sus
+ * escrituras en una transacción de GestorTransacciones: con ambos repositorios
+ * en la misma base de datos se confirma una sola vez.
+ */
+public class ClinicaServiceImpl implements ClinicaService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ClinicaServiceImpl.class);
+    
+    private final UsuarioService usuarioService;
+    private final MascotaService mascotaService;
+    private final GestorTransacciones transacciones;
+    
+    /**
+     * Constructor con inyección de dependencias.
+     * 
+     * @param usuarioService El servicio de usuarios
+     * @param mascotaService El servicio de mascotas
+     * @param transacciones El gestor de transacciones compartido por los repositorios
+     */
+    public ClinicaServiceImpl(UsuarioService usuarioService, MascotaService mascotaService,
+                              GestorTransacciones transacciones) {
+        if (usuarioService == null || mascotaService == null || transacciones == null) {
+            throw new IllegalArgumentException("Los servicios y el gestor de transacciones no pueden ser nulos");
+        }
+        this.usuarioService = usuarioService;
+        this.mascotaService = mascotaService;
+        this.transacciones = transacciones;
+    }
+    
+    @Override
+    public Usuario registrarPropietarioConMascotas(Usuario usuario, List<Mascota> mascotas) {
+        if (usuario == null) {
+            throw new IllegalArgumentException("El usuario no puede ser nulo");
+        }
+        List<Mascota> aRegistrar = mascotas == null ? List.of() : mascotas;
+        
+        return transacciones.enTransaccion(() -> {
+            Usuario creado = usuarioService.crearUsuario(usuario);
+            for (Mascota mascota : aRegistrar) {
+                mascota.setPropietario(creado.getNombre());
+                mascota.setEmail(creado.getEmail());
+                mascotaService.registrarMascota(mascota);
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug("Usuario {} registrado con {} mascotas", creado.getId(), aRegistrar.size());
+            }
+            return creado;
+        });
+    }
+    
+    @Override
+    public int darDeBajaPropietario(Long usuarioId) {
+        return transacciones.enTransaccion(() -> {
+            Usuario usuario = usuarioService.buscarUsuarioPorId(usuarioId)
+                .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado con ID: " + usuarioId));
+            usuarioService.eliminarUsuario(usuarioId);
+            int mascotas = mascotaService.eliminarMascotasDePropietario(usuario.getEmail());
+            if (logger.isDebugEnabled()) {
+                logger.debug("Usuario {} dado de baja junto con {} mascotas", usuarioId, mascotas);
+            }
+            return mascotas;
+        });
+    }
+}
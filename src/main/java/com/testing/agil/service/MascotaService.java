@@ -1,7 +1,9 @@
 package com.testing.agil.service;
 
 import com.testing.agil.model.Mascota;
+import com.testing.agil.model.Propietario;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -35,12 +37,23 @@ public interface MascotaService {
      */
     List<Mascota> listarTodas();
     
+    /**
+     * Obtiene las primeras mascotas por nombre, sin leer el resto.
+     * 
+     * @param limite Cantidad máxima de mascotas
+     * @return Lista de hasta {@code limite} mascotas ordenadas por nombre
+     * @throws IllegalArgumentException si el límite no es positivo
+     */
+    List<Mascota> listarTodas(int limite);
+    
     /**
      * Actualiza los datos de una mascota existente.
+     * La actualización solo se aplica si la versión de la mascota coincide con la almacenada.
      * 
-     * @param mascota La mascota con los datos actualizados
-     * @return La mascota actualizada
-     * @throws IllegalArgumentException si la mascota es inválida
+     * @param mascota La mascota con los datos actualizados y la versión con que fue leída
+     * @return La mascota actualizada con su nueva versión
+     * @throws IllegalArgumentException si la mascota es inválida o no existe
+     * @throws com.testing.agil.repository.ConflictoConcurrenciaException si otra operación la modificó antes
      */
     Mascota actualizarMascota(Mascota mascota);
     
@@ -52,6 +65,38 @@ public interface MascotaService {
      */
     boolean eliminarMascota(Long id);
     
+    /**
+     * Elimina (lógicamente) varias mascotas en una sola operación.
+     * 
+     * @param ids Los IDs de las mascotas a eliminar
+     * @return Cantidad de mascotas desactivadas
+     */
+    int eliminarMascotas(Collection<Long> ids);
+    
+    /**
+     * Reactiva varias mascotas eliminadas lógicamente en una sola operación.
+     * 
+     * @param ids Los IDs de las mascotas a reactivar
+     * @return Cantidad de mascotas reactivadas
+     */
+    int reactivarMascotas(Collection<Long> ids);
+    
+    /**
+     * Elimina (lógicamente) todas las mascotas de un propietario, por ejemplo al cerrar su cuenta.
+     * 
+     * @param email El email del propietario
+     * @return Cantidad de mascotas desactivadas
+     */
+    int eliminarMascotasDePropietario(String email);
+    
+    /**
+     * Obtiene un propietario con todas sus mascotas en una sola consulta.
+     * 
+     * @param email El email del propietario
+     * @return Optional con el propietario y sus mascotas
+     */
+    Optional<Propietario> obtenerPropietarioConMascotas(String email);
+    
     /**
      * Busca mascotas por especie.
      * 
@@ -67,6 +112,15 @@ public interface MascotaService {
      */
     List<Mascota> listarCachorros();
     
+    /**
+     * Lista los primeros cachorros por nombre.
+     * 
+     * @param limite Cantidad máxima de mascotas
+     * @return Lista de hasta {@code limite} cachorros
+     * @throws IllegalArgumentException si el límite no es positivo
+     */
+    List<Mascota> listarCachorros(int limite);
+    
     /**
      * Lista mascotas senior (mayores a 7 años).
      * 
@@ -74,6 +128,15 @@ public interface MascotaService {
      */
     List<Mascota> listarSenior();
     
+    /**
+     * Lista las primeras mascotas senior por nombre.
+     * 
+     * @param limite Cantidad máxima de mascotas
+     * @return Lista de hasta {@code limite} mascotas senior
+     * @throws IllegalArgumentException si el límite no es positivo
+     */
+    List<Mascota> listarSenior(int limite);
+    
     /**
      * Busca mascotas por nombre (búsqueda parcial).
      * 
@@ -82,6 +145,16 @@ public interface MascotaService {
      */
     List<Mascota> buscarPorNombre(String patron);
     
+    /**
+     * Busca las primeras mascotas por nombre (búsqueda parcial), pensado para búsquedas mientras se escribe.
+     * 
+     * @param patron El patrón de búsqueda
+     * @param limite Cantidad máxima de mascotas
+     * @return Lista de hasta {@code limite} mascotas que coinciden, ordenadas por nombre
+     * @throws IllegalArgumentException si el límite no es positivo
+     */
+    List<Mascota> buscarPorNombre(String patron, int limite);
+    
     /**
      * Busca mascotas que requieren vacunación.
      * (mascotas sin vacunas o con vacunas vencidas)
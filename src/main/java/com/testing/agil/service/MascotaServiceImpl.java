@@ -1,8 +1,14 @@
 package com.testing.agil.service;
 
+import com.testing.agil.analitica.AlmacenColumnarMascotas;
 import com.testing.agil.model.Mascota;
+import com.testing.agil.model.Propietario;
+import com.testing.agil.repository.FiltroMascotas;
 import com.testing.agil.repository.MascotaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -14,7 +20,10 @@ import java.util.stream.Collectors;
  */
 public class MascotaServiceImpl implements MascotaService {
     
+    private static final Logger logger = LoggerFactory.getLogger(MascotaServiceImpl.class);
+    
     private final MascotaRepository mascotaRepository;
+    private final AlmacenColumnarMascotas analitica;
     
     /**
      * Constructor que recibe el repositorio de mascotas.
@@ -22,10 +31,22 @@ public class MascotaServiceImpl implements MascotaService {
      * @param mascotaRepository El repositorio de mascotas
      */
     public MascotaServiceImpl(MascotaRepository mascotaRepository) {
+        this(mascotaRepository, null);
+    }
+    
+    /**
+     * Constructor con almacén columnar: las estadísticas se calculan en memoria sobre
+     * la última carga del almacén en lugar de consultar la base de datos.
+     * 
+     * @param mascotaRepository El repositorio de mascotas
+     * @param analitica Almacén columnar ya refrescado, o null para usar solo el repositorio
+     */
+    public MascotaServiceImpl(MascotaRepository mascotaRepository, AlmacenColumnarMascotas analitica) {
         if (mascotaRepository == null) {
             throw new IllegalArgumentException("El repositorio de mascotas no puede ser nulo");
         }
         this.mascotaRepository = mascotaRepository;
+        this.analitica = analitica;
     }
     
     @Override
@@ -43,12 +64,15 @@ public class MascotaServiceImpl implements MascotaService {
             .anyMatch(m -> m.getPropietario().equalsIgnoreCase(mascota.getPropietario()));
         
         if (yaExiste) {
+            logger.debug("Registro rechazado: mascota duplicada '{}' para '{}'", mascota.getNombre(), mascota.getPropietario());
             throw new IllegalArgumentException(
                 String.format("Ya existe una mascota llamada '%s' para el propietario '%s'", 
                     mascota.getNombre(), mascota.getPropietario()));
         }
         
-        return mascotaRepository.crear(mascota);
+        Mascota registrada = mascotaRepository.crear(mascota);
+        logger.debug("Mascota registrada con ID {}", registrada.getId());
+        return registrada;
     }
     
     @Override
@@ -65,6 +89,13 @@ public class MascotaServiceImpl implements MascotaService {
         return mascotaRepository.listarTodas();
     }
     
+    @Override
+    public List<Mascota> listarTodas(int limite) {
+        return mascotaRepository.buscar(FiltroMascotas.todas()
+            .ordenadoPor(FiltroMascotas.Orden.NOMBRE)
+            .conLimite(validarLimite(limite)));
+    }
+    
     @Override
     public Mascota actualizarMascota(Mascota mascota) {
         if (mascota == null) {
@@ -75,12 +106,6 @@ public class MascotaServiceImpl implements MascotaService {
             throw new IllegalArgumentException("El ID de la mascota debe ser válido para actualizar");
         }
         
-        // Verificar que la mascota existe
-        Optional<Mascota> mascotaExistente = mascotaRepository.buscarPorId(mascota.getId());
-        if (mascotaExistente.isEmpty()) {
-            throw new IllegalArgumentException("No existe una mascota con ID: " + mascota.getId());
-        }
-        
         // Validar los nuevos datos
         validarMascota(mascota);
         
@@ -96,7 +121,14 @@ public class MascotaServiceImpl implements MascotaService {
                     mascota.getNombre(), mascota.getPropietario()));
         }
         
-        return mascotaRepository.actualizar(mascota);
+        // La actualización condicional por versión reemplaza la lectura previa:
+        // detecta tanto la mascota inexistente como la modificación concurrente
+        if (!mascotaRepository.actualizarConVersion(mascota)) {
+            throw new IllegalArgumentException("No existe una mascota con ID: " + mascota.getId());
+        }
+        logger.debug("Mascota {} actualizada", mascota.getId());
+        
+        return mascota;
     }
     
     @Override
@@ -108,6 +140,42 @@ public class MascotaServiceImpl implements MascotaService {
         return mascotaRepository.eliminar(id);
     }
     
+    @Override
+    public int eliminarMascotas(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        
+        return mascotaRepository.eliminarTodas(idsValidos(ids));
+    }
+    
+    @Override
+    public int reactivarMascotas(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        
+        return mascotaRepository.reactivar(idsValidos(ids));
+    }
+    
+    @Override
+    public int eliminarMascotasDePropietario(String email) {
+        if (email == null || email.trim().isEmpty()) {
+            return 0;
+        }
+        
+        return mascotaRepository.eliminarPorEmail(email.trim());
+    }
+    
+    @Override
+    public Optional<Propietario> obtenerPropietarioConMascotas(String email) {
+        if (email == null || email.trim().isEmpty()) {
+            return Optional.empty();
+        }
+        
+        return mascotaRepository.buscarPropietarioPorEmail(email.trim());
+    }
+    
     @Override
     public List<Mascota> buscarPorEspecie(String especie) {
         if (especie == null || especie.trim().isEmpty()) {
@@ -122,11 +190,21 @@ public class MascotaServiceImpl implements MascotaService {
         return mascotaRepository.listarCachorros();
     }
     
+    @Override
+    public List<Mascota> listarCachorros(int limite) {
+        return mascotaRepository.buscar(FiltroMascotas.cachorros().conLimite(validarLimite(limite)));
+    }
+    
     @Override
     public List<Mascota> listarSenior() {
         return mascotaRepository.listarSenior();
     }
     
+    @Override
+    public List<Mascota> listarSenior(int limite) {
+        return mascotaRepository.buscar(FiltroMascotas.senior().conLimite(validarLimite(limite)));
+    }
+    
     @Override
     public List<Mascota> buscarPorNombre(String patron) {
         if (patron == null || patron.trim().isEmpty()) {
@@ -136,17 +214,25 @@ public class MascotaServiceImpl implements MascotaService {
         return mascotaRepository.buscarPorNombre(patron.trim());
     }
     
+    @Override
+    public List<Mascota> buscarPorNombre(String patron, int limite) {
+        validarLimite(limite);
+        if (patron == null || patron.trim().isEmpty()) {
+            return List.of();
+        }
+        
+        return mascotaRepository.buscar(FiltroMascotas.todas()
+            .conNombre(patron)
+            .ordenadoPor(FiltroMascotas.Orden.NOMBRE)
+            .conLimite(limite));
+    }
+    
     @Override
     public List<Mascota> listarMascotasQueRequierenVacunacion() {
         // Simplificamos: mascotas que no han sido registradas recientemente como vacunadas
         // En una implementación real, tendríamos un campo específico para vacunas
-        List<Mascota> todasLasMascotas = mascotaRepository.listarTodas();
-        LocalDate haceUnAno = LocalDate.now().minusYears(1);
-        
         // Por ahora, consideramos que todas las mascotas mayores a 1 año necesitan vacunación
-        return todasLasMascotas.stream()
-            .filter(mascota -> mascota.calcularEdadEnAnios() >= 1)
-            .collect(Collectors.toList());
+        return mascotaRepository.buscar(FiltroMascotas.vacunacionPendiente());
     }
     
     @Override
@@ -175,13 +261,11 @@ public class MascotaServiceImpl implements MascotaService {
     
     @Override
     public Map<String, Long> obtenerEstadisticasPorEspecie() {
-        List<Mascota> todasLasMascotas = mascotaRepository.listarTodas();
-        
-        return todasLasMascotas.stream()
-            .collect(Collectors.groupingBy(
-                Mascota::getEspecie,
-                Collectors.counting()
-            ));
+        if (analitica != null) {
+            return analitica.consulta().contarPorEspecie();
+        }
+        // Agregado en la base de datos: no materializa las mascotas en memoria
+        return mascotaRepository.contarAgrupadoPorEspecie();
     }
     
     @Override
@@ -189,6 +273,22 @@ public class MascotaServiceImpl implements MascotaService {
         return mascotaRepository.contar();
     }
     
+    /**
+     * Descarta IDs nulos o no positivos antes de enviarlos al repositorio
+     */
+    private List<Long> idsValidos(Collection<Long> ids) {
+        return ids.stream()
+            .filter(id -> id != null && id > 0)
+            .collect(Collectors.toList());
+    }
+    
+    private int validarLimite(int limite) {
+        if (limite <= 0) {
+            throw new IllegalArgumentException("El límite debe ser mayor que cero");
+        }
+        return limite;
+    }
+    
     @Override
     public boolean validarMascota(Mascota mascota) {
         if (mascota == null) {
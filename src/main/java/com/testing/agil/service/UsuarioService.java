@@ -1,6 +1,7 @@
 package com.testing.agil.service;
 
 import com.testing.agil.model.Usuario;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +20,15 @@ public interface UsuarioService {
      */
     Usuario crearUsuario(Usuario usuario);
     
+    /**
+     * Crear varios usuarios con una sola inserción en lote
+     * Aplica las mismas validaciones que {@link #crearUsuario}; si alguno no las cumple no se crea ninguno.
+     * @param usuarios Usuarios a crear
+     * @return Cantidad de usuarios creados
+     * @throws IllegalArgumentException si algún usuario es inválido o su email ya existe o se repite
+     */
+    int crearUsuarios(List<Usuario> usuarios);
+    
     /**
      * Buscar usuario por ID
      * @param id ID del usuario
@@ -46,11 +56,12 @@ public interface UsuarioService {
     List<Usuario> listarUsuariosActivos();
     
     /**
-     * Actualizar un usuario existente
+     * Actualizar un usuario existente (solo si su versión coincide con la almacenada)
      * @param id ID del usuario a actualizar
-     * @param usuarioActualizado Datos actualizados
+     * @param usuarioActualizado Datos actualizados y versión con que fue leído
      * @return Usuario actualizado
      * @throws IllegalArgumentException si el usuario no existe o los datos son inválidos
+     * @throws com.testing.agil.repository.ConflictoConcurrenciaException si otra operación lo modificó antes
      */
     Usuario actualizarUsuario(Long id, Usuario usuarioActualizado);
     
@@ -62,6 +73,20 @@ public interface UsuarioService {
      */
     boolean eliminarUsuario(Long id);
     
+    /**
+     * Eliminar varios usuarios (borrado lógico) con una sola operación
+     * @param ids IDs de los usuarios a eliminar
+     * @return Cantidad de usuarios desactivados
+     */
+    int eliminarUsuarios(Collection<Long> ids);
+    
+    /**
+     * Reactivar varios usuarios eliminados lógicamente
+     * @param ids IDs de los usuarios a reactivar
+     * @return Cantidad de usuarios reactivados
+     */
+    int reactivarUsuarios(Collection<Long> ids);
+    
     /**
      * Eliminar usuario físicamente de la base de datos
      * @param id ID del usuario a eliminar
@@ -2,8 +2,13 @@ package com.testing.agil.service;
 
 import com.testing.agil.model.Usuario;
 import com.testing.agil.repository.UsuarioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Implementación concreta del servicio de usuarios
@@ -15,6 +20,8 @@ import java.util.Optional;
  */
 public class UsuarioServiceImpl implements UsuarioService {
     
+    private static final Logger logger = LoggerFactory.getLogger(UsuarioServiceImpl.class);
+    
     private final UsuarioRepository usuarioRepository;
     
     /**
@@ -35,11 +42,33 @@ public class UsuarioServiceImpl implements UsuarioService {
         
         // Verificar que el email no exista
         if (usuarioRepository.existePorEmail(usuario.getEmail())) {
+            logger.debug("Creación rechazada: email {} ya registrado", usuario.getEmail());
             throw new IllegalArgumentException("Ya existe un usuario con el email: " + usuario.getEmail());
         }
         
         // Crear usuario
-        return usuarioRepository.crear(usuario);
+        Usuario creado = usuarioRepository.crear(usuario);
+        logger.debug("Usuario creado con ID {}", creado.getId());
+        return creado;
+    }
+    
+    @Override
+    public int crearUsuarios(List<Usuario> usuarios) {
+        if (usuarios == null || usuarios.isEmpty()) {
+            return 0;
+        }
+        
+        Set<String> emails = new HashSet<>();
+        for (Usuario usuario : usuarios) {
+            validarUsuarioParaCreacion(usuario);
+            if (!emails.add(usuario.getEmail()) || usuarioRepository.existePorEmail(usuario.getEmail())) {
+                throw new IllegalArgumentException("Ya existe un usuario con el email: " + usuario.getEmail());
+            }
+        }
+        
+        int creados = usuarioRepository.crearEnLote(usuarios);
+        logger.debug("Creados {} usuarios en lote", creados);
+        return creados;
     }
     
     @Override
@@ -57,7 +86,7 @@ public class UsuarioServiceImpl implements UsuarioService {
             return Optional.empty();
         }
         
-        return usuarioRepository.buscarPorEmail(email.trim().toLowerCase());
+        return usuarioRepository.buscarPorEmail(Usuario.normalizarEmail(email));
     }
     
     @Override
@@ -79,44 +108,52 @@ public class UsuarioServiceImpl implements UsuarioService {
         
         validarUsuarioParaActualizacion(usuarioActualizado);
         
-        // Verificar que el usuario existe
-        Optional<Usuario> usuarioExistente = usuarioRepository.buscarPorId(id);
-        if (usuarioExistente.isEmpty()) {
-            throw new IllegalArgumentException("Usuario no encontrado con ID: " + id);
-        }
-        
         // Verificar que el email no esté en uso por otro usuario
         Optional<Usuario> usuarioConEmail = usuarioRepository.buscarPorEmail(usuarioActualizado.getEmail());
         if (usuarioConEmail.isPresent() && !usuarioConEmail.get().getId().equals(id)) {
             throw new IllegalArgumentException("El email ya está en uso por otro usuario");
         }
         
-        // Actualizar usuario manteniendo el ID original
+        // Actualizar usuario manteniendo el ID original; la condición por versión
+        // reemplaza la lectura previa de existencia
         usuarioActualizado.setId(id);
-        return usuarioRepository.actualizar(usuarioActualizado);
+        if (!usuarioRepository.actualizarConVersion(usuarioActualizado)) {
+            throw new IllegalArgumentException("Usuario no encontrado con ID: " + id);
+        }
+        return usuarioActualizado;
     }
     
     @Override
     public boolean eliminarUsuario(Long id) {
-        // Eliminación lógica - marcar como inactivo
+        // Eliminación lógica - marcar como inactivo con un único UPDATE
         if (id == null || id <= 0) {
             throw new IllegalArgumentException("ID de usuario inválido");
         }
         
-        Optional<Usuario> usuario = usuarioRepository.buscarPorId(id);
-        if (usuario.isEmpty()) {
+        if (!usuarioRepository.desactivar(id)) {
             throw new IllegalArgumentException("Usuario no encontrado con ID: " + id);
         }
+        logger.debug("Usuario {} desactivado", id);
         
-        Usuario usuarioAEliminar = usuario.get();
-        usuarioAEliminar.setActivo(false);
+        return true;
+    }
+    
+    @Override
+    public int eliminarUsuarios(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
         
-        try {
-            usuarioRepository.actualizar(usuarioAEliminar);
-            return true;
-        } catch (Exception e) {
-            return false;
+        return usuarioRepository.desactivarTodos(idsValidos(ids));
+    }
+    
+    @Override
+    public int reactivarUsuarios(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
         }
+        
+        return usuarioRepository.reactivar(idsValidos(ids));
     }
     
     @Override
@@ -145,7 +182,16 @@ public class UsuarioServiceImpl implements UsuarioService {
             return false;
         }
         
-        return !usuarioRepository.existePorEmail(email.trim().toLowerCase());
+        return !usuarioRepository.existePorEmail(Usuario.normalizarEmail(email));
+    }
+    
+    /**
+     * Descarta IDs nulos o no positivos
+     */
+    private List<Long> idsValidos(Collection<Long> ids) {
+        return ids.stream()
+                .filter(id -> id != null && id > 0)
+                .toList();
     }
     
     /**
@@ -213,7 +259,7 @@ public class UsuarioServiceImpl implements UsuarioService {
         }
         
         // Normalizar email a minúsculas
-        usuario.setEmail(usuario.getEmail().trim().toLowerCase());
+        usuario.setEmail(Usuario.normalizarEmail(usuario.getEmail()));
         
         // Normalizar nombre
         usuario.setNombre(usuario.getNombre().trim());
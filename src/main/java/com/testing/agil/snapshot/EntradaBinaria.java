@@ -0,0 +1,115 @@
+package com.testing.agil.snapshot;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lectura secuencial de un FileChannel con un buffer directo grande
+ * Contraparte de {@link SalidaBinaria}.
+ */
+final class EntradaBinaria implements AutoCloseable {
+
+    private final FileChannel canal;
+    private final ByteBuffer buffer;
+    private long bytesLeidos;
+
+    private EntradaBinaria(FileChannel canal, int tamanoBuffer) {
+        this.canal = canal;
+        this.buffer = ByteBuffer.allocateDirect(tamanoBuffer);
+        this.buffer.flip();
+    }
+
+    static EntradaBinaria abrir(Path origen, int tamanoBuffer) throws IOException {
+        return new EntradaBinaria(FileChannel.open(origen, StandardOpenOption.READ), tamanoBuffer);
+    }
+
+    int leerByte() throws IOException {
+        asegurar(1);
+        return buffer.get() & 0xFF;
+    }
+
+    long leerVarint() throws IOException {
+        long valor = 0;
+        for (int desplazamiento = 0; desplazamiento < 64; desplazamiento += 7) {
+            int b = leerByte();
+            valor |= (long) (b & 0x7F) << desplazamiento;
+            if ((b & 0x80) == 0) {
+                return valor;
+            }
+        }
+        throw new IOException("Varint mal formado en la instantánea");
+    }
+
+    int leerVarintInt() throws IOException {
+        long valor = leerVarint();
+        if (valor > Integer.MAX_VALUE) {
+            throw new IOException("Valor fuera de rango en la instantánea: " + valor);
+        }
+        return (int) valor;
+    }
+
+    long leerZigZag() throws IOException {
+        long valor = leerVarint();
+        return (valor >>> 1) ^ -(valor & 1);
+    }
+
+    double leerDouble() throws IOException {
+        asegurar(8);
+        return buffer.getDouble();
+    }
+
+    String leerTexto() throws IOException {
+        int longitud = leerVarintInt();
+        if (longitud == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[longitud - 1];
+        leerBytes(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    void leerBytes(byte[] destino) throws IOException {
+        int copiados = 0;
+        while (copiados < destino.length) {
+            if (!buffer.hasRemaining()) {
+                rellenar(1);
+            }
+            int n = Math.min(buffer.remaining(), destino.length - copiados);
+            buffer.get(destino, copiados, n);
+            copiados += n;
+        }
+    }
+
+    long getBytesLeidos() {
+        return bytesLeidos - buffer.remaining();
+    }
+
+    private void asegurar(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            rellenar(bytes);
+        }
+    }
+
+    private void rellenar(int minimo) throws IOException {
+        buffer.compact();
+        while (buffer.position() < minimo) {
+            int leidos = canal.read(buffer);
+            if (leidos < 0) {
+                buffer.flip();
+                throw new EOFException("La instantánea está truncada");
+            }
+            bytesLeidos += leidos;
+        }
+        buffer.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+}
@@ -0,0 +1,114 @@
+package com.testing.agil.snapshot;
+
+import com.testing.agil.model.Mascota;
+import com.testing.agil.model.Usuario;
+import com.testing.agil.repository.MascotaRepository;
+import com.testing.agil.repository.UsuarioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Exporta todas las mascotas (también las archivadas) y usuarios a una instantánea binaria columnar
+ * Las filas se leen en streaming ({@code recorrerTodas}) y se escriben por bloques,
+ * así la memoria usada no depende del tamaño de la base. Ver {@link FormatoInstantanea}.
+ */
+public class ExportadorInstantanea {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportadorInstantanea.class);
+
+    private final MascotaRepository mascotaRepository;
+    private final UsuarioRepository usuarioRepository;
+
+    public ExportadorInstantanea(MascotaRepository mascotaRepository, UsuarioRepository usuarioRepository) {
+        if (mascotaRepository == null || usuarioRepository == null) {
+            throw new IllegalArgumentException("Los repositorios no pueden ser nulos");
+        }
+        this.mascotaRepository = mascotaRepository;
+        this.usuarioRepository = usuarioRepository;
+    }
+
+    /**
+     * Escribe la instantánea completa, reemplazando el archivo si existe
+     * @param destino archivo de salida
+     * @return filas y bytes escritos
+     */
+    public ResumenInstantanea exportar(Path destino) {
+        if (destino == null) {
+            throw new IllegalArgumentException("El destino no puede ser nulo");
+        }
+        long inicio = System.nanoTime();
+        long mascotas;
+        long archivadas;
+        long usuarios;
+        long bytes;
+        try (SalidaBinaria salida = SalidaBinaria.crear(destino, FormatoInstantanea.TAMANO_BUFFER)) {
+            salida.escribirBytes(FormatoInstantanea.MAGIA);
+            salida.escribirByte(FormatoInstantanea.VERSION);
+
+            salida.escribirByte(FormatoInstantanea.SECCION_MASCOTAS);
+            mascotas = exportarSeccion(salida, mascotaRepository::recorrerTodas,
+                    FormatoInstantanea::escribirBloqueMascotas);
+
+            salida.escribirByte(FormatoInstantanea.SECCION_ARCHIVADAS);
+            archivadas = exportarSeccion(salida, mascotaRepository::recorrerArchivadas,
+                    FormatoInstantanea::escribirBloqueArchivadas);
+
+            salida.escribirByte(FormatoInstantanea.SECCION_USUARIOS);
+            usuarios = exportarSeccion(salida, usuarioRepository::recorrerTodos,
+                    FormatoInstantanea::escribirBloqueUsuarios);
+
+            salida.escribirByte(FormatoInstantanea.FIN);
+            bytes = salida.getBytesEscritos();
+        } catch (IOException e) {
+            throw new RuntimeException("Error al exportar instantánea: " + e.getMessage(), e);
+        } catch (UncheckedIOException e) {
+            throw new RuntimeException("Error al exportar instantánea: " + e.getCause().getMessage(), e.getCause());
+        }
+
+        ResumenInstantanea resumen = new ResumenInstantanea(mascotas, archivadas, usuarios, bytes,
+                (System.nanoTime() - inicio) / 1_000_000);
+        logger.info("Instantánea exportada en {}: {}", destino, resumen);
+        return resumen;
+    }
+
+    private <T> long exportarSeccion(SalidaBinaria salida, Consumer<Consumer<T>> recorrer,
+                                     EscritorBloque<T> escritor) throws IOException {
+        List<T> bloque = new ArrayList<>(FormatoInstantanea.FILAS_POR_BLOQUE);
+        long[] total = {0};
+        recorrer.accept(fila -> {
+            bloque.add(fila);
+            if (bloque.size() == FormatoInstantanea.FILAS_POR_BLOQUE) {
+                total[0] += escribir(salida, bloque, escritor);
+            }
+        });
+        if (!bloque.isEmpty()) {
+            total[0] += escribir(salida, bloque, escritor);
+        }
+        salida.escribirVarint(0);
+        return total[0];
+    }
+
+    private static <T> int escribir(SalidaBinaria salida, List<T> bloque, EscritorBloque<T> escritor) {
+        try {
+            escritor.escribir(salida, bloque);
+        } catch (IOException e) {
+            // recorrerTodas no admite excepciones comprobadas
+            throw new UncheckedIOException(e);
+        }
+        int filas = bloque.size();
+        bloque.clear();
+        return filas;
+    }
+
+    @FunctionalInterface
+    private interface EscritorBloque<T> {
+        void escribir(SalidaBinaria salida, List<T> bloque) throws IOException;
+    }
+}
@@ -0,0 +1,311 @@
+package com.testing.agil.snapshot;
+
+import com.testing.agil.model.Especie;
+import com.testing.agil.model.Mascota;
+import com.testing.agil.model.Usuario;
+import com.testing.agil.model.ValoresCanonicos;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Formato columnar de las instantáneas
+ *
+ * Archivo: "GMSN" + versión (1 byte) + secciones + 0.
+ * Sección: etiqueta ('M' mascotas, 'A' mascotas archivadas, 'U' usuarios) + bloques + varint 0.
+ * Bloque: varint filas + una columna tras otra, cada una con los valores de todas las filas.
+ * Desde la versión 2 los bloques de mascotas llevan fecha_creacion y fecha_actualizacion
+ * al final, y los de archivadas además fecha_archivado; la versión 1 se sigue leyendo.
+ *
+ * Codificación de columnas:
+ * - IDs: diferencia con el anterior en zigzag (filas en orden de ID: casi siempre 1 byte).
+ * - Fechas: día epoch (marcas de tiempo: segundo epoch UTC) como diferencia con el valor
+ *   no nulo anterior; 0 representa null.
+ * - especie, raza y color: diccionario por bloque y un código varint por fila.
+ * - Booleanos: un byte de banderas por fila.
+ */
+final class FormatoInstantanea {
+
+    static final byte[] MAGIA = {'G', 'M', 'S', 'N'};
+    static final int VERSION = 2;
+    /** Primera versión con marcas de tiempo y sección de archivadas */
+    static final int VERSION_CON_MARCAS = 2;
+    static final int SECCION_MASCOTAS = 'M';
+    static final int SECCION_ARCHIVADAS = 'A';
+    static final int SECCION_USUARIOS = 'U';
+    static final int FIN = 0;
+
+    /** Filas por bloque: acota la memoria sin perder la ventaja columnar */
+    static final int FILAS_POR_BLOQUE = 16_384;
+    static final int TAMANO_BUFFER = 4 * 1024 * 1024;
+
+    private static final int ESTERILIZADO = 1;
+    private static final int ACTIVO = 2;
+
+    private FormatoInstantanea() {
+    }
+
+    // ---- Mascotas ----
+
+    static void escribirBloqueMascotas(SalidaBinaria salida, List<Mascota> bloque) throws IOException {
+        salida.escribirVarint(bloque.size());
+        escribirIds(salida, bloque, Mascota::getId);
+        for (Mascota m : bloque) {
+            salida.escribirTexto(m.getNombre());
+        }
+        escribirDiccionario(salida, bloque, Mascota::getEspecie);
+        escribirDiccionario(salida, bloque, Mascota::getRaza);
+        escribirFechas(salida, bloque, m -> m.getFechaNacimiento() != null ? m.getFechaNacimiento().toEpochDay() : null);
+        escribirDiccionario(salida, bloque, Mascota::getColor);
+        for (Mascota m : bloque) {
+            salida.escribirTexto(m.getPropietario());
+        }
+        for (Mascota m : bloque) {
+            salida.escribirTexto(m.getTelefono());
+        }
+        for (Mascota m : bloque) {
+            salida.escribirTexto(m.getEmail());
+        }
+        for (Mascota m : bloque) {
+            salida.escribirDouble(m.getPeso());
+        }
+        for (Mascota m : bloque) {
+            salida.escribirByte((m.isEsterilizado() ? ESTERILIZADO : 0) | (m.isActivo() ? ACTIVO : 0));
+        }
+        for (Mascota m : bloque) {
+            salida.escribirVarint(m.getVersion());
+        }
+        escribirFechas(salida, bloque, m -> segundos(m.getFechaCreacion()));
+        escribirFechas(salida, bloque, m -> segundos(m.getFechaActualizacion()));
+    }
+
+    static void escribirBloqueArchivadas(SalidaBinaria salida, List<Mascota> bloque) throws IOException {
+        escribirBloqueMascotas(salida, bloque);
+        escribirFechas(salida, bloque, m -> segundos(m.getFechaArchivado()));
+    }
+
+    static List<Mascota> leerBloqueArchivadas(EntradaBinaria entrada, int filas) throws IOException {
+        List<Mascota> bloque = leerBloqueMascotas(entrada, filas, VERSION);
+        leerFechas(entrada, bloque, (m, segundo) -> m.setFechaArchivado(marca(segundo)));
+        return bloque;
+    }
+
+    /**
+     * @param version versión del archivo; antes de {@link #VERSION_CON_MARCAS} no hay marcas de tiempo
+     */
+    static List<Mascota> leerBloqueMascotas(EntradaBinaria entrada, int filas, int version) throws IOException {
+        List<Mascota> bloque = new ArrayList<>(filas);
+        for (int i = 0; i < filas; i++) {
+            bloque.add(new Mascota());
+        }
+        long id = 0;
+        for (Mascota m : bloque) {
+            id += entrada.leerZigZag();
+            m.setId(id);
+        }
+        for (Mascota m : bloque) {
+            m.setNombre(entrada.leerTexto());
+        }
+        String[] especies = leerDiccionario(entrada, Especie::canonica);
+        for (Mascota m : bloque) {
+            m.setEspecie(decodificar(especies, entrada));
+        }
+        String[] razas = leerDiccionario(entrada, ValoresCanonicos::de);
+        for (Mascota m : bloque) {
+            m.setRaza(decodificar(razas, entrada));
+        }
+        leerFechas(entrada, bloque, (m, dia) -> m.setFechaNacimiento(LocalDate.ofEpochDay(dia)));
+        String[] colores = leerDiccionario(entrada, ValoresCanonicos::de);
+        for (Mascota m : bloque) {
+            m.setColor(decodificar(colores, entrada));
+        }
+        for (Mascota m : bloque) {
+            m.setPropietario(entrada.leerTexto());
+        }
+        for (Mascota m : bloque) {
+            m.setTelefono(entrada.leerTexto());
+        }
+        for (Mascota m : bloque) {
+            m.setEmail(entrada.leerTexto());
+        }
+        for (Mascota m : bloque) {
+            m.setPeso(entrada.leerDouble());
+        }
+        for (Mascota m : bloque) {
+            int banderas = entrada.leerByte();
+            m.setEsterilizado((banderas & ESTERILIZADO) != 0);
+            m.setActivo((banderas & ACTIVO) != 0);
+        }
+        for (Mascota m : bloque) {
+            m.setVersion(entrada.leerVarint());
+        }
+        if (version >= VERSION_CON_MARCAS) {
+            leerFechas(entrada, bloque, (m, segundo) -> m.setFechaCreacion(marca(segundo)));
+            leerFechas(entrada, bloque, (m, segundo) -> m.setFechaActualizacion(marca(segundo)));
+        }
+        return bloque;
+    }
+
+    private static Long segundos(LocalDateTime marca) {
+        return marca != null ? marca.toEpochSecond(ZoneOffset.UTC) : null;
+    }
+
+    private static LocalDateTime marca(long segundo) {
+        return LocalDateTime.ofEpochSecond(segundo, 0, ZoneOffset.UTC);
+    }
+
+    // ---- Usuarios ----
+
+    static void escribirBloqueUsuarios(SalidaBinaria salida, List<Usuario> bloque) throws IOException {
+        salida.escribirVarint(bloque.size());
+        escribirIds(salida, bloque, Usuario::getId);
+        for (Usuario u : bloque) {
+            salida.escribirTexto(u.getNombre());
+        }
+        for (Usuario u : bloque) {
+            salida.escribirTexto(u.getEmail());
+        }
+        for (Usuario u : bloque) {
+            salida.escribirVarint(u.getEdad());
+        }
+        for (Usuario u : bloque) {
+            salida.escribirByte(u.isActivo() ? ACTIVO : 0);
+        }
+        for (Usuario u : bloque) {
+            salida.escribirVarint(u.getVersion());
+        }
+    }
+
+    static List<Usuario> leerBloqueUsuarios(EntradaBinaria entrada, int filas) throws IOException {
+        List<Usuario> bloque = new ArrayList<>(filas);
+        for (int i = 0; i < filas; i++) {
+            bloque.add(new Usuario());
+        }
+        long id = 0;
+        for (Usuario u : bloque) {
+            id += entrada.leerZigZag();
+            u.setId(id);
+        }
+        for (Usuario u : bloque) {
+            u.setNombre(entrada.leerTexto());
+        }
+        for (Usuario u : bloque) {
+            u.setEmail(entrada.leerTexto());
+        }
+        for (Usuario u : bloque) {
+            u.setEdad(entrada.leerVarintInt());
+        }
+        for (Usuario u : bloque) {
+            u.setActivo((entrada.leerByte() & ACTIVO) != 0);
+        }
+        for (Usuario u : bloque) {
+            u.setVersion(entrada.leerVarint());
+        }
+        return bloque;
+    }
+
+    // ---- Columnas comunes ----
+
+    private static <T> void escribirIds(SalidaBinaria salida, List<T> bloque, Function<T, Long> id) throws IOException {
+        long anterior = 0;
+        for (T fila : bloque) {
+            long actual = id.apply(fila);
+            salida.escribirZigZag(actual - anterior);
+            anterior = actual;
+        }
+    }
+
+    /**
+     * Escribe una columna de fechas o marcas ya convertidas a número (null = sin valor)
+     */
+    private static <T> void escribirFechas(SalidaBinaria salida, List<T> bloque,
+                                           Function<T, Long> columna) throws IOException {
+        long anterior = 0;
+        for (T fila : bloque) {
+            Long valor = columna.apply(fila);
+            if (valor == null) {
+                salida.escribirVarint(0);
+            } else {
+                long delta = valor - anterior;
+                salida.escribirVarint(((delta << 1) ^ (delta >> 63)) + 1);
+                anterior = valor;
+            }
+        }
+    }
+
+    /**
+     * Lee una columna escrita por {@link #escribirFechas}; {@code asignar} solo recibe los valores no nulos
+     */
+    private static <T> void leerFechas(EntradaBinaria entrada, List<T> bloque,
+                                       BiConsumer<T, Long> asignar) throws IOException {
+        long valor = 0;
+        for (T fila : bloque) {
+            long codigo = entrada.leerVarint();
+            if (codigo != 0) {
+                long zigzag = codigo - 1;
+                valor += (zigzag >>> 1) ^ -(zigzag & 1);
+                asignar.accept(fila, valor);
+            }
+        }
+    }
+
+    /**
+     * Escribe el diccionario del bloque y luego un código por fila (0 = null, i + 1 = entrada i)
+     */
+    private static <T> void escribirDiccionario(SalidaBinaria salida, List<T> bloque,
+                                                Function<T, String> columna) throws IOException {
+        Map<String, Integer> codigos = new HashMap<>();
+        List<String> entradas = new ArrayList<>();
+        int[] porFila = new int[bloque.size()];
+        for (int i = 0; i < porFila.length; i++) {
+            String valor = columna.apply(bloque.get(i));
+            if (valor != null) {
+                Integer codigo = codigos.get(valor);
+                if (codigo == null) {
+                    entradas.add(valor);
+                    codigo = entradas.size();
+                    codigos.put(valor, codigo);
+                }
+                porFila[i] = codigo;
+            }
+        }
+        salida.escribirVarint(entradas.size());
+        for (String entrada : entradas) {
+            salida.escribirTexto(entrada);
+        }
+        for (int codigo : porFila) {
+            salida.escribirVarint(codigo);
+        }
+    }
+
+    /**
+     * Lee el diccionario del bloque pasando cada entrada por {@code canonico}
+     */
+    private static String[] leerDiccionario(EntradaBinaria entrada, UnaryOperator<String> canonico) throws IOException {
+        String[] entradas = new String[entrada.leerVarintInt()];
+        for (int i = 0; i < entradas.length; i++) {
+            entradas[i] = canonico.apply(entrada.leerTexto());
+        }
+        return entradas;
+    }
+
+    private static String decodificar(String[] diccionario, EntradaBinaria entrada) throws IOException {
+        int codigo = entrada.leerVarintInt();
+        if (codigo == 0) {
+            return null;
+        }
+        if (codigo > diccionario.length) {
+            throw new IOException("Código de diccionario inválido en la instantánea: " + codigo);
+        }
+        return diccionario[codigo - 1];
+    }
+}
@@ -0,0 +1,102 @@
+package com.testing.agil.snapshot;
+
+import com.testing.agil.repository.GestorTransacciones;
+import com.testing.agil.repository.MascotaRepository;
+import com.testing.agil.repository.UsuarioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Carga una instantánea creada por {@link ExportadorInstantanea}
+ * Cada bloque decodificado se inserta con {@code crearEnLote} (las archivadas con
+ * {@code crearArchivadasEnLote}, conservando sus marcas de tiempo) y toda la importación
+ * ocurre en una transacción: si algo falla no queda una carga a medias.
+ * Los IDs originales se conservan, por lo que la base de destino debe estar vacía.
+ */
+public class ImportadorInstantanea {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportadorInstantanea.class);
+
+    private final MascotaRepository mascotaRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final GestorTransacciones transacciones;
+
+    public ImportadorInstantanea(MascotaRepository mascotaRepository, UsuarioRepository usuarioRepository,
+                                 GestorTransacciones transacciones) {
+        if (mascotaRepository == null || usuarioRepository == null || transacciones == null) {
+            throw new IllegalArgumentException("Los repositorios y el gestor de transacciones no pueden ser nulos");
+        }
+        this.mascotaRepository = mascotaRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.transacciones = transacciones;
+    }
+
+    /**
+     * @param origen archivo de instantánea
+     * @return filas y bytes leídos
+     * @throws IllegalArgumentException si el archivo no es una instantánea válida
+     */
+    public ResumenInstantanea importar(Path origen) {
+        if (origen == null) {
+            throw new IllegalArgumentException("El origen no puede ser nulo");
+        }
+        long inicio = System.nanoTime();
+        try (EntradaBinaria entrada = EntradaBinaria.abrir(origen, FormatoInstantanea.TAMANO_BUFFER)) {
+            int version = validarCabecera(entrada);
+            long[] totales = transacciones.enTransaccion(() -> cargarSecciones(entrada, version));
+            ResumenInstantanea resumen = new ResumenInstantanea(totales[0], totales[1], totales[2],
+                    entrada.getBytesLeidos(), (System.nanoTime() - inicio) / 1_000_000);
+            logger.info("Instantánea importada desde {}: {}", origen, resumen);
+            return resumen;
+        } catch (IOException e) {
+            throw new RuntimeException("Error al importar instantánea: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return versión del archivo, entre 1 y {@link FormatoInstantanea#VERSION}
+     */
+    private int validarCabecera(EntradaBinaria entrada) throws IOException {
+        byte[] magia = new byte[FormatoInstantanea.MAGIA.length];
+        entrada.leerBytes(magia);
+        if (!Arrays.equals(magia, FormatoInstantanea.MAGIA)) {
+            throw new IllegalArgumentException("El archivo no es una instantánea válida");
+        }
+        int version = entrada.leerByte();
+        if (version < 1 || version > FormatoInstantanea.VERSION) {
+            throw new IllegalArgumentException("Versión de instantánea no soportada: " + version);
+        }
+        return version;
+    }
+
+    private long[] cargarSecciones(EntradaBinaria entrada, int version) {
+        long[] totales = new long[3];
+        try {
+            int seccion;
+            while ((seccion = entrada.leerByte()) != FormatoInstantanea.FIN) {
+                int filas;
+                while ((filas = entrada.leerVarintInt()) > 0) {
+                    if (seccion == FormatoInstantanea.SECCION_MASCOTAS) {
+                        totales[0] += mascotaRepository.crearEnLote(
+                                FormatoInstantanea.leerBloqueMascotas(entrada, filas, version));
+                    } else if (seccion == FormatoInstantanea.SECCION_ARCHIVADAS
+                            && version >= FormatoInstantanea.VERSION_CON_MARCAS) {
+                        totales[1] += mascotaRepository.crearArchivadasEnLote(
+                                FormatoInstantanea.leerBloqueArchivadas(entrada, filas));
+                    } else if (seccion == FormatoInstantanea.SECCION_USUARIOS) {
+                        totales[2] += usuarioRepository.crearEnLote(FormatoInstantanea.leerBloqueUsuarios(entrada, filas));
+                    } else {
+                        throw new IllegalArgumentException("Sección desconocida en la instantánea: " + seccion);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error al importar instantánea: " + e.getMessage(), e);
+        }
+        return totales;
+    }
+}
@@ -0,0 +1,47 @@
+package com.testing.agil.snapshot;
+
+/**
+ * Resultado de exportar o importar una instantánea
+ */
+public class ResumenInstantanea {
+
+    private final long mascotas;
+    private final long archivadas;
+    private final long usuarios;
+    private final long bytes;
+    private final long duracionMillis;
+
+    public ResumenInstantanea(long mascotas, long archivadas, long usuarios, long bytes, long duracionMillis) {
+        this.mascotas = mascotas;
+        this.archivadas = archivadas;
+        this.usuarios = usuarios;
+        this.bytes = bytes;
+        this.duracionMillis = duracionMillis;
+    }
+
+    public long getMascotas() {
+        return mascotas;
+    }
+
+    public long getArchivadas() {
+        return archivadas;
+    }
+
+    public long getUsuarios() {
+        return usuarios;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getDuracionMillis() {
+        return duracionMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ResumenInstantanea{mascotas=%d, archivadas=%d, usuarios=%d, bytes=%d, duracion=%d ms}",
+                mascotas, archivadas, usuarios, bytes, duracionMillis);
+    }
+}
@@ -0,0 +1,112 @@
+package com.testing.agil.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Escritura secuencial sobre un FileChannel a través de un buffer directo grande
+ * Los enteros se escriben como varint (LEB128) y los textos como longitud + UTF-8.
+ */
+final class SalidaBinaria implements AutoCloseable {
+
+    private final FileChannel canal;
+    private final ByteBuffer buffer;
+    private long bytesEscritos;
+
+    private SalidaBinaria(FileChannel canal, int tamanoBuffer) {
+        this.canal = canal;
+        this.buffer = ByteBuffer.allocateDirect(tamanoBuffer);
+    }
+
+    static SalidaBinaria crear(Path destino, int tamanoBuffer) throws IOException {
+        return new SalidaBinaria(FileChannel.open(destino, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), tamanoBuffer);
+    }
+
+    void escribirByte(int valor) throws IOException {
+        asegurar(1);
+        buffer.put((byte) valor);
+    }
+
+    /**
+     * Entero sin signo en 7 bits por byte: los valores pequeños ocupan un solo byte
+     */
+    void escribirVarint(long valor) throws IOException {
+        asegurar(10);
+        while ((valor & ~0x7FL) != 0) {
+            buffer.put((byte) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        buffer.put((byte) valor);
+    }
+
+    /**
+     * Entero con signo en zigzag: los valores cercanos a cero, positivos o negativos, ocupan poco
+     */
+    void escribirZigZag(long valor) throws IOException {
+        escribirVarint((valor << 1) ^ (valor >> 63));
+    }
+
+    void escribirDouble(double valor) throws IOException {
+        asegurar(8);
+        buffer.putDouble(valor);
+    }
+
+    /**
+     * Texto anulable: 0 indica null, n + 1 indica n bytes UTF-8 a continuación
+     */
+    void escribirTexto(String texto) throws IOException {
+        if (texto == null) {
+            escribirVarint(0);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        escribirVarint(bytes.length + 1L);
+        escribirBytes(bytes);
+    }
+
+    void escribirBytes(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.capacity()) {
+            vaciar();
+            ByteBuffer directo = ByteBuffer.wrap(bytes);
+            while (directo.hasRemaining()) {
+                bytesEscritos += canal.write(directo);
+            }
+            return;
+        }
+        asegurar(bytes.length);
+        buffer.put(bytes);
+    }
+
+    long getBytesEscritos() {
+        return bytesEscritos + buffer.position();
+    }
+
+    private void asegurar(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            vaciar();
+        }
+    }
+
+    private void vaciar() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytesEscritos += canal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            vaciar();
+            canal.force(false);
+        } finally {
+            canal.close();
+        }
+    }
+}
@@ -2,22 +2,24 @@ CREATE TABLE IF NOT EXISTS usuarios (
     id INTEGER PRIMARY KEY AUTOINCREMENT,
     nombre VARCHAR(100) NOT NULL,
     email VARCHAR(150) UNIQUE NOT NULL,
+    email_normalizado VARCHAR(150),
     edad INTEGER NOT NULL CHECK (edad >= 0),
     activo BOOLEAN DEFAULT TRUE,
+    version INTEGER NOT NULL DEFAULT 0,
     fecha_creacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     fecha_actualizacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
 -- Índices para mejorar rendimiento
-CREATE INDEX IF NOT EXISTS idx_usuarios_email ON usuarios(email);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_usuarios_email_normalizado ON usuarios(email_normalizado);
 CREATE INDEX IF NOT EXISTS idx_usuarios_activo ON usuarios(activo);
 
 -- Datos de prueba iniciales (opcional)
-INSERT OR IGNORE INTO usuarios (nombre, email, edad, activo) VALUES
-('Juan Pérez', 'juan.perez@email.com', 30, true),
-('María García', 'maria.garcia@email.com', 25, true),
-('Carlos López', 'carlos.lopez@email.com', 35, true),
-('Ana Martínez', 'ana.martinez@email.com', 28, false);
+INSERT OR IGNORE INTO usuarios (nombre, email, email_normalizado, edad, activo) VALUES
+('Juan Pérez', 'juan.perez@email.com', 'juan.perez@email.com', 30, true),
+('María García', 'maria.garcia@email.com', 'maria.garcia@email.com', 25, true),
+('Carlos López', 'carlos.lopez@email.com', 'carlos.lopez@email.com', 35, true),
+('Ana Martínez', 'ana.martinez@email.com', 'ana.martinez@email.com', 28, false);
 
 -- Trigger para actualizar fecha_actualizacion automáticamente
 CREATE TRIGGER IF NOT EXISTS update_usuarios_timestamp 
@@ -0,0 +1,126 @@
+package com.testing.agil.analitica;
+
+import com.testing.agil.model.Mascota;
+import com.testing.agil.repository.MascotaRepositoryImpl;
+import com.testing.agil.service.MascotaServiceImpl;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de integración para AlmacenColumnarMascotas.
+ */
+class AlmacenColumnarMascotasIntegrationTest {
+
+    private MascotaRepositoryImpl repository;
+    private AlmacenColumnarMascotas almacen;
+    private final LocalDate hoy = LocalDate.now();
+
+    @TempDir
+    File tempDir;
+
+    @BeforeEach
+    void setUp() {
+        repository = new MascotaRepositoryImpl(tempDir.getAbsolutePath() + "/mascotas.db");
+        almacen = new AlmacenColumnarMascotas(repository);
+    }
+
+    @Test
+    @DisplayName("Debería combinar filtros y calcular agregados sobre la carga")
+    void should_FilterAndAggregate_When_Refreshed() {
+        // Given
+        crear("Toby", "Perro", hoy.minusYears(2), 10.0, true);
+        crear("Rex", "perro", hoy.minusYears(8), 30.0, false);
+        crear("Luna", "Gato", hoy.minusMonths(3), 4.0, true);
+        Mascota baja = crear("Max", "Perro", hoy.minusYears(3), 20.0, true);
+        repository.eliminar(baja.getId());
+
+        // When
+        almacen.refrescar();
+
+        // Then
+        assertEquals(4, almacen.getFilas());
+        assertNotNull(almacen.getUltimoRefresco());
+        assertEquals(2, almacen.consulta().activas().especie("PERRO").contar());
+        assertEquals(1, almacen.consulta().activas().especie("Perro").esterilizadas(true).contar());
+        assertEquals(20.0, almacen.consulta().especie("perro").pesoPromedio().orElseThrow(), 1e-9);
+        assertArrayEquals(new long[]{baja.getId()}, almacen.consulta().edadEntre(3, 3).ids());
+        assertEquals(0, almacen.consulta().activas().edadEntre(3, 3).contar());
+        assertEquals(Map.of(0, 1L, 2, 1L, 8, 1L), almacen.consulta().activas().distribucionEdades());
+        assertTrue(almacen.consulta().especie("Ave").pesoPromedio().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Debería calcular percentiles de peso por rango más cercano")
+    void should_ComputeWeightPercentiles_When_ManyRows() {
+        // Given
+        List<Mascota> lote = new ArrayList<>();
+        for (int i = 1; i <= 200; i++) {
+            lote.add(new Mascota("Mascota", i % 2 == 0 ? "Perro" : "Gato", "Mestizo", hoy.minusYears(i % 15),
+                    "Negro", "Dueño", "555-1234", "dueno@email.com", i));
+        }
+        repository.crearEnLote(lote);
+
+        // When
+        almacen.refrescar();
+
+        // Then
+        assertEquals(200, almacen.consulta().contar());
+        assertEquals(100.0, almacen.consulta().percentilPeso(50).orElseThrow());
+        assertEquals(198.0, almacen.consulta().percentilPeso(99).orElseThrow());
+        assertEquals(200.0, almacen.consulta().percentilPeso(100).orElseThrow());
+        assertEquals(100, almacen.consulta().especie("Perro").contar());
+        assertEquals(200.0, almacen.consulta().especie("Perro").percentilPeso(100).orElseThrow());
+        assertEquals(13, almacen.consulta().edadEntre(0, 0).contar());
+        assertEquals(41, almacen.consulta().pesoEntre(10, 50).contar());
+    }
+
+    @Test
+    @DisplayName("Debería ver los cambios solo después de refrescar")
+    void should_ReflectChanges_When_RefreshedAgain() {
+        // Given
+        crear("Toby", "Perro", hoy.minusYears(2), 10.0, false);
+        almacen.refrescar();
+        ConsultaColumnar anterior = almacen.consulta();
+        crear("Luna", "Gato", hoy.minusYears(1), 4.0, false);
+
+        // When
+        long antesDeRefrescar = almacen.consulta().contar();
+        almacen.refrescar();
+
+        // Then
+        assertEquals(1, antesDeRefrescar);
+        assertEquals(1, anterior.contar());
+        assertEquals(2, almacen.consulta().contar());
+    }
+
+    @Test
+    @DisplayName("Debería dar en el servicio las mismas estadísticas que la base de datos")
+    void should_MatchDatabaseStats_When_ServiceUsesColumnarStore() {
+        // Given
+        crear("Toby", "Perro", hoy.minusYears(2), 10.0, false);
+        crear("Rex", "Perro", hoy.minusYears(5), 12.0, false);
+        crear("Luna", "Gato", hoy.minusYears(1), 4.0, false);
+        almacen.refrescar();
+
+        // When
+        Map<String, Long> enMemoria = new MascotaServiceImpl(repository, almacen).obtenerEstadisticasPorEspecie();
+
+        // Then
+        assertEquals(repository.contarAgrupadoPorEspecie(), enMemoria);
+    }
+
+    private Mascota crear(String nombre, String especie, LocalDate nacimiento, double peso, boolean esterilizado) {
+        Mascota mascota = new Mascota(nombre, especie, "Mestizo", nacimiento, "Negro", "Ana",
+                "555-1234", "ana@email.com", peso);
+        mascota.setEsterilizado(esterilizado);
+        return repository.crear(mascota);
+    }
+}
@@ -0,0 +1,145 @@
+package com.testing.agil.busqueda;
+
+import com.testing.agil.model.Mascota;
+import com.testing.agil.repository.GestorTransacciones;
+import com.testing.agil.repository.MascotaRepositoryImpl;
+import com.testing.agil.repository.MascotaRepositoryParticionado;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de integración para IndiceAutocompletado
+ */
+class IndiceAutocompletadoIntegrationTest {
+
+    private MascotaRepositoryImpl repository;
+    private IndiceAutocompletado indice;
+
+    @TempDir
+    File tempDir;
+
+    @BeforeEach
+    void setUp() {
+        repository = new MascotaRepositoryImpl(tempDir.getAbsolutePath() + "/mascotas.db");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (indice != null) {
+            indice.detener();
+        }
+    }
+
+    @Test
+    @DisplayName("Debería sugerir por prefijo sin distinguir tildes ni mayúsculas")
+    void should_SuggestByPrefix_When_IndexIsLoaded() {
+        // Given
+        repository.crear(nuevaMascota("Ñoño", "Juan Pérez"));
+        repository.crear(nuevaMascota("Pelusa", "Ana Gómez"));
+        repository.crear(nuevaMascota("Toby", "Luis Peña"));
+        Mascota archivada = repository.crear(nuevaMascota("Perla", "Ana Gómez"));
+        repository.eliminar(archivada.getId());
+        indice = new IndiceAutocompletado(repository);
+
+        // When
+        indice.iniciar();
+
+        // Then
+        assertEquals(4, indice.getTamano());
+        assertEquals(List.of("Ñoño"), nombres(indice.sugerir("NON", 10)));
+        // "pe" coincide con Pelusa, con "Pérez" y con "Peña"; cada mascota aparece una vez
+        assertEquals(List.of("Pelusa", "Toby", "Ñoño"), nombres(indice.sugerir("pe", 10)));
+        assertEquals(List.of("Ñoño"), nombres(indice.sugerir("juan pe", 10)));
+        assertEquals(2, indice.sugerir("pe", 2).size());
+        assertTrue(indice.sugerir("   ", 10).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> indice.sugerir("pe", 0));
+    }
+
+    @Test
+    @DisplayName("Debería seguir los cambios del repositorio")
+    void should_FollowRepositoryChanges_When_PetsAreModified() {
+        // Given
+        indice = new IndiceAutocompletado(repository);
+        indice.iniciar();
+        Mascota toby = repository.crear(nuevaMascota("Toby", "Juan Pérez"));
+        assertEquals(List.of("Toby"), nombres(indice.sugerir("to", 5)));
+
+        // When / Then: renombrar
+        toby.setNombre("Bruno");
+        repository.actualizar(toby);
+        assertTrue(indice.sugerir("to", 5).isEmpty());
+        assertEquals(List.of("Bruno"), nombres(indice.sugerir("bru", 5)));
+
+        // Baja lógica y reactivación
+        repository.eliminar(toby.getId());
+        assertTrue(indice.sugerir("bru", 5).isEmpty());
+        repository.reactivar(List.of(toby.getId()));
+        assertEquals(List.of("Bruno"), nombres(indice.sugerir("bru", 5)));
+
+        // Cambio masivo: se reconstruye el índice
+        repository.eliminarPorPropietario("Juan Pérez");
+        assertTrue(indice.sugerir("bru", 5).isEmpty());
+
+        // Borrado físico
+        repository.eliminarFisicamente(toby.getId());
+        assertEquals(0, indice.getTamano());
+    }
+
+    @Test
+    @DisplayName("Debería ignorar los cambios de una transacción deshecha")
+    void should_IgnoreChanges_When_TransactionRollsBack() {
+        // Given
+        indice = new IndiceAutocompletado(repository);
+        indice.iniciar();
+        GestorTransacciones transacciones = new GestorTransacciones();
+
+        // When
+        assertThrows(IllegalStateException.class, () -> transacciones.enTransaccion(() -> {
+            repository.crear(nuevaMascota("Rocky", "Ana Gómez"));
+            throw new IllegalStateException("fallo simulado");
+        }));
+        transacciones.enTransaccion(() -> repository.crear(nuevaMascota("Luna", "Ana Gómez")));
+
+        // Then
+        assertTrue(indice.sugerir("roc", 5).isEmpty());
+        assertEquals(List.of("Luna"), nombres(indice.sugerir("ana", 5)));
+    }
+
+    @Test
+    @DisplayName("Debería sugerir IDs globales con el repositorio particionado")
+    void should_SuggestGlobalIds_When_RepositoryIsPartitioned() {
+        try (MascotaRepositoryParticionado particionado =
+                     new MascotaRepositoryParticionado(tempDir.getAbsolutePath(), 3)) {
+            // Given
+            indice = new IndiceAutocompletado(particionado);
+            indice.iniciar();
+
+            // When
+            Mascota luna = particionado.crear(nuevaMascota("Luna", "Ana Gómez"));
+            Mascota lola = particionado.crear(nuevaMascota("Lola", "Juan Pérez"));
+
+            // Then
+            List<Sugerencia> sugerencias = indice.sugerir("l", 5);
+            assertEquals(List.of(lola.getId(), luna.getId()),
+                    sugerencias.stream().map(Sugerencia::getId).toList());
+
+            indice.detener();
+            indice = null;
+        }
+    }
+
+    private static List<String> nombres(List<Sugerencia> sugerencias) {
+        return sugerencias.stream().map(Sugerencia::getNombre).toList();
+    }
+
+    private Mascota nuevaMascota(String nombre, String propietario) {
+        return new Mascota(nombre, "Perro", "Mestizo", LocalDate.of(2020, 1, 1), "Negro",
+            propietario, "555-0000", "ana@email.com", 8.0);
+    }
+}
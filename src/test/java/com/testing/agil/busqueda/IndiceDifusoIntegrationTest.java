@@ -0,0 +1,97 @@
+package com.testing.agil.busqueda;
+
+import com.testing.agil.model.Mascota;
+import com.testing.agil.repository.MascotaRepositoryImpl;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de integración para IndiceDifuso
+ */
+class IndiceDifusoIntegrationTest {
+
+    private MascotaRepositoryImpl repository;
+    private IndiceDifuso indice;
+
+    @TempDir
+    File tempDir;
+
+    @BeforeEach
+    void setUp() {
+        repository = new MascotaRepositoryImpl(tempDir.getAbsolutePath() + "/mascotas.db");
+        indice = new IndiceDifuso(repository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        indice.detener();
+    }
+
+    @Test
+    @DisplayName("Debería encontrar mascotas con errores de escritura")
+    void should_FindPets_When_TextHasTypos() {
+        // Given
+        repository.crear(nuevaMascota("Firulais", "Juan Pérez"));
+        repository.crear(nuevaMascota("Firulai", "Ana Gómez"));
+        repository.crear(nuevaMascota("Pelusa", "Luis Peña"));
+        repository.crear(nuevaMascota("Toby", "Marta Ruiz"));
+        indice.iniciar();
+
+        // When / Then: la coincidencia exacta va primero
+        assertEquals(List.of("Firulai", "Firulais"), nombres(indice.buscar("firulai", 10)));
+        assertEquals(List.of("Firulais", "Firulai"), nombres(indice.buscar("Firulaís", 10)));
+        assertEquals(List.of("Pelusa"), nombres(indice.buscar("pelussa", 10)));
+        // Por el propietario, completo o por una de sus palabras
+        assertEquals(List.of("Firulais"), nombres(indice.buscar("juan peres", 10)));
+        assertEquals(List.of("Pelusa"), nombres(indice.buscar("pena", 10)));
+        assertTrue(indice.buscar("bobby", 10).isEmpty());
+        assertEquals(1, indice.buscar("firulai", 1).size());
+    }
+
+    @Test
+    @DisplayName("Debería seguir los cambios del repositorio")
+    void should_FollowRepositoryChanges_When_PetsAreModified() {
+        // Given
+        indice.iniciar();
+        Mascota mascota = repository.crear(nuevaMascota("Canela", "Juan Pérez"));
+        assertEquals(List.of("Canela"), nombres(indice.buscar("canella", 5)));
+
+        // When / Then
+        mascota.setNombre("Chispa");
+        repository.actualizar(mascota);
+        assertTrue(indice.buscar("canella", 5).isEmpty());
+        assertEquals(List.of("Chispa"), nombres(indice.buscar("chispas", 5)));
+
+        repository.eliminar(mascota.getId());
+        assertTrue(indice.buscar("chispas", 5).isEmpty());
+        assertEquals(1, indice.getTamano());
+    }
+
+    @Test
+    @DisplayName("Debería acotar la distancia de edición")
+    void should_BoundEditDistance_When_Comparing() {
+        assertEquals(0, IndiceDifuso.distancia("toby", "toby", 2));
+        assertEquals(1, IndiceDifuso.distancia("firulais", "firulai", 2));
+        assertEquals(2, IndiceDifuso.distancia("pelusa", "pluza", 2));
+        assertEquals(2, IndiceDifuso.distancia("toby", "firulais", 1));
+        assertEquals(0, IndiceDifuso.distanciaMaxima(3));
+        assertEquals(2, IndiceDifuso.distanciaMaxima(8));
+        assertThrows(IllegalArgumentException.class, () -> indice.buscar("toby", 0));
+        assertThrows(IllegalArgumentException.class, () -> indice.buscar("toby", -1, 5));
+    }
+
+    private static List<String> nombres(List<Sugerencia> sugerencias) {
+        return sugerencias.stream().map(Sugerencia::getNombre).toList();
+    }
+
+    private Mascota nuevaMascota(String nombre, String propietario) {
+        return new Mascota(nombre, "Perro", "Mestizo", LocalDate.of(2020, 1, 1), "Negro",
+            propietario, "555-0000", "ana@email.com", 8.0);
+    }
+}
@@ -0,0 +1,129 @@
+package com.testing.agil.cli;
+
+import com.testing.agil.model.Mascota;
+import com.testing.agil.model.Usuario;
+import com.testing.agil.repository.GestorTransacciones;
+import com.testing.agil.repository.MascotaRepositoryImpl;
+import com.testing.agil.repository.UsuarioRepositoryImpl;
+import com.testing.agil.service.MascotaServiceImpl;
+import com.testing.agil.service.UsuarioServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de integración para EjecutorLote
+ */
+class EjecutorLoteIntegrationTest {
+
+    private UsuarioRepositoryImpl usuarios;
+    private MascotaRepositoryImpl mascotas;
+    private EjecutorLote ejecutor;
+
+    @TempDir
+    File tempDir;
+
+    @BeforeEach
+    void setUp() {
+        // Misma base para que cada transacción cubra usuarios y mascotas
+        String dbPath = tempDir.getAbsolutePath() + "/gestion.db";
+        usuarios = new UsuarioRepositoryImpl(dbPath);
+        mascotas = new MascotaRepositoryImpl(dbPath);
+        ejecutor = new EjecutorLote(new UsuarioServiceImpl(usuarios), new MascotaServiceImpl(mascotas),
+                mascotas, new GestorTransacciones(), 3);
+    }
+
+    @Test
+    @DisplayName("Debería aplicar todas las operaciones agrupadas en transacciones")
+    void should_ApplyAllOperations_When_FileIsValid() {
+        // Given
+        String lote = """
+                # alta de propietarios
+                usuario.crear | Ana Gómez | ana@email.com | 34
+                usuario.crear | Luis Peña | luis@email.com | 41
+
+                mascota.crear | Toby | Perro | Beagle | 2021-03-01 | Tricolor | Ana Gómez | 555-0000 | ana@email.com | 12.0
+                mascota.crear | Luna | Gato | | 2020-06-15 | | Luis Peña | 555-0001 | luis@email.com | 4.5
+                mascota.crear | Kiwi | Ave | Periquito | 2023-01-10 | Verde | Luis Peña | 555-0001 | luis@email.com | 0.1
+                mascota.eliminar-por-email | luis@email.com
+                """;
+
+        // When
+        ResumenLote resumen = ejecutar(lote);
+
+        // Then: seis operaciones en transacciones de tres
+        assertEquals(8, resumen.getLineas());
+        assertEquals(6, resumen.getAplicadas());
+        assertEquals(0, resumen.getFallidas());
+        assertEquals(0, resumen.getRechazadas());
+        assertEquals(2, resumen.getTransaccionesConfirmadas());
+        assertEquals(7, resumen.getFilasAfectadas());
+        assertFalse(resumen.tieneErrores());
+        assertEquals(2, usuarios.contar());
+        assertEquals(1, mascotas.buscarPorEmail("ana@email.com").size());
+        assertTrue(mascotas.buscarPorEmail("luis@email.com").stream().noneMatch(Mascota::isActivo));
+    }
+
+    @Test
+    @DisplayName("Debería deshacer solo la transacción que falla y seguir con las demás")
+    void should_RollbackOnlyFailedTransaction_When_OperationFails() {
+        // Given
+        String lote = """
+                usuario.crear | Ana Gómez | ana@email.com | 34
+                mascota.crear | Drako | Dragon | | 2021-03-01 | | Ana Gómez | | ana@email.com | 12.0
+                confirmar
+                usuario.crear | Luis Peña | luis@email.com | 41
+                """;
+
+        // When
+        ResumenLote resumen = ejecutar(lote);
+
+        // Then: el usuario de la primera transacción no queda creado
+        assertEquals(1, resumen.getAplicadas());
+        assertEquals(2, resumen.getFallidas());
+        assertEquals(1, resumen.getTransaccionesConfirmadas());
+        assertEquals(1, resumen.getTransaccionesDeshechas());
+        assertTrue(resumen.tieneErrores());
+        assertTrue(resumen.getErrores().get(0).startsWith("Líneas 1-2 deshechas"));
+        assertFalse(usuarios.existePorEmail("ana@email.com"));
+        assertTrue(usuarios.existePorEmail("luis@email.com"));
+        assertEquals(0, mascotas.contar());
+    }
+
+    @Test
+    @DisplayName("Debería rechazar las líneas mal formadas sin ejecutarlas")
+    void should_RejectLines_When_TheyCannotBeParsed() {
+        // Given
+        Usuario existente = usuarios.crear(new Usuario("Ana Gómez", "ana@email.com", 34));
+        String lote = """
+                usuario.borrar | 1
+                usuario.crear | Luis Peña | luis@email.com
+                usuario.desactivar | uno
+                mascota.crear | Toby | Perro | | 01/03/2021 | | Ana Gómez | | ana@email.com | 12.0
+                usuario.desactivar | %d
+                """.formatted(existente.getId());
+
+        // When
+        ResumenLote resumen = ejecutar(lote);
+
+        // Then
+        assertEquals(4, resumen.getRechazadas());
+        assertEquals(1, resumen.getAplicadas());
+        assertEquals(4, resumen.getErrores().size());
+        assertTrue(resumen.getErrores().get(0).startsWith("Línea 1: Operación desconocida"));
+        assertFalse(usuarios.buscarPorId(existente.getId()).orElseThrow().isActivo());
+        assertThrows(IllegalArgumentException.class, () -> new EjecutorLote(new UsuarioServiceImpl(usuarios),
+                new MascotaServiceImpl(mascotas), mascotas, new GestorTransacciones(), 0));
+    }
+
+    private ResumenLote ejecutar(String lote) {
+        return ejecutor.ejecutar(new BufferedReader(new StringReader(lote)));
+    }
+}
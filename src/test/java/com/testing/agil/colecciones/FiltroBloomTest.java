@@ -0,0 +1,55 @@
+package com.testing.agil.colecciones;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para FiltroBloom
+ */
+@DisplayName("Tests del filtro de Bloom")
+class FiltroBloomTest {
+
+    @Test
+    @DisplayName("Debería reconocer todo lo agregado aunque supere la capacidad inicial")
+    void should_NeverReturnFalseNegatives_When_GrowingBeyondCapacity() {
+        // Given
+        FiltroBloom filtro = new FiltroBloom(100, 0.01);
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            filtro.agregar("usuario" + i + "@email.com");
+        }
+
+        // Then
+        assertTrue(filtro.getCapas() > 1);
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filtro.puedeContener("usuario" + i + "@email.com"));
+        }
+        int falsosPositivos = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filtro.puedeContener("otro" + i + "@email.com")) {
+                falsosPositivos++;
+            }
+        }
+        assertTrue(falsosPositivos < 300, "Falsos positivos: " + falsosPositivos);
+    }
+
+    @Test
+    @DisplayName("Debería contar una sola vez los valores repetidos")
+    void should_CountDistinctValues_When_AddingDuplicates() {
+        // Given
+        FiltroBloom filtro = new FiltroBloom(1000, 0.01);
+
+        // When
+        filtro.agregar("ana@email.com");
+        filtro.agregar("ana@email.com");
+
+        // Then
+        assertEquals(1, filtro.getElementos());
+        assertFalse(filtro.puedeContener("ANA@email.com"));
+        assertThrows(IllegalArgumentException.class, () -> new FiltroBloom(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new FiltroBloom(10, 1.0));
+    }
+}
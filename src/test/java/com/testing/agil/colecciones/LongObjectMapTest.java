@@ -0,0 +1,59 @@
+package com.testing.agil.colecciones;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para LongObjectMap
+ */
+@DisplayName("Tests del mapa de long a objeto")
+class LongObjectMapTest {
+
+    @Test
+    @DisplayName("Debería reemplazar valores y devolver el anterior")
+    void should_ReturnPreviousValue_When_ReplacingKey() {
+        // Given
+        LongObjectMap<String> mapa = new LongObjectMap<>();
+
+        // When & Then
+        assertNull(mapa.put(0, "cero"));
+        assertEquals("cero", mapa.put(0, "nuevo"));
+        assertNull(mapa.put(5, "cinco"));
+        assertEquals(2, mapa.size());
+        assertEquals("nuevo", mapa.get(0));
+        assertEquals("cinco", mapa.remove(5));
+        assertNull(mapa.get(5));
+        assertThrows(IllegalArgumentException.class, () -> mapa.put(1, null));
+    }
+
+    @Test
+    @DisplayName("Debería comportarse como un HashMap tras muchas altas y bajas")
+    void should_MatchHashMap_When_PuttingAndRemovingRandomly() {
+        // Given
+        LongObjectMap<Long> mapa = new LongObjectMap<>(2);
+        Map<Long, Long> referencia = new HashMap<>();
+        Random aleatorio = new Random(7);
+
+        // When
+        for (int i = 0; i < 20_000; i++) {
+            long clave = aleatorio.nextInt(3_000) * 4096L;
+            if (aleatorio.nextInt(3) == 0) {
+                assertEquals(referencia.remove(clave), mapa.remove(clave));
+            } else {
+                assertEquals(referencia.put(clave, (long) i), mapa.put(clave, (long) i));
+            }
+        }
+
+        // Then
+        assertEquals(referencia.size(), mapa.size());
+        Map<Long, Long> visitados = new HashMap<>();
+        mapa.forEach(visitados::put);
+        assertEquals(referencia, visitados);
+    }
+}
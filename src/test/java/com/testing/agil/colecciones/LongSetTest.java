@@ -0,0 +1,83 @@
+package com.testing.agil.colecciones;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para LongSet y LongArrayList
+ */
+@DisplayName("Tests del conjunto de longs")
+class LongSetTest {
+
+    @Test
+    @DisplayName("Debería tratar el cero y los negativos como valores normales")
+    void should_StoreZeroAndNegatives_When_Adding() {
+        // Given
+        LongSet conjunto = new LongSet();
+
+        // When
+        assertTrue(conjunto.add(0));
+        assertFalse(conjunto.add(0));
+        assertTrue(conjunto.add(-7));
+
+        // Then
+        assertEquals(2, conjunto.size());
+        assertTrue(conjunto.contains(0));
+        assertTrue(conjunto.remove(0));
+        assertFalse(conjunto.contains(0));
+        assertTrue(conjunto.contains(-7));
+    }
+
+    @Test
+    @DisplayName("Debería comportarse como un HashSet tras muchas altas y bajas")
+    void should_MatchHashSet_When_AddingAndRemovingRandomly() {
+        // Given: valores múltiplos de la capacidad para forzar colisiones
+        LongSet conjunto = new LongSet(4);
+        Set<Long> referencia = new HashSet<>();
+        Random aleatorio = new Random(42);
+
+        // When
+        for (int i = 0; i < 20_000; i++) {
+            long valor = aleatorio.nextInt(2_000) * 1024L;
+            if (aleatorio.nextInt(3) == 0) {
+                assertEquals(referencia.remove(valor), conjunto.remove(valor));
+            } else {
+                assertEquals(referencia.add(valor), conjunto.add(valor));
+            }
+        }
+
+        // Then
+        assertEquals(referencia.size(), conjunto.size());
+        for (long valor : conjunto.toArray()) {
+            assertTrue(referencia.contains(valor));
+        }
+        for (long valor = 0; valor < 2_000 * 1024L; valor += 1024) {
+            assertEquals(referencia.contains(valor), conjunto.contains(valor));
+        }
+    }
+
+    @Test
+    @DisplayName("Debería crecer y ordenar la lista de longs")
+    void should_GrowAndSort_When_AddingToList() {
+        // Given
+        LongArrayList lista = new LongArrayList(1);
+
+        // When
+        for (long valor = 100; valor > 0; valor--) {
+            lista.add(valor);
+        }
+        lista.sort();
+
+        // Then
+        assertEquals(100, lista.size());
+        assertEquals(1, lista.get(0));
+        assertEquals(100, lista.get(99));
+        assertThrows(IndexOutOfBoundsException.class, () -> lista.get(100));
+    }
+}
@@ -0,0 +1,105 @@
+package com.testing.agil.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests del Ejecutor de Consultas Paralelas")
+class EjecutorConsultasParalelasTest {
+
+    private final EjecutorConsultasParalelas ejecutor = new EjecutorConsultasParalelas();
+
+    @AfterEach
+    void tearDown() {
+        ejecutor.close();
+    }
+
+    @Test
+    @DisplayName("Debería fusionar fuentes ordenadas conservando el orden")
+    void should_MergeSortedSources_When_Fusing() {
+        // Given
+        List<SubConsulta<String>> fuentes = List.of(
+            limite -> List.of("Ana", "Luna", "Toby"),
+            limite -> List.of(),
+            limite -> List.of("Bobby", "Luna", "Zeus"));
+
+        // When
+        List<String> resultado = ejecutor.fusionarEnLista(fuentes, Comparator.naturalOrder(),
+            EjecutorConsultasParalelas.SIN_LIMITE);
+
+        // Then
+        assertEquals(List.of("Ana", "Bobby", "Luna", "Luna", "Toby", "Zeus"), resultado);
+    }
+
+    @Test
+    @DisplayName("Debería enviar el límite a cada fuente y cortar la fusión")
+    void should_PushDownLimit_When_LimitIsGiven() {
+        // Given
+        AtomicInteger limiteRecibido = new AtomicInteger();
+        List<SubConsulta<Integer>> fuentes = List.of(
+            limite -> {
+                limiteRecibido.set(limite);
+                return List.of(1, 4, 7);
+            },
+            limite -> List.of(2, 3, 9));
+
+        // When
+        Iterator<Integer> fusion = ejecutor.fusionar(fuentes, Comparator.naturalOrder(), 3);
+
+        // Then
+        assertEquals(1, fusion.next());
+        assertEquals(2, fusion.next());
+        assertEquals(3, fusion.next());
+        assertFalse(fusion.hasNext());
+        assertEquals(3, limiteRecibido.get());
+    }
+
+    @Test
+    @Timeout(5)
+    @DisplayName("Debería ejecutar las consultas en paralelo y devolverlas en orden")
+    void should_RunConcurrently_When_ExecutingAll() {
+        // Given: cada consulta espera a que la otra haya empezado
+        CountDownLatch ambasIniciadas = new CountDownLatch(2);
+        Callable<String> primera = () -> esperarA(ambasIniciadas, "primera");
+        Callable<String> segunda = () -> esperarA(ambasIniciadas, "segunda");
+
+        // When
+        List<String> resultado = ejecutor.ejecutarTodas(List.of(primera, segunda));
+
+        // Then
+        assertEquals(List.of("primera", "segunda"), resultado);
+    }
+
+    @Test
+    @DisplayName("Debería propagar el error de una sub-consulta")
+    void should_PropagateException_When_SubQueryFails() {
+        // Given
+        List<SubConsulta<String>> fuentes = List.of(
+            limite -> List.of("Ana"),
+            limite -> {
+                throw new IllegalStateException("partición caída");
+            });
+
+        // When / Then
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+            () -> ejecutor.fusionarEnLista(fuentes, Comparator.naturalOrder(), 10));
+        assertEquals("partición caída", e.getMessage());
+    }
+
+    private static String esperarA(CountDownLatch latch, String valor) throws InterruptedException {
+        latch.countDown();
+        assertTrue(latch.await(3, TimeUnit.SECONDS));
+        return valor;
+    }
+}
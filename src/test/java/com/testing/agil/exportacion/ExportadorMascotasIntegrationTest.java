@@ -0,0 +1,129 @@
+package com.testing.agil.exportacion;
+
+import com.testing.agil.importacion.FormatoImportacion;
+import com.testing.agil.importacion.ImportadorMascotas;
+import com.testing.agil.importacion.ResultadoImportacion;
+import com.testing.agil.model.Mascota;
+import com.testing.agil.repository.FiltroMascotas;
+import com.testing.agil.repository.MascotaRepositoryImpl;
+import com.testing.agil.service.MascotaServiceImpl;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de integración para ExportadorMascotas.
+ */
+class ExportadorMascotasIntegrationTest {
+
+    private MascotaRepositoryImpl repository;
+    private ExportadorMascotas exportador;
+
+    @TempDir
+    File tempDir;
+
+    @BeforeEach
+    void setUp() {
+        repository = new MascotaRepositoryImpl(tempDir.getAbsolutePath() + "/mascotas.db");
+        exportador = new ExportadorMascotas(repository);
+    }
+
+    @Test
+    @DisplayName("Debería exportar CSV filtrado con comillas solo donde hacen falta")
+    void should_ExportFilteredCsv_When_FilteringBySpeciesAndActive() {
+        // Given
+        Mascota toby = nueva("Toby", "Perro", LocalDate.of(2020, 3, 15), "Pérez, \"Juan\"");
+        toby.setRaza(null);
+        repository.crear(toby);
+        repository.crear(nueva("Luna", "Gato", LocalDate.of(2021, 6, 1), "María"));
+        Mascota baja = repository.crear(nueva("Rocky", "Perro", LocalDate.of(2019, 1, 1), "Ana"));
+        repository.eliminar(baja.getId());
+
+        // When
+        String csv = exportarComoTexto(FiltroMascotas.todas().conEspecie("perro").conActivo(true),
+                FormatoExportacion.CSV);
+
+        // Then
+        assertEquals("""
+            id,nombre,especie,raza,fecha_nacimiento,color,propietario,telefono,email,peso,esterilizado,activo
+            1,Toby,Perro,,2020-03-15,Marrón,"Pérez, ""Juan""\",555-1234,dueno@email.com,12.5,false,true
+            """, csv);
+    }
+
+    @Test
+    @DisplayName("Debería exportar JSON válido y un arreglo vacío cuando no hay filas")
+    void should_ExportJsonArray_When_FormatIsJson() {
+        // Given
+        repository.crear(nueva("Toby", "Perro", LocalDate.of(2020, 3, 15), "Juan \\ 🐶"));
+
+        // When
+        String json = exportarComoTexto(FiltroMascotas.todas(), FormatoExportacion.JSON);
+        String vacio = exportarComoTexto(FiltroMascotas.todas().conEspecie("Ave"), FormatoExportacion.JSON);
+
+        // Then
+        assertEquals("""
+            [
+            {"id":1,"nombre":"Toby","especie":"Perro","raza":"Mestizo","fecha_nacimiento":"2020-03-15","color":"Marrón","propietario":"Juan \\\\ 🐶","telefono":"555-1234","email":"dueno@email.com","peso":12.5,"esterilizado":false,"activo":true}
+            ]
+            """, json);
+        assertEquals("[]\n", vacio);
+    }
+
+    @Test
+    @DisplayName("Debería filtrar por rango de edad en años cumplidos")
+    void should_FilterByAge_When_AgeRangeGiven() {
+        // Given
+        LocalDate hoy = LocalDate.now();
+        repository.crear(nueva("Bebe", "Perro", hoy.minusMonths(6), "Ana"));
+        repository.crear(nueva("Joven", "Perro", hoy.minusYears(1), "Ana"));
+        repository.crear(nueva("Adulto", "Perro", hoy.minusYears(3).minusMonths(11), "Ana"));
+        repository.crear(nueva("Mayor", "Perro", hoy.minusYears(4), "Ana"));
+
+        // When
+        String ndjson = exportarComoTexto(FiltroMascotas.todas().conEdadEntre(1, 3), FormatoExportacion.NDJSON);
+
+        // Then
+        assertEquals(2, ndjson.lines().count());
+        assertTrue(ndjson.contains("\"Joven\"") && ndjson.contains("\"Adulto\""));
+    }
+
+    @Test
+    @DisplayName("Debería poder reimportar en otra base un CSV exportado")
+    void should_RoundTrip_When_ImportingExportedCsv() {
+        // Given
+        for (String nombre : new String[]{"Toby", "Luna", "Rocky", "Ñoño"}) {
+            repository.crear(nueva(nombre, "Perro", LocalDate.of(2020, 3, 15), "Pérez, Juan"));
+        }
+        MascotaRepositoryImpl destino = new MascotaRepositoryImpl(tempDir.getAbsolutePath() + "/copia.db");
+        byte[] csv = exportarComoTexto(FiltroMascotas.todas(), FormatoExportacion.CSV).getBytes(StandardCharsets.UTF_8);
+
+        // When
+        ResultadoImportacion resultado;
+        try (ImportadorMascotas importador = new ImportadorMascotas(new MascotaServiceImpl(destino), destino)) {
+            resultado = importador.importar(new ByteArrayInputStream(csv), FormatoImportacion.CSV);
+        }
+
+        // Then
+        assertEquals(4, resultado.getImportadas());
+        assertEquals(0, resultado.getRechazadas());
+        assertEquals("Pérez, Juan", destino.buscarPorNombre("Ñoño").get(0).getPropietario());
+    }
+
+    private String exportarComoTexto(FiltroMascotas filtro, FormatoExportacion formato) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        exportador.exportar(filtro, formato, salida);
+        return salida.toString(StandardCharsets.UTF_8);
+    }
+
+    private static Mascota nueva(String nombre, String especie, LocalDate nacimiento, String propietario) {
+        return new Mascota(nombre, especie, "Mestizo", nacimiento, "Marrón", propietario,
+                "555-1234", "dueno@email.com", 12.5);
+    }
+}
@@ -0,0 +1,275 @@
+package com.testing.agil.http;
+
+import com.testing.agil.busqueda.IndiceAutocompletado;
+import com.testing.agil.busqueda.IndiceDifuso;
+import com.testing.agil.model.Mascota;
+import com.testing.agil.repository.MascotaRepository;
+import com.testing.agil.repository.MascotaRepositoryImpl;
+import com.testing.agil.repository.UsuarioRepositoryImpl;
+import com.testing.agil.service.BusquedaMascotasService;
+import com.testing.agil.service.BusquedaMascotasServiceImpl;
+import com.testing.agil.service.MascotaServiceImpl;
+import com.testing.agil.service.UsuarioServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests de integración para ServidorHttp
+ */
+class ServidorHttpIntegrationTest {
+
+    private ServidorHttp servidor;
+    private HttpClient cliente;
+    private URI base;
+
+    @TempDir
+    File tempDir;
+
+    @BeforeEach
+    void setUp() {
+        String dbPath = tempDir.getAbsolutePath() + "/gestion.db";
+        MascotaRepositoryImpl mascotas = new MascotaRepositoryImpl(dbPath);
+        IndiceAutocompletado autocompletado = new IndiceAutocompletado(mascotas);
+        IndiceDifuso difuso = new IndiceDifuso(mascotas);
+        autocompletado.iniciar();
+        difuso.iniciar();
+        UsuarioRepositoryImpl usuarios = new UsuarioRepositoryImpl(dbPath);
+        servidor = new ServidorHttp(new MascotaServiceImpl(mascotas), new UsuarioServiceImpl(usuarios),
+                new BusquedaMascotasServiceImpl(autocompletado, difuso), mascotas, usuarios,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        servidor.iniciar();
+        base = URI.create("http://localhost:" + servidor.getPuerto());
+        cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cliente.close();
+        servidor.close();
+    }
+
+    @Test
+    @DisplayName("Debería usar la ETag para GET y PUT condicionales")
+    void should_HonorETag_When_RequestIsConditional() throws Exception {
+        // Given
+        HttpResponse<String> creada = enviar("POST", "/mascotas", mascota("Toby", 12.0));
+        assertEquals(201, creada.statusCode());
+        String ruta = creada.headers().firstValue("Location").orElseThrow();
+        String etag = creada.headers().firstValue("ETag").orElseThrow();
+
+        // When / Then: sin cambios no se reenvía el cuerpo
+        HttpResponse<String> noModificada = cliente.send(peticion(ruta).header("If-None-Match", etag).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(304, noModificada.statusCode());
+        assertEquals("", noModificada.body());
+
+        // Una ETag antigua impide sobrescribir
+        HttpResponse<String> obsoleta = cliente.send(peticion(ruta).header("If-Match", "\"1-999\"")
+                .PUT(HttpRequest.BodyPublishers.ofString(mascota("Toby", 13.0))).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(412, obsoleta.statusCode());
+
+        // If-Match usa comparación fuerte: la misma ETag marcada como débil no basta
+        HttpResponse<String> debil = cliente.send(peticion(ruta).header("If-Match", "W/" + etag)
+                .PUT(HttpRequest.BodyPublishers.ofString(mascota("Toby", 13.0))).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(412, debil.statusCode());
+        HttpResponse<String> noModificadaDebil = cliente.send(peticion(ruta).header("If-None-Match", "W/" + etag).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(304, noModificadaDebil.statusCode());
+
+        HttpResponse<String> actualizada = cliente.send(peticion(ruta).header("If-Match", etag)
+                .PUT(HttpRequest.BodyPublishers.ofString(mascota("Toby", 13.0))).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, actualizada.statusCode());
+        assertTrue(actualizada.body().contains("\"peso\":13.0"));
+        String nuevaEtag = actualizada.headers().firstValue("ETag").orElseThrow();
+        assertNotEquals(etag, nuevaEtag);
+
+        // La ETag anterior ya no coincide: respuesta completa
+        HttpResponse<String> modificada = cliente.send(peticion(ruta).header("If-None-Match", etag).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, modificada.statusCode());
+        assertEquals(nuevaEtag, modificada.headers().firstValue("ETag").orElseThrow());
+        assertEquals(404, enviar("GET", "/mascotas/999", null).statusCode());
+    }
+
+    @Test
+    @DisplayName("Debería transmitir los listados comprimidos con gzip cuando el cliente lo acepta")
+    void should_StreamGzippedList_When_ClientAcceptsGzip() throws Exception {
+        // Given
+        for (String nombre : List.of("Toby", "Luna", "Canela")) {
+            assertEquals(201, enviar("POST", "/mascotas", mascota(nombre, 8.0)).statusCode());
+        }
+
+        // When
+        HttpResponse<InputStream> comprimida = cliente.send(peticion("/mascotas?orden=nombre")
+                .header("Accept-Encoding", "gzip").GET().build(), HttpResponse.BodyHandlers.ofInputStream());
+
+        // Then
+        assertEquals(200, comprimida.statusCode());
+        assertEquals("gzip", comprimida.headers().firstValue("Content-Encoding").orElseThrow());
+        String json;
+        try (InputStream entrada = new GZIPInputStream(comprimida.body())) {
+            json = new String(entrada.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertTrue(json.indexOf("\"Canela\"") < json.indexOf("\"Luna\""));
+        assertTrue(json.indexOf("\"Luna\"") < json.indexOf("\"Toby\""));
+
+        HttpResponse<String> ndjson = enviar("GET", "/mascotas?formato=ndjson&limite=2", null);
+        assertTrue(ndjson.headers().firstValue("Content-Encoding").isEmpty());
+        assertEquals(2, ndjson.body().lines().count());
+        assertEquals(400, enviar("GET", "/mascotas?orden=color", null).statusCode());
+        assertTrue(enviar("GET", "/mascotas/estadisticas", null).body().contains("\"Perro\":3"));
+    }
+
+    @Test
+    @DisplayName("Debería cortar la conexión cuando el listado falla tras enviar las cabeceras")
+    void should_AbortConnection_When_StreamFailsMidResponse() throws Exception {
+        // Given: un cursor que entrega una fila y luego falla
+        String dbPath = tempDir.getAbsolutePath() + "/gestion.db";
+        MascotaRepository fallido = mock(MascotaRepository.class);
+        doAnswer(invocacion -> {
+            Consumer<Mascota> consumidor = invocacion.getArgument(1);
+            consumidor.accept(new Mascota(1L, "Toby", "Perro", "Mestizo", LocalDate.of(2020, 1, 1),
+                    "Negro", "Ana Gómez", "555-0000", "ana@email.com", 8.0, false, true));
+            throw new RuntimeException("Error al leer mascotas: disco no disponible");
+        }).when(fallido).recorrer(any(), any());
+
+        UsuarioRepositoryImpl usuarios = new UsuarioRepositoryImpl(dbPath);
+        try (ServidorHttp conFallo = new ServidorHttp(new MascotaServiceImpl(new MascotaRepositoryImpl(dbPath)),
+                new UsuarioServiceImpl(usuarios), mock(BusquedaMascotasService.class), fallido, usuarios,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            conFallo.iniciar();
+            URI listado = URI.create("http://localhost:" + conFallo.getPuerto() + "/mascotas");
+
+            // When / Then: el cliente no recibe el listado truncado como una respuesta completa
+            assertThrows(IOException.class, () -> cliente.send(HttpRequest.newBuilder(listado).GET().build(),
+                    HttpResponse.BodyHandlers.ofString()));
+            assertThrows(IOException.class, () -> cliente.send(HttpRequest.newBuilder(listado)
+                    .header("Accept-Encoding", "gzip").GET().build(), HttpResponse.BodyHandlers.ofByteArray()));
+        }
+    }
+
+    @Test
+    @DisplayName("Debería sugerir y buscar mascotas desde los índices en memoria")
+    void should_ServeSuggestions_When_IndexesAreStarted() throws Exception {
+        // Given
+        String ruta = enviar("POST", "/mascotas", mascota("Toby", 12.0)).headers().firstValue("Location").orElseThrow();
+        enviar("POST", "/mascotas", mascota("Tomasa", 8.0));
+
+        // When
+        String sugerencias = enviar("GET", "/mascotas/sugerencias?q=tob", null).body();
+        String aproximada = enviar("GET", "/mascotas/busqueda?q=Tobby", null).body();
+        enviar("DELETE", ruta, null);
+        String trasBaja = enviar("GET", "/mascotas/sugerencias?q=to", null).body();
+
+        // Then
+        assertTrue(sugerencias.contains("\"nombre\":\"Toby\""), sugerencias);
+        assertFalse(sugerencias.contains("Tomasa"), sugerencias);
+        assertTrue(aproximada.contains("\"nombre\":\"Toby\""), aproximada);
+        assertFalse(trasBaja.contains("Toby"), trasBaja);
+        assertTrue(trasBaja.contains("Tomasa"), trasBaja);
+        assertEquals(400, enviar("GET", "/mascotas/sugerencias?q=to&limite=0", null).statusCode());
+    }
+
+    @Test
+    @DisplayName("Debería transmitir las consultas predefinidas de mascotas en el formato pedido")
+    void should_StreamPredefinedQueries_When_Requested() throws Exception {
+        // Given: Toby nació en 2020 (requiere vacunación); el cachorro, hace dos meses
+        enviar("POST", "/mascotas", mascota("Toby", 12.0));
+        String cachorro = mascota("Bebé", 2.0).replace("2020-01-01", LocalDate.now().minusMonths(2).toString());
+        enviar("POST", "/mascotas", cachorro);
+
+        // When
+        HttpResponse<String> cachorros = enviar("GET", "/mascotas/cachorros", null);
+        String vacunacion = enviar("GET", "/mascotas/vacunacion-pendiente?formato=ndjson", null).body();
+
+        // Then
+        assertEquals(200, cachorros.statusCode());
+        assertTrue(cachorros.body().contains("\"Bebé\""), cachorros.body());
+        assertFalse(cachorros.body().contains("\"Toby\""), cachorros.body());
+        assertEquals(1, vacunacion.lines().count(), vacunacion);
+        assertTrue(vacunacion.contains("\"Toby\""), vacunacion);
+        assertEquals(400, enviar("GET", "/mascotas/senior?limite=-1", null).statusCode());
+    }
+
+    @Test
+    @DisplayName("Debería exponer las operaciones de usuarios")
+    void should_ExposeUserOperations_When_Requested() throws Exception {
+        // Given
+        String ana = "{\"nombre\":\"Ana Gómez\",\"email\":\"ana@email.com\",\"edad\":34}";
+        HttpResponse<String> creado = enviar("POST", "/usuarios", ana);
+        assertEquals(201, creado.statusCode());
+        String ruta = creado.headers().firstValue("Location").orElseThrow();
+
+        // When / Then
+        HttpResponse<String> duplicado = enviar("POST", "/usuarios", ana);
+        assertEquals(400, duplicado.statusCode());
+        assertTrue(duplicado.body().startsWith("{\"error\":"));
+        assertTrue(enviar("GET", "/usuarios?email=ANA@email.com", null).body().contains("\"Ana Gómez\""));
+        assertEquals(204, enviar("DELETE", ruta, null).statusCode());
+        assertEquals("[]\n", enviar("GET", "/usuarios?activos=true", null).body());
+        assertTrue(enviar("GET", "/usuarios", null).body().contains("\"activo\":false"));
+        assertEquals(204, enviar("POST", ruta + "/reactivar", null).statusCode());
+        assertEquals("{\"total\":1}", enviar("GET", "/usuarios/total", null).body());
+        assertEquals(404, enviar("GET", "/usuarios/999", null).statusCode());
+        assertEquals(400, enviar("GET", "/usuarios/abc", null).statusCode());
+        assertEquals(405, enviar("PATCH", ruta, "{}").statusCode());
+    }
+
+    @Test
+    @DisplayName("Debería medir la latencia con la prueba de carga")
+    void should_ReportLatencyPercentiles_When_LoadTestRuns() throws Exception {
+        // Given
+        assertEquals(201, enviar("POST", "/mascotas", mascota("Toby", 8.0)).statusCode());
+        PruebaCarga prueba = new PruebaCarga(base, List.of("/mascotas", "/mascotas/1", "/usuarios"), 4, 20);
+
+        // When
+        ResultadoPruebaCarga resultado = prueba.ejecutar();
+
+        // Then
+        assertEquals(80, resultado.getPeticiones());
+        assertEquals(0, resultado.getErrores());
+        assertTrue(resultado.getP50Nanos() > 0);
+        assertTrue(resultado.getP99Nanos() >= resultado.getP50Nanos());
+        assertTrue(resultado.getPeticionesPorSegundo() > 0);
+        assertThrows(IllegalArgumentException.class, () -> new PruebaCarga(base, List.of(), 1, 1));
+    }
+
+    private HttpRequest.Builder peticion(String ruta) {
+        return HttpRequest.newBuilder(base.resolve(ruta));
+    }
+
+    private HttpResponse<String> enviar(String metodo, String ruta, String cuerpo) throws IOException, InterruptedException {
+        HttpRequest.BodyPublisher publicador = cuerpo == null
+                ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(cuerpo);
+        return cliente.send(peticion(ruta).method(metodo, publicador).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String mascota(String nombre, double peso) {
+        return "{\"nombre\":\"" + nombre + "\",\"especie\":\"Perro\",\"raza\":\"Mestizo\","
+                + "\"fecha_nacimiento\":\"2020-01-01\",\"color\":\"Negro\",\"propietario\":\"Ana Gómez\","
+                + "\"telefono\":\"555-0000\",\"email\":\"ana@email.com\",\"peso\":" + peso + "}";
+    }
+}
@@ -0,0 +1,160 @@
+package com.testing.agil.importacion;
+
+import com.testing.agil.model.Mascota;
+import com.testing.agil.repository.MascotaRepositoryImpl;
+import com.testing.agil.service.MascotaServiceImpl;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de integración para ImportadorMascotas.
+ */
+class ImportadorMascotasIntegrationTest {
+
+    private static final String CABECERA =
+        "nombre,especie,raza,fecha_nacimiento,color,propietario,telefono,email,peso,esterilizado\n";
+
+    private MascotaRepositoryImpl repository;
+    private MascotaServiceImpl service;
+
+    @TempDir
+    File tempDir;
+
+    @BeforeEach
+    void setUp() {
+        repository = new MascotaRepositoryImpl(tempDir.getAbsolutePath() + "/mascotas.db");
+        service = new MascotaServiceImpl(repository);
+    }
+
+    @Test
+    @DisplayName("Debería importar un CSV y rechazar filas inválidas y duplicadas con su línea")
+    void should_ImportValidRowsAndReportErrors_When_CsvHasMixedRows() throws Exception {
+        // Given
+        service.registrarMascota(new Mascota("Max", "Perro", "Beagle", LocalDate.of(2019, 5, 1),
+                "Blanco", "Ana García", "555-1111", "ana@email.com", 12.0));
+        Path archivo = tempDir.toPath().resolve("clinica.csv");
+        Files.writeString(archivo, CABECERA
+                + "Toby,Perro,Labrador,2020-03-15,Marrón,\"Pérez, Juan\",555-1234,juan@email.com,25.5,sí\n"
+                + "Luna,Gato,\"Siamés\ncruzado\",2021-06-01,Gris,María,555-5678,maria@email.com,4.2,false\n"
+                + "Rex,Dinosaurio,T-Rex,2020-01-01,Verde,Pedro,555-0000,pedro@email.com,100,no\n"
+                + "MAX,Perro,Beagle,2019-05-01,Blanco,ana garcía,555-1111,ana@email.com,12,no\n"
+                + "Nemo,Pez,Payaso,15/01/2022,Naranja,Luis,555-2222,luis@email.com,0.1,no\n"
+                + "\n"
+                + "luna,Gato,Persa,2021-06-01,Gris,MARÍA,555-5678,maria@email.com,4,no\n",
+                StandardCharsets.UTF_8);
+
+        // When
+        ResultadoImportacion resultado;
+        try (ImportadorMascotas importador = new ImportadorMascotas(service, repository)) {
+            resultado = importador.importar(archivo);
+        }
+
+        // Then
+        assertEquals(6, resultado.getLeidas());
+        assertEquals(2, resultado.getImportadas());
+        assertEquals(2, resultado.getInvalidas());
+        assertEquals(2, resultado.getDuplicadas());
+        assertEquals(List.of(5L, 6L, 7L, 9L),
+                resultado.getErrores().stream().map(ErrorImportacion::getLinea).toList());
+        assertTrue(resultado.getErrores().get(2).getMensaje().contains("Fecha de nacimiento inválida"));
+
+        Mascota toby = repository.buscarPorNombre("Toby").get(0);
+        assertEquals("Pérez, Juan", toby.getPropietario());
+        assertTrue(toby.isEsterilizado());
+        assertEquals("Siamés\ncruzado", repository.buscarPorNombre("Luna").get(0).getRaza());
+        assertNotNull(toby.getPropietarioId());
+    }
+
+    @Test
+    @DisplayName("Debería importar NDJSON y reportar líneas mal formadas")
+    void should_ImportNdjson_When_LinesAreFlatObjects() {
+        // Given
+        String ndjson = """
+            {"nombre": "Toby", "especie": "Perro", "raza": "Labrador", "fecha_nacimiento": "2020-03-15", "color": "Marr\\u00f3n", "propietario": "Juan", "telefono": "555-1234", "email": "juan@email.com", "peso": 25.5, "esterilizado": true}
+            {"nombre": "Luna", "especie": "Gato", "raza": null, "fecha_nacimiento": "2021-06-01", "propietario": "María", "telefono": "555-5678", "email": "maria@email.com", "peso": 4}
+            {"nombre": "Rota", "especie": "Gato"
+            {"nombre": "Anidada", "datos": {"a": 1}}
+            """;
+
+        // When
+        ResultadoImportacion resultado;
+        try (ImportadorMascotas importador = new ImportadorMascotas(service, repository)) {
+            resultado = importador.importar(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)),
+                    FormatoImportacion.NDJSON);
+        }
+
+        // Then
+        assertEquals(2, resultado.getImportadas());
+        assertEquals(2, resultado.getInvalidas());
+        assertEquals(3L, resultado.getErrores().get(0).getLinea());
+        assertEquals("Marrón", repository.buscarPorNombre("Toby").get(0).getColor());
+        assertNull(repository.buscarPorNombre("Luna").get(0).getRaza());
+    }
+
+    @Test
+    @DisplayName("Debería conservar solo los primeros errores y contar todos")
+    void should_BoundErrorList_When_ManyRowsAreInvalid() {
+        // Given
+        StringBuilder csv = new StringBuilder(CABECERA);
+        for (int i = 0; i < 5; i++) {
+            csv.append("X,Perro,,2020-01-01,,Juan,555-1234,juan@email.com,10,no\n");
+        }
+
+        // When
+        ResultadoImportacion resultado;
+        try (ImportadorMascotas importador = new ImportadorMascotas(service, repository, 2, 2, 2)) {
+            resultado = importador.importar(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)),
+                    FormatoImportacion.CSV);
+        }
+
+        // Then
+        assertEquals(5, resultado.getInvalidas());
+        assertEquals(2, resultado.getErrores().size());
+        assertTrue(resultado.isErroresTruncados());
+        assertEquals(0, repository.contar());
+    }
+
+    @Test
+    @DisplayName("Debería mantener el orden del archivo con muchos lotes validados en paralelo")
+    void should_PreserveFileOrder_When_ValidatingInParallel() {
+        // Given
+        StringBuilder csv = new StringBuilder(CABECERA);
+        for (int i = 0; i < 500; i++) {
+            csv.append(nombre(i)).append(",Perro,Mestizo,2018-01-01,Negro,Dueño ")
+               .append(i % 7).append(",555-1234,dueno").append(i % 7).append("@email.com,")
+               .append(5 + i % 20).append(",no\n");
+        }
+        csv.append(nombre(3)).append(",Gato,Mestizo,2018-01-01,Negro,Dueño 3,555-1234,dueno3@email.com,3,no\n");
+
+        // When
+        ResultadoImportacion resultado;
+        try (ImportadorMascotas importador = new ImportadorMascotas(service, repository, 16, 10, 4)) {
+            resultado = importador.importar(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)),
+                    FormatoImportacion.CSV);
+        }
+
+        // Then
+        assertEquals(500, resultado.getImportadas());
+        assertEquals(1, resultado.getDuplicadas());
+        assertEquals(502L, resultado.getErrores().get(0).getLinea());
+        assertEquals(nombre(0), repository.buscarPorId(1L).orElseThrow().getNombre());
+        assertEquals(nombre(499), repository.buscarPorId(500L).orElseThrow().getNombre());
+    }
+
+    /**
+     * Nombre válido distinto para cada índice (los nombres no admiten dígitos)
+     */
+    private static String nombre(int i) {
+        return "Mascota " + (char) ('a' + i / 26 / 26) + (char) ('a' + i / 26 % 26) + (char) ('a' + i % 26);
+    }
+}
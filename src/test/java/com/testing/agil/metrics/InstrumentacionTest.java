@@ -0,0 +1,99 @@
+package com.testing.agil.metrics;
+
+import com.testing.agil.model.Usuario;
+import com.testing.agil.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios del histograma de latencias y del proxy de instrumentación
+ */
+@DisplayName("Tests de métricas e instrumentación")
+class InstrumentacionTest {
+
+    private RegistroMetricas registro;
+    private UsuarioRepository destino;
+    private UsuarioRepository instrumentado;
+
+    @BeforeEach
+    void setUp() {
+        registro = new RegistroMetricas();
+        destino = mock(UsuarioRepository.class);
+        instrumentado = Instrumentacion.envolver(UsuarioRepository.class, destino, registro);
+    }
+
+    @Test
+    @DisplayName("Debería contar llamadas y filas devueltas por método")
+    void should_CountCallsAndRows_When_MethodsAreInvoked() {
+        // Given
+        when(destino.listarTodos()).thenReturn(List.of(new Usuario(), new Usuario(), new Usuario()));
+        when(destino.buscarPorId(1L)).thenReturn(Optional.of(new Usuario()));
+
+        // When
+        instrumentado.listarTodos();
+        instrumentado.listarTodos();
+        instrumentado.buscarPorId(1L);
+
+        // Then
+        MetricaMetodo listar = registro.metodo("UsuarioRepository.listarTodos");
+        MetricaMetodo buscar = registro.metodo("UsuarioRepository.buscarPorId");
+        assertAll(
+            () -> assertEquals(2, listar.getLlamadas()),
+            () -> assertEquals(6, listar.getFilas()),
+            () -> assertEquals(1, buscar.getFilas()),
+            () -> assertEquals(2, listar.getLatencia().getCantidad())
+        );
+    }
+
+    @Test
+    @DisplayName("Debería contar errores y propagar la excepción original")
+    void should_CountErrorAndRethrow_When_TargetThrows() {
+        // Given
+        when(destino.contar()).thenThrow(new IllegalStateException("fallo"));
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> instrumentado.contar());
+        assertEquals(1, registro.metodo("UsuarioRepository.contar").getErrores());
+    }
+
+    @Test
+    @DisplayName("Debería calcular percentiles con error relativo acotado")
+    void should_ComputePercentiles_When_ValuesAreRecorded() {
+        // Given
+        HistogramaLatencia histograma = new HistogramaLatencia();
+        for (long i = 1; i <= 1000; i++) {
+            histograma.registrar(i * 1_000);
+        }
+
+        // When
+        long p50 = histograma.percentilNanos(50);
+        long p99 = histograma.percentilNanos(99);
+
+        // Then
+        assertAll(
+            () -> assertEquals(500_000, p50, 500_000 * 0.125),
+            () -> assertEquals(990_000, p99, 990_000 * 0.125),
+            () -> assertEquals(1_000_000, histograma.getMaximoNanos())
+        );
+    }
+
+    @Test
+    @DisplayName("Debería incluir cada método en el volcado de texto")
+    void should_IncludeMethodInTextDump_When_Invoked() {
+        // Given
+        instrumentado.existePorEmail("a@b.com");
+
+        // When
+        String volcado = registro.volcarTexto();
+
+        // Then
+        assertTrue(volcado.contains("UsuarioRepository.existePorEmail"));
+    }
+}
@@ -0,0 +1,56 @@
+package com.testing.agil.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para Especie y su uso en Mascota
+ */
+@DisplayName("Tests de la enumeración Especie")
+class EspecieTest {
+
+    @Test
+    @DisplayName("Debería reconocer la especie sin distinguir mayúsculas ni espacios")
+    void should_FindSpecies_When_TextDiffersInCaseOrSpaces() {
+        assertEquals(Especie.PERRO, Especie.desde("Perro"));
+        assertEquals(Especie.GATO, Especie.desde("gato"));
+        assertEquals(Especie.HAMSTER, Especie.desde("  HaMsTeR "));
+        assertNull(Especie.desde("Dinosaurio"));
+        assertNull(Especie.desde(null));
+    }
+
+    @Test
+    @DisplayName("Debería devolver instancias compartidas para textos iguales")
+    void should_ReturnSharedInstance_When_Canonicalizing() {
+        // Given
+        String perro = new String("Perro");
+        String raza = new String("Labrador Retriever");
+
+        // When & Then
+        assertSame(Especie.PERRO.getNombre(), Especie.canonica(perro));
+        assertEquals("perro", Especie.canonica("perro"));
+        assertSame(ValoresCanonicos.de(raza), ValoresCanonicos.de(new String("Labrador Retriever")));
+        assertNull(ValoresCanonicos.de(null));
+    }
+
+    @Test
+    @DisplayName("Debería mantener la especie reconocida al cambiar el texto de la mascota")
+    void should_UpdateSpeciesType_When_SettingSpeciesText() {
+        // Given
+        Mascota mascota = new Mascota("Piolín", "Ave", null, LocalDate.now().minusYears(6),
+                "Amarillo", "Ana", "555-1234", "ana@email.com", 0.1);
+
+        // When & Then
+        assertEquals(Especie.AVE, mascota.getTipoEspecie());
+        assertTrue(mascota.esSenior(), "Las aves son senior desde los 5 años");
+        mascota.setEspecie("PERRO");
+        assertEquals(Especie.PERRO, mascota.getTipoEspecie());
+        assertFalse(mascota.esSenior(), "Los perros son senior desde los 7 años");
+        mascota.setEspecie("Dragón");
+        assertFalse(mascota.esEspecieValida());
+    }
+}
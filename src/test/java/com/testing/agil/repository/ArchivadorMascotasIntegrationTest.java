@@ -0,0 +1,150 @@
+package com.testing.agil.repository;
+
+import com.testing.agil.model.Mascota;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de integración para ArchivadorMascotas.
+ * Las fechas de baja se envejecen por SQL para simular la ventana de retención.
+ */
+class ArchivadorMascotasIntegrationTest {
+
+    private MascotaRepositoryImpl repository;
+    private ArchivadorMascotas archivador;
+    private String dbUrl;
+
+    @TempDir
+    File tempDir;
+
+    @BeforeEach
+    void setUp() {
+        String dbPath = tempDir.getAbsolutePath() + "/test-archivo.db";
+        System.setProperty("sqlite.db.path", dbPath);
+        dbUrl = "jdbc:sqlite:" + dbPath;
+
+        repository = new MascotaRepositoryImpl();
+        archivador = new ArchivadorMascotas(repository, Duration.ofDays(30), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        archivador.close();
+    }
+
+    @Test
+    @DisplayName("Debería mover a archivo solo las bajas fuera de la retención")
+    void should_ArchiveOnlyOldInactive_When_Archiving() throws Exception {
+        // Given
+        Mascota antigua1 = repository.crear(nuevaMascota("Antigua Uno"));
+        Mascota antigua2 = repository.crear(nuevaMascota("Antigua Dos"));
+        Mascota antigua3 = repository.crear(nuevaMascota("Antigua Tres"));
+        Mascota reciente = repository.crear(nuevaMascota("Reciente"));
+        Mascota activa = repository.crear(nuevaMascota("Activa"));
+        repository.eliminarTodas(List.of(antigua1.getId(), antigua2.getId(), antigua3.getId(), reciente.getId()));
+        envejecerBaja(antigua1.getId(), antigua2.getId(), antigua3.getId());
+
+        // When
+        int archivadas = archivador.archivar();
+
+        // Then
+        assertEquals(3, archivadas);
+        assertEquals(2, repository.contar());
+        assertEquals(5, repository.contar(true));
+        assertTrue(repository.buscarPorId(antigua1.getId()).isEmpty());
+        assertTrue(repository.buscarPorId(reciente.getId()).isPresent());
+        assertTrue(repository.buscarPorId(activa.getId()).isPresent());
+    }
+
+    @Test
+    @DisplayName("Debería encontrar mascotas archivadas solo en modo con archivadas")
+    void should_FindArchived_When_IncludeArchivedIsRequested() throws Exception {
+        // Given
+        Mascota archivada = repository.crear(nuevaMascota("Rex Archivado"));
+        repository.crear(nuevaMascota("Rex Activo"));
+        repository.eliminar(archivada.getId());
+        envejecerBaja(archivada.getId());
+        archivador.archivar();
+
+        // When / Then
+        assertTrue(repository.buscarPorId(archivada.getId(), false).isEmpty());
+        Mascota encontrada = repository.buscarPorId(archivada.getId(), true).orElseThrow();
+        assertEquals("Rex Archivado", encontrada.getNombre());
+        assertFalse(encontrada.isActivo());
+        assertEquals(1, repository.buscarPorNombre("Rex").size());
+        assertEquals(2, repository.buscarPorNombre("Rex", true).size());
+        assertEquals(2, repository.listarTodas(true).size());
+    }
+
+    @Test
+    @DisplayName("No debería reutilizar el ID de la mascota archivada con el ID más alto")
+    void should_NotReuseId_When_MaxIdIsArchived() throws Exception {
+        // Given
+        Mascota unica = repository.crear(nuevaMascota("Ultima"));
+        repository.eliminar(unica.getId());
+        envejecerBaja(unica.getId());
+
+        // When
+        int archivadas = archivador.archivar();
+        Mascota nueva = repository.crear(nuevaMascota("Nueva"));
+
+        // Then
+        assertEquals(1, archivadas);
+        assertTrue(nueva.getId() > unica.getId());
+    }
+
+    @Test
+    @DisplayName("Debería purgar del archivo las filas más antiguas")
+    void should_PurgeArchive_When_RowsExceedAge() throws Exception {
+        // Given
+        Mascota archivada = repository.crear(nuevaMascota("Purgable"));
+        repository.crear(nuevaMascota("Otra"));
+        repository.eliminar(archivada.getId());
+        envejecerBaja(archivada.getId());
+        archivador.archivar();
+        ejecutar("UPDATE mascotas_archivo SET fecha_archivado = datetime('now', '-400 days')");
+
+        // When
+        int purgadas = archivador.purgarArchivo(Duration.ofDays(365));
+
+        // Then
+        assertEquals(1, purgadas);
+        assertTrue(repository.buscarPorId(archivada.getId(), true).isEmpty());
+        assertTrue(archivador.vacuumIncremental(0) >= 0);
+    }
+
+    @Test
+    @DisplayName("Debería rechazar un tamaño de lote inválido")
+    void should_ThrowException_When_BatchSizeIsInvalid() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new ArchivadorMascotas(repository, Duration.ofDays(1), 0));
+    }
+
+    private Mascota nuevaMascota(String nombre) {
+        return new Mascota(nombre, "Perro", "Mestizo", LocalDate.of(2019, 1, 1),
+            "Negro", "Juan Pérez", "555-1234", "juan@email.com", 10.0);
+    }
+
+    private void envejecerBaja(Long... ids) throws Exception {
+        for (Long id : ids) {
+            ejecutar("UPDATE mascotas SET fecha_actualizacion = datetime('now', '-60 days') WHERE id = " + id);
+        }
+    }
+
+    private void ejecutar(String sql) throws Exception {
+        try (Connection conn = DriverManager.getConnection(dbUrl);
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.testing.agil.repository;
+
+import com.testing.agil.model.Mascota;
+import com.testing.agil.model.Propietario;
+import com.testing.agil.model.Usuario;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de integración para GestorTransacciones.
+ * Ambos repositorios comparten un mismo archivo (modo de base única).
+ */
+class GestorTransaccionesIntegrationTest {
+
+    private UsuarioRepositoryImpl usuarios;
+    private MascotaRepositoryImpl mascotas;
+    private GestorTransacciones transacciones;
+
+    @TempDir
+    File tempDir;
+
+    @BeforeEach
+    void setUp() {
+        String dbPath = tempDir.getAbsolutePath() + "/gestion.db";
+        usuarios = new UsuarioRepositoryImpl(dbPath);
+        mascotas = new MascotaRepositoryImpl(dbPath);
+        transacciones = new GestorTransacciones();
+    }
+
+    @Test
+    @DisplayName("Debería confirmar usuario y mascotas juntos")
+    void should_CommitBothEntities_When_WorkSucceeds() {
+        // When
+        Usuario creado = transacciones.enTransaccion(() -> {
+            Usuario usuario = usuarios.crear(new Usuario("Ana Gómez", "ana@email.com", 34));
+            mascotas.crear(nuevaMascota("Toby", usuario));
+            mascotas.crear(nuevaMascota("Luna", usuario));
+            return usuario;
+        });
+
+        // Then
+        assertTrue(usuarios.buscarPorId(creado.getId()).isPresent());
+        assertEquals(2, mascotas.buscarPorEmail("ana@email.com").size());
+        assertFalse(GestorTransacciones.hayTransaccionActiva());
+    }
+
+    @Test
+    @DisplayName("Debería deshacer ambas entidades cuando el trabajo falla")
+    void should_RollbackBothEntities_When_WorkFails() {
+        // When
+        assertThrows(IllegalStateException.class, () -> transacciones.enTransaccion(() -> {
+            Usuario usuario = usuarios.crear(new Usuario("Ana Gómez", "ana@email.com", 34));
+            mascotas.crear(nuevaMascota("Toby", usuario));
+            throw new IllegalStateException("fallo simulado");
+        }));
+
+        // Then
+        assertEquals(0, usuarios.contar());
+        assertEquals(0, mascotas.contar());
+    }
+
+    @Test
+    @DisplayName("Debería unir transacciones anidadas a la exterior")
+    void should_JoinOuterTransaction_When_Nested() {
+        // When
+        assertThrows(IllegalStateException.class, () -> transacciones.enTransaccion(() -> {
+            transacciones.enTransaccion(() -> usuarios.crear(new Usuario("Ana Gómez", "ana@email.com", 34)));
+            throw new IllegalStateException("fallo tras la interna");
+        }));
+
+        // Then
+        assertFalse(usuarios.existePorEmail("ana@email.com"));
+    }
+
+    @Test
+    @DisplayName("Debería ver sus propias escrituras dentro de la transacción")
+    void should_ReadOwnWrites_When_InsideTransaction() {
+        transacciones.enTransaccion(() -> {
+            Usuario usuario = usuarios.crear(new Usuario("Ana Gómez", "ana@email.com", 34));
+            mascotas.crear(nuevaMascota("Toby", usuario));
+            assertTrue(usuarios.existePorEmail("ana@email.com"));
+            assertEquals(1, mascotas.eliminarPorEmail("ana@email.com"));
+            assertTrue(usuarios.desactivar(usuario.getId()));
+        });
+
+        assertEquals(0, mascotas.contarActivas());
+    }
+
+    @Test
+    @DisplayName("No debería dejar en caché la fila anterior cuando otro hilo lee durante la transacción")
+    void should_NotCacheStaleRow_When_ReaderInterleavesWithTransaction() {
+        // Given
+        mascotas.activarCache(16);
+        Usuario usuario = usuarios.crear(new Usuario("Ana Gómez", "ana@email.com", 34));
+        long id = mascotas.crear(nuevaMascota("Toby", usuario)).getId();
+        assertEquals(8.0, mascotas.buscarPorId(id).orElseThrow().getPeso());
+
+        // When: otro hilo lee y vuelve a guardar en caché la fila confirmada mientras la transacción sigue abierta
+        transacciones.enTransaccion(() -> {
+            Mascota mascota = mascotas.buscarPorId(id).orElseThrow();
+            mascota.setPeso(12.0);
+            mascotas.actualizar(mascota);
+            double leidoPorOtroHilo = CompletableFuture.supplyAsync(
+                    () -> mascotas.buscarPorId(id).orElseThrow().getPeso()).join();
+            assertEquals(8.0, leidoPorOtroHilo);
+            assertEquals(12.0, mascotas.buscarPorId(id).orElseThrow().getPeso());
+            assertEquals(12.0, mascotas.buscarPorIds(List.of(id)).get(id).getPeso());
+        });
+
+        // Then
+        assertEquals(12.0, mascotas.buscarPorId(id).orElseThrow().getPeso());
+    }
+
+    @Test
+    @DisplayName("Debería deshacer solo la parte del método que hace rollback sin lanzar excepción")
+    void should_UndoOwnerUpsert_When_VersionedUpdateFailsInsideTransaction() {
+        // Given
+        Usuario usuario = usuarios.crear(new Usuario("Ana Gómez", "ana@email.com", 34));
+        Mascota toby = mascotas.crear(nuevaMascota("Toby", usuario));
+
+        // When: una actualización de una mascota inexistente y otra obsoleta, capturada, con otro contacto
+        transacciones.enTransaccion(() -> {
+            Mascota inexistente = nuevaMascota("Fantasma", usuario);
+            inexistente.setId(999L);
+            inexistente.setPropietario("Ana Cambiada");
+            inexistente.setTelefono("555-9999");
+            assertFalse(mascotas.actualizarConVersion(inexistente));
+
+            Mascota obsoleta = new Mascota(toby);
+            obsoleta.setVersion(toby.getVersion() + 5);
+            obsoleta.setPropietario("Ana Obsoleta");
+            assertThrows(ConflictoConcurrenciaException.class, () -> mascotas.actualizarConVersion(obsoleta));
+
+            usuarios.crear(new Usuario("Luis Pérez", "luis@email.com", 40));
+        });
+
+        // Then: el resto de la transacción se confirma y el propietario conserva sus datos
+        Propietario propietario = mascotas.buscarPropietarioPorEmail("ana@email.com").orElseThrow();
+        assertEquals("Ana Gómez", propietario.getNombre());
+        assertEquals("555-0000", propietario.getTelefono());
+        assertTrue(usuarios.existePorEmail("luis@email.com"));
+        assertEquals(toby.getVersion(), mascotas.buscarPorId(toby.getId()).orElseThrow().getVersion());
+    }
+
+    private Mascota nuevaMascota(String nombre, Usuario propietario) {
+        return new Mascota(nombre, "Perro", "Mestizo", LocalDate.of(2020, 1, 1), "Negro",
+            propietario.getNombre(), "555-0000", propietario.getEmail(), 8.0);
+    }
+}
@@ -0,0 +1,174 @@
+package com.testing.agil.repository;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests para InterceptorConsultasLentas y BitacoraConsultasLentas
+ */
+class InterceptorConsultasLentasTest {
+
+    @TempDir
+    File tempDir;
+
+    private String dbUrl;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dbUrl = "jdbc:sqlite:" + tempDir.getAbsolutePath() + "/consultas.db";
+        try (Connection conn = DriverManager.getConnection(dbUrl);
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE animales (id INTEGER PRIMARY KEY, nombre TEXT, especie TEXT)");
+            stmt.execute("CREATE INDEX idx_animales_especie ON animales(especie)");
+            stmt.execute("INSERT INTO animales (nombre, especie) VALUES ('Toby', 'Perro'), ('Luna', 'Gato'), ('Max', 'Perro')");
+        }
+    }
+
+    @Test
+    @DisplayName("Debería reportar solo las sentencias que superan el umbral")
+    void should_ReportOnlyStatements_When_DurationReachesThreshold() throws SQLException {
+        // Given
+        BitacoraConsultasLentas bitacora = mock(BitacoraConsultasLentas.class);
+
+        // When
+        contarPerros(InterceptorConsultasLentas.envolver(DriverManager.getConnection(dbUrl), dbUrl,
+                TimeUnit.MINUTES.toNanos(1), bitacora));
+        contarPerros(InterceptorConsultasLentas.envolver(DriverManager.getConnection(dbUrl), dbUrl, 0, bitacora));
+
+        // Then
+        verify(bitacora, times(1)).reportar(anyString(), any(), eq(2L), anyLong(), eq(dbUrl));
+    }
+
+    @Test
+    @DisplayName("Debería reportar el SQL con los parámetros enlazados y las filas afectadas")
+    void should_CaptureBindParameters_When_StatementIsReported() throws SQLException {
+        // Given
+        BitacoraConsultasLentas bitacora = mock(BitacoraConsultasLentas.class);
+        String sql = "UPDATE animales SET nombre = ? WHERE especie = ?";
+
+        // When
+        try (Connection conn = InterceptorConsultasLentas.envolver(DriverManager.getConnection(dbUrl), dbUrl, 0, bitacora);
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, "Rex");
+            pstmt.setNull(2, java.sql.Types.VARCHAR);
+            pstmt.executeUpdate();
+            pstmt.setString(2, "Perro");
+            pstmt.executeUpdate();
+        }
+
+        // Then
+        verify(bitacora).reportar(eq(sql), aryEq(new Object[]{"Rex", null}), eq(0L), anyLong(), eq(dbUrl));
+        verify(bitacora).reportar(eq(sql), aryEq(new Object[]{"Rex", "Perro"}), eq(2L), anyLong(), eq(dbUrl));
+    }
+
+    @Test
+    @DisplayName("Debería excluir de la medición el tiempo que el llamador dedica a cada fila")
+    void should_ExcludeConsumerTime_When_CallerProcessesRowsSlowly() throws Exception {
+        // Given
+        BitacoraConsultasLentas bitacora = mock(BitacoraConsultasLentas.class);
+        long umbral = TimeUnit.MILLISECONDS.toNanos(150);
+
+        // When
+        try (Connection conn = InterceptorConsultasLentas.envolver(DriverManager.getConnection(dbUrl), dbUrl, umbral, bitacora);
+             PreparedStatement pstmt = conn.prepareStatement("SELECT nombre FROM animales");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                assertNotNull(rs.getString("nombre"));
+                Thread.sleep(100);
+            }
+        }
+
+        // Then
+        verify(bitacora, never()).reportar(anyString(), any(), anyLong(), anyLong(), anyString());
+    }
+
+    @Test
+    @DisplayName("Debería escribir en segundo plano el reporte con el plan de ejecución")
+    void should_WriteExplainPlanAsynchronously_When_QueryIsReported() throws Exception {
+        // Given
+        ListAppender<ILoggingEvent> eventos = capturar("test.consultas.lentas.plan");
+        BitacoraConsultasLentas bitacora = new BitacoraConsultasLentas(10,
+                LoggerFactory.getLogger("test.consultas.lentas.plan"));
+
+        // When
+        bitacora.reportar("SELECT * FROM animales WHERE especie = ?", new Object[]{"Perro"},
+                2, TimeUnit.MILLISECONDS.toNanos(250), dbUrl);
+
+        // Then
+        List<ILoggingEvent> escritos = esperarEventos(eventos, 1);
+        String mensaje = escritos.get(0).getFormattedMessage();
+        assertEquals("bitacora-consultas-lentas", escritos.get(0).getThreadName());
+        assertTrue(mensaje.startsWith("Consulta lenta: 250"));
+        assertTrue(mensaje.contains("parámetros: [Perro]"));
+        assertTrue(mensaje.contains("idx_animales_especie"), mensaje);
+    }
+
+    @Test
+    @DisplayName("Debería limitar los reportes escritos por minuto")
+    void should_DropReports_When_RateLimitIsExceeded() throws Exception {
+        // Given
+        ListAppender<ILoggingEvent> eventos = capturar("test.consultas.lentas.limite");
+        BitacoraConsultasLentas bitacora = new BitacoraConsultasLentas(2,
+                LoggerFactory.getLogger("test.consultas.lentas.limite"));
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            bitacora.reportar("SELECT * FROM animales", new Object[0], 3, TimeUnit.MILLISECONDS.toNanos(300), dbUrl);
+        }
+
+        // Then
+        esperarEventos(eventos, 2);
+        Thread.sleep(200);
+        assertEquals(2, eventos.list.size());
+    }
+
+    private static void contarPerros(Connection conexion) throws SQLException {
+        try (Connection conn = conexion;
+             PreparedStatement pstmt = conn.prepareStatement("SELECT id FROM animales WHERE especie = ?")) {
+            pstmt.setString(1, "Perro");
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    assertTrue(rs.getLong("id") > 0);
+                }
+            }
+        }
+    }
+
+    private static ListAppender<ILoggingEvent> capturar(String nombreLogger) {
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        ((Logger) LoggerFactory.getLogger(nombreLogger)).addAppender(appender);
+        return appender;
+    }
+
+    private static List<ILoggingEvent> esperarEventos(ListAppender<ILoggingEvent> appender, int cantidad)
+            throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (appender.list.size() < cantidad && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        assertEquals(cantidad, appender.list.size());
+        return List.copyOf(appender.list);
+    }
+}
@@ -1,18 +1,30 @@
 package com.testing.agil.repository;
 
+import com.testing.agil.model.Especie;
 import com.testing.agil.model.Mascota;
+import com.testing.agil.model.Propietario;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.Statement;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 /**
  * Tests de integración para MascotaRepositoryImpl.
@@ -657,4 +669,458 @@ class MascotaRepositoryImplIntegrationTest {
             repository.crear(invalidMascota);
         }, "No debería permitir crear mascota con datos nulos");
     }
+    @Test
+    @Order(36)
+    @DisplayName("Debería incrementar la versión al actualizar con versión vigente")
+    void should_IncrementVersion_When_UpdatingWithCurrentVersion() {
+        // Given
+        Mascota created = repository.crear(mascotaPrueba);
+        Mascota leida = repository.buscarPorId(created.getId()).orElseThrow();
+        leida.setPeso(27.0);
+        
+        // When
+        boolean updated = repository.actualizarConVersion(leida);
+        
+        // Then
+        assertTrue(updated);
+        assertEquals(1, leida.getVersion());
+        assertEquals(1, repository.buscarPorId(created.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    @Order(37)
+    @DisplayName("Debería lanzar conflicto al actualizar con versión obsoleta")
+    void should_ThrowConflict_When_UpdatingWithStaleVersion() {
+        // Given: dos terminales leen la misma versión
+        Mascota created = repository.crear(mascotaPrueba);
+        Mascota terminalA = repository.buscarPorId(created.getId()).orElseThrow();
+        Mascota terminalB = repository.buscarPorId(created.getId()).orElseThrow();
+        terminalA.setPeso(20.0);
+        terminalB.setPeso(22.0);
+        assertTrue(repository.actualizarConVersion(terminalA));
+        
+        // When & Then
+        assertThrows(ConflictoConcurrenciaException.class, () -> repository.actualizarConVersion(terminalB));
+        assertEquals(20.0, repository.buscarPorId(created.getId()).orElseThrow().getPeso());
+    }
+
+    @Test
+    @Order(38)
+    @DisplayName("Debería retornar false al actualizar con versión una mascota inexistente")
+    void should_ReturnFalse_When_UpdatingWithVersionNonExistentId() {
+        // Given
+        mascotaPrueba.setId(99999L);
+        
+        // When & Then
+        assertFalse(repository.actualizarConVersion(mascotaPrueba));
+    }
+    @Test
+    @Order(39)
+    @DisplayName("Debería eliminar y reactivar varias mascotas con una sola sentencia")
+    void should_DeactivateAndReactivateInBulk_When_IdsExist() {
+        // Given
+        Mascota primera = repository.crear(mascotaPrueba);
+        Mascota segunda = repository.crear(cachorroPrueba);
+        List<Long> ids = Arrays.asList(primera.getId(), segunda.getId(), 99999L, null);
+        
+        // When
+        int eliminadas = repository.eliminarTodas(ids);
+        int eliminadasDeNuevo = repository.eliminarTodas(ids);
+        int reactivadas = repository.reactivar(ids);
+        
+        // Then
+        assertEquals(2, eliminadas);
+        assertEquals(0, eliminadasDeNuevo);
+        assertEquals(2, reactivadas);
+        assertEquals(2, repository.contarActivas());
+    }
+
+    @Test
+    @Order(40)
+    @DisplayName("Debería eliminar todas las mascotas de un email sin distinguir mayúsculas")
+    void should_DeactivateAllPetsOfOwner_When_EmailMatches() {
+        // Given
+        repository.crear(mascotaPrueba);
+        repository.crear(cachorroPrueba);
+        
+        // When
+        int eliminadas = repository.eliminarPorEmail("JUAN@email.com");
+        
+        // Then
+        assertEquals(1, eliminadas);
+        assertEquals(1, repository.contarActivas());
+        assertEquals(1, repository.reactivarPorEmail("juan@email.com"));
+        assertEquals(1, repository.eliminarPorPropietario("ana gómez"));
+    }
+
+    @Test
+    @Order(41)
+    @DisplayName("Debería retornar 0 en operaciones masivas sin IDs")
+    void should_ReturnZero_When_BulkOperationsReceiveNoIds() {
+        assertEquals(0, repository.eliminarTodas(null));
+        assertEquals(0, repository.eliminarTodas(List.of()));
+        assertEquals(0, repository.reactivar(Collections.singletonList(null)));
+    }
+
+    @Test
+    @Order(42)
+    @DisplayName("Debería enlazar mascotas del mismo email a un único propietario")
+    void should_ShareOwner_When_PetsHaveSameEmail() {
+        // Given
+        Mascota primera = repository.crear(mascotaPrueba);
+        cachorroPrueba.setEmail("JUAN@email.com ");
+        cachorroPrueba.setPropietario("Juan Pérez");
+        Mascota segunda = repository.crear(cachorroPrueba);
+        
+        // When
+        List<Mascota> delPropietario = repository.buscarPorPropietarioId(primera.getPropietarioId());
+        
+        // Then
+        assertNotNull(primera.getPropietarioId());
+        assertEquals(primera.getPropietarioId(), segunda.getPropietarioId());
+        assertEquals(2, delPropietario.size());
+        assertEquals(primera.getPropietarioId(), delPropietario.get(0).getPropietarioId());
+    }
+
+    @Test
+    @Order(43)
+    @DisplayName("Debería cargar el propietario con sus mascotas en una sola consulta")
+    void should_LoadOwnerWithPets_When_EmailExists() {
+        // Given
+        repository.crear(mascotaPrueba);
+        cachorroPrueba.setEmail("juan@email.com");
+        repository.crear(cachorroPrueba);
+        
+        // When
+        Optional<Propietario> propietario = repository.buscarPropietarioPorEmail("Juan@Email.com");
+        
+        // Then
+        assertTrue(propietario.isPresent());
+        assertEquals("juan@email.com", propietario.get().getEmail());
+        assertEquals(List.of("Cachorro Test", "Firulais Test"),
+            propietario.get().getMascotas().stream().map(Mascota::getNombre).toList());
+        assertTrue(repository.buscarPropietarioConMascotas(propietario.get().getId()).isPresent());
+        assertTrue(repository.buscarPropietarioPorEmail("nadie@email.com").isEmpty());
+    }
+
+    @Test
+    @Order(44)
+    @DisplayName("Debería mover la mascota a otro propietario al cambiar su email")
+    void should_RelinkOwner_When_EmailChanges() {
+        // Given
+        Mascota creada = repository.crear(mascotaPrueba);
+        Long propietarioOriginal = creada.getPropietarioId();
+        
+        // When
+        creada.setEmail("nuevo@email.com");
+        repository.actualizarConVersion(creada);
+        
+        // Then
+        assertNotEquals(propietarioOriginal, creada.getPropietarioId());
+        assertTrue(repository.buscarPorEmail("juan@email.com").isEmpty());
+        assertEquals(1, repository.buscarPorEmail("nuevo@email.com").size());
+        assertTrue(repository.buscarPropietarioConMascotas(propietarioOriginal).orElseThrow().getMascotas().isEmpty());
+    }
+
+    @Test
+    @Order(45)
+    @DisplayName("Debería migrar y deduplicar propietarios de una base anterior")
+    void should_DeduplicateOwners_When_MigratingLegacyDatabase() throws Exception {
+        // Given: esquema previo sin propietario_id
+        String legacyPath = tempDir.getAbsolutePath() + "/legacy-mascotas.db";
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + legacyPath);
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE mascotas (id INTEGER PRIMARY KEY AUTOINCREMENT, nombre VARCHAR(50) NOT NULL, " +
+                "especie VARCHAR(20) NOT NULL, raza VARCHAR(50), fecha_nacimiento DATE, color VARCHAR(30), " +
+                "propietario VARCHAR(100) NOT NULL, telefono VARCHAR(20), email VARCHAR(150), peso DECIMAL(5,2), " +
+                "esterilizado BOOLEAN DEFAULT FALSE, activo BOOLEAN DEFAULT TRUE, " +
+                "fecha_creacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP, fecha_actualizacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+            stmt.execute("INSERT INTO mascotas (nombre, especie, propietario, telefono, email, peso) VALUES " +
+                "('Uno', 'Perro', 'Juan', '111', 'juan@email.com', 5), " +
+                "('Dos', 'Gato', 'Juan P.', '222', 'JUAN@email.com', 4), " +
+                "('Tres', 'Ave', 'Ana', '333', NULL, 1)");
+        }
+        
+        // When
+        MascotaRepositoryImpl migrado = new MascotaRepositoryImpl(legacyPath);
+        
+        // Then
+        Propietario juan = migrado.buscarPropietarioPorEmail("juan@email.com").orElseThrow();
+        assertEquals(2, juan.getMascotas().size());
+        assertEquals("222", juan.getTelefono());
+        List<Mascota> todas = migrado.listarTodas();
+        assertTrue(todas.stream().allMatch(m -> m.getPropietarioId() != null));
+        assertEquals(2, todas.stream().map(Mascota::getPropietarioId).distinct().count());
+    }
+
+    @Test
+    @Order(46)
+    @DisplayName("Debería compartir las instancias de especie, raza y color entre filas leídas")
+    void should_ShareLowCardinalityValues_When_MappingRows() {
+        // Given
+        repository.crear(mascotaPrueba);
+        Mascota otra = new Mascota("Toby Test", "Perro", "Golden Retriever", LocalDate.of(2019, 1, 1),
+                "Dorado", "Luis Díaz", "555-9999", "luis@email.com", 20.0);
+        repository.crear(otra);
+
+        // When
+        List<Mascota> todas = repository.listarTodas();
+
+        // Then
+        assertEquals(2, todas.size());
+        assertSame(Especie.PERRO.getNombre(), todas.get(0).getEspecie());
+        assertSame(todas.get(0).getEspecie(), todas.get(1).getEspecie());
+        assertSame(todas.get(0).getRaza(), todas.get(1).getRaza());
+        assertSame(todas.get(0).getColor(), todas.get(1).getColor());
+        assertEquals(Especie.PERRO, todas.get(1).getTipoEspecie());
+    }
+
+    @Test
+    @Order(47)
+    @DisplayName("Debería servir copias desde la caché e invalidarlas al actualizar")
+    void should_ServeCopiesAndInvalidate_When_CacheEnabled() {
+        // Given
+        repository.activarCache(100);
+        long id = repository.crear(mascotaPrueba).getId();
+        Mascota primera = repository.buscarPorId(id).orElseThrow();
+
+        // When: modificar la copia entregada no altera la caché
+        primera.setNombre("Cambiado Localmente");
+        Mascota segunda = repository.buscarPorId(id).orElseThrow();
+
+        // Then
+        assertEquals(mascotaPrueba.getNombre(), segunda.getNombre());
+        assertNotSame(primera, segunda);
+        segunda.setPeso(30.5);
+        repository.actualizar(segunda);
+        assertEquals(30.5, repository.buscarPorId(id).orElseThrow().getPeso(), 0.001);
+    }
+
+    @Test
+    @Order(48)
+    @DisplayName("Debería invalidar la caché en operaciones masivas con IDs repetidos")
+    void should_InvalidateCache_When_BulkDeletingDuplicateIds() {
+        // Given
+        repository.activarCache(100);
+        long id = repository.crear(mascotaPrueba).getId();
+        long otroId = repository.crear(cachorroPrueba).getId();
+        assertTrue(repository.buscarPorId(id).orElseThrow().isActivo());
+        assertTrue(repository.buscarPorId(otroId).orElseThrow().isActivo());
+
+        // When
+        int eliminadas = repository.eliminarTodas(Arrays.asList(id, null, id, otroId));
+
+        // Then
+        assertEquals(2, eliminadas);
+        assertFalse(repository.buscarPorId(id).orElseThrow().isActivo());
+        assertFalse(repository.buscarPorId(otroId).orElseThrow().isActivo());
+        assertEquals(2, repository.reactivar(List.of(otroId, id, otroId)));
+        assertTrue(repository.buscarPorId(id).orElseThrow().isActivo());
+    }
+
+    @Test
+    @Order(49)
+    @DisplayName("Debería buscar varias mascotas por ID combinando caché y base de datos")
+    void should_FindManyById_When_SomeAreCached() {
+        // Given
+        repository.activarCache(100);
+        long id = repository.crear(mascotaPrueba).getId();
+        long otroId = repository.crear(cachorroPrueba).getId();
+        repository.buscarPorId(id);
+
+        // When
+        Map<Long, Mascota> encontradas = repository.buscarPorIds(Arrays.asList(id, otroId, null, id, 999L));
+
+        // Then
+        assertEquals(2, encontradas.size());
+        assertEquals(mascotaPrueba.getNombre(), encontradas.get(id).getNombre());
+        assertEquals(cachorroPrueba.getNombre(), encontradas.get(otroId).getNombre());
+        assertFalse(encontradas.containsKey(999L));
+        assertTrue(repository.buscarPorIds(Collections.emptyList()).isEmpty());
+        assertTrue(repository.buscarPorIds(null).isEmpty());
+    }
+
+    @Test
+    @Order(50)
+    @DisplayName("Debería combinar criterios, orden y límite en una sola consulta")
+    void should_CombineCriteria_When_SearchingWithFilter() {
+        // Given
+        repository.crear(mascotaPrueba);
+        repository.crear(cachorroPrueba);
+        Mascota gato = repository.crear(new Mascota("Michi Test", "Gato", "Siamés", LocalDate.of(2018, 3, 1),
+                "Gris", "Juan Pérez", "555-1234", "juan@email.com", 4.0));
+        Mascota pesado = repository.crear(new Mascota("Bruno Test", "Perro", "Mastín", LocalDate.of(2015, 1, 1),
+                "Negro", "Luis Díaz", "555-9999", "luis@email.com", 60.0));
+        repository.actualizarEsterilizacion(pesado.getId(), true);
+        repository.eliminar(gato.getId());
+
+        // When
+        List<Mascota> perrosPorPeso = repository.buscar(FiltroMascotas.todas()
+                .conEspecie("PERRO").conActivo(true).conNombre("test")
+                .ordenadoPor(FiltroMascotas.Orden.PESO, true).conLimite(2));
+        List<Mascota> delPropietario = repository.buscar(FiltroMascotas.todas()
+                .conEmail("JUAN@email.com").conActivo(false));
+        List<Mascota> esterilizadosSenior = repository.buscar(FiltroMascotas.todas()
+                .conEsterilizado(true).conEdadMinima(7));
+
+        // Then
+        assertEquals(List.of("Bruno Test", "Firulais Test"), perrosPorPeso.stream().map(Mascota::getNombre).toList());
+        assertEquals(List.of(gato.getId()), delPropietario.stream().map(Mascota::getId).toList());
+        assertEquals(List.of(pesado.getId()), esterilizadosSenior.stream().map(Mascota::getId).toList());
+    }
+
+    @Test
+    @Order(51)
+    @DisplayName("Debería reutilizar el SQL compilado para filtros de la misma forma")
+    void should_ReuseCompiledSql_When_FiltersShareShape() throws Exception {
+        // Given
+        LocalDate hoy = LocalDate.now();
+        FiltroMascotas perros = FiltroMascotas.todas().conEspecie("Perro").conActivo(true);
+        FiltroMascotas gatos = FiltroMascotas.todas().conEspecie("Gato").conActivo(false);
+
+        // When
+        String sql = CompiladorFiltros.sql(perros, hoy);
+        int formas = CompiladorFiltros.getFormasCompiladas();
+
+        // Then
+        assertSame(sql, CompiladorFiltros.sql(gatos, hoy));
+        assertEquals(formas, CompiladorFiltros.getFormasCompiladas());
+        assertNotEquals(sql, CompiladorFiltros.sql(perros.conLimite(5), hoy));
+        try (Connection conn = DriverManager.getConnection(repository.getDbUrl());
+             Statement stmt = conn.createStatement();
+             ResultSet plan = stmt.executeQuery("EXPLAIN QUERY PLAN " + sql.replace("?", "'perro'"))) {
+            assertTrue(plan.next());
+            assertTrue(plan.getString("detail").contains("idx_mascotas_especie"), plan.getString("detail"));
+        }
+    }
+
+    @Test
+    @Order(52)
+    @DisplayName("Debería recorrer el índice de nombre y detenerse en el límite")
+    void should_UseNombreIndex_When_ListingTopByNombre() throws Exception {
+        // Given
+        repository.crear(mascotaPrueba);
+        repository.crear(cachorroPrueba);
+        FiltroMascotas primeras = FiltroMascotas.todas().ordenadoPor(FiltroMascotas.Orden.NOMBRE).conLimite(1);
+        String sql = CompiladorFiltros.sql(primeras, LocalDate.now());
+
+        // When
+        List<Mascota> resultado = repository.buscar(primeras);
+
+        // Then
+        assertEquals(List.of("Cachorro Test"), resultado.stream().map(Mascota::getNombre).toList());
+        try (Connection conn = DriverManager.getConnection(repository.getDbUrl());
+             Statement stmt = conn.createStatement();
+             ResultSet plan = stmt.executeQuery("EXPLAIN QUERY PLAN " + sql.replace("?", "1"))) {
+            StringBuilder detalle = new StringBuilder();
+            while (plan.next()) {
+                detalle.append(plan.getString("detail")).append('\n');
+            }
+            assertTrue(detalle.toString().contains("idx_mascotas_nombre"), detalle.toString());
+            assertFalse(detalle.toString().contains("TEMP B-TREE"), detalle.toString());
+        }
+    }
+
+    @Test
+    @Order(53)
+    @DisplayName("Debería descartar emails sin mascotas con el filtro y ampliarlo al crear")
+    void should_RejectUnknownEmails_When_FilterIsActive() {
+        // Given
+        repository.crear(mascotaPrueba);
+        repository.activarFiltroEmails();
+
+        // When
+        Mascota nueva = new Mascota("Nube", "Gato", "Persa", LocalDate.of(2021, 3, 1), "Blanco",
+                "Ana Gómez", "555-1111", "Ana@Email.com", 4.0);
+        repository.crear(nueva);
+
+        // Then
+        assertAll(
+            () -> assertFalse(repository.puedeExistirEmail("nadie@email.com")),
+            () -> assertFalse(repository.existePorEmail("nadie@email.com")),
+            () -> assertTrue(repository.existePorEmail(" JUAN@email.com ")),
+            () -> assertTrue(repository.puedeExistirEmail("ana@email.com")),
+            () -> assertTrue(repository.existePorEmail("ana@email.com"))
+        );
+    }
+
+    @Test
+    @Order(54)
+    @DisplayName("Debería deshacer el cambio del propietario cuando la actualización tiene versión obsoleta")
+    void should_KeepOwnerUnchanged_When_UpdateHasStaleVersion() {
+        // Given
+        Mascota created = repository.crear(mascotaPrueba);
+        Mascota obsoleta = repository.buscarPorId(created.getId()).orElseThrow();
+        Mascota vigente = repository.buscarPorId(created.getId()).orElseThrow();
+        vigente.setPeso(20.0);
+        assertTrue(repository.actualizarConVersion(vigente));
+        String telefonoOriginal = repository.buscarPropietarioPorEmail(created.getEmail()).orElseThrow().getTelefono();
+
+        // When
+        obsoleta.setTelefono("555-9999");
+        assertThrows(ConflictoConcurrenciaException.class, () -> repository.actualizarConVersion(obsoleta));
+
+        // Then
+        assertEquals(telefonoOriginal, repository.buscarPropietarioPorEmail(created.getEmail()).orElseThrow().getTelefono());
+    }
+
+    @Test
+    @Order(55)
+    @DisplayName("Debería eliminar por propietario según el nombre guardado en cada mascota")
+    void should_MatchPetOwnerText_When_PetsShareEmailWithDifferentOwnerNames() throws Exception {
+        // Given: tres mascotas del mismo email con distinto texto de propietario, la última en lote
+        repository.crear(mascotaPrueba);
+        cachorroPrueba.setEmail("juan@email.com");
+        cachorroPrueba.setPropietario("Juan P.");
+        repository.crear(cachorroPrueba);
+        Mascota enLote = new Mascota("Lote Test", "Gato", "Siamés", LocalDate.of(2021, 3, 1), "Blanco",
+                "J. Pérez", "555-0000", "JUAN@email.com", 4.0);
+        assertEquals(1, repository.crearEnLote(List.of(enLote)));
+
+        // When
+        List<Mascota> encontradas = repository.buscarPorPropietario("Juan Pérez");
+        int eliminadas = repository.eliminarPorPropietario("  JUAN Pérez ");
+
+        // Then: búsqueda y baja usan la misma fuente, y el lote actualiza el propietario como el alta individual
+        assertEquals(List.of("Firulais Test"), encontradas.stream().map(Mascota::getNombre).toList());
+        assertEquals(1, eliminadas);
+        assertEquals(2, repository.contarActivas());
+        Propietario propietario = repository.buscarPropietarioPorEmail("juan@email.com").orElseThrow();
+        assertEquals("J. Pérez", propietario.getNombre());
+        assertEquals("555-0000", propietario.getTelefono());
+        try (Connection conn = DriverManager.getConnection(repository.getDbUrl());
+             Statement stmt = conn.createStatement();
+             ResultSet plan = stmt.executeQuery("EXPLAIN QUERY PLAN UPDATE mascotas SET activo = FALSE "
+                     + "WHERE activo = TRUE AND LOWER(propietario) = LOWER('juan pérez')")) {
+            assertTrue(plan.next());
+            assertTrue(plan.getString("detail").contains("idx_mascotas_propietario ("), plan.getString("detail"));
+        }
+    }
+    
+    @Test
+    @Order(56)
+    @DisplayName("Debería avisar a las escuchas fila a fila en bajas por email y lotes sin ID")
+    void should_NotifyEachRow_When_BulkOperationsChangeRowsUnknownToCaller() {
+        // Given
+        repository.crear(mascotaPrueba);
+        Mascota otra = repository.crear(new Mascota("Otra Test", "Gato", "Siamés", LocalDate.of(2021, 3, 1),
+                "Blanco", "Juan Pérez", "555-1234", "juan@email.com", 4.0));
+        EscuchaCambiosMascotas escucha = mock(EscuchaCambiosMascotas.class);
+        repository.agregarEscucha(escucha);
+        
+        // When
+        int eliminadas = repository.eliminarPorEmail("JUAN@email.com");
+        repository.crearEnLote(List.of(
+                new Mascota("Lote Uno", "Perro", null, null, null, "Ana", null, "ana@email.com", 5.0),
+                new Mascota("Lote Dos", "Gato", null, null, null, "Ana", null, "ana@email.com", 3.0)));
+        
+        // Then
+        assertEquals(2, eliminadas);
+        verify(escucha).activoCambiado(mascotaPrueba.getId(), false);
+        verify(escucha).activoCambiado(otra.getId(), false);
+        verify(escucha).guardada(argThat(m -> "Lote Uno".equals(m.getNombre()) && m.getId() == otra.getId() + 1));
+        verify(escucha).guardada(argThat(m -> "Lote Dos".equals(m.getNombre()) && m.getId() == otra.getId() + 2));
+        verify(escucha, times(2)).guardada(any());
+        verify(escucha, never()).cambiosMasivos();
+    }
 }
@@ -0,0 +1,187 @@
+package com.testing.agil.repository;
+
+import com.testing.agil.model.Mascota;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de integración para MascotaRepositoryParticionado.
+ * Usa tres archivos SQLite en un directorio temporal.
+ */
+class MascotaRepositoryParticionadoIntegrationTest {
+
+    private MascotaRepositoryParticionado repository;
+
+    @TempDir
+    File tempDir;
+
+    @BeforeEach
+    void setUp() {
+        repository = new MascotaRepositoryParticionado(tempDir.getAbsolutePath(), 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    @Test
+    @DisplayName("Debería repartir mascotas entre particiones y encontrarlas por ID global")
+    void should_FindById_When_MascotasAreSpreadAcrossShards() {
+        // Given
+        List<Mascota> creadas = crearVarias(12);
+
+        // When
+        Set<Integer> particionesUsadas = creadas.stream()
+            .map(m -> (int) (m.getId() % repository.getNumeroParticiones()))
+            .collect(Collectors.toSet());
+
+        // Then
+        assertTrue(particionesUsadas.size() > 1);
+        assertEquals(12, creadas.stream().map(Mascota::getId).distinct().count());
+        for (Mascota creada : creadas) {
+            Mascota encontrada = repository.buscarPorId(creada.getId()).orElseThrow();
+            assertEquals(creada.getNombre(), encontrada.getNombre());
+            assertEquals(creada.getId(), encontrada.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Debería combinar listados de todas las particiones ordenados por nombre")
+    void should_MergeSortedByNombre_When_ListingAll() {
+        // Given
+        crearVarias(12);
+
+        // When
+        List<Mascota> todas = repository.listarTodas();
+
+        // Then
+        assertEquals(12, todas.size());
+        List<String> nombres = todas.stream().map(Mascota::getNombre).toList();
+        assertEquals(nombres.stream().sorted().toList(), nombres);
+        assertEquals(12, repository.contar());
+        assertEquals(Map.of("Perro", 6L, "Gato", 6L), repository.contarAgrupadoPorEspecie());
+    }
+
+    @Test
+    @DisplayName("Debería actualizar y eliminar usando el ID global")
+    void should_UpdateAndDelete_When_UsingGlobalId() {
+        // Given
+        List<Mascota> creadas = crearVarias(6);
+        Mascota objetivo = creadas.get(4);
+        Long idGlobal = objetivo.getId();
+
+        // When
+        objetivo.setPeso(40.0);
+        boolean actualizada = repository.actualizarConVersion(objetivo);
+        int eliminadas = repository.eliminarTodas(List.of(creadas.get(0).getId(), creadas.get(1).getId()));
+
+        // Then
+        assertTrue(actualizada);
+        assertEquals(idGlobal, objetivo.getId());
+        assertEquals(40.0, repository.buscarPorId(idGlobal).orElseThrow().getPeso());
+        assertEquals(2, eliminadas);
+        assertEquals(4, repository.contarActivas());
+    }
+
+    @Test
+    @DisplayName("Debería reportar conflicto con el ID global")
+    void should_ReportGlobalId_When_VersionConflict() {
+        // Given
+        Mascota creada = crearVarias(3).get(2);
+        Mascota copiaObsoleta = repository.buscarPorId(creada.getId()).orElseThrow();
+        repository.actualizarConVersion(creada);
+
+        // When / Then
+        ConflictoConcurrenciaException e = assertThrows(ConflictoConcurrenciaException.class,
+            () -> repository.actualizarConVersion(copiaObsoleta));
+        assertEquals(creada.getId(), e.getId());
+    }
+
+    @Test
+    @DisplayName("Debería encontrar por email en la partición correspondiente")
+    void should_FindByEmail_When_EmailIsShardKey() {
+        // Given
+        crearVarias(6);
+
+        // When / Then
+        assertTrue(repository.existePorEmail("dueno3@email.com"));
+        assertFalse(repository.existePorEmail("nadie@email.com"));
+        assertEquals(1, repository.buscarPorEmail("DUENO3@email.com").size());
+    }
+
+    @Test
+    @DisplayName("Debería fusionar un filtro ordenado con límite entre particiones")
+    void should_MergeOrderedFilterWithLimit_When_SearchingAllShards() {
+        // Given
+        crearVarias(10);
+
+        // When
+        List<Mascota> masPesados = repository.buscar(FiltroMascotas.todas().conEspecie("perro")
+            .ordenadoPor(FiltroMascotas.Orden.PESO, true).conLimite(3));
+
+        // Then
+        assertEquals(List.of(18.0, 16.0, 14.0), masPesados.stream().map(Mascota::getPeso).toList());
+    }
+
+    private List<Mascota> crearVarias(int cantidad) {
+        return IntStream.range(0, cantidad)
+            .mapToObj(i -> repository.crear(new Mascota(
+                "Mascota " + (char) ('A' + (i * 7) % cantidad), i % 2 == 0 ? "Perro" : "Gato", "Mestizo",
+                LocalDate.of(2019, 1, 1), "Negro", "Dueño " + i, "555-000" + i,
+                "dueno" + i + "@email.com", 10.0 + i)))
+            .toList();
+    }
+
+    @Test
+    @DisplayName("Debería buscar varias mascotas por ID global en todas las particiones")
+    void should_FindManyByGlobalId_When_IdsSpanShards() {
+        // Given
+        List<Mascota> creadas = crearVarias(9);
+        List<Long> ids = creadas.stream().map(Mascota::getId).collect(Collectors.toList());
+        ids.add(creadas.get(0).getId() + 1_000 * repository.getNumeroParticiones());
+
+        // When
+        Map<Long, Mascota> encontradas = repository.buscarPorIds(ids);
+
+        // Then
+        assertEquals(9, encontradas.size());
+        for (Mascota creada : creadas) {
+            assertEquals(creada.getNombre(), encontradas.get(creada.getId()).getNombre());
+            assertEquals(creada.getId(), encontradas.get(creada.getId()).getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Debería deshacer las escrituras en varias particiones junto con la transacción")
+    void should_RollbackWritesOnEveryShard_When_TransactionFails() {
+        // Given
+        List<Mascota> creadas = crearVarias(9);
+        List<Long> ids = creadas.stream().map(Mascota::getId).toList();
+        List<Mascota> lote = IntStream.range(0, 6)
+            .mapToObj(i -> new Mascota("Nueva " + i, "Perro", "Mestizo", LocalDate.of(2021, 1, 1), "Negro",
+                "Otro " + i, "555-100" + i, "otro" + i + "@email.com", 5.0))
+            .toList();
+
+        // When
+        assertThrows(IllegalStateException.class, () -> new GestorTransacciones().enTransaccion(() -> {
+            assertEquals(9, repository.eliminarTodas(ids));
+            assertEquals(6, repository.crearEnLote(lote));
+            throw new IllegalStateException("fallo simulado");
+        }));
+
+        // Then
+        assertEquals(9, repository.contar());
+        assertEquals(9, repository.contarActivas());
+    }
+}
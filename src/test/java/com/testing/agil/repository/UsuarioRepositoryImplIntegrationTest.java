@@ -9,8 +9,10 @@ import org.junit.jupiter.api.io.TempDir;
 import java.io.File;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.Statement;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -203,4 +205,153 @@ class UsuarioRepositoryImplIntegrationTest {
         // When & Then
         assertThrows(RuntimeException.class, () -> repository.crear(usuarioInvalido));
     }
+    @Test
+    @DisplayName("Debería desactivar usuario con una sola sentencia")
+    void should_DeactivateUser_When_IdExists() {
+        // Given
+        Usuario creado = repository.crear(new Usuario("Juan Pérez", "juan@email.com", 30));
+        
+        // When
+        boolean desactivado = repository.desactivar(creado.getId());
+        
+        // Then
+        Usuario recuperado = repository.buscarPorId(creado.getId()).orElseThrow();
+        assertAll(
+            () -> assertTrue(desactivado),
+            () -> assertFalse(recuperado.isActivo()),
+            () -> assertEquals(1, recuperado.getVersion()),
+            () -> assertFalse(repository.desactivar(99999L))
+        );
+    }
+    
+    @Test
+    @DisplayName("Debería detectar conflicto de versión al actualizar usuario")
+    void should_ThrowConflict_When_UpdatingUserWithStaleVersion() {
+        // Given
+        Usuario creado = repository.crear(new Usuario("Juan Pérez", "juan@email.com", 30));
+        Usuario terminalA = repository.buscarPorId(creado.getId()).orElseThrow();
+        Usuario terminalB = repository.buscarPorId(creado.getId()).orElseThrow();
+        terminalA.setEdad(31);
+        terminalB.setEdad(32);
+        
+        // When
+        boolean actualizado = repository.actualizarConVersion(terminalA);
+        
+        // Then
+        assertAll(
+            () -> assertTrue(actualizado),
+            () -> assertThrows(ConflictoConcurrenciaException.class, () -> repository.actualizarConVersion(terminalB)),
+            () -> assertEquals(31, repository.buscarPorId(creado.getId()).orElseThrow().getEdad())
+        );
+    }
+    @Test
+    @DisplayName("Debería desactivar y reactivar usuarios en bloque")
+    void should_DeactivateAndReactivateUsersInBulk_When_IdsExist() {
+        // Given
+        Usuario uno = repository.crear(new Usuario("Juan Pérez", "juan@email.com", 30));
+        Usuario dos = repository.crear(new Usuario("Ana Gómez", "ana@email.com", 25));
+        List<Long> ids = List.of(uno.getId(), dos.getId());
+        
+        // When
+        int desactivados = repository.desactivarTodos(ids);
+        List<Usuario> activosTrasDesactivar = repository.listarActivos();
+        int reactivados = repository.reactivar(ids);
+        
+        // Then
+        assertAll(
+            () -> assertEquals(2, desactivados),
+            () -> assertTrue(activosTrasDesactivar.isEmpty()),
+            () -> assertEquals(2, reactivados),
+            () -> assertEquals(2, repository.listarActivos().size())
+        );
+    }
+
+    @Test
+    @DisplayName("Debería buscar varios usuarios por ID en una sola llamada")
+    void should_FindManyById_When_IdsExist() {
+        // Given
+        Usuario uno = repository.crear(new Usuario("Juan Pérez", "juan@email.com", 30));
+        Usuario dos = repository.crear(new Usuario("Ana Gómez", "ana@email.com", 25));
+        
+        // When
+        Map<Long, Usuario> encontrados = repository.buscarPorIds(List.of(uno.getId(), dos.getId(), uno.getId(), 999L));
+        
+        // Then
+        assertAll(
+            () -> assertEquals(2, encontrados.size()),
+            () -> assertEquals("juan@email.com", encontrados.get(uno.getId()).getEmail()),
+            () -> assertEquals("ana@email.com", encontrados.get(dos.getId()).getEmail()),
+            () -> assertTrue(repository.buscarPorIds(List.of()).isEmpty())
+        );
+    }
+
+    @Test
+    @DisplayName("Debería responder con el filtro de emails sin perder los creados o cambiados")
+    void should_KeepFilterInSync_When_UsersAreWritten() {
+        // Given
+        Usuario juan = repository.crear(new Usuario("Juan Pérez", "juan@email.com", 30));
+        repository.activarFiltroEmails();
+        
+        // When
+        repository.crear(new Usuario("Ana Gómez", "ana@email.com", 25));
+        juan.setEmail("juanp@email.com");
+        repository.actualizar(juan);
+        
+        // Then
+        assertAll(
+            () -> assertTrue(repository.existePorEmail("ana@email.com")),
+            () -> assertTrue(repository.existePorEmail("juanp@email.com")),
+            () -> assertFalse(repository.existePorEmail("juan@email.com")),
+            () -> assertFalse(repository.existePorEmail("noexiste@email.com"))
+        );
+    }
+
+    @Test
+    @DisplayName("Debería buscar por email normalizado y rechazar duplicados que solo cambian mayúsculas")
+    void should_LookupByNormalizedEmail_When_CaseOrSpacesDiffer() {
+        // Given
+        Usuario juan = repository.crear(new Usuario("Juan Pérez", "Juan@Email.com", 30));
+        
+        // When
+        Optional<Usuario> encontrado = repository.buscarPorEmail("  juan@EMAIL.com ");
+        
+        // Then
+        assertAll(
+            () -> assertEquals(juan.getId(), encontrado.orElseThrow().getId()),
+            () -> assertTrue(repository.existePorEmail("JUAN@email.com")),
+            () -> assertThrows(RuntimeException.class,
+                () -> repository.crear(new Usuario("Juan Duplicado", "juan@email.com", 40)))
+        );
+    }
+
+    @Test
+    @DisplayName("Debería normalizar los emails de una base anterior al abrirla")
+    void should_BackfillNormalizedEmails_When_OpeningLegacyDatabase() throws Exception {
+        // Given: esquema sin email_normalizado y emails sin normalizar
+        String dbPath = tempDir.getAbsolutePath() + "/legado.db";
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE usuarios (id INTEGER PRIMARY KEY AUTOINCREMENT, nombre VARCHAR(100) NOT NULL, " +
+                         "email VARCHAR(150) UNIQUE NOT NULL, edad INTEGER NOT NULL, activo BOOLEAN DEFAULT TRUE, " +
+                         "fecha_creacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                         "fecha_actualizacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+            stmt.execute("INSERT INTO usuarios (nombre, email, edad) VALUES " +
+                         "('Juan Pérez', 'Juan.Perez@Email.com', 30), ('Ana Gómez', 'ana@email.com', 25), " +
+                         "('Juan Copia', ' juan.perez@email.com', 31)");
+        }
+        
+        // When
+        UsuarioRepositoryImpl legado = new UsuarioRepositoryImpl(dbPath);
+        
+        // Then: la fila más antigua se queda con el email; la duplicada no se puede buscar
+        assertEquals("Juan Pérez", legado.buscarPorEmail("juan.perez@email.com").orElseThrow().getNombre());
+        assertTrue(legado.existePorEmail("ANA@email.com"));
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+             Statement stmt = conn.createStatement();
+             ResultSet plan = stmt.executeQuery(
+                 "EXPLAIN QUERY PLAN SELECT * FROM usuarios WHERE email_normalizado = 'ana@email.com'")) {
+            assertTrue(plan.next());
+            assertTrue(plan.getString("detail").contains("idx_usuarios_email_normalizado"), plan.getString("detail"));
+        }
+    }
 }
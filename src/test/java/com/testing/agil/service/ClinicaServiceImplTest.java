@@ -0,0 +1,97 @@
+package com.testing.agil.service;
+
+import com.testing.agil.model.Mascota;
+import com.testing.agil.model.Usuario;
+import com.testing.agil.repository.GestorTransacciones;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests del Servicio de Clínica")
+class ClinicaServiceImplTest {
+
+    @Mock
+    private UsuarioService usuarioService;
+
+    @Mock
+    private MascotaService mascotaService;
+
+    private ClinicaServiceImpl service;
+    private Usuario usuario;
+    private Mascota mascota;
+
+    @BeforeEach
+    void setUp() {
+        service = new ClinicaServiceImpl(usuarioService, mascotaService, new GestorTransacciones());
+        usuario = new Usuario(5L, "Ana Gómez", "ana@email.com", 34, true);
+        mascota = new Mascota("Toby", "Perro", "Beagle", LocalDate.of(2021, 3, 1),
+            "Tricolor", null, "555-0000", null, 12.0);
+    }
+
+    @Test
+    @DisplayName("Debería registrar el usuario y asignarle sus mascotas")
+    void should_RegisterOwnerAndPets_When_DataIsValid() {
+        // Given
+        when(usuarioService.crearUsuario(usuario)).thenReturn(usuario);
+
+        // When
+        Usuario result = service.registrarPropietarioConMascotas(usuario, List.of(mascota));
+
+        // Then
+        assertEquals(5L, result.getId());
+        assertEquals("Ana Gómez", mascota.getPropietario());
+        assertEquals("ana@email.com", mascota.getEmail());
+        verify(mascotaService).registrarMascota(mascota);
+    }
+
+    @Test
+    @DisplayName("Debería propagar el error cuando una mascota es inválida")
+    void should_PropagateException_When_PetIsInvalid() {
+        // Given
+        when(usuarioService.crearUsuario(usuario)).thenReturn(usuario);
+        when(mascotaService.registrarMascota(any(Mascota.class)))
+            .thenThrow(new IllegalArgumentException("Nombre inválido"));
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+            () -> service.registrarPropietarioConMascotas(usuario, List.of(mascota)));
+        assertFalse(GestorTransacciones.hayTransaccionActiva());
+    }
+
+    @Test
+    @DisplayName("Debería dar de baja al usuario y en cascada a sus mascotas")
+    void should_CascadeDeactivation_When_OwnerIsRemoved() {
+        // Given
+        when(usuarioService.buscarUsuarioPorId(5L)).thenReturn(Optional.of(usuario));
+        when(usuarioService.eliminarUsuario(5L)).thenReturn(true);
+        when(mascotaService.eliminarMascotasDePropietario("ana@email.com")).thenReturn(3);
+
+        // When
+        int result = service.darDeBajaPropietario(5L);
+
+        // Then
+        assertEquals(3, result);
+        verify(usuarioService).eliminarUsuario(5L);
+    }
+
+    @Test
+    @DisplayName("Debería lanzar excepción al dar de baja un usuario inexistente")
+    void should_ThrowException_When_OwnerDoesNotExist() {
+        when(usuarioService.buscarUsuarioPorId(9L)).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> service.darDeBajaPropietario(9L));
+        verifyNoInteractions(mascotaService);
+    }
+}
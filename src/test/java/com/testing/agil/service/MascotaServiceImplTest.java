@@ -1,11 +1,15 @@
 package com.testing.agil.service;
 
 import com.testing.agil.model.Mascota;
+import com.testing.agil.model.Propietario;
+import com.testing.agil.repository.ConflictoConcurrenciaException;
+import com.testing.agil.repository.FiltroMascotas;
 import com.testing.agil.repository.MascotaRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -14,6 +18,7 @@ import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -159,24 +164,34 @@ class MascotaServiceImplTest {
     @Test
     @DisplayName("Debería actualizar mascota existente")
     void should_UpdateMascota_When_Exists() {
-        when(repository.buscarPorId(1L)).thenReturn(Optional.of(mascotaCompleta));
-        when(repository.actualizar(any(Mascota.class))).thenReturn(mascotaCompleta);
+        when(repository.actualizarConVersion(any(Mascota.class))).thenReturn(true);
         
         Mascota result = service.actualizarMascota(mascotaCompleta);
         
         assertNotNull(result);
-        verify(repository).actualizar(any(Mascota.class));
+        verify(repository, never()).buscarPorId(any());
+        verify(repository).actualizarConVersion(any(Mascota.class));
     }
 
     @Test
     @DisplayName("Debería lanzar excepción al actualizar inexistente")
     void should_ThrowException_When_UpdatingNonExistent() {
-        when(repository.buscarPorId(1L)).thenReturn(Optional.empty());
+        when(repository.actualizarConVersion(any(Mascota.class))).thenReturn(false);
         assertThrows(IllegalArgumentException.class, () -> {
             service.actualizarMascota(mascotaCompleta);
         });
     }
 
+    @Test
+    @DisplayName("Debería propagar conflicto al actualizar mascota modificada concurrentemente")
+    void should_PropagateConflict_When_MascotaWasModifiedConcurrently() {
+        when(repository.actualizarConVersion(any(Mascota.class)))
+            .thenThrow(new ConflictoConcurrenciaException("mascotas", 1L, 0));
+        assertThrows(ConflictoConcurrenciaException.class, () -> {
+            service.actualizarMascota(mascotaCompleta);
+        });
+    }
+
     @Test
     @DisplayName("Debería lanzar excepción al actualizar null")
     void should_ThrowException_When_UpdatingNull() {
@@ -239,6 +254,48 @@ class MascotaServiceImplTest {
         assertEquals(1, result.size());
     }
 
+    @Test
+    @DisplayName("Debería pedir al repositorio solo las primeras mascotas por nombre")
+    void should_PushLimitToRepository_When_SearchingTopByNombre() {
+        // Given
+        ArgumentCaptor<FiltroMascotas> filtro = ArgumentCaptor.forClass(FiltroMascotas.class);
+        when(repository.buscar(filtro.capture())).thenReturn(List.of(mascotaCompleta));
+
+        // When
+        List<Mascota> result = service.buscarPorNombre(" Lu ", 20);
+
+        // Then
+        assertEquals(1, result.size());
+        assertEquals("Lu", filtro.getValue().getNombre());
+        assertEquals(FiltroMascotas.Orden.NOMBRE, filtro.getValue().getOrden());
+        assertEquals(20, filtro.getValue().getLimite());
+        assertTrue(service.buscarPorNombre(" ", 20).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> service.buscarPorNombre("Luna", 0));
+    }
+
+    @Test
+    @DisplayName("Debería limitar cachorros y senior conservando sus criterios")
+    void should_KeepCriteria_When_ListingTopPuppiesAndSeniors() {
+        // Given
+        ArgumentCaptor<FiltroMascotas> filtro = ArgumentCaptor.forClass(FiltroMascotas.class);
+        when(repository.buscar(filtro.capture())).thenReturn(Collections.emptyList());
+
+        // When
+        service.listarCachorros(5);
+        service.listarSenior(10);
+        service.listarTodas(3);
+
+        // Then
+        List<FiltroMascotas> filtros = filtro.getAllValues();
+        assertEquals(0, filtros.get(0).getEdadMaxima());
+        assertEquals(5, filtros.get(0).getLimite());
+        assertEquals(FiltroMascotas.EDAD_SENIOR, filtros.get(1).getEdadMinima());
+        assertEquals(Boolean.TRUE, filtros.get(1).getActivo());
+        assertNull(filtros.get(2).getActivo());
+        assertEquals(3, filtros.get(2).getLimite());
+        verify(repository, never()).listarTodas();
+    }
+
     @Test
     @DisplayName("Debería retornar lista vacía cuando no hay nombre")
     void should_ReturnEmpty_When_NoNombre() {
@@ -249,4 +306,50 @@ class MascotaServiceImplTest {
         assertNotNull(result);
         assertTrue(result.isEmpty());
     }
+    // TESTS DE OPERACIONES MASIVAS
+    @Test
+    @DisplayName("Debería eliminar en bloque descartando IDs inválidos")
+    void should_DeleteInBulk_When_IdsProvided() {
+        when(repository.eliminarTodas(List.of(1L, 2L))).thenReturn(2);
+
+        int result = service.eliminarMascotas(Arrays.asList(1L, null, -3L, 2L));
+
+        assertEquals(2, result);
+        verify(repository).eliminarTodas(List.of(1L, 2L));
+    }
+
+    @Test
+    @DisplayName("Debería retornar 0 sin consultar el repositorio cuando no hay IDs")
+    void should_ReturnZero_When_NoIdsToDelete() {
+        assertEquals(0, service.eliminarMascotas(Collections.emptyList()));
+        assertEquals(0, service.eliminarMascotasDePropietario(" "));
+        verifyNoInteractions(repository);
+    }
+
+    // TESTS DE ESTADÍSTICAS
+    @Test
+    @DisplayName("Debería obtener estadísticas por especie agregadas en el repositorio")
+    void should_ReturnStatsFromRepository_When_StatsRequested() {
+        when(repository.contarAgrupadoPorEspecie()).thenReturn(Map.of("Perro", 3L, "Gato", 1L));
+
+        Map<String, Long> result = service.obtenerEstadisticasPorEspecie();
+
+        assertEquals(3L, result.get("Perro"));
+        assertEquals(1L, result.get("Gato"));
+        verify(repository, never()).listarTodas();
+    }
+
+    @Test
+    @DisplayName("Debería obtener el propietario con sus mascotas por email")
+    void should_ReturnOwnerWithPets_When_EmailProvided() {
+        Propietario propietario = new Propietario(7L, "Juan Pérez", "555-1234", "juan@test.com");
+        propietario.getMascotas().add(mascotaCompleta);
+        when(repository.buscarPropietarioPorEmail("juan@test.com")).thenReturn(Optional.of(propietario));
+
+        Optional<Propietario> result = service.obtenerPropietarioConMascotas("  juan@test.com ");
+
+        assertTrue(result.isPresent());
+        assertEquals(1, result.get().getMascotas().size());
+        assertTrue(service.obtenerPropietarioConMascotas(" ").isEmpty());
+    }
 }
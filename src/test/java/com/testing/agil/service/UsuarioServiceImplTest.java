@@ -1,6 +1,7 @@
 package com.testing.agil.service;
 
 import com.testing.agil.model.Usuario;
+import com.testing.agil.repository.ConflictoConcurrenciaException;
 import com.testing.agil.repository.UsuarioRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -219,12 +220,10 @@ class UsuarioServiceImplTest {
     void should_UpdateUser_When_ValidDataProvided() {
         // Given
         Long id = 1L;
-        Usuario usuarioExistente = new Usuario(id, "Juan Viejo", "juan.viejo@email.com", 30, true);
         Usuario usuarioActualizado = new Usuario("Juan Nuevo", "juan.nuevo@email.com", 31);
         
-        when(usuarioRepository.buscarPorId(id)).thenReturn(Optional.of(usuarioExistente));
         when(usuarioRepository.buscarPorEmail("juan.nuevo@email.com")).thenReturn(Optional.empty());
-        when(usuarioRepository.actualizar(any(Usuario.class))).thenReturn(usuarioActualizado);
+        when(usuarioRepository.actualizarConVersion(any(Usuario.class))).thenReturn(true);
         
         // When
         Usuario resultado = usuarioService.actualizarUsuario(id, usuarioActualizado);
@@ -233,19 +232,44 @@ class UsuarioServiceImplTest {
         assertAll(
             () -> assertNotNull(resultado),
             () -> assertEquals(id, usuarioActualizado.getId()),
-            () -> verify(usuarioRepository).buscarPorId(id),
-            () -> verify(usuarioRepository).actualizar(usuarioActualizado)
+            () -> verify(usuarioRepository, never()).buscarPorId(any()),
+            () -> verify(usuarioRepository).actualizarConVersion(usuarioActualizado)
         );
     }
     
+    @Test
+    @DisplayName("Debería lanzar excepción al actualizar usuario inexistente")
+    void should_ThrowException_When_UpdatingNonExistentUser() {
+        // Given
+        Usuario usuarioActualizado = new Usuario("Juan Nuevo", "juan.nuevo@email.com", 31);
+        when(usuarioRepository.buscarPorEmail("juan.nuevo@email.com")).thenReturn(Optional.empty());
+        when(usuarioRepository.actualizarConVersion(any(Usuario.class))).thenReturn(false);
+        
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+            () -> usuarioService.actualizarUsuario(99L, usuarioActualizado));
+    }
+    
+    @Test
+    @DisplayName("Debería propagar conflicto cuando otro proceso modificó el usuario")
+    void should_PropagateConflict_When_VersionDoesNotMatch() {
+        // Given
+        Usuario usuarioActualizado = new Usuario("Juan Nuevo", "juan.nuevo@email.com", 31);
+        when(usuarioRepository.buscarPorEmail("juan.nuevo@email.com")).thenReturn(Optional.empty());
+        when(usuarioRepository.actualizarConVersion(any(Usuario.class)))
+            .thenThrow(new ConflictoConcurrenciaException("usuarios", 1L, 0));
+        
+        // When & Then
+        assertThrows(ConflictoConcurrenciaException.class,
+            () -> usuarioService.actualizarUsuario(1L, usuarioActualizado));
+    }
+    
     @Test
     @DisplayName("Debería eliminar usuario lógicamente")
     void should_DeactivateUser_When_LogicalDelete() {
         // Given
         Long id = 1L;
-        Usuario usuario = new Usuario(id, "Juan", "juan@email.com", 30, true);
-        when(usuarioRepository.buscarPorId(id)).thenReturn(Optional.of(usuario));
-        when(usuarioRepository.actualizar(any(Usuario.class))).thenReturn(usuario);
+        when(usuarioRepository.desactivar(id)).thenReturn(true);
         
         // When
         boolean resultado = usuarioService.eliminarUsuario(id);
@@ -253,9 +277,8 @@ class UsuarioServiceImplTest {
         // Then
         assertAll(
             () -> assertTrue(resultado),
-            () -> assertFalse(usuario.isActivo()),
-            () -> verify(usuarioRepository).buscarPorId(id),
-            () -> verify(usuarioRepository).actualizar(usuario)
+            () -> verify(usuarioRepository, never()).buscarPorId(any()),
+            () -> verify(usuarioRepository).desactivar(id)
         );
     }
     
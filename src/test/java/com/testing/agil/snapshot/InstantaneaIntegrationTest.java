@@ -0,0 +1,197 @@
+package com.testing.agil.snapshot;
+
+import com.testing.agil.model.Mascota;
+import com.testing.agil.model.Usuario;
+import com.testing.agil.repository.ArchivadorMascotas;
+import com.testing.agil.repository.GestorTransacciones;
+import com.testing.agil.repository.MascotaRepositoryImpl;
+import com.testing.agil.repository.UsuarioRepositoryImpl;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de integración para la exportación e importación de instantáneas.
+ */
+class InstantaneaIntegrationTest {
+
+    private MascotaRepositoryImpl mascotasOrigen;
+    private UsuarioRepositoryImpl usuariosOrigen;
+    private MascotaRepositoryImpl mascotasDestino;
+    private UsuarioRepositoryImpl usuariosDestino;
+    private Path archivo;
+
+    @TempDir
+    File tempDir;
+
+    @BeforeEach
+    void setUp() {
+        mascotasOrigen = new MascotaRepositoryImpl(tempDir.getAbsolutePath() + "/origen.db");
+        usuariosOrigen = new UsuarioRepositoryImpl(tempDir.getAbsolutePath() + "/origen.db");
+        mascotasDestino = new MascotaRepositoryImpl(tempDir.getAbsolutePath() + "/destino.db");
+        usuariosDestino = new UsuarioRepositoryImpl(tempDir.getAbsolutePath() + "/destino.db");
+        archivo = tempDir.toPath().resolve("datos.gmsn");
+    }
+
+    @Test
+    @DisplayName("Debería reproducir mascotas y usuarios con nulos, acentos y versiones")
+    void should_RoundTripAllFields_When_ExportingAndImporting() throws Exception {
+        // Given
+        Mascota toby = mascotasOrigen.crear(new Mascota("Toby Ñandú", "Perro", "Labrador", LocalDate.of(2020, 3, 15),
+                "Marrón", "José Pérez", "555-1234", "jose@email.com", 25.5));
+        toby.setEsterilizado(true);
+        toby = mascotasOrigen.actualizar(toby);
+        Mascota sinDatos = mascotasOrigen.crear(new Mascota("Michi", "Gato", null, null,
+                null, "Ana", null, null, 4.0));
+        mascotasOrigen.eliminar(sinDatos.getId());
+        Usuario ana = usuariosOrigen.crear(new Usuario("Ana Gómez", "ana@email.com", 34));
+        usuariosOrigen.crear(new Usuario("Ramón Ñúñez", "ramon@email.com", 61));
+        usuariosOrigen.desactivar(ana.getId());
+
+        // When
+        ResumenInstantanea exportado = new ExportadorInstantanea(mascotasOrigen, usuariosOrigen).exportar(archivo);
+        ResumenInstantanea importado = importador().importar(archivo);
+
+        // Then
+        assertEquals(2, exportado.getMascotas());
+        assertEquals(2, exportado.getUsuarios());
+        assertEquals(Files.size(archivo), exportado.getBytes());
+        assertEquals(exportado.getBytes(), importado.getBytes());
+        assertEquals(2, importado.getMascotas());
+
+        Mascota copiaToby = mascotasDestino.buscarPorId(toby.getId()).orElseThrow();
+        assertEquals("Toby Ñandú", copiaToby.getNombre());
+        assertEquals("Marrón", copiaToby.getColor());
+        assertEquals(LocalDate.of(2020, 3, 15), copiaToby.getFechaNacimiento());
+        assertEquals(25.5, copiaToby.getPeso());
+        assertTrue(copiaToby.isEsterilizado());
+        assertEquals(toby.getVersion(), copiaToby.getVersion());
+        assertNotNull(copiaToby.getPropietarioId());
+
+        Mascota copiaMichi = mascotasDestino.buscarPorId(sinDatos.getId()).orElseThrow();
+        assertNull(copiaMichi.getRaza());
+        assertNull(copiaMichi.getFechaNacimiento());
+        assertNull(copiaMichi.getEmail());
+        assertFalse(copiaMichi.isActivo());
+
+        assertFalse(usuariosDestino.buscarPorId(ana.getId()).orElseThrow().isActivo());
+        assertEquals("Ramón Ñúñez", usuariosDestino.buscarPorEmail("ramon@email.com").orElseThrow().getNombre());
+    }
+
+    @Test
+    @DisplayName("Debería manejar varios bloques y seguir asignando IDs tras importar")
+    void should_HandleSeveralBlocks_When_DatasetIsLarge() {
+        // Given
+        int total = FormatoInstantanea.FILAS_POR_BLOQUE * 2 + 7;
+        List<Mascota> lote = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            lote.add(new Mascota("Mascota " + i, i % 2 == 0 ? "Perro" : "Gato", "Raza " + (i % 5),
+                    LocalDate.of(2015, 1, 1).plusDays(i % 3000), "Negro", "Dueño " + (i % 100),
+                    "555-0000", "dueno" + (i % 100) + "@email.com", 1 + i % 40));
+        }
+        mascotasOrigen.crearEnLote(lote);
+
+        // When
+        new ExportadorInstantanea(mascotasOrigen, usuariosOrigen).exportar(archivo);
+        ResumenInstantanea importado = importador().importar(archivo);
+        boolean mismasEspecies = mascotasOrigen.contarAgrupadoPorEspecie()
+                .equals(mascotasDestino.contarAgrupadoPorEspecie());
+        Mascota nueva = mascotasDestino.crear(new Mascota("Nueva", "Perro", "Beagle", LocalDate.of(2022, 1, 1),
+                "Blanco", "Dueño 1", "555-0000", "dueno1@email.com", 10.0));
+
+        // Then
+        assertEquals(total, importado.getMascotas());
+        assertEquals(total + 1, mascotasDestino.contar());
+        assertEquals(total + 1L, nueva.getId());
+        assertEquals("Mascota " + (total - 1), mascotasDestino.buscarPorId((long) total).orElseThrow().getNombre());
+        assertTrue(mismasEspecies);
+    }
+
+    @Test
+    @DisplayName("Debería conservar las mascotas archivadas y las marcas de tiempo de cada fila")
+    void should_KeepArchivedPetsAndTimestamps_When_ExportingAndImporting() throws Exception {
+        // Given
+        Mascota viva = mascotasOrigen.crear(new Mascota("Toby", "Perro", "Labrador", LocalDate.of(2020, 3, 15),
+                "Marrón", "Juan", "555-1234", "juan@email.com", 25.5));
+        Mascota baja = mascotasOrigen.crear(new Mascota("Michi", "Gato", null, null,
+                null, "Ana", null, "ana@email.com", 4.0));
+        mascotasOrigen.eliminar(baja.getId());
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + tempDir.getAbsolutePath() + "/origen.db");
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("UPDATE mascotas SET fecha_creacion = '2019-05-01 08:30:00', " +
+                               "fecha_actualizacion = '2020-01-02 03:04:05'");
+        }
+        try (ArchivadorMascotas archivador = new ArchivadorMascotas(mascotasOrigen, Duration.ofDays(30), 100)) {
+            assertEquals(1, archivador.archivar());
+        }
+        List<Mascota> archivadasOrigen = new ArrayList<>();
+        mascotasOrigen.recorrerArchivadas(archivadasOrigen::add);
+
+        // When
+        ResumenInstantanea exportado = new ExportadorInstantanea(mascotasOrigen, usuariosOrigen).exportar(archivo);
+        ResumenInstantanea importado = importador().importar(archivo);
+
+        // Then
+        assertEquals(1, exportado.getArchivadas());
+        assertEquals(1, importado.getArchivadas());
+        Mascota copiaViva = mascotasDestino.buscarPorId(viva.getId()).orElseThrow();
+        assertEquals(LocalDateTime.of(2019, 5, 1, 8, 30), copiaViva.getFechaCreacion());
+        assertEquals(LocalDateTime.of(2020, 1, 2, 3, 4, 5), copiaViva.getFechaActualizacion());
+
+        assertTrue(mascotasDestino.buscarPorId(baja.getId()).isEmpty());
+        Mascota copiaBaja = mascotasDestino.buscarPorId(baja.getId(), true).orElseThrow();
+        assertEquals("Michi", copiaBaja.getNombre());
+        assertNotNull(copiaBaja.getPropietarioId());
+        assertEquals(LocalDateTime.of(2020, 1, 2, 3, 4, 5), copiaBaja.getFechaActualizacion());
+
+        List<Mascota> archivadasDestino = new ArrayList<>();
+        mascotasDestino.recorrerArchivadas(archivadasDestino::add);
+        assertEquals(1, archivadasDestino.size());
+        assertEquals(archivadasOrigen.get(0).getFechaArchivado(), archivadasDestino.get(0).getFechaArchivado());
+    }
+
+    @Test
+    @DisplayName("Debería rechazar archivos que no son instantáneas")
+    void should_Reject_When_FileIsNotASnapshot() throws Exception {
+        // Given
+        Files.writeString(archivo, "id,nombre\n1,Toby\n");
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> importador().importar(archivo));
+    }
+
+    @Test
+    @DisplayName("Debería deshacer la importación cuando el archivo está truncado")
+    void should_RollbackImport_When_FileIsTruncated() throws Exception {
+        // Given
+        mascotasOrigen.crear(new Mascota("Toby", "Perro", "Labrador", LocalDate.of(2020, 3, 15),
+                "Marrón", "Juan", "555-1234", "juan@email.com", 25.5));
+        usuariosOrigen.crear(new Usuario("Ana Gómez", "ana@email.com", 34));
+        new ExportadorInstantanea(mascotasOrigen, usuariosOrigen).exportar(archivo);
+        byte[] completo = Files.readAllBytes(archivo);
+        Files.write(archivo, Arrays.copyOf(completo, completo.length - 4));
+
+        // When & Then
+        assertThrows(RuntimeException.class, () -> importador().importar(archivo));
+        assertEquals(0, mascotasDestino.contar());
+        assertEquals(0, usuariosDestino.contar());
+    }
+
+    private ImportadorInstantanea importador() {
+        return new ImportadorInstantanea(mascotasDestino, usuariosDestino, new GestorTransacciones());
+    }
+}